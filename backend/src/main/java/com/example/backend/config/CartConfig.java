@@ -0,0 +1,37 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "cart")
+public class CartConfig {
+    // Số giỏ hàng tối đa giữ trong bộ nhớ; giỏ bị đẩy ra được ghi xuống DB trước khi bỏ
+    @Positive(message = "Cart cache size must be positive")
+    private long maximumSize = 50_000;
+
+    @NotNull(message = "Cart idle timeout must be configured")
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    @Positive(message = "Max lines per cart must be positive")
+    private int maxLines = 100;
+
+    @Positive(message = "Max quantity per line must be positive")
+    private int maxQuantityPerLine = 99;
+
+    @Positive(message = "Price cache size must be positive")
+    private long priceCacheMaximumSize = 100_000;
+
+    @NotNull(message = "Price cache TTL must be configured")
+    private Duration priceCacheTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,25 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "catalog.cache")
+public class CatalogCacheConfig {
+    @Positive(message = "Catalog cache size must be positive")
+    private long maximumSize = 10000;
+
+    // Chỉ là giới hạn an toàn, cache đã bị xóa ngay khi sản phẩm/biến thể thay đổi
+    @NotNull(message = "Catalog cache TTL must be configured")
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,28 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "catalog-import")
+public class CatalogImportConfig {
+    // Thư mục lưu file tải lên trước khi xử lý, cần còn nguyên qua lần khởi động lại để chạy tiếp được
+    @NotBlank(message = "Import spool directory must be configured")
+    private String spoolDir = System.getProperty("java.io.tmpdir") + "/glowmart-imports";
+
+    // Số dòng mỗi chunk; mỗi chunk là một transaction và một loạt lệnh JDBC batch
+    @Positive(message = "Import chunk size must be positive")
+    private int chunkSize = 1000;
+
+    // Quá số này thì chỉ đếm lỗi, không lưu chi tiết từng dòng
+    @Positive(message = "Max recorded import errors must be positive")
+    private int maxRecordedErrors = 10000;
+}
@@ -0,0 +1,39 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "checkout")
+public class CheckoutConfig {
+    @NotNull(message = "Shipping fee must be configured")
+    @PositiveOrZero(message = "Shipping fee must not be negative")
+    private BigDecimal shippingFee = BigDecimal.valueOf(30_000);
+
+    // Đơn từ mức này (sau giảm giá) được miễn phí vận chuyển
+    @NotNull(message = "Free shipping threshold must be configured")
+    @PositiveOrZero(message = "Free shipping threshold must not be negative")
+    private BigDecimal freeShippingThreshold = BigDecimal.valueOf(500_000);
+
+    // Đơn PENDING giữ quá lâu thế này coi như lần checkout đã chết giữa chừng; phải dài hơn mọi lần
+    // checkout bình thường để không tiếp quản đơn còn đang chạy, và ngắn hơn inventory.reservation.ttl
+    @NotNull(message = "Claim timeout must be configured")
+    private Duration claimTimeout = Duration.ofMinutes(5);
+
+    @Min(value = 1, message = "Stale sweep batch size must be at least 1")
+    @Max(value = 1000, message = "Stale sweep batch size must be at most 1000")
+    private int staleSweepBatchSize = 100;
+}
@@ -0,0 +1,19 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "coupon")
+public class CouponConfig {
+    // Số lần tối đa một người dùng được dùng cùng một mã (so với UserDiscount.usedCount)
+    @Positive(message = "Per-user coupon limit must be positive")
+    private int perUserLimit = 1;
+}
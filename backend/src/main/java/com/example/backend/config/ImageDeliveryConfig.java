@@ -0,0 +1,61 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "image")
+public class ImageDeliveryConfig {
+    // Gốc URL biến đổi ảnh kiểu Cloudinary: {baseUrl}/w_{width},f_{format},q_{quality}/{publicId}.
+    // Mặc định trỏ về endpoint thumbnail nội bộ; production đặt thành URL upload của CDN
+    @NotBlank(message = "Image base URL must be configured")
+    private String baseUrl = "/api/v1/catalog/images";
+
+    // Các độ rộng sinh ra trong srcset, cũng là các độ rộng duy nhất endpoint nội bộ chịu sinh
+    @NotEmpty(message = "Image widths must not be empty")
+    private List<@Positive Integer> widths = List.of(160, 320, 640, 1024);
+
+    // Định dạng đầu tiên là mặc định cho src; endpoint nội bộ chỉ sinh được định dạng ImageIO ghi được
+    @NotEmpty(message = "Image formats must not be empty")
+    private List<@NotBlank String> formats = List.of("jpg");
+
+    @Positive(message = "Default image width must be positive")
+    private int defaultWidth = 320;
+
+    @Min(value = 1, message = "Image quality must be between 1 and 100")
+    @Max(value = 100, message = "Image quality must be between 1 and 100")
+    private int quality = 80;
+
+    // URL chỉ phụ thuộc publicId và cấu hình nên cache không cần xóa, chỉ cần giới hạn kích thước
+    @Positive(message = "Image URL cache size must be positive")
+    private long urlCacheSize = 50000;
+
+    // Ảnh gốc của bản thay thế CDN nội bộ: {originDir}/{publicId}.jpg|.jpeg|.png
+    @NotBlank(message = "Image origin directory must be configured")
+    private String originDir = System.getProperty("java.io.tmpdir") + "/glowmart-images/origin";
+
+    @NotBlank(message = "Thumbnail cache directory must be configured")
+    private String thumbnailDir = System.getProperty("java.io.tmpdir") + "/glowmart-images/thumbnails";
+
+    @Positive(message = "Thumbnail ETag cache size must be positive")
+    private long etagCacheSize = 10000;
+
+    // Thumbnail được sinh lại tại cùng URL khi ảnh gốc đổi, nên chỉ cache ngắn rồi hỏi lại bằng ETag
+    @NotNull(message = "Thumbnail max age must be configured")
+    private Duration thumbnailMaxAge = Duration.ofHours(1);
+}
@@ -0,0 +1,29 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "inventory.reservation")
+public class InventoryReservationConfig {
+    // Thời gian giữ hàng khi chưa xác nhận đơn, hết hạn thì tự trả lại tồn kho
+    @NotNull(message = "Reservation TTL must be configured")
+    private Duration ttl = Duration.ofMinutes(15);
+
+    @Positive(message = "Sweep batch size must be positive")
+    private int sweepBatchSize = 500;
+
+    // Số lần đọc lại danh sách lô khi update có điều kiện bị giao dịch khác tranh mất
+    @Positive(message = "Max allocation attempts must be positive")
+    private int maxAllocationAttempts = 3;
+}
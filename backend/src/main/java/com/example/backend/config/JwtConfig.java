@@ -22,5 +22,8 @@ public class JwtConfig {
 
     @Positive(message = "Refresh token expiration must be positive")
     private long refreshTokenExpirationMs = 604800000; // 7 days
+
+    @Positive(message = "Verified token cache size must be positive")
+    private long verifiedTokenCacheSize = 10000;
 }
 
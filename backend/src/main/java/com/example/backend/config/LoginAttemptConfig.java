@@ -0,0 +1,37 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "security.login-attempts")
+public class LoginAttemptConfig {
+    // Số lần sai liên tiếp trong cửa sổ trước khi khóa tài khoản
+    @Positive(message = "Max failed attempts must be positive")
+    private int maxFailedAttempts = 5;
+
+    @NotNull(message = "Lock duration must be configured")
+    private Duration lockDuration = Duration.ofMinutes(5);
+
+    // Lần sai cũ hơn cửa sổ này không còn được tính
+    @NotNull(message = "Attempt window must be configured")
+    private Duration window = Duration.ofMinutes(15);
+
+    // Một IP sai quá số lần này trong cửa sổ thì bị chặn trước khi kiểm tra mật khẩu (credential stuffing)
+    @Positive(message = "Max failures per IP must be positive")
+    private int maxFailuresPerIp = 50;
+
+    // Giới hạn số khóa (tài khoản + IP) giữ trong bộ nhớ khi bị dò hàng loạt
+    @Positive(message = "Tracked key count must be positive")
+    private long maximumTrackedKeys = 100000;
+}
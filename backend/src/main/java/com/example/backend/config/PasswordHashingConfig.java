@@ -0,0 +1,34 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "security.password-hashing")
+public class PasswordHashingConfig {
+    @Min(value = 4, message = "BCrypt strength must be between 4 and 31")
+    @Max(value = 31, message = "BCrypt strength must be between 4 and 31")
+    private int bcryptStrength = 12;
+
+    @Positive(message = "Hashing threads must be positive")
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    // Số yêu cầu hash được phép chờ; vượt quá thì trả 503 thay vì giữ thread Tomcat
+    @Positive(message = "Hashing queue capacity must be positive")
+    private int queueCapacity = 64;
+
+    @NotNull(message = "Hashing timeout must be configured")
+    private Duration timeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,40 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "persistence.stats")
+public class PersistenceStatsConfig {
+    // Câu lệnh chạy lâu hơn ngưỡng này được coi là chậm và có thể được ghi log
+    @NotNull(message = "Slow query threshold must be configured")
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+    // Tỉ lệ câu lệnh chậm được ghi log (1.0 = tất cả), tránh làm ngập log khi DB đang quá tải
+    @DecimalMin(value = "0.0", message = "Slow query sample rate must be between 0 and 1")
+    @DecimalMax(value = "1.0", message = "Slow query sample rate must be between 0 and 1")
+    private double slowQuerySampleRate = 1.0;
+
+    @PositiveOrZero(message = "Slow query log limit must not be negative")
+    private int slowQueryMaxLogsPerSecond = 20;
+
+    // Request chạy nhiều câu lệnh hơn ngưỡng này bị cảnh báo (thường là dấu hiệu N+1)
+    @Positive(message = "Request statement warn threshold must be positive")
+    private int requestStatementWarnThreshold = 50;
+
+    @Positive(message = "Tracked endpoint count must be positive")
+    private int maxTrackedEndpoints = 500;
+}
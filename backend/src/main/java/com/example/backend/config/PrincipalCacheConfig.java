@@ -0,0 +1,25 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "security.principal-cache")
+public class PrincipalCacheConfig {
+    @Positive(message = "Principal cache size must be positive")
+    private long maximumSize = 10000;
+
+    // Phải ngắn hơn thời gian sống của access token (jwt.access-token-expiration-ms)
+    @NotNull(message = "Principal cache TTL must be configured")
+    private Duration ttl = Duration.ofMinutes(5);
+}
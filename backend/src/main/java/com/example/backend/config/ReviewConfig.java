@@ -0,0 +1,17 @@
+package com.example.backend.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "review")
+public class ReviewConfig {
+    // Bỏ qua bước kiểm duyệt: đánh giá mới được tính vào tổng hợp ngay khi tạo
+    private boolean autoAccept = false;
+}
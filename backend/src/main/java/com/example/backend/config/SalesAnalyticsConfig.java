@@ -0,0 +1,31 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "sales-analytics")
+public class SalesAnalyticsConfig {
+    // Múi giờ dùng để cắt ngày doanh số
+    @NotBlank
+    private String zoneId = "Asia/Ho_Chi_Minh";
+    // Số đơn mỗi lượt truy vấn khi tính lại rollup
+    @Min(1)
+    @Max(5000)
+    private int rebuildChunkSize = 500;
+    // Khoảng ngày tối đa cho một lần tính lại hoặc một truy vấn báo cáo
+    @Min(1)
+    private int maxRangeDays = 400;
+    // Số đơn vừa xác nhận chờ cộng vào rollup; đầy thì đơn mới bị bỏ qua, tính lại bằng rebuild
+    @Min(1)
+    private int recordQueueCapacity = 10_000;
+}
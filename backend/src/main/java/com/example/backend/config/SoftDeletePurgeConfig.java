@@ -0,0 +1,38 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "soft-delete.purge")
+public class SoftDeletePurgeConfig {
+    // Dòng đã xóa mềm lâu hơn khoảng này mới bị xóa hẳn
+    @NotNull(message = "Soft delete retention must be configured")
+    private Duration retention = Duration.ofDays(30);
+
+    // Mỗi chunk chạy trong một transaction riêng để giữ lock ngắn trên bảng nóng
+    @Positive(message = "Purge batch size must be positive")
+    private int batchSize = 500;
+
+    @Positive(message = "Max purge batches per table must be positive")
+    private int maxBatchesPerRun = 200;
+
+    // Thứ tự xóa: bảng con trước bảng cha. Dòng còn bị khóa ngoại tham chiếu sẽ được giữ lại
+    @NotNull(message = "Purge tables must be configured")
+    private List<@Pattern(regexp = "[A-Za-z_][A-Za-z0-9_]*", message = "Invalid table name") String> tables =
+            new ArrayList<>(List.of("cart_items", "wish_lists", "reviews", "user_discounts", "discounts",
+                    "inventories", "variants", "products", "users"));
+}
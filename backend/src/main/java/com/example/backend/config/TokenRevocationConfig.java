@@ -0,0 +1,35 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "jwt.revocation")
+public class TokenRevocationConfig {
+    // Độ rộng mỗi bucket theo thời điểm hết hạn của token; bucket bị bỏ khi mọi token trong đó hết hạn
+    @NotNull(message = "Revocation bucket width must be configured")
+    private Duration bucketWidth = Duration.ofHours(1);
+
+    @Positive(message = "Expected revocations per bucket must be positive")
+    private int expectedPerBucket = 10000;
+
+    @DecimalMin(value = "0.0001", message = "False positive rate must be between 0.0001 and 0.5")
+    @DecimalMax(value = "0.5", message = "False positive rate must be between 0.0001 and 0.5")
+    private double falsePositiveRate = 0.01;
+
+    // Kết quả xác nhận với DB cho các lần Bloom filter báo dương tính
+    @Positive(message = "Confirmed revocation cache size must be positive")
+    private long confirmedCacheSize = 10000;
+}
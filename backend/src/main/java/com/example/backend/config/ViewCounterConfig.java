@@ -0,0 +1,26 @@
+package com.example.backend.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "catalog.view-counter")
+public class ViewCounterConfig {
+    @Positive(message = "Flush batch size must be positive")
+    private int flushBatchSize = 500;
+
+    @Positive(message = "Trending limit must be positive")
+    @Max(value = 100, message = "Trending limit must not exceed 100")
+    private int maxTrendingLimit = 50;
+
+    @Positive(message = "Max tracked variants must be positive")
+    private int maxTrackedVariants = 100_000;
+}
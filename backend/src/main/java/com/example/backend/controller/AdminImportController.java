@@ -0,0 +1,42 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.ImportJobResponse;
+import com.example.backend.dto.ImportRowErrorResponse;
+import com.example.backend.service.CatalogImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/admin/imports")
+public class AdminImportController {
+    private final CatalogImportService catalogImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> submit(@RequestParam("file") MultipartFile file) {
+        return ResponseEntity.accepted().body(catalogImportService.submit(file));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobResponse> status(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(catalogImportService.status(jobId));
+    }
+
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<List<ImportRowErrorResponse>> errors(@PathVariable UUID jobId,
+                                                               @RequestParam(defaultValue = "0") long afterLine,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(catalogImportService.errors(jobId, afterLine, limit));
+    }
+
+    @PostMapping("/{jobId}/resume")
+    public ResponseEntity<ImportJobResponse> resume(@PathVariable UUID jobId) {
+        return ResponseEntity.accepted().body(catalogImportService.resume(jobId));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.backend.controller;
+
+import com.example.backend.service.ReviewService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/admin/reviews")
+public class AdminReviewController {
+    private final ReviewService reviewService;
+
+    @PostMapping("/{reviewId}/accept")
+    public ResponseEntity<Map<String, Boolean>> accept(@PathVariable UUID reviewId) {
+        return ResponseEntity.ok(Map.of("changed", reviewService.accept(reviewId)));
+    }
+
+    @DeleteMapping("/{reviewId}")
+    public ResponseEntity<Void> delete(@PathVariable UUID reviewId) {
+        reviewService.delete(reviewId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/summaries/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildSummaries() {
+        return ResponseEntity.ok(Map.of("products", reviewService.rebuildSummaries()));
+    }
+}
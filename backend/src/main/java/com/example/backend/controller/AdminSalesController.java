@@ -0,0 +1,60 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.DailySalesResponse;
+import com.example.backend.dto.DimensionSalesResponse;
+import com.example.backend.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Báo cáo doanh số: chỉ đọc các bảng rollup
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/admin/sales")
+public class AdminSalesController {
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailySalesResponse>> daily(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.daily(from, to));
+    }
+
+    @GetMapping("/brands")
+    public ResponseEntity<List<DimensionSalesResponse>> brands(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + SalesRollupService.DEFAULT_TOP_LIMIT) int limit) {
+        return ResponseEntity.ok(salesRollupService.byBrand(from, to, limit));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<DimensionSalesResponse>> categories(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + SalesRollupService.DEFAULT_TOP_LIMIT) int limit) {
+        return ResponseEntity.ok(salesRollupService.byCategory(from, to, limit));
+    }
+
+    @GetMapping("/skus")
+    public ResponseEntity<List<DimensionSalesResponse>> skus(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "" + SalesRollupService.DEFAULT_TOP_LIMIT) int limit) {
+        return ResponseEntity.ok(salesRollupService.bySku(from, to, limit));
+    }
+
+    // Đối soát: tính lại rollup của khoảng ngày từ orders, nên chạy ngoài giờ cao điểm
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(Map.of("orders", salesRollupService.rebuild(from, to)));
+    }
+}
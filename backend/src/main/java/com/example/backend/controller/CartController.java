@@ -0,0 +1,48 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.CartItemRequest;
+import com.example.backend.dto.CartResponse;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.service.CartService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/cart")
+public class CartController {
+    private final CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<CartResponse> get(@AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(cartService.getCart(user.getId()));
+    }
+
+    @PostMapping("/items")
+    public ResponseEntity<CartResponse> add(@Valid @RequestBody CartItemRequest request,
+                                            @AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(cartService.addItem(user.getId(), request.getVariantId(), request.getQuantity()));
+    }
+
+    @PutMapping("/items")
+    public ResponseEntity<CartResponse> setQuantity(@Valid @RequestBody CartItemRequest request,
+                                                    @AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(cartService.setQuantity(user.getId(), request.getVariantId(), request.getQuantity()));
+    }
+
+    @DeleteMapping("/items/{variantId}")
+    public ResponseEntity<CartResponse> remove(@PathVariable UUID variantId,
+                                               @AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(cartService.removeItem(user.getId(), variantId));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<CartResponse> clear(@AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(cartService.clear(user.getId()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.CatalogPageResponse;
+import com.example.backend.dto.CatalogQuery;
+import com.example.backend.dto.ProductSearchRequest;
+import com.example.backend.dto.ProductSearchResponse;
+import com.example.backend.dto.TrendingVariantResponse;
+import com.example.backend.enums.CatalogSort;
+import com.example.backend.enums.ProductStatus;
+import com.example.backend.service.CatalogService;
+import com.example.backend.service.ProductSearchService;
+import com.example.backend.service.VariantViewCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/catalog")
+public class CatalogController {
+    private final CatalogService catalogService;
+    private final ProductSearchService productSearchService;
+    private final VariantViewCounter variantViewCounter;
+
+    @GetMapping("/variants")
+    public ResponseEntity<CatalogPageResponse> list(
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID brandId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) ProductStatus status,
+            @RequestParam(defaultValue = "NEWEST") CatalogSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CatalogService.DEFAULT_PAGE_SIZE) int limit) {
+        CatalogQuery query = new CatalogQuery(categoryId, brandId, minPrice, maxPrice, status, sort, cursor, limit);
+        return ResponseEntity.ok(catalogService.findPage(query));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResponse> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) UUID brandId,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) String size,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productSearchService.search(
+                new ProductSearchRequest(q, brandId, categoryId, color, size, limit)));
+    }
+
+    @PostMapping("/variants/{variantId}/views")
+    public ResponseEntity<Void> recordView(@PathVariable UUID variantId) {
+        if (!variantViewCounter.record(variantId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingVariantResponse>> trending(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(variantViewCounter.trending(limit));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.CheckoutRequest;
+import com.example.backend.dto.CheckoutResponse;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.service.CheckoutService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/checkout")
+public class CheckoutController {
+    private final CheckoutService checkoutService;
+
+    @PostMapping
+    public ResponseEntity<CheckoutResponse> checkout(@RequestHeader("Idempotency-Key") String idempotencyKey,
+                                                     @Valid @RequestBody CheckoutRequest request,
+                                                     @AuthenticationPrincipal UserDetailsImpl user) {
+        CheckoutResponse response = checkoutService.checkout(user.getId(), idempotencyKey, request);
+        return ResponseEntity.status(response.replayed() ? HttpStatus.OK : HttpStatus.CREATED).body(response);
+    }
+}
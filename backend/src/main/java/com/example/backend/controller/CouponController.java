@@ -0,0 +1,25 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.CouponRedemption;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.service.CouponRedemptionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/coupons")
+public class CouponController {
+    private final CouponRedemptionService couponRedemptionService;
+
+    @GetMapping("/{code}")
+    public ResponseEntity<CouponRedemption> check(@PathVariable String code,
+                                                  @RequestParam BigDecimal orderTotal,
+                                                  @AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(couponRedemptionService.check(code, user.getId(), orderTotal));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.backend.controller;
+
+import com.example.backend.config.ImageDeliveryConfig;
+import com.example.backend.dto.ImageResponse;
+import com.example.backend.service.ImageService;
+import com.example.backend.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/catalog")
+public class ImageController {
+    // Thuộc tính request của Tomcat: connector tự gửi file bằng sendfile sau khi servlet trả về
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ImageService imageService;
+    private final ThumbnailService thumbnailService;
+    private final ImageDeliveryConfig config;
+
+    @GetMapping("/products/{productId}/images")
+    public ResponseEntity<List<ImageResponse>> images(@PathVariable UUID productId) {
+        return ResponseEntity.ok(imageService.imagesForProduct(productId));
+    }
+
+    // Ảnh gốc đổi thì thumbnail được sinh lại ở cùng URL: không dùng immutable, client/proxy cache trong
+    // image.thumbnail-max-age rồi hỏi lại bằng If-None-Match và nhận 304 nếu ETag chưa đổi
+    @GetMapping("/images/{transformation}/{*publicId}")
+    public void thumbnail(@PathVariable String transformation,
+                          @PathVariable String publicId,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        Optional<ThumbnailService.Thumbnail> found =
+                thumbnailService.resolve(transformation, publicId.startsWith("/") ? publicId.substring(1) : publicId);
+        if (found.isEmpty()) {
+            // Không dùng sendError: trang lỗi đi qua /error, không thuộc đường dẫn public
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ThumbnailService.Thumbnail thumbnail = found.get();
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(config.getThumbnailMaxAge()).cachePublic().getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(thumbnail.etag())) {
+            return;
+        }
+        response.setContentType(thumbnail.contentType());
+        response.setContentLengthLong(thumbnail.size());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, thumbnail.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, thumbnail.size());
+            return;
+        }
+        // Connector không hỗ trợ sendfile: transferTo sang Channels.newChannel(OutputStream) vẫn chép qua một
+        // buffer trung gian, chỉ tránh nạp cả file vào bộ nhớ
+        try (FileChannel channel = FileChannel.open(thumbnail.path(), StandardOpenOption.READ)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < thumbnail.size()) {
+                position += channel.transferTo(position, thumbnail.size() - position, output);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.OrderPageResponse;
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.enums.OrderStatus;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/orders")
+public class OrderController {
+    private final OrderService orderService;
+
+    @GetMapping
+    public ResponseEntity<OrderPageResponse> history(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int limit,
+            @AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(orderService.history(user.getId(), status, cursor, limit));
+    }
+
+    @GetMapping("/{orderId}")
+    public ResponseEntity<OrderResponse> get(@PathVariable UUID orderId,
+                                             @AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(orderService.get(user.getId(), orderId));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.ProductRatingSummaryResponse;
+import com.example.backend.dto.ReviewPageResponse;
+import com.example.backend.dto.ReviewRequest;
+import com.example.backend.dto.ReviewResponse;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.service.ReviewService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1")
+public class ReviewController {
+    private final ReviewService reviewService;
+
+    @GetMapping("/catalog/products/{productId}/reviews")
+    public ResponseEntity<ReviewPageResponse> list(
+            @PathVariable UUID productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ReviewService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(reviewService.listForProduct(productId, cursor, limit));
+    }
+
+    @GetMapping("/catalog/products/{productId}/rating")
+    public ResponseEntity<ProductRatingSummaryResponse> rating(@PathVariable UUID productId) {
+        return ResponseEntity.ok(reviewService.summary(productId));
+    }
+
+    // Điểm đánh giá cho cả một trang sản phẩm trong một request
+    @GetMapping("/catalog/ratings")
+    public ResponseEntity<List<ProductRatingSummaryResponse>> ratings(@RequestParam List<UUID> productIds) {
+        if (productIds.size() > ReviewService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Tối đa " + ReviewService.MAX_PAGE_SIZE + " sản phẩm mỗi lần");
+        }
+        return ResponseEntity.ok(reviewService.summaries(productIds));
+    }
+
+    @PostMapping("/reviews")
+    public ResponseEntity<ReviewResponse> create(@Valid @RequestBody ReviewRequest request,
+                                                 @AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reviewService.create(user.getId(), request));
+    }
+
+    @DeleteMapping("/reviews/{reviewId}")
+    public ResponseEntity<Void> delete(@PathVariable UUID reviewId,
+                                       @AuthenticationPrincipal UserDetailsImpl user) {
+        reviewService.deleteOwn(user.getId(), reviewId);
+        return ResponseEntity.noContent().build();
+    }
+}
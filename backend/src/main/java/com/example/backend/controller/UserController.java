@@ -0,0 +1,33 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.UserProfileResponse;
+import com.example.backend.entity.User;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.UserDetailsImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/v1/users")
+public class UserController {
+    private final UserRepository userRepository;
+
+    @GetMapping("/me")
+    public ResponseEntity<UserProfileResponse> me(@AuthenticationPrincipal UserDetailsImpl principal) {
+        User user = userRepository.findWithRoleById(principal.getId())
+                .orElseThrow(() -> new IllegalStateException("Người dùng không tồn tại"));
+        return ResponseEntity.ok(new UserProfileResponse(
+                user.getId(),
+                user.getFullName(),
+                user.getEmail(),
+                user.getPhoneNumber(),
+                user.getGender() != null ? user.getGender().name() : null,
+                user.getBirthDate(),
+                user.getRole().getName()));
+    }
+}
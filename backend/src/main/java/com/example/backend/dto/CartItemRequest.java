@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class CartItemRequest {
+    @NotNull(message = "Variant id must not be null")
+    private UUID variantId;
+
+    @Min(value = 0, message = "Quantity must not be negative")
+    private int quantity;
+}
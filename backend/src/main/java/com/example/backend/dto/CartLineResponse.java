@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CartLineResponse(
+        UUID variantId,
+        String sku,
+        String productName,
+        String color,
+        String size,
+        int quantity,
+        BigDecimal originalPrice,
+        BigDecimal unitPrice,
+        BigDecimal lineTotal,
+        boolean available
+) {
+}
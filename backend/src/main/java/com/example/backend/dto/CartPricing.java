@@ -0,0 +1,12 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+// subtotal tính theo basePrice, discount là tổng giảm của các luật tự động, total = subtotal - discount.
+// orderDiscount là phần giảm trên cả đơn của luật toàn cửa hàng giảm thẳng orderDiscountId, đã nằm trong
+// discount nhưng không nằm trong giá của dòng nào
+public record CartPricing(List<PricedLine> lines, BigDecimal subtotal, BigDecimal discount,
+                          BigDecimal orderDiscount, UUID orderDiscountId, BigDecimal total) {
+}
@@ -0,0 +1,7 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CartResponse(List<CartLineResponse> items, int totalQuantity, BigDecimal subtotal) {
+}
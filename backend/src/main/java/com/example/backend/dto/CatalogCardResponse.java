@@ -0,0 +1,43 @@
+package com.example.backend.dto;
+
+import com.example.backend.enums.ProductStatus;
+import com.example.backend.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record CatalogCardResponse(
+        UUID variantId,
+        String sku,
+        UUID productId,
+        String productName,
+        UUID brandId,
+        String brandName,
+        UUID categoryId,
+        String categoryName,
+        String color,
+        String size,
+        BigDecimal price,
+        BigDecimal discountPercent,
+        ProductStatus status,
+        BigDecimal quantityValue,
+        UnitOfMeasure unitOfMeasure,
+        Instant createdAt,
+        ImageResponse image
+) {
+    // Dùng bởi projection JPQL; ảnh được gắn sau bằng một truy vấn cho cả trang
+    public CatalogCardResponse(UUID variantId, String sku, UUID productId, String productName, UUID brandId,
+                               String brandName, UUID categoryId, String categoryName, String color, String size,
+                               BigDecimal price, BigDecimal discountPercent, ProductStatus status,
+                               BigDecimal quantityValue, UnitOfMeasure unitOfMeasure, Instant createdAt) {
+        this(variantId, sku, productId, productName, brandId, brandName, categoryId, categoryName, color, size, price,
+                discountPercent, status, quantityValue, unitOfMeasure, createdAt, null);
+    }
+
+    public CatalogCardResponse withImage(ImageResponse image) {
+        return new CatalogCardResponse(variantId, sku, productId, productName, brandId, brandName, categoryId,
+                categoryName, color, size, price, discountPercent, status, quantityValue, unitOfMeasure, createdAt,
+                image);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+// Vị trí keyset: id của thẻ cuối trang, kèm giá khi sắp xếp theo giá hoặc thời điểm tạo khi xem mới nhất
+public record CatalogCursor(BigDecimal price, Instant createdAt, UUID id) {
+}
@@ -0,0 +1,22 @@
+package com.example.backend.dto;
+
+import com.example.backend.enums.CatalogSort;
+import com.example.backend.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Điều kiện lọc một trang catalog; là record nên dùng luôn làm key cache.
+ */
+public record CatalogQuery(
+        UUID categoryId,
+        UUID brandId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        ProductStatus status,
+        CatalogSort sort,
+        String cursor,
+        int limit
+) {
+}
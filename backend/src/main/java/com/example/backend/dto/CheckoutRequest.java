@@ -0,0 +1,26 @@
+package com.example.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class CheckoutRequest {
+    @NotBlank(message = "Receiver name must not be blank")
+    private String nameReceiver;
+
+    @NotBlank(message = "Phone number must not be blank")
+    @Size(max = 15, message = "Phone number must not exceed 15 characters")
+    private String phone;
+
+    @NotBlank(message = "Address must not be blank")
+    private String orderAddress;
+
+    private String notes;
+
+    private String couponCode;
+
+    private UUID paymentMethodId;
+}
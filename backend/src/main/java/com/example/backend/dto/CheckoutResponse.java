@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import com.example.backend.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// replayed = true khi trả lại kết quả của lần gọi trước với cùng Idempotency-Key
+public record CheckoutResponse(
+        UUID orderId,
+        OrderStatus status,
+        BigDecimal subtotal,
+        BigDecimal discountAmount,
+        BigDecimal shippingFee,
+        BigDecimal total,
+        boolean replayed
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record CouponRedemption(
+        UUID discountId,
+        String code,
+        int discountPercent,
+        BigDecimal discountValue
+) {
+}
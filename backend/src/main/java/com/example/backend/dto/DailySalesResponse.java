@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySalesResponse(
+        LocalDate date,
+        long orderCount,
+        long units,
+        BigDecimal grossRevenue,
+        BigDecimal discountAmount,
+        BigDecimal netRevenue,
+        BigDecimal shippingFee,
+        BigDecimal cost,
+        BigDecimal margin
+) {
+}
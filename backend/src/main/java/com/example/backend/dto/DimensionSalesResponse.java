@@ -0,0 +1,20 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Doanh số gom theo thương hiệu, danh mục hoặc SKU; revenue tính trước mã giảm giá cấp đơn
+public record DimensionSalesResponse(
+        UUID id,
+        String name,
+        long units,
+        BigDecimal revenue,
+        BigDecimal cost,
+        BigDecimal margin
+) {
+    // Dùng cho projection JPQL
+    public DimensionSalesResponse(UUID id, String name, Long units, BigDecimal revenue, BigDecimal cost) {
+        this(id, name, units != null ? units : 0, revenue, cost,
+                revenue != null && cost != null ? revenue.subtract(cost) : null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record DiscountRuleSnapshot(
+        UUID id,
+        UUID variantId,
+        UUID productId,
+        UUID categoryId,
+        int discountPercent,
+        BigDecimal discountValue,
+        BigDecimal minimumOrder,
+        BigDecimal maximumOrder,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.backend.dto;
+
+import java.util.Map;
+import java.util.UUID;
+
+public record ImageResponse(
+        UUID id,
+        UUID variantId,
+        String position,
+        String src,
+        Map<String, String> srcset
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.backend.dto;
+
+import java.util.UUID;
+
+public record ImageSnapshot(
+        UUID id,
+        UUID productId,
+        UUID variantId,
+        String url,
+        String publicId,
+        String position
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.backend.dto;
+
+import java.util.Map;
+
+/**
+ * Các URL responsive của một ảnh: src ở độ rộng/định dạng mặc định và srcset theo từng định dạng
+ * (dùng cho {@code <picture><source type=...>}), ví dụ {@code "jpg" -> "…/w_160,f_jpg,q_80/abc 160w, …"}.
+ */
+public record ImageUrls(String src, Map<String, String> srcset) {
+}
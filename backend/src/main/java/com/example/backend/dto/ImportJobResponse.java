@@ -0,0 +1,26 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.ImportJob;
+import com.example.backend.enums.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ImportJobResponse(
+        UUID id,
+        String fileName,
+        ImportJobStatus status,
+        long processedRows,
+        long createdRows,
+        long updatedRows,
+        long errorRows,
+        Instant startedAt,
+        Instant finishedAt,
+        String errorMessage
+) {
+    public static ImportJobResponse from(ImportJob job) {
+        return new ImportJobResponse(job.getId(), job.getFileName(), job.getStatus(), job.getProcessedRows(),
+                job.getCreatedRows(), job.getUpdatedRows(), job.getErrorRows(), job.getStartedAt(),
+                job.getFinishedAt(), job.getErrorMessage());
+    }
+}
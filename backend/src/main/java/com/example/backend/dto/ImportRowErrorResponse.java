@@ -0,0 +1,4 @@
+package com.example.backend.dto;
+
+public record ImportRowErrorResponse(long lineNumber, String sku, String message) {
+}
@@ -0,0 +1,6 @@
+package com.example.backend.dto;
+
+import java.util.UUID;
+
+public record InventoryBatchAvailability(UUID inventoryId, int available) {
+}
@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Vị trí keyset: thời điểm đặt và id của đơn cuối trang
+public record OrderCursor(Instant bookingDate, UUID id) {
+}
@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record OrderItemResponse(
+        UUID orderId,
+        UUID variantId,
+        UUID productId,
+        String productName,
+        String sku,
+        String color,
+        String size,
+        int quantity,
+        BigDecimal unitPrice
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record OrderLine(UUID variantId, UUID productId, int quantity, BigDecimal unitPrice) {
+}
@@ -0,0 +1,36 @@
+package com.example.backend.dto;
+
+import com.example.backend.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record OrderResponse(
+        UUID id,
+        OrderStatus status,
+        Instant bookingDate,
+        Instant deliveryDate,
+        String nameReceiver,
+        String phone,
+        String orderAddress,
+        BigDecimal subtotal,
+        BigDecimal discountAmount,
+        BigDecimal shippingFee,
+        BigDecimal total,
+        List<OrderItemResponse> items
+) {
+    // Dùng cho projection JPQL: các dòng chi tiết được gắn sau bằng một truy vấn cho cả trang
+    public OrderResponse(UUID id, OrderStatus status, Instant bookingDate, Instant deliveryDate,
+                         String nameReceiver, String phone, String orderAddress, BigDecimal subtotal,
+                         BigDecimal discountAmount, BigDecimal shippingFee, BigDecimal total) {
+        this(id, status, bookingDate, deliveryDate, nameReceiver, phone, orderAddress, subtotal, discountAmount,
+                shippingFee, total, List.of());
+    }
+
+    public OrderResponse withItems(List<OrderItemResponse> items) {
+        return new OrderResponse(id, status, bookingDate, deliveryDate, nameReceiver, phone, orderAddress,
+                subtotal, discountAmount, shippingFee, total, items);
+    }
+}
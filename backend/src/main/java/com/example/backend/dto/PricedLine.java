@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Một dòng giỏ hàng đã tính giá. basePrice là giá sau phần trăm giảm của biến thể/sản phẩm,
+ * unitPrice là giá cuối sau luật giảm giá tự động discountId (null nếu không có luật nào áp dụng).
+ */
+public record PricedLine(
+        UUID variantId,
+        int quantity,
+        BigDecimal listPrice,
+        BigDecimal basePrice,
+        BigDecimal unitPrice,
+        BigDecimal lineTotal,
+        UUID discountId
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+// starCounts[i] là số đánh giá (i + 1) sao
+public record ProductRatingSummaryResponse(
+        UUID productId,
+        long reviewCount,
+        BigDecimal averageRating,
+        List<Long> starCounts
+) {
+}
@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record ProductSearchHit(
+        UUID variantId,
+        UUID productId,
+        String productName,
+        String sku,
+        String brandName,
+        String categoryName,
+        String color,
+        String size,
+        BigDecimal price,
+        int score
+) {
+}
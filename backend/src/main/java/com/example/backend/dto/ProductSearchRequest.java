@@ -0,0 +1,13 @@
+package com.example.backend.dto;
+
+import java.util.UUID;
+
+public record ProductSearchRequest(
+        String q,
+        UUID brandId,
+        UUID categoryId,
+        String color,
+        String size,
+        int limit
+) {
+}
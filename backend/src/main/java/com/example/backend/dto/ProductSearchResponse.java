@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kết quả tìm kiếm kèm số đếm facet (brand, category, color, size).
+ * indexReady = false khi chỉ mục đang được dựng lần đầu sau khi khởi động.
+ */
+public record ProductSearchResponse(
+        List<ProductSearchHit> hits,
+        int total,
+        Map<String, Map<String, Integer>> facets,
+        boolean indexReady
+) {
+}
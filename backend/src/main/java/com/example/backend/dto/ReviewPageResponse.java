@@ -0,0 +1,6 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public record ReviewPageResponse(List<ReviewResponse> items, String nextCursor) {
+}
@@ -0,0 +1,22 @@
+package com.example.backend.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class ReviewRequest {
+    @NotNull(message = "Product id must not be null")
+    private UUID productId;
+
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
+    private int rating;
+
+    @Size(max = 2000, message = "Review content must be at most 2000 characters")
+    private String content;
+}
@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ReviewResponse(
+        UUID id,
+        UUID userId,
+        String userFullName,
+        int rating,
+        String content,
+        Instant dateOfReview,
+        String reply,
+        Instant dateReply
+) {
+}
@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Giá nhập của các lô đã trừ kho cho một biến thể trong một lần giữ hàng
+public record SalesCostFact(String reservationKey, UUID variantId, BigDecimal cost) {
+}
@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record SalesLineFact(
+        UUID orderId,
+        UUID variantId,
+        UUID productId,
+        UUID brandId,
+        UUID categoryId,
+        int quantity,
+        BigDecimal unitPrice
+) {
+}
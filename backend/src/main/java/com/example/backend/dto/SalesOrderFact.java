@@ -0,0 +1,14 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record SalesOrderFact(
+        UUID orderId,
+        Instant bookingDate,
+        BigDecimal subtotal,
+        BigDecimal discountAmount,
+        BigDecimal shippingFee
+) {
+}
@@ -0,0 +1,24 @@
+package com.example.backend.dto;
+
+import com.example.backend.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Dữ liệu của một biến thể dùng để dựng chỉ mục tìm kiếm
+public record SearchDocument(
+        UUID variantId,
+        UUID productId,
+        String productName,
+        String description,
+        String sku,
+        String color,
+        String size,
+        UUID brandId,
+        String brandName,
+        UUID categoryId,
+        String categoryName,
+        BigDecimal price,
+        ProductStatus status
+) {
+}
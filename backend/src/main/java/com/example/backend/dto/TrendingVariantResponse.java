@@ -0,0 +1,12 @@
+package com.example.backend.dto;
+
+import java.util.UUID;
+
+public record TrendingVariantResponse(
+        UUID variantId,
+        String sku,
+        String productName,
+        long recentViews,
+        long totalViews
+) {
+}
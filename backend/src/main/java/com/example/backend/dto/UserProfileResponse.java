@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record UserProfileResponse(
+        UUID id,
+        String fullName,
+        String email,
+        String phoneNumber,
+        String gender,
+        LocalDate birthDate,
+        String role
+) {
+}
@@ -0,0 +1,21 @@
+package com.example.backend.dto;
+
+import com.example.backend.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record VariantPriceSnapshot(
+        UUID variantId,
+        UUID productId,
+        UUID categoryId,
+        String sku,
+        String productName,
+        String color,
+        String size,
+        BigDecimal price,
+        BigDecimal discountPercent,
+        BigDecimal productDiscountPercent,
+        ProductStatus status
+) {
+}
@@ -4,19 +4,28 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @MappedSuperclass
+@FilterDef(name = BaseEntity.SOFT_DELETE_FILTER, defaultCondition = "is_deleted = false", autoEnabled = true)
+@Filter(name = BaseEntity.SOFT_DELETE_FILTER)
 @NoArgsConstructor
 @Getter
 @Setter
 public abstract class BaseEntity {
+    // Bật sẵn cho mọi session: truy vấn HQL/Criteria và collection bỏ qua dòng đã xóa mềm.
+    // Tải theo khóa (find, proxy của @ManyToOne) không bị lọc nên lịch sử vẫn trỏ được tới dòng đã xóa.
+    // Tắt bằng session.disableFilter(SOFT_DELETE_FILTER) khi cần thấy cả dòng đã xóa (khôi phục, dọn dẹp).
+    public static final String SOFT_DELETE_FILTER = "softDelete";
+
     @Id
     @GeneratedValue
-    @UuidGenerator(style = UuidGenerator.Style.RANDOM)  // Chính là UUID v4
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)  // UUID v7, tăng dần theo thời gian
     @Column(columnDefinition = "BINARY(16)", nullable = false, updatable = false)
     private UUID id;
 
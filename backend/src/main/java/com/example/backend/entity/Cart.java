@@ -9,8 +9,10 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "carts")
+@Table(name = "carts", uniqueConstraints =
+        @UniqueConstraint(name = "uk_carts_user", columnNames = "user_id"))
 public class Cart extends BaseEntity {
     @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
     private User user;
 }
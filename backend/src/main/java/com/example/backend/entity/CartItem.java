@@ -9,7 +9,8 @@ import lombok.Setter;
 @NoArgsConstructor
 @Getter
 @Setter
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints =
+        @UniqueConstraint(name = "uk_cart_items_cart_variant", columnNames = {"cart_id", "variant_id"}))
 public class CartItem extends BaseEntity {
     @ManyToOne
     @JoinColumn(name = "cart_id")
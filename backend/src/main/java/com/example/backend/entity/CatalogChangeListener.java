@@ -0,0 +1,30 @@
+package com.example.backend.entity;
+
+import com.example.backend.event.CatalogChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener cho các entity catalog. Hibernate lấy instance qua SpringBeanContainer
+ * nên được inject ApplicationEventPublisher như bean thường.
+ */
+public class CatalogChangeListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatalogChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(BaseEntity entity) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(entity.getClass(), entity.getId(), entity.isDeleted()));
+    }
+
+    @PostRemove
+    public void onRemove(BaseEntity entity) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(entity.getClass(), entity.getId(), true));
+    }
+}
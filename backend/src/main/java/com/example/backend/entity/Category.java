@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @NoArgsConstructor
 @Getter
 @Setter
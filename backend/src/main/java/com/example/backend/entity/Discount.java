@@ -7,32 +7,44 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@EntityListeners(DiscountChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "discounts")
+@Table(name = "discounts", indexes = @Index(name = "idx_discounts_deleted_code", columnList = "is_deleted, code"))
 public class Discount extends BaseEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "discount_type_id", nullable = false)
     private DiscountType discountType;
     private LocalDate dateOfCreate;
     private String code;
+    // Phạm vi áp dụng, cụ thể nhất thắng: biến thể > sản phẩm > danh mục; cả ba null là toàn cửa hàng
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "category_id")
     private Category category;
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "brand_id", nullable = false)
+    @JoinColumn(name = "product_id")
+    private Product product;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "variant_id")
     private Variants variant;
     private int quantity;
     private int discountPercent;
+    // Mã giảm giá (code khác null): discountValue tính trên cả đơn, là mức giảm tối đa khi có phần trăm.
+    // Luật tự động: tính trên mỗi đơn vị, trừ luật toàn cửa hàng không có phần trăm thì giảm một lần trên đơn
     private BigDecimal discountValue;
     private BigDecimal minimumOrder;
     private BigDecimal maximumOrder;
     private LocalDate startDate;
     private LocalDate endDate;
+    // Tổng số lượt dùng tối đa của mã và số lượt đã dùng (tăng có điều kiện used_count < usage_limit)
     private int usageLimit;
+    @ColumnDefault("0")
+    @Column(name = "used_count", nullable = false)
+    private int usedCount;
     private boolean isActive;
 
 }
@@ -0,0 +1,22 @@
+package com.example.backend.entity;
+
+import com.example.backend.event.DiscountChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+public class DiscountChangeListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public DiscountChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Discount discount) {
+        eventPublisher.publishEvent(new DiscountChangedEvent(discount.getId()));
+    }
+}
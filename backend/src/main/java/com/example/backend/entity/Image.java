@@ -6,13 +6,24 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @NoArgsConstructor
 @Getter
 @Setter
-@Table(name = "iamges")
+@Table(name = "iamges", indexes = {
+        @Index(name = "idx_iamges_product", columnList = "product_id, is_deleted"),
+        @Index(name = "idx_iamges_variant", columnList = "variant_id")
+})
 public class Image extends BaseEntity {
     private String url;
     private String publicId;
     private String position;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+    // null: ảnh chung của sản phẩm; có giá trị: ảnh riêng của một biến thể (màu, dung tích...)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "variant_id")
+    private Variants variant;
 
 }
@@ -0,0 +1,52 @@
+package com.example.backend.entity;
+
+import com.example.backend.enums.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Một lần import file tồn kho của nhà cung cấp. processedRows là điểm khôi phục: được ghi trong cùng
+ * transaction với dữ liệu của mỗi chunk, nên chạy tiếp sau khi bị gián đoạn bỏ qua đúng số dòng đã commit.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "import_jobs", indexes = @Index(name = "idx_import_jobs_status", columnList = "status"))
+public class ImportJob extends BaseEntity {
+    @Column(name = "file_name")
+    private String fileName;
+
+    // File đã lưu tạm trên đĩa, xóa khi import xong
+    @Column(name = "stored_path", length = 1024)
+    private String storedPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ImportJobStatus status;
+
+    @Column(name = "processed_rows", nullable = false)
+    private long processedRows;
+
+    @Column(name = "created_rows", nullable = false)
+    private long createdRows;
+
+    @Column(name = "updated_rows", nullable = false)
+    private long updatedRows;
+
+    @Column(name = "error_rows", nullable = false)
+    private long errorRows;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "error_message", length = 1024)
+    private String errorMessage;
+}
@@ -0,0 +1,28 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "import_row_errors",
+        indexes = @Index(name = "idx_import_row_errors_job_line", columnList = "job_id, line_number"))
+public class ImportRowError extends BaseEntity {
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    private ImportJob job;
+
+    // Số dòng trong file (dòng tiêu đề là dòng 1)
+    @Column(name = "line_number", nullable = false)
+    private long lineNumber;
+
+    @Column(name = "sku")
+    private String sku;
+
+    @Column(name = "message", nullable = false, length = 512)
+    private String message;
+}
@@ -0,0 +1,35 @@
+package com.example.backend.entity;
+
+import com.example.backend.enums.ReservationStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "inventory_reservations", indexes = {
+        @Index(name = "idx_inventory_reservations_key", columnList = "reservation_key"),
+        @Index(name = "idx_inventory_reservations_status_expires", columnList = "status, expires_at")
+})
+public class InventoryReservation extends BaseEntity {
+    // Khóa nhóm các dòng giữ hàng của cùng một lần checkout
+    @Column(name = "reservation_key", nullable = false, length = 64)
+    private String reservationKey;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory_id", nullable = false)
+    private Inventory inventory;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "variant_id", nullable = false)
+    private Variants variant;
+    private int quantity;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ReservationStatus status;
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -1,29 +1,59 @@
 package com.example.backend.entity;
+import com.example.backend.enums.OrderStatus;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "orders")
+@Table(name = "orders",
+        uniqueConstraints = @UniqueConstraint(name = "uk_orders_user_idempotency_key",
+                columnNames = {"user_id", "idempotency_key"}),
+        // Lịch sử đơn của một người dùng, mới nhất trước, có hoặc không lọc trạng thái. InnoDB tự gắn
+        // khóa chính vào cuối index phụ nên keyset (booking_date, id) đi hết trên index, không cần sắp xếp
+        indexes = {
+                @Index(name = "idx_orders_user_status_booking", columnList = "user_id, status, booking_date"),
+                @Index(name = "idx_orders_user_booking", columnList = "user_id, booking_date"),
+                // CheckoutService tìm đơn PENDING bị bỏ dở quá hạn giữ
+                @Index(name = "idx_orders_status_claimed", columnList = "status, claimed_at")
+        })
 public class Order extends BaseEntity{
     private String nameReceiver;
     private String phone;
-    private String orderUser;
-    private String bookingDate;
-    private String deliveryDate;
+    // Thời điểm đặt đơn (lúc giữ Idempotency-Key)
+    @Column(name = "booking_date", nullable = false)
+    private Instant bookingDate;
+    @Column(name = "delivery_date")
+    private Instant deliveryDate;
     private BigDecimal subtotal;
     private BigDecimal shippingFee;
     private BigDecimal total;
     private String orderAddress;
     private String notes;
-    private String status;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private OrderStatus status;
     @ManyToOne
     @JoinColumn(name = "payment_id")
     private Payment payment;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    // Khóa do client gửi kèm (header Idempotency-Key), gửi lại cùng khóa không tạo thêm đơn
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+    // Thời điểm lần checkout đang chạy giành quyền xử lý đơn PENDING; cũng là token để biết đơn còn thuộc
+    // lần chạy đó. Quá checkout.claim-timeout thì request khác hoặc job dọn được tiếp quản
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "discount_id")
+    private Discount discount;
+    private BigDecimal discountAmount;
 }
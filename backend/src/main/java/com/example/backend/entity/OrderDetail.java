@@ -19,6 +19,9 @@ public class OrderDetail extends BaseEntity{
     @ManyToOne
     @JoinColumn(name = "product_id")
     private Product product;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "variant_id")
+    private Variants variant;
     private int quantity;
     private BigDecimal unitPrice;
 }
@@ -8,10 +8,14 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category", columnList = "category_id"),
+        @Index(name = "idx_products_brand", columnList = "brand_id")
+})
 public class Product extends BaseEntity {
     private String name;
     private String description;
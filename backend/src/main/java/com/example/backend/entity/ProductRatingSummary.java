@@ -0,0 +1,53 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Tổng hợp đánh giá đã duyệt của một sản phẩm, cập nhật cộng dồn mỗi khi đánh giá được duyệt/xóa
+ * nên đọc điểm trung bình và phân bố sao chỉ là một lần tra theo khóa chính.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "product_rating_summaries")
+public class ProductRatingSummary {
+    @Id
+    @Column(name = "product_id", columnDefinition = "BINARY(16)", nullable = false, updatable = false)
+    private UUID productId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "star1", nullable = false)
+    private long star1;
+
+    @Column(name = "star2", nullable = false)
+    private long star2;
+
+    @Column(name = "star3", nullable = false)
+    private long star3;
+
+    @Column(name = "star4", nullable = false)
+    private long star4;
+
+    @Column(name = "star5", nullable = false)
+    private long star5;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public ProductRatingSummary(UUID productId) {
+        this.productId = productId;
+        this.updatedAt = Instant.now();
+    }
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
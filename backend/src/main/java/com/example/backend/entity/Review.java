@@ -5,24 +5,34 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.util.Date;
+import java.time.Instant;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        // Danh sách đánh giá đã duyệt của một sản phẩm theo keyset trên id
+        @Index(name = "idx_reviews_product_listing", columnList = "product_id, accept, is_deleted, id"),
+        @Index(name = "idx_reviews_user", columnList = "user_id")
+})
 public class Review extends BaseEntity{
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
-    private String rating;
+    // 1..5 sao
+    @Column(name = "rating", nullable = false)
+    private int rating;
     private String content;
-    private Date dateOfReview;
-    private String accept;
+    @Column(name = "date_of_review")
+    private Instant dateOfReview;
+    // Chỉ đánh giá đã duyệt mới hiển thị và được tính vào ProductRatingSummary
+    @Column(name = "accept", nullable = false)
+    private boolean accepted;
     private String reply;
-    private String dateReply;
+    @Column(name = "date_reply")
+    private Instant dateReply;
 }
@@ -0,0 +1,33 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * jti đã bị thu hồi hoặc refresh token đã được dùng để xoay vòng. Unique trên token_id là nơi
+ * quyết định cuối cùng khi hai request cùng dùng một refresh token. Dòng được xóa khi token hết hạn.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "revoked_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_revoked_tokens_token_id", columnNames = "token_id"),
+        indexes = {
+                @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+                @Index(name = "idx_revoked_tokens_created_at", columnList = "created_at")
+        })
+public class RevokedToken extends BaseEntity {
+    @Column(name = "token_id", nullable = false, length = 64)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "reason", nullable = false, length = 16)
+    private String reason;
+}
@@ -0,0 +1,51 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Doanh số theo ngày (theo giờ cửa hàng), cộng dồn mỗi khi một đơn được xác nhận. Trang quản trị chỉ
+ * đọc bảng này, không GROUP BY trên orders.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "sales_daily_rollups")
+public class SalesDailyRollup {
+    @Id
+    @Column(name = "sales_date", nullable = false, updatable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    // Tổng tạm tính của các đơn (sau luật giảm giá tự động, trước mã giảm giá)
+    @Column(name = "gross_revenue", nullable = false)
+    private BigDecimal grossRevenue;
+
+    @Column(name = "discount_amount", nullable = false)
+    private BigDecimal discountAmount;
+
+    @Column(name = "shipping_fee", nullable = false)
+    private BigDecimal shippingFee;
+
+    // Giá nhập của các lô hàng đã trừ kho cho đơn
+    @Column(name = "cost", nullable = false)
+    private BigDecimal cost;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -0,0 +1,64 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Doanh số theo ngày và biến thể. Sản phẩm, thương hiệu, danh mục được chụp lại lúc cộng dồn nên
+ * báo cáo theo thương hiệu/danh mục chỉ gom trên bảng này.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@IdClass(SalesDailyVariantRollup.Key.class)
+@Table(name = "sales_daily_variant_rollups")
+public class SalesDailyVariantRollup {
+    @Id
+    @Column(name = "sales_date", nullable = false, updatable = false)
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "variant_id", columnDefinition = "BINARY(16)", nullable = false, updatable = false)
+    private UUID variantId;
+
+    @Column(name = "product_id", columnDefinition = "BINARY(16)")
+    private UUID productId;
+
+    @Column(name = "brand_id", columnDefinition = "BINARY(16)")
+    private UUID brandId;
+
+    @Column(name = "category_id", columnDefinition = "BINARY(16)")
+    private UUID categoryId;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    // Đơn giá × số lượng, trước mã giảm giá cấp đơn
+    @Column(name = "revenue", nullable = false)
+    private BigDecimal revenue;
+
+    @Column(name = "cost", nullable = false)
+    private BigDecimal cost;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private UUID variantId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Các đơn đã được cộng vào rollup. Khóa chính theo đơn nên một đơn không bao giờ bị cộng hai lần,
+ * kể cả khi sự kiện đến trùng hoặc chạy song song với lần tính lại.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "sales_rollup_orders", indexes = @Index(name = "idx_sales_rollup_orders_date", columnList = "sales_date"))
+public class SalesRollupOrder {
+    @Id
+    @Column(name = "order_id", columnDefinition = "BINARY(16)", nullable = false, updatable = false)
+    private UUID orderId;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "applied_at", nullable = false)
+    private Instant appliedAt;
+}
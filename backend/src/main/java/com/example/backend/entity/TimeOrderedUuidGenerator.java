@@ -0,0 +1,22 @@
+package com.example.backend.entity;
+
+import com.github.f4b6a3.uuid.UuidCreator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+
+/**
+ * Sinh UUID v7 (48 bit millisecond + ngẫu nhiên) cho {@link BaseEntity}.
+ * Lưu dạng BINARY(16) big-endian nên khóa mới luôn nằm cuối clustered index InnoDB,
+ * tránh page split như UUID v4. Muốn đổi thuật toán chỉ cần thay class trong
+ * {@code @UuidGenerator(algorithm = ...)} của BaseEntity.
+ */
+public class TimeOrderedUuidGenerator implements UuidValueGenerator {
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        // Plus1: đơn điệu tăng cả khi nhiều id sinh trong cùng một millisecond
+        return UuidCreator.getTimeOrderedEpochPlus1();
+    }
+}
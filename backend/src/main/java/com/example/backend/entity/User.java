@@ -13,7 +13,12 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "users")
+// Unique index trên từng cột: tra cứu đăng nhập/đăng ký chỉ chạm đúng một dòng, bộ lọc is_deleted
+// được kiểm tra trên dòng đó nên không cần thêm index ghép (is_deleted, email)
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_users_phone_number", columnNames = "phone_number")
+})
 public class User extends BaseEntity {
     @Column(name = "full_name")
     private String fullName;
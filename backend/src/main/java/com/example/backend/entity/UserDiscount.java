@@ -9,7 +9,8 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "user_discounts")
+@Table(name = "user_discounts", uniqueConstraints =
+        @UniqueConstraint(name = "uk_user_discounts_user_discount", columnNames = {"user_id", "discount_id"}))
 public class UserDiscount extends BaseEntity{
     @ManyToOne
     @JoinColumn(name = "user_id")
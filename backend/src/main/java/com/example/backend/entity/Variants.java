@@ -9,10 +9,17 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "variants")
+@Table(name = "variants", indexes = {
+        @Index(name = "idx_variants_product", columnList = "product_id"),
+        @Index(name = "idx_variants_status_price", columnList = "status, price, id"),
+        @Index(name = "idx_variants_deleted_sku", columnList = "is_deleted, sku"),
+        // Trang catalog "mới nhất" phân trang keyset theo (created_at, id)
+        @Index(name = "idx_variants_deleted_created", columnList = "is_deleted, created_at, id")
+})
 public class Variants extends BaseEntity {
     @Column(name = "sku", nullable = false, unique = true)
     private String sku;
@@ -20,7 +27,7 @@ public class Variants extends BaseEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "quantity_id")
     private Quantity quantity;
     private String color;
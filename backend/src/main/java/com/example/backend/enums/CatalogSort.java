@@ -0,0 +1,7 @@
+package com.example.backend.enums;
+
+public enum CatalogSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC
+}
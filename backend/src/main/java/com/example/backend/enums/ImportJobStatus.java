@@ -0,0 +1,10 @@
+package com.example.backend.enums;
+
+public enum ImportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    // Lỗi giữa chừng hoặc ứng dụng dừng khi đang chạy: các chunk đã commit được giữ, có thể chạy tiếp
+    FAILED,
+    INTERRUPTED
+}
@@ -0,0 +1,12 @@
+package com.example.backend.enums;
+
+public enum OrderStatus {
+    // Đã giữ Idempotency-Key, checkout đang chạy
+    PENDING,
+    CONFIRMED,
+    SHIPPING,
+    DELIVERED,
+    CANCELLED,
+    // Checkout lỗi và đã hoàn tác; gửi lại cùng Idempotency-Key sẽ chạy lại trên chính đơn này
+    FAILED
+}
@@ -0,0 +1,18 @@
+package com.example.backend.event;
+
+import java.util.UUID;
+
+/**
+ * Phát ra khi một entity thuộc catalog (sản phẩm, biến thể, thương hiệu...) được ghi.
+ * entityId null nghĩa là thay đổi hàng loạt (ví dụ import), bên nhận nên làm mới toàn bộ.
+ */
+public record CatalogChangedEvent(Class<?> entityType, UUID entityId, boolean deleted) {
+
+    public static CatalogChangedEvent bulk(Class<?> entityType) {
+        return new CatalogChangedEvent(entityType, null, false);
+    }
+
+    public boolean isBulk() {
+        return entityId == null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.backend.event;
+
+import java.util.UUID;
+
+// Phát ra khi một Discount được tạo, sửa hoặc xóa
+public record DiscountChangedEvent(UUID discountId) {
+}
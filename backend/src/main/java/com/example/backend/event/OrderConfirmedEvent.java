@@ -0,0 +1,21 @@
+package com.example.backend.event;
+
+import com.example.backend.dto.OrderLine;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Phát ra trong transaction xác nhận đơn; listener nên dùng @TransactionalEventListener để chỉ nhận khi đã commit
+public record OrderConfirmedEvent(
+        UUID orderId,
+        UUID userId,
+        String reservationKey,
+        BigDecimal subtotal,
+        BigDecimal discountAmount,
+        BigDecimal total,
+        List<OrderLine> lines,
+        Instant confirmedAt
+) {
+}
@@ -0,0 +1,59 @@
+package com.example.backend.persistence;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/persistence}: thống kê Hibernate toàn cục và số câu lệnh trung bình mỗi request
+ * theo endpoint. {@code DELETE} đặt lại bộ đếm, tiện khi so sánh trước/sau một thay đổi.
+ */
+@Component
+@Endpoint(id = "persistence")
+public class PersistenceStatsEndpoint {
+    private final StatementStatsRegistry registry;
+    private final Statistics statistics;
+
+    public PersistenceStatsEndpoint(StatementStatsRegistry registry, EntityManagerFactory entityManagerFactory) {
+        this.registry = registry;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        hibernate.put("enabled", statistics.isStatisticsEnabled());
+        hibernate.put("prepareStatementCount", statistics.getPrepareStatementCount());
+        hibernate.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        hibernate.put("queryExecutionMaxTimeMs", statistics.getQueryExecutionMaxTime());
+        hibernate.put("queryExecutionMaxTimeQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        hibernate.put("entityLoadCount", statistics.getEntityLoadCount());
+        hibernate.put("entityFetchCount", statistics.getEntityFetchCount());
+        hibernate.put("entityInsertCount", statistics.getEntityInsertCount());
+        hibernate.put("entityUpdateCount", statistics.getEntityUpdateCount());
+        hibernate.put("collectionFetchCount", statistics.getCollectionFetchCount());
+        hibernate.put("flushCount", statistics.getFlushCount());
+        hibernate.put("transactionCount", statistics.getTransactionCount());
+        hibernate.put("sessionOpenCount", statistics.getSessionOpenCount());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("hibernate", hibernate);
+        body.put("slowStatements", registry.slowStatements());
+        body.put("slowStatementsNotLogged", registry.slowStatementsSuppressed());
+        body.put("endpoints", registry.endpointSnapshots());
+        return body;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.clear();
+        registry.reset();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.backend.persistence;
+
+/**
+ * Bộ đếm câu lệnh JDBC của request hiện tại, gắn vào thread xử lý request bởi {@link StatementStatsFilter}.
+ * Chỉ được đọc/ghi bởi chính thread đó nên không cần đồng bộ.
+ */
+public final class RequestStatements {
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int batches;
+    private long nanos;
+
+    private RequestStatements() {
+    }
+
+    static RequestStatements begin() {
+        RequestStatements stats = new RequestStatements();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** Trả về null khi câu lệnh không chạy trong một request HTTP (job nền, scheduler...). */
+    public static RequestStatements current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    void recordBatch(long elapsedNanos) {
+        batches++;
+        nanos += elapsedNanos;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public int batches() {
+        return batches;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.backend.persistence;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Ghi nhớ câu SQL vừa được chuẩn bị trên thread hiện tại để {@link StatementStatsListener}
+ * có nội dung câu lệnh khi ghi log truy vấn chậm. Không sửa câu SQL.
+ *
+ * Đăng ký qua {@code hibernate.session_factory.statement_inspector}, dùng chung cho mọi session.
+ */
+public class SqlCapturingInspector implements StatementInspector {
+
+    private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LAST_SQL.set(sql);
+        return sql;
+    }
+
+    static String lastSql() {
+        return LAST_SQL.get();
+    }
+
+    static void clear() {
+        LAST_SQL.remove();
+    }
+}
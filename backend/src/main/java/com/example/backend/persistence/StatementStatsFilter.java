@@ -0,0 +1,50 @@
+package com.example.backend.persistence;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Đếm số câu lệnh JDBC mỗi request và gom theo endpoint (method + pattern của handler),
+ * để N+1 lộ ra ở endpoint actuator {@code /actuator/persistence} thay vì chỉ thấy khi đọc log SQL.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatementStatsFilter extends OncePerRequestFilter {
+    private final StatementStatsRegistry registry;
+
+    public StatementStatsFilter(StatementStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @Nonnull HttpServletRequest request,
+            @Nonnull HttpServletResponse response,
+            @Nonnull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RequestStatements statements = RequestStatements.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatements.end();
+            SqlCapturingInspector.clear();
+            registry.onRequestCompleted(request.getMethod(), uri(request), statements);
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNMAPPED";
+    }
+}
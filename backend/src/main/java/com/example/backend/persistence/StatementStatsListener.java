@@ -0,0 +1,50 @@
+package com.example.backend.persistence;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Đo thời gian từng câu lệnh và từng batch JDBC do Hibernate thực thi.
+ * Hibernate tạo một instance cho mỗi session (qua {@code hibernate.session.events.auto})
+ * và session chỉ dùng trên một thread, nên các trường thời điểm bắt đầu không cần đồng bộ.
+ */
+public class StatementStatsListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        long elapsed = System.nanoTime() - statementStart;
+        RequestStatements request = RequestStatements.current();
+        if (request != null) {
+            request.recordStatement(elapsed);
+        }
+        StatementStatsRegistry registry = StatementStatsRegistry.current();
+        if (registry != null) {
+            registry.onStatement(elapsed, SqlCapturingInspector.lastSql());
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        long elapsed = System.nanoTime() - batchStart;
+        RequestStatements request = RequestStatements.current();
+        if (request != null) {
+            request.recordBatch(elapsed);
+        }
+        StatementStatsRegistry registry = StatementStatsRegistry.current();
+        if (registry != null) {
+            registry.onStatement(elapsed, SqlCapturingInspector.lastSql());
+        }
+    }
+}
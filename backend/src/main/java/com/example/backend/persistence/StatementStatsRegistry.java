@@ -0,0 +1,186 @@
+package com.example.backend.persistence;
+
+import com.example.backend.config.PersistenceStatsConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gom số câu lệnh JDBC theo endpoint và ghi log truy vấn chậm có lấy mẫu. Số câu lệnh và thời gian DB
+ * mỗi request cũng được xuất ra Micrometer với cùng tag method/uri như {@code http.server.requests},
+ * nên có thể đặt cạnh độ trễ của endpoint để biết request chậm do DB hay do code.
+ *
+ * Listener/inspector của Hibernate được Hibernate khởi tạo bằng reflection nên không inject được;
+ * chúng tìm registry qua {@link #current()}. Khi không có Spring context (test slice, benchmark JMH)
+ * registry là null và việc đo đạc bị bỏ qua.
+ */
+@Component
+public class StatementStatsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(StatementStatsRegistry.class);
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("com.example.backend.persistence.SLOW_QUERY");
+    private static final String OTHER_ENDPOINT = "OTHER";
+
+    private static volatile StatementStatsRegistry current;
+
+    private final PersistenceStatsConfig config;
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder slowStatements = new LongAdder();
+    private final LongAdder slowStatementsSuppressed = new LongAdder();
+    private final AtomicLong logWindowSecond = new AtomicLong();
+    private final AtomicInteger logsInWindow = new AtomicInteger();
+
+    public StatementStatsRegistry(PersistenceStatsConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = config.getSlowQueryThreshold().toNanos();
+        FunctionCounter.builder("db.statements.slow", slowStatements, LongAdder::sum)
+                .description("Số câu lệnh SQL vượt ngưỡng persistence.stats.slow-query-threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void activate() {
+        current = this;
+    }
+
+    @PreDestroy
+    void deactivate() {
+        if (current == this) {
+            current = null;
+        }
+    }
+
+    static StatementStatsRegistry current() {
+        return current;
+    }
+
+    void onStatement(long elapsedNanos, String sql) {
+        if (elapsedNanos < slowThresholdNanos) return;
+        slowStatements.increment();
+        if (!shouldLogSlow()) {
+            slowStatementsSuppressed.increment();
+            return;
+        }
+        slowQueryLogger.warn("Truy vấn chậm {} ms: {}", elapsedNanos / 1_000_000, sql);
+    }
+
+    // Lấy mẫu theo tỉ lệ rồi giới hạn số dòng log mỗi giây
+    private boolean shouldLogSlow() {
+        double rate = config.getSlowQuerySampleRate();
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) return false;
+        long second = System.currentTimeMillis() / 1000;
+        long window = logWindowSecond.get();
+        if (window != second && logWindowSecond.compareAndSet(window, second)) {
+            logsInWindow.set(0);
+        }
+        return logsInWindow.incrementAndGet() <= config.getSlowQueryMaxLogsPerSecond();
+    }
+
+    void onRequestCompleted(String method, String uri, RequestStatements request) {
+        String endpoint = method + " " + uri;
+        EndpointStats stats = endpoints.get(endpoint);
+        if (stats == null) {
+            // Giới hạn số endpoint được theo dõi để URL lạ (404, scan) không làm phình bộ nhớ và số time series
+            boolean tracked = endpoints.size() < config.getMaxTrackedEndpoints();
+            stats = endpoints.computeIfAbsent(tracked ? endpoint : OTHER_ENDPOINT,
+                    k -> new EndpointStats(meterRegistry, tracked ? method : OTHER_ENDPOINT, tracked ? uri : OTHER_ENDPOINT));
+        }
+        stats.record(request);
+
+        int executed = request.statements() + request.batches();
+        if (executed > config.getRequestStatementWarnThreshold()) {
+            logger.warn("{} chạy {} câu lệnh SQL trong một request, kiểm tra N+1", endpoint, executed);
+        }
+    }
+
+    public long slowStatements() {
+        return slowStatements.sum();
+    }
+
+    public long slowStatementsSuppressed() {
+        return slowStatementsSuppressed.sum();
+    }
+
+    /** Các endpoint sắp xếp theo số câu lệnh trung bình mỗi request, cao nhất trước. */
+    public List<EndpointSnapshot> endpointSnapshots() {
+        return endpoints.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(EndpointSnapshot::avgStatementsPerRequest).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        endpoints.clear();
+        slowStatements.reset();
+        slowStatementsSuppressed.reset();
+    }
+
+    public record EndpointSnapshot(String endpoint, long requests, double avgStatementsPerRequest,
+                                   long maxStatementsPerRequest, long batches, double avgDbTimeMs) {
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final DistributionSummary statementSummary;
+        private final Timer dbTimer;
+
+        EndpointStats(MeterRegistry meterRegistry, String method, String uri) {
+            // Bucket cố định thay cho histogram đầy đủ để mỗi endpoint chỉ thêm vài time series
+            this.statementSummary = DistributionSummary.builder("http.server.requests.db.statements")
+                    .description("Số câu lệnh SQL mỗi request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+                    .register(meterRegistry);
+            this.dbTimer = Timer.builder("http.server.requests.db.time")
+                    .description("Tổng thời gian chạy SQL mỗi request")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .serviceLevelObjectives(Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+                            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+                            Duration.ofMillis(500), Duration.ofSeconds(1))
+                    .register(meterRegistry);
+        }
+
+        void record(RequestStatements request) {
+            int executed = request.statements() + request.batches();
+            statementSummary.record(executed);
+            dbTimer.record(request.nanos(), TimeUnit.NANOSECONDS);
+            requests.increment();
+            statements.add(executed);
+            batches.add(request.batches());
+            nanos.add(request.nanos());
+            maxStatements.accumulate(executed);
+        }
+
+        EndpointSnapshot snapshot(String endpoint) {
+            long count = Math.max(1, requests.sum());
+            return new EndpointSnapshot(endpoint, requests.sum(), (double) statements.sum() / count,
+                    maxStatements.get(), batches.sum(), nanos.sum() / 1e6 / count);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CartItemSnapshot;
+import com.example.backend.entity.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CartItemRepository extends JpaRepository<CartItem, UUID> {
+
+    @Query("""
+            select new com.example.backend.dto.CartItemSnapshot(ci.variant.id, ci.quantity)
+            from CartItem ci
+            where ci.cart.id = :cartId
+            order by ci.createdAt, ci.id
+            """)
+    List<CartItemSnapshot> findSnapshotsByCartId(@Param("cartId") UUID cartId);
+}
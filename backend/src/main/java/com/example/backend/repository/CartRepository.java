@@ -0,0 +1,17 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.Cart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CartRepository extends JpaRepository<Cart, UUID> {
+
+    @Query("select c.id from Cart c where c.user.id = :userId")
+    Optional<UUID> findIdByUserId(@Param("userId") UUID userId);
+}
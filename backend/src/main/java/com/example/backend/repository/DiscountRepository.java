@@ -0,0 +1,43 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.DiscountRuleSnapshot;
+import com.example.backend.entity.Discount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DiscountRepository extends JpaRepository<Discount, UUID> {
+
+    @Query("""
+            select d from Discount d
+            where d.isActive = true and d.isDeleted = false and d.code is not null
+              and (d.endDate is null or d.endDate >= :today)
+            """)
+    List<Discount> findActiveCoupons(@Param("today") LocalDate today);
+
+    // Luật giảm giá tự động (không có mã); luật chưa tới startDate vẫn được nạp, kiểm tra ngày khi tính giá
+    @Query("""
+            select new com.example.backend.dto.DiscountRuleSnapshot(
+                d.id, d.variant.id, d.product.id, d.category.id, d.discountPercent, d.discountValue,
+                d.minimumOrder, d.maximumOrder, d.startDate, d.endDate)
+            from Discount d
+            where d.isActive = true and d.isDeleted = false and d.code is null
+              and (d.endDate is null or d.endDate >= :today)
+            """)
+    List<DiscountRuleSnapshot> findActivePriceRules(@Param("today") LocalDate today);
+
+    @Modifying
+    @Query("update Discount d set d.usedCount = d.usedCount + 1 where d.id = :id and d.usedCount < d.usageLimit")
+    int tryRedeem(@Param("id") UUID id);
+
+    @Modifying
+    @Query("update Discount d set d.usedCount = d.usedCount - 1 where d.id = :id and d.usedCount > 0")
+    int releaseRedemption(@Param("id") UUID id);
+}
@@ -0,0 +1,26 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.ImageSnapshot;
+import com.example.backend.entity.Image;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ImageRepository extends JpaRepository<Image, UUID> {
+
+    // Ảnh của cả một trang sản phẩm trong một truy vấn, đọc thẳng khóa ngoại nên không join products/variants
+    @Query("""
+            select new com.example.backend.dto.ImageSnapshot(
+                i.id, i.product.id, i.variant.id, i.url, i.publicId, i.position)
+            from Image i
+            where i.product.id in :productIds
+            order by i.product.id, i.position, i.id
+            """)
+    List<ImageSnapshot> findByProductIds(@Param("productIds") Collection<UUID> productIds);
+}
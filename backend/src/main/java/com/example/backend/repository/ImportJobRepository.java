@@ -0,0 +1,41 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.ImportJob;
+import com.example.backend.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    // Nhận job có điều kiện để hai lần bấm "chạy tiếp" không chạy cùng một job hai lần
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.status = com.example.backend.enums.ImportJobStatus.RUNNING, "
+            + "j.startedAt = :now, j.finishedAt = null, j.errorMessage = null, j.updatedAt = :now "
+            + "where j.id = :id and j.status in :from")
+    int claim(@Param("id") UUID id, @Param("from") Collection<ImportJobStatus> from, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.status = :to, j.errorMessage = :message, j.finishedAt = :now, "
+            + "j.updatedAt = :now where j.id = :id")
+    int finish(@Param("id") UUID id,
+               @Param("to") ImportJobStatus to,
+               @Param("message") String message,
+               @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.status = com.example.backend.enums.ImportJobStatus.INTERRUPTED, "
+            + "j.updatedAt = :now where j.status = com.example.backend.enums.ImportJobStatus.RUNNING")
+    int markRunningInterrupted(@Param("now") Instant now);
+}
@@ -0,0 +1,26 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.ImportRowErrorResponse;
+import com.example.backend.entity.ImportRowError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ImportRowErrorRepository extends JpaRepository<ImportRowError, UUID> {
+
+    @Query("""
+            select new com.example.backend.dto.ImportRowErrorResponse(e.lineNumber, e.sku, e.message)
+            from ImportRowError e
+            where e.job.id = :jobId and e.lineNumber > :afterLine
+            order by e.lineNumber
+            """)
+    List<ImportRowErrorResponse> findByJobAfterLine(@Param("jobId") UUID jobId,
+                                                    @Param("afterLine") long afterLine,
+                                                    Pageable pageable);
+}
@@ -0,0 +1,45 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.InventoryBatchAvailability;
+import com.example.backend.entity.Inventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
+
+    // FEFO: lô hết hạn sớm nhất trước, lô không có hạn dùng xếp cuối, bỏ qua lô đã hết hạn
+    @Query("""
+            select new com.example.backend.dto.InventoryBatchAvailability(i.id, i.onHand - i.reserved)
+            from Inventory i
+            where i.variant.id = :variantId
+              and i.onHand > i.reserved
+              and (i.exp is null or i.exp >= :today)
+            order by case when i.exp is null then 1 else 0 end, i.exp, i.dateOfEntry, i.id
+            """)
+    List<InventoryBatchAvailability> findAllocatableBatches(@Param("variantId") UUID variantId,
+                                                            @Param("today") LocalDate today);
+
+    // Các câu update có điều kiện: chỉ thành công khi còn đủ hàng, không cần SELECT ... FOR UPDATE
+    @Modifying
+    @Query("update Inventory i set i.reserved = i.reserved + :qty where i.id = :id and i.onHand - i.reserved >= :qty")
+    int tryReserve(@Param("id") UUID id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("""
+            update Inventory i set i.onHand = i.onHand - :qty, i.reserved = i.reserved - :qty
+            where i.id = :id and i.reserved >= :qty and i.onHand >= :qty
+            """)
+    int commitReserved(@Param("id") UUID id, @Param("qty") int qty);
+
+    @Modifying
+    @Query("update Inventory i set i.reserved = i.reserved - :qty where i.id = :id and i.reserved >= :qty")
+    int releaseReserved(@Param("id") UUID id, @Param("qty") int qty);
+}
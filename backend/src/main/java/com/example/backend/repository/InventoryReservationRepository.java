@@ -0,0 +1,47 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.SalesCostFact;
+import com.example.backend.entity.InventoryReservation;
+import com.example.backend.enums.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, UUID> {
+
+    List<InventoryReservation> findByReservationKeyAndStatus(String reservationKey, ReservationStatus status);
+
+    @Query("""
+            select r from InventoryReservation r
+            where r.status = com.example.backend.enums.ReservationStatus.HELD and r.expiresAt < :now
+            order by r.expiresAt
+            """)
+    List<InventoryReservation> findExpiredHeld(@Param("now") Instant now, Pageable pageable);
+
+    // Chuyển trạng thái có điều kiện để commit/release/hết hạn không xử lý trùng một dòng
+    @Modifying
+    @Query("update InventoryReservation r set r.status = :to where r.id = :id and r.status = :from")
+    int transition(@Param("id") UUID id,
+                   @Param("from") ReservationStatus from,
+                   @Param("to") ReservationStatus to);
+
+    // Giá vốn theo lô thực tế đã trừ kho; lô chưa có giá nhập tính là 0
+    @Query("""
+            select new com.example.backend.dto.SalesCostFact(
+                r.reservationKey, r.variant.id, coalesce(sum(r.quantity * i.priceImport), 0))
+            from InventoryReservation r
+            join r.inventory i
+            where r.reservationKey in :keys and r.status = com.example.backend.enums.ReservationStatus.COMMITTED
+            group by r.reservationKey, r.variant.id
+            """)
+    List<SalesCostFact> findCommittedCosts(@Param("keys") Collection<String> keys);
+}
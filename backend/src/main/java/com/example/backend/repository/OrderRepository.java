@@ -0,0 +1,131 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.OrderItemResponse;
+import com.example.backend.dto.SalesLineFact;
+import com.example.backend.dto.SalesOrderFact;
+import com.example.backend.entity.Discount;
+import com.example.backend.entity.Order;
+import com.example.backend.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, UUID>, OrderRepositoryCustom {
+
+    Optional<Order> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    Optional<Order> findByIdAndUserId(UUID id, UUID userId);
+
+    @Modifying
+    @Query("update Order o set o.status = :to where o.id = :id and o.status = :from")
+    int transitionStatus(@Param("id") UUID id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    @Modifying
+    @Query("delete from OrderDetail d where d.order.id = :orderId")
+    int deleteDetails(@Param("orderId") UUID orderId);
+
+    // Các câu dưới đây chỉ tác động khi đơn còn thuộc lần checkout giữ claimedAt, để lần chạy đã bị tiếp quản
+    // không ghi đè lên lần chạy mới
+    @Modifying
+    @Query("""
+            update Order o set o.status = com.example.backend.enums.OrderStatus.PENDING, o.claimedAt = :claimedAt
+            where o.id = :id and o.status = com.example.backend.enums.OrderStatus.FAILED
+            """)
+    int reclaimFailed(@Param("id") UUID id, @Param("claimedAt") Instant claimedAt);
+
+    @Modifying
+    @Query("""
+            update Order o set o.claimedAt = :claimedAt
+            where o.id = :id and o.status = com.example.backend.enums.OrderStatus.PENDING
+              and o.claimedAt < :staleBefore
+            """)
+    int takeOver(@Param("id") UUID id, @Param("staleBefore") Instant staleBefore,
+                 @Param("claimedAt") Instant claimedAt);
+
+    @Modifying
+    @Query("""
+            update Order o set o.discount = :discount
+            where o.id = :id and o.status = com.example.backend.enums.OrderStatus.PENDING and o.claimedAt = :claimedAt
+            """)
+    int attachDiscount(@Param("id") UUID id, @Param("claimedAt") Instant claimedAt,
+                       @Param("discount") Discount discount);
+
+    @Modifying
+    @Query("""
+            update Order o set o.status = com.example.backend.enums.OrderStatus.CONFIRMED
+            where o.id = :id and o.status = com.example.backend.enums.OrderStatus.PENDING and o.claimedAt = :claimedAt
+            """)
+    int confirmClaimed(@Param("id") UUID id, @Param("claimedAt") Instant claimedAt);
+
+    @Modifying
+    @Query("""
+            update Order o set o.status = com.example.backend.enums.OrderStatus.FAILED, o.discount = null
+            where o.id = :id and o.status = com.example.backend.enums.OrderStatus.PENDING and o.claimedAt = :claimedAt
+            """)
+    int failClaimed(@Param("id") UUID id, @Param("claimedAt") Instant claimedAt);
+
+    @Modifying
+    @Query("update Order o set o.discount = null where o.id = :id")
+    int detachDiscount(@Param("id") UUID id);
+
+    @Query("select d.id from Order o join o.discount d where o.id = :id")
+    Optional<UUID> findDiscountId(@Param("id") UUID id);
+
+    @Query("""
+            select o from Order o
+            where o.status = com.example.backend.enums.OrderStatus.PENDING and o.claimedAt < :staleBefore
+            order by o.claimedAt
+            """)
+    List<Order> findStalePending(@Param("staleBefore") Instant staleBefore, Pageable pageable);
+
+    // Chi tiết của cả một trang đơn trong một truy vấn; sản phẩm/biến thể đã xóa mềm vẫn hiện trong lịch sử
+    @Query("""
+            select new com.example.backend.dto.OrderItemResponse(
+                d.order.id, v.id, p.id, p.name, v.sku, v.color, v.size, d.quantity, d.unitPrice)
+            from OrderDetail d
+            left join d.variant v
+            left join d.product p
+            where d.order.id in :orderIds
+            order by d.order.id, d.id
+            """)
+    List<OrderItemResponse> findItemsByOrderIds(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Dữ liệu nguồn cho rollup doanh số (SalesRollupService), luôn theo danh sách id đơn
+    @Query("""
+            select new com.example.backend.dto.SalesOrderFact(
+                o.id, o.bookingDate, o.subtotal, o.discountAmount, o.shippingFee)
+            from Order o
+            where o.id in :orderIds and o.status in :statuses
+            """)
+    List<SalesOrderFact> findSalesFacts(@Param("orderIds") Collection<UUID> orderIds,
+                                        @Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("""
+            select new com.example.backend.dto.SalesLineFact(
+                d.order.id, d.variant.id, p.id, p.brand.id, p.category.id, d.quantity, d.unitPrice)
+            from OrderDetail d
+            left join d.product p
+            where d.order.id in :orderIds
+            """)
+    List<SalesLineFact> findSalesLines(@Param("orderIds") Collection<UUID> orderIds);
+
+    // Chỉ dùng khi tính lại rollup: quét orders theo booking_date, nên chạy ngoài giờ cao điểm
+    @Query("""
+            select o.id from Order o
+            where o.bookingDate >= :from and o.bookingDate < :to and o.status in :statuses
+            order by o.bookingDate, o.id
+            """)
+    List<UUID> findSoldOrderIdsBetween(@Param("from") Instant from,
+                                       @Param("to") Instant to,
+                                       @Param("statuses") Collection<OrderStatus> statuses);
+}
@@ -0,0 +1,12 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.OrderCursor;
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.enums.OrderStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderRepositoryCustom {
+    List<OrderResponse> findHistoryPage(UUID userId, OrderStatus status, OrderCursor after, int fetchSize);
+}
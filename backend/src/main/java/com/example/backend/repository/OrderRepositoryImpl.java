@@ -0,0 +1,59 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.OrderCursor;
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.enums.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lịch sử đơn của một người dùng: projection thẳng ra DTO, mới nhất trước, phân trang keyset theo
+ * (booking_date, id). Lọc theo một trạng thái thì MySQL dùng index (user_id, status, booking_date); không lọc
+ * thì đi theo (user_id, booking_date) và bỏ các đơn chưa từng được đặt (PENDING đang checkout, FAILED).
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    // Đơn đã đặt thành công, kể cả đã hủy; dòng PENDING/FAILED chỉ là chỗ giữ Idempotency-Key của checkout
+    static final List<OrderStatus> PLACED =
+            List.of(OrderStatus.CONFIRMED, OrderStatus.SHIPPING, OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderResponse> findHistoryPage(UUID userId, OrderStatus status, OrderCursor after, int fetchSize) {
+        StringBuilder jpql = new StringBuilder("""
+                select new com.example.backend.dto.OrderResponse(
+                    o.id, o.status, o.bookingDate, o.deliveryDate, o.nameReceiver, o.phone, o.orderAddress,
+                    o.subtotal, o.discountAmount, o.shippingFee, o.total)
+                from Order o
+                where o.user.id = :userId
+                """);
+        if (status != null) {
+            jpql.append(" and o.status = :status");
+        } else {
+            jpql.append(" and o.status in :placed");
+        }
+        if (after != null) {
+            jpql.append(" and (o.bookingDate < :cursorDate or (o.bookingDate = :cursorDate and o.id < :cursorId))");
+        }
+        jpql.append(" order by o.bookingDate desc, o.id desc");
+
+        TypedQuery<OrderResponse> query = entityManager.createQuery(jpql.toString(), OrderResponse.class)
+                .setParameter("userId", userId);
+        if (status != null) {
+            query.setParameter("status", status);
+        } else {
+            query.setParameter("placed", PLACED);
+        }
+        if (after != null) {
+            query.setParameter("cursorDate", after.bookingDate());
+            query.setParameter("cursorId", after.id());
+        }
+        return query.setMaxResults(fetchSize).getResultList();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.ProductRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Repository
+public interface ProductRatingSummaryRepository extends JpaRepository<ProductRatingSummary, UUID> {
+
+    // Cộng dồn tại chỗ trong DB: các request duyệt/xóa song song không ghi đè lên nhau
+    @Modifying
+    @Query("""
+            update ProductRatingSummary s set
+                s.reviewCount = s.reviewCount + :delta,
+                s.ratingSum = s.ratingSum + :delta * :rating,
+                s.star1 = s.star1 + case when :rating = 1 then :delta else 0 end,
+                s.star2 = s.star2 + case when :rating = 2 then :delta else 0 end,
+                s.star3 = s.star3 + case when :rating = 3 then :delta else 0 end,
+                s.star4 = s.star4 + case when :rating = 4 then :delta else 0 end,
+                s.star5 = s.star5 + case when :rating = 5 then :delta else 0 end,
+                s.updatedAt = :now
+            where s.productId = :productId
+            """)
+    int applyDelta(@Param("productId") UUID productId,
+                   @Param("rating") int rating,
+                   @Param("delta") long delta,
+                   @Param("now") Instant now);
+}
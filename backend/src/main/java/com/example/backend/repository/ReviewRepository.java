@@ -0,0 +1,46 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.ReviewResponse;
+import com.example.backend.entity.Review;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, UUID> {
+
+    String REVIEW_SELECT = """
+            select new com.example.backend.dto.ReviewResponse(
+                r.id, u.id, u.fullName, r.rating, r.content, r.dateOfReview, r.reply, r.dateReply)
+            from Review r
+            left join r.user u
+            where r.product.id = :productId and r.accepted = true
+            """;
+
+    // UUID v7 tăng theo thời gian nên id giảm dần cũng là mới nhất trước
+    @Query(REVIEW_SELECT + " order by r.id desc")
+    List<ReviewResponse> findAcceptedByProduct(@Param("productId") UUID productId, Pageable pageable);
+
+    @Query(REVIEW_SELECT + " and r.id < :before order by r.id desc")
+    List<ReviewResponse> findAcceptedByProductBefore(@Param("productId") UUID productId,
+                                                     @Param("before") UUID before,
+                                                     Pageable pageable);
+
+    // Chuyển trạng thái có điều kiện: chỉ một request thắng nên tổng hợp không bị cộng trùng
+    @Modifying
+    @Query("update Review r set r.accepted = true, r.updatedAt = :now "
+            + "where r.id = :id and r.accepted = false and r.isDeleted = false")
+    int markAccepted(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update Review r set r.isDeleted = true, r.deletedAt = :now, r.updatedAt = :now "
+            + "where r.id = :id and r.accepted = :accepted and r.isDeleted = false")
+    int softDelete(@Param("id") UUID id, @Param("accepted") boolean accepted, @Param("now") Instant now);
+}
@@ -0,0 +1,28 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
+    boolean existsByTokenId(String tokenId);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    // Đồng bộ các thu hồi do instance khác ghi
+    List<RevokedToken> findByCreatedAtGreaterThanEqual(Instant since);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,14 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.SalesDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, LocalDate> {
+
+    List<SalesDailyRollup> findBySalesDateBetweenOrderBySalesDate(LocalDate from, LocalDate to);
+}
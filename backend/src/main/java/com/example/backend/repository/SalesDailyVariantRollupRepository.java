@@ -0,0 +1,57 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.DimensionSalesResponse;
+import com.example.backend.entity.SalesDailyVariantRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Báo cáo theo chiều chỉ gom trên bảng rollup theo khoảng khóa chính (sales_date, variant_id); tên
+ * thương hiệu/danh mục/SKU lấy bằng join theo khóa chính sang bảng danh mục nhỏ.
+ */
+@Repository
+public interface SalesDailyVariantRollupRepository
+        extends JpaRepository<SalesDailyVariantRollup, SalesDailyVariantRollup.Key> {
+
+    @Query("""
+            select new com.example.backend.dto.DimensionSalesResponse(
+                r.brandId, b.name, sum(r.units), sum(r.revenue), sum(r.cost))
+            from SalesDailyVariantRollup r
+            left join Brand b on b.id = r.brandId
+            where r.salesDate between :from and :to
+            group by r.brandId, b.name
+            order by sum(r.revenue) desc
+            """)
+    List<DimensionSalesResponse> sumByBrand(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                            Pageable pageable);
+
+    @Query("""
+            select new com.example.backend.dto.DimensionSalesResponse(
+                r.categoryId, c.name, sum(r.units), sum(r.revenue), sum(r.cost))
+            from SalesDailyVariantRollup r
+            left join Category c on c.id = r.categoryId
+            where r.salesDate between :from and :to
+            group by r.categoryId, c.name
+            order by sum(r.revenue) desc
+            """)
+    List<DimensionSalesResponse> sumByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                               Pageable pageable);
+
+    @Query("""
+            select new com.example.backend.dto.DimensionSalesResponse(
+                r.variantId, v.sku, sum(r.units), sum(r.revenue), sum(r.cost))
+            from SalesDailyVariantRollup r
+            left join Variants v on v.id = r.variantId
+            where r.salesDate between :from and :to
+            group by r.variantId, v.sku
+            order by sum(r.revenue) desc
+            """)
+    List<DimensionSalesResponse> sumBySku(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                          Pageable pageable);
+}
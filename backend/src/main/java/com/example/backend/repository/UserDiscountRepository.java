@@ -0,0 +1,32 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.UserDiscount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserDiscountRepository extends JpaRepository<UserDiscount, UUID> {
+
+    @Query("select ud.usedCount from UserDiscount ud where ud.user.id = :userId and ud.discount.id = :discountId")
+    Optional<Integer> findUsedCount(@Param("userId") UUID userId, @Param("discountId") UUID discountId);
+
+    @Modifying
+    @Query("""
+            update UserDiscount ud set ud.usedCount = ud.usedCount + 1
+            where ud.user.id = :userId and ud.discount.id = :discountId and ud.usedCount < :limit
+            """)
+    int tryIncrement(@Param("userId") UUID userId, @Param("discountId") UUID discountId, @Param("limit") int limit);
+
+    @Modifying
+    @Query("""
+            update UserDiscount ud set ud.usedCount = ud.usedCount - 1
+            where ud.user.id = :userId and ud.discount.id = :discountId and ud.usedCount > 0
+            """)
+    int decrement(@Param("userId") UUID userId, @Param("discountId") UUID discountId);
+}
@@ -1,14 +1,44 @@
 package com.example.backend.repository;
 
 import com.example.backend.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findUserByEmail(String email);
-    Optional<User> findUserByPhoneNumber(String phone);
+    // Nạp luôn role trong cùng câu lệnh: UserDetailsImpl đọc role.name ngay khi dựng principal
+    @Query("select u from User u join fetch u.role where u.email = :email")
+    Optional<User> findUserByEmail(@Param("email") String email);
+
+    @Query("select u from User u join fetch u.role where u.phoneNumber = :phone")
+    Optional<User> findUserByPhoneNumber(@Param("phone") String phone);
+
+    // Một câu lệnh cho cả hai unique index; trả về email của các tài khoản trùng để biết trùng trường nào
+    @Query("select u.email from User u where u.email = :email or u.phoneNumber = :phone")
+    List<String> findConflictingEmails(@Param("email") String email, @Param("phone") String phone);
+
+    @EntityGraph(attributePaths = "role")
+    Optional<User> findWithRoleById(UUID id);
+
+    // Chỉ instance đầu tiên chạm ngưỡng mới khóa; các lần sai sau đó không ghi thêm.
+    // Khóa đã hết hạn nhưng chưa được mở vẫn bị ghi đè bằng khóa mới
+    @Modifying
+    @Query("update User u set u.locked = true, u.lockTime = :until, u.failed = :failed "
+            + "where u.id = :id and (u.locked = false or u.lockTime <= :now)")
+    int lockAccount(@Param("id") UUID id, @Param("now") Instant now, @Param("until") Instant until,
+                    @Param("failed") int failed);
+
+    @Modifying
+    @Query("update User u set u.locked = false, u.lockTime = null, u.failed = 0 "
+            + "where u.id = :id and u.locked = true and u.lockTime <= :now")
+    int unlockExpired(@Param("id") UUID id, @Param("now") Instant now);
 }
@@ -0,0 +1,62 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.SearchDocument;
+import com.example.backend.dto.VariantPriceSnapshot;
+import com.example.backend.dto.VariantViewSnapshot;
+import com.example.backend.entity.Variants;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface VariantsRepository extends JpaRepository<Variants, UUID>, VariantsRepositoryCustom {
+
+    @Query("""
+            select new com.example.backend.dto.VariantViewSnapshot(v.id, v.sku, p.name, v.view)
+            from Variants v join v.product p
+            where v.id in :ids
+            """)
+    List<VariantViewSnapshot> findViewSnapshots(@Param("ids") Collection<UUID> ids);
+
+    @Query("""
+            select new com.example.backend.dto.VariantPriceSnapshot(
+                v.id, p.id, p.category.id, v.sku, p.name, v.color, v.size, v.price, v.discountPercent,
+                p.discountPercent, v.status)
+            from Variants v join v.product p
+            where v.id in :ids
+            """)
+    List<VariantPriceSnapshot> findPriceSnapshots(@Param("ids") Collection<UUID> ids);
+
+    String SEARCH_DOCUMENT_SELECT = """
+            select new com.example.backend.dto.SearchDocument(
+                v.id, p.id, p.name, p.description, v.sku, v.color, v.size,
+                b.id, b.name, c.id, c.name, v.price, v.status)
+            from Variants v
+            join v.product p
+            join p.brand b
+            join p.category c
+            where v.isDeleted = false and p.isDeleted = false
+            """;
+
+    // Đọc theo keyset trên id để dựng lại chỉ mục từng lô mà không giữ cả bảng trong một result set
+    @Query(SEARCH_DOCUMENT_SELECT + " and v.id > :after order by v.id")
+    List<SearchDocument> findSearchDocumentsAfter(@Param("after") UUID after, Pageable pageable);
+
+    @Query(SEARCH_DOCUMENT_SELECT + " and v.id in :ids")
+    List<SearchDocument> findSearchDocumentsByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query(SEARCH_DOCUMENT_SELECT + " and p.id = :productId")
+    List<SearchDocument> findSearchDocumentsByProduct(@Param("productId") UUID productId);
+
+    @Query(SEARCH_DOCUMENT_SELECT + " and b.id = :brandId")
+    List<SearchDocument> findSearchDocumentsByBrand(@Param("brandId") UUID brandId);
+
+    @Query(SEARCH_DOCUMENT_SELECT + " and c.id = :categoryId")
+    List<SearchDocument> findSearchDocumentsByCategory(@Param("categoryId") UUID categoryId);
+}
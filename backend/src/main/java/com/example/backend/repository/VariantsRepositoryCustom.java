@@ -0,0 +1,11 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CatalogCardResponse;
+import com.example.backend.dto.CatalogCursor;
+import com.example.backend.dto.CatalogQuery;
+
+import java.util.List;
+
+public interface VariantsRepositoryCustom {
+    List<CatalogCardResponse> findCatalogPage(CatalogQuery query, CatalogCursor after, int fetchSize);
+}
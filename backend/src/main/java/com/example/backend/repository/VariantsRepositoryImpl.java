@@ -0,0 +1,99 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CatalogCardResponse;
+import com.example.backend.dto.CatalogCursor;
+import com.example.backend.dto.CatalogQuery;
+import com.example.backend.enums.CatalogSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trang catalog lấy bằng một câu JPQL duy nhất: projection thẳng ra DTO (không load entity graph)
+ * và phân trang keyset theo (giá, id) hoặc (thời điểm tạo, id), không dùng OFFSET.
+ */
+public class VariantsRepositoryImpl implements VariantsRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CatalogCardResponse> findCatalogPage(CatalogQuery query, CatalogCursor after, int fetchSize) {
+        StringBuilder jpql = new StringBuilder("""
+                select new com.example.backend.dto.CatalogCardResponse(
+                    v.id, v.sku, p.id, p.name, b.id, b.name, c.id, c.name,
+                    v.color, v.size, v.price, v.discountPercent, v.status, q.value, q.unitOfMeasure, v.createdAt)
+                from Variants v
+                join v.product p
+                join p.brand b
+                join p.category c
+                left join v.quantity q
+                where v.isDeleted = false and p.isDeleted = false
+                """);
+        Map<String, Object> params = new HashMap<>();
+
+        if (query.categoryId() != null) {
+            jpql.append(" and c.id = :categoryId");
+            params.put("categoryId", query.categoryId());
+        }
+        if (query.brandId() != null) {
+            jpql.append(" and b.id = :brandId");
+            params.put("brandId", query.brandId());
+        }
+        if (query.minPrice() != null) {
+            jpql.append(" and v.price >= :minPrice");
+            params.put("minPrice", query.minPrice());
+        }
+        if (query.maxPrice() != null) {
+            jpql.append(" and v.price <= :maxPrice");
+            params.put("maxPrice", query.maxPrice());
+        }
+        if (query.status() != null) {
+            jpql.append(" and v.status = :status");
+            params.put("status", query.status());
+        }
+
+        CatalogSort sort = query.sort() != null ? query.sort() : CatalogSort.NEWEST;
+        switch (sort) {
+            case PRICE_ASC -> {
+                jpql.append(" and v.price is not null");
+                if (after != null) {
+                    jpql.append(" and (v.price > :cursorPrice or (v.price = :cursorPrice and v.id > :cursorId))");
+                }
+                jpql.append(" order by v.price asc, v.id asc");
+            }
+            case PRICE_DESC -> {
+                jpql.append(" and v.price is not null");
+                if (after != null) {
+                    jpql.append(" and (v.price < :cursorPrice or (v.price = :cursorPrice and v.id < :cursorId))");
+                }
+                jpql.append(" order by v.price desc, v.id desc");
+            }
+            default -> {
+                // Không sắp theo id: biến thể tạo trước khi chuyển sang UUID v7 vẫn mang id v4 ngẫu nhiên
+                if (after != null) {
+                    jpql.append(" and (v.createdAt < :cursorCreatedAt"
+                            + " or (v.createdAt = :cursorCreatedAt and v.id < :cursorId))");
+                }
+                jpql.append(" order by v.createdAt desc, v.id desc");
+            }
+        }
+        if (after != null) {
+            params.put("cursorId", after.id());
+            if (sort == CatalogSort.NEWEST) {
+                params.put("cursorCreatedAt", after.createdAt());
+            } else {
+                params.put("cursorPrice", after.price());
+            }
+        }
+
+        TypedQuery<CatalogCardResponse> typedQuery =
+                entityManager.createQuery(jpql.toString(), CatalogCardResponse.class);
+        params.forEach(typedQuery::setParameter);
+        return typedQuery.setMaxResults(fetchSize).getResultList();
+    }
+}
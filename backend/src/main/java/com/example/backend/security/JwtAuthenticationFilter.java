@@ -24,10 +24,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache principalCache;
+    private final RevokedTokenStore revokedTokenStore;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
+                                   UserDetailsService userDetailsService,
+                                   UserPrincipalCache principalCache,
+                                   RevokedTokenStore revokedTokenStore) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.revokedTokenStore = revokedTokenStore;
     }
 
     @Override
@@ -41,14 +48,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                if (jwtTokenProvider.validateToken(jwt)) {
-                    String username = jwtTokenProvider.getUsernameFromToken(jwt);
+                JwtClaims claims = jwtTokenProvider.parseAndVerify(jwt).orElse(null);
+                // Refresh token chỉ dùng được ở /api/v1/auth/refresh; token đã logout bị chặn trong bộ nhớ
+                if (claims != null && !claims.isRefreshToken()
+                        && !revokedTokenStore.isRevoked(claims.tokenId(), claims.expiresAt())) {
+                    String username = claims.username();
                     if (username != null && !username.isBlank()) {
 
-                        UUID tokenUserId = jwtTokenProvider.getUserIdFromToken(jwt);
-                        int tokenVersion = jwtTokenProvider.getTokenVersionFromToken(jwt);
+                        UUID tokenUserId = claims.userId();
+                        int tokenVersion = claims.tokenVersion();
 
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                        // Token mới luôn có userId nên đi qua cache, không chạm DB khi cache hit
+                        UserDetails userDetails = tokenUserId != null
+                                ? principalCache.get(tokenUserId)
+                                : userDetailsService.loadUserByUsername(username);
                         UserDetailsImpl user = (UserDetailsImpl) userDetails;
 
                         boolean accountValid = userDetails.isEnabled()
@@ -57,6 +70,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                 && userDetails.isCredentialsNonExpired();
 
                         boolean tokenValid = tokenVersion == user.getTokenVersion()
+                                && username.equals(user.getUsername())
                                 && (tokenUserId == null || tokenUserId.equals(user.getId()));
 
                         if (accountValid && tokenValid) {
@@ -0,0 +1,25 @@
+package com.example.backend.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims của một JWT đã được kiểm tra chữ ký và hạn dùng.
+ */
+public record JwtClaims(
+        String username,
+        UUID userId,
+        int tokenVersion,
+        String tokenId,
+        Instant expiresAt,
+        String tokenType,
+        String familyId
+) {
+    public boolean isRefreshToken() {
+        return JwtTokenProvider.TYPE_REFRESH.equals(tokenType);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
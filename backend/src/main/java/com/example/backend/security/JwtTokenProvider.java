@@ -1,31 +1,106 @@
 package com.example.backend.security;
 
 import com.example.backend.config.JwtConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.security.core.Authentication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtTokenProvider {
 
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+    private static final String TYPE_CLAIM = "type";
+    // Mọi refresh token sinh ra từ cùng một lần đăng nhập chung một family để phát hiện dùng lại
+    private static final String FAMILY_CLAIM = "family";
+
     private final JwtConfig jwtConfig;
     private final SecretKey secretKey;
+    // JwtParser sau khi build là immutable và thread-safe, dùng chung cho mọi request
+    private final JwtParser jwtParser;
+    // Cache token đã verify, key là SHA-256 của token, tự hết hạn theo claim exp
+    private final Cache<String, JwtClaims> verifiedTokens;
+    private final Timer verifyValidTimer;
+    private final Timer verifyInvalidTimer;
+    private final Timer issueAccessTimer;
+    private final Timer issueRefreshTimer;
 
-    public JwtTokenProvider(JwtConfig jwtConfig) {
+    public JwtTokenProvider(JwtConfig jwtConfig, MeterRegistry meterRegistry) {
         this.jwtConfig = jwtConfig;
         if (jwtConfig == null || jwtConfig.getSecret() == null || jwtConfig.getSecret().isBlank()) {
             throw new IllegalStateException("JWT secret must be configured");
         }
         this.secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecret()));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getVerifiedTokenCacheSize())
+                .expireAfter(new Expiry<String, JwtClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+                        return untilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return untilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        // Tỉ lệ hit của cache quyết định bao nhiêu request phải tính lại chữ ký HMAC
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+
+        this.verifyValidTimer = verifyTimer(meterRegistry, "valid");
+        this.verifyInvalidTimer = verifyTimer(meterRegistry, "invalid");
+        this.issueAccessTimer = issueTimer(meterRegistry, TYPE_ACCESS);
+        this.issueRefreshTimer = issueTimer(meterRegistry, TYPE_REFRESH);
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Thời gian parse và kiểm tra chữ ký JWT khi không có trong cache")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer issueTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("auth.jwt.issue")
+                .description("Thời gian ký JWT")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public String generateAccessToken(String username, UUID userId, int tokenVersion) {
+        return issueAccessTimer.record(() -> buildAccessToken(username, userId, tokenVersion));
+    }
+
+    private String buildAccessToken(String username, UUID userId, int tokenVersion) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + jwtConfig.getAccessTokenExpirationMs());
 
@@ -33,6 +108,8 @@ public class JwtTokenProvider {
                 .setSubject(username)
                 .claim("userId", userId.toString())
                 .claim("tokenVersion", tokenVersion)
+                .claim(TYPE_CLAIM, TYPE_ACCESS)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(expiry)
                 .signWith(secretKey, SignatureAlgorithm.HS512)
@@ -40,6 +117,14 @@ public class JwtTokenProvider {
     }
 
     public String generateRefreshToken(String username, UUID userId, int tokenVersion) {
+        return generateRefreshToken(username, userId, tokenVersion, UUID.randomUUID().toString());
+    }
+
+    public String generateRefreshToken(String username, UUID userId, int tokenVersion, String familyId) {
+        return issueRefreshTimer.record(() -> buildRefreshToken(username, userId, tokenVersion, familyId));
+    }
+
+    private String buildRefreshToken(String username, UUID userId, int tokenVersion, String familyId) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + jwtConfig.getRefreshTokenExpirationMs());
 
@@ -47,6 +132,8 @@ public class JwtTokenProvider {
                 .setSubject(username)
                 .claim("userId", userId.toString())
                 .claim("tokenVersion", tokenVersion)
+                .claim(TYPE_CLAIM, TYPE_REFRESH)
+                .claim(FAMILY_CLAIM, familyId)
                 .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(expiry)
@@ -54,43 +141,83 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Parse và kiểm tra chữ ký token đúng một lần. Các lần gọi sau với cùng token
+     * được trả từ cache cho đến khi token hết hạn.
+     */
+    public Optional<JwtClaims> parseAndVerify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String key = hashToken(token);
+        JwtClaims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired(Instant.now())) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.invalidate(key);
+            return Optional.empty();
+        }
+
+        JwtClaims claims;
+        long start = System.nanoTime();
+        try {
+            claims = toJwtClaims(jwtParser.parseClaimsJws(token).getBody());
+        } catch (Exception e) {
+            verifyInvalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.empty();
+        }
+        verifyValidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        verifiedTokens.put(key, claims);
+        return Optional.of(claims);
+    }
+
     public String getUsernameFromToken(String token) {
-        Claims claims = getClaims(token);
-        return claims != null ? claims.getSubject() : null;
+        return parseAndVerify(token).map(JwtClaims::username).orElse(null);
     }
 
     public UUID getUserIdFromToken(String token) {
-        Claims claims = getClaims(token);
-        if (claims == null) return null;
-        String id = claims.get("userId", String.class);
-        return id != null ? UUID.fromString(id) : null;
+        return parseAndVerify(token).map(JwtClaims::userId).orElse(null);
     }
 
     public int getTokenVersionFromToken(String token) {
-        Claims claims = getClaims(token);
-        if (claims == null) return 0;
-        Integer version = claims.get("tokenVersion", Integer.class);
-        return version != null ? version : 0;
+        return parseAndVerify(token).map(JwtClaims::tokenVersion).orElse(0);
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+        return parseAndVerify(token).isPresent();
+    }
+
+    private JwtClaims toJwtClaims(Claims claims) {
+        String id = claims.get("userId", String.class);
+        Integer version = claims.get("tokenVersion", Integer.class);
+        Date expiration = claims.getExpiration();
+        return new JwtClaims(
+                claims.getSubject(),
+                id != null ? UUID.fromString(id) : null,
+                version != null ? version : 0,
+                claims.getId(),
+                expiration != null ? expiration.toInstant() : null,
+                claims.get(TYPE_CLAIM, String.class),
+                claims.get(FAMILY_CLAIM, String.class)
+        );
+    }
+
+    private long untilExpiry(JwtClaims claims) {
+        if (claims.expiresAt() == null) {
+            return Duration.ofMillis(jwtConfig.getAccessTokenExpirationMs()).toNanos();
         }
+        Duration remaining = Duration.between(Instant.now(), claims.expiresAt());
+        return Math.max(0, remaining.toNanos());
     }
 
-    private Claims getClaims(String token) {
+    private static String hashToken(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            return null;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.example.backend.security;
+
+import com.example.backend.config.LoginAttemptConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+
+/**
+ * Đếm số lần đăng nhập sai trong cửa sổ trượt, theo tài khoản và theo IP, hoàn toàn trong bộ nhớ.
+ * Chỉ chuyển trạng thái khóa/mở khóa mới được ghi xuống DB (AuthService), nên một đợt dò mật khẩu
+ * không biến thành hàng loạt câu UPDATE trên bảng users.
+ *
+ * Bộ đếm là của từng instance; trạng thái khóa vẫn đồng bộ giữa các instance qua cột users.locked.
+ */
+@Component
+public class LoginAttemptTracker {
+    private final LoginAttemptConfig config;
+    private final long windowMillis;
+    private final Cache<String, SlidingWindow> accounts;
+    private final Cache<String, SlidingWindow> addresses;
+
+    public LoginAttemptTracker(LoginAttemptConfig config) {
+        this.config = config;
+        this.windowMillis = config.getWindow().toMillis();
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumTrackedKeys())
+                .expireAfterAccess(config.getWindow())
+                .build();
+        this.addresses = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumTrackedKeys())
+                .expireAfterAccess(config.getWindow())
+                .build();
+    }
+
+    public boolean isAddressBlocked(String clientIp) {
+        if (clientIp == null) return false;
+        SlidingWindow window = addresses.getIfPresent(clientIp);
+        return window != null && window.count(System.currentTimeMillis(), windowMillis) >= config.getMaxFailuresPerIp();
+    }
+
+    /** Ghi nhận một lần sai, trả về số lần sai của tài khoản trong cửa sổ (kể cả lần này). */
+    public int recordFailure(String accountKey, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (clientIp != null) {
+            addresses.get(clientIp, key -> new SlidingWindow(config.getMaxFailuresPerIp()))
+                    .record(now, windowMillis);
+        }
+        return accounts.get(accountKey, key -> new SlidingWindow(config.getMaxFailedAttempts()))
+                .record(now, windowMillis);
+    }
+
+    public void reset(String accountKey) {
+        accounts.invalidate(accountKey);
+    }
+
+    /** Giữ tối đa {@code capacity} mốc thời gian gần nhất; chỉ cần biết đã chạm ngưỡng hay chưa. */
+    private static final class SlidingWindow {
+        private final int capacity;
+        private final ArrayDeque<Long> failures;
+
+        SlidingWindow(int capacity) {
+            this.capacity = capacity;
+            this.failures = new ArrayDeque<>(capacity);
+        }
+
+        synchronized int record(long now, long windowMillis) {
+            evict(now, windowMillis);
+            if (failures.size() == capacity) {
+                failures.pollFirst();
+            }
+            failures.addLast(now);
+            return failures.size();
+        }
+
+        synchronized int count(long now, long windowMillis) {
+            evict(now, windowMillis);
+            return failures.size();
+        }
+
+        private void evict(long now, long windowMillis) {
+            while (!failures.isEmpty() && now - failures.peekFirst() >= windowMillis) {
+                failures.pollFirst();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.backend.security;
+
+import com.example.backend.config.TokenRevocationConfig;
+import com.example.backend.entity.RevokedToken;
+import com.example.backend.repository.RevokedTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Danh sách jti đã thu hồi/đã dùng: bảng revoked_tokens là nguồn sự thật, mỗi instance giữ một
+ * {@link TimeBucketedBloomFilter} để kiểm tra ở mỗi request hoàn toàn trong bộ nhớ. Chỉ khi Bloom
+ * filter báo dương tính (token thật sự bị thu hồi hoặc ~1% báo nhầm) mới hỏi lại DB, và kết quả được cache.
+ *
+ * Thu hồi do instance khác ghi được đồng bộ định kỳ theo created_at ({@code jwt.revocation.sync-interval-ms}).
+ */
+@Component
+public class RevokedTokenStore {
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenStore.class);
+    private static final String FAMILY_PREFIX = "family:";
+    // Bù lệch đồng hồ giữa các instance khi đồng bộ theo created_at
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    public static final String REASON_USED = "USED";
+    public static final String REASON_LOGOUT = "LOGOUT";
+    public static final String REASON_REUSED = "REUSED";
+
+    private final RevokedTokenRepository repository;
+    private final TimeBucketedBloomFilter filter;
+    private final Cache<String, Boolean> confirmed;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public RevokedTokenStore(RevokedTokenRepository repository, TokenRevocationConfig config) {
+        this.repository = repository;
+        this.filter = new TimeBucketedBloomFilter(config.getBucketWidth(), config.getExpectedPerBucket(),
+                config.getFalsePositiveRate());
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(config.getConfirmedCacheSize())
+                .expireAfterWrite(config.getBucketWidth())
+                .build();
+    }
+
+    /** Kiểm tra ở mỗi request: O(1) trong bộ nhớ, chỉ chạm DB khi Bloom filter báo dương tính. */
+    public boolean isRevoked(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null) return false;
+        if (!filter.mightContain(tokenId, expiresAt)) return false;
+        return confirmed.get(tokenId, repository::existsByTokenId);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt, String reason) {
+        if (tokenId == null || expiresAt == null) return;
+        insert(tokenId, expiresAt, reason);
+    }
+
+    /**
+     * Đánh dấu refresh token đã dùng. Trả về false nếu token đã được dùng trước đó (kể cả ở instance khác):
+     * unique index trên token_id quyết định ai thắng khi hai request xoay vòng cùng lúc.
+     */
+    public boolean markUsed(String tokenId, Instant expiresAt) {
+        return insert(tokenId, expiresAt, REASON_USED);
+    }
+
+    // Family chỉ được kiểm tra khi refresh, vốn đã chạm DB, nên hỏi thẳng bảng
+    public boolean isFamilyRevoked(String familyId) {
+        return familyId != null && repository.existsByTokenId(FAMILY_PREFIX + familyId);
+    }
+
+    public void revokeFamily(String familyId, Instant expiresAt) {
+        if (familyId == null) return;
+        insert(FAMILY_PREFIX + familyId, expiresAt, REASON_REUSED);
+    }
+
+    private boolean insert(String tokenId, Instant expiresAt, String reason) {
+        filter.put(tokenId, expiresAt);
+        confirmed.put(tokenId, Boolean.TRUE);
+        RevokedToken row = new RevokedToken();
+        row.setTokenId(tokenId);
+        row.setExpiresAt(expiresAt);
+        row.setReason(reason);
+        try {
+            repository.saveAndFlush(row);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Instant now = Instant.now();
+        int loaded = 0;
+        for (RevokedToken row : repository.findByExpiresAtAfter(now)) {
+            filter.put(row.getTokenId(), row.getExpiresAt());
+            loaded++;
+        }
+        lastSync = now;
+        logger.info("Nạp {} token đã thu hồi vào Bloom filter ({} bucket, {} KB)",
+                loaded, filter.bucketCount(), filter.memoryBytes() / 1024);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:10000}",
+            initialDelayString = "${jwt.revocation.sync-interval-ms:10000}")
+    public void sync() {
+        Instant now = Instant.now();
+        for (RevokedToken row : repository.findByCreatedAtGreaterThanEqual(lastSync.minus(SYNC_OVERLAP))) {
+            filter.put(row.getTokenId(), row.getExpiresAt());
+            // Có thể đã cache "chưa thu hồi" sau một lần báo nhầm trước đó
+            confirmed.invalidate(row.getTokenId());
+        }
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int buckets = filter.evictExpired(now);
+        int rows = repository.deleteExpired(now);
+        if (rows > 0 || buckets > 0) {
+            logger.info("Đã xóa {} token thu hồi hết hạn, bỏ {} bucket Bloom filter", rows, buckets);
+        }
+    }
+}
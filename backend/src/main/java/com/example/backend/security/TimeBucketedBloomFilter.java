@@ -0,0 +1,100 @@
+package com.example.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter chia theo thời điểm hết hạn của phần tử: mỗi bucket chứa các khóa hết hạn trong
+ * cùng một khoảng {@code bucketWidth}. Tra cứu chỉ chạm đúng một bucket (biết trước từ claim exp)
+ * và cả bucket bị bỏ đi khi mọi khóa trong đó đã hết hạn, nên bộ nhớ không tăng mãi.
+ *
+ * Có thể trả lời "có" sai (false positive) nhưng không bao giờ trả lời "không" sai;
+ * nơi gọi phải xác nhận lại kết quả dương tính.
+ */
+final class TimeBucketedBloomFilter {
+    private final long bucketMillis;
+    private final int bitCount;
+    private final int hashFunctions;
+    private final ConcurrentSkipListMap<Long, AtomicLongArray> buckets = new ConcurrentSkipListMap<>();
+
+    TimeBucketedBloomFilter(Duration bucketWidth, int expectedInsertionsPerBucket, double falsePositiveRate) {
+        this.bucketMillis = bucketWidth.toMillis();
+        // Công thức kích thước tối ưu: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        double bits = -expectedInsertionsPerBucket * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.max(64, Math.ceil(bits / 64) * 64);
+        this.hashFunctions = Math.max(1, (int) Math.round(bitCount / (double) expectedInsertionsPerBucket * Math.log(2)));
+    }
+
+    void put(String key, Instant expiresAt) {
+        AtomicLongArray bits = buckets.computeIfAbsent(bucketOf(expiresAt), k -> new AtomicLongArray(bitCount / 64));
+        long hash1 = hash(key);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            setBit(bits, index);
+        }
+    }
+
+    boolean mightContain(String key, Instant expiresAt) {
+        AtomicLongArray bits = buckets.get(bucketOf(expiresAt));
+        if (bits == null) return false;
+        long hash1 = hash(key);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Bỏ các bucket mà mọi khóa bên trong đã hết hạn trước {@code now}. Trả về số bucket đã bỏ. */
+    int evictExpired(Instant now) {
+        // Bucket k chứa khóa hết hạn trong [k * width, (k + 1) * width)
+        var expired = buckets.headMap(now.toEpochMilli() / bucketMillis);
+        int evicted = expired.size();
+        expired.clear();
+        return evicted;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    long memoryBytes() {
+        return (long) buckets.size() * bitCount / 8;
+    }
+
+    private long bucketOf(Instant expiresAt) {
+        return Math.floorDiv(expiresAt.toEpochMilli(), bucketMillis);
+    }
+
+    private static void setBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) return;
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // FNV-1a 64 bit trên UTF-8, đủ phân tán cho jti (UUID) và rẻ hơn nhiều so với hash mật mã
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Bộ trộn của SplitMix64, tạo hash thứ hai độc lập cho kỹ thuật double hashing
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.backend.security;
 
 import com.example.backend.entity.User;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,43 +10,56 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.UUID;
 
-public class UserDetailsImpl implements UserDetails {
+/**
+ * Snapshot bất biến của {@link User} tại thời điểm load, không giữ tham chiếu tới entity
+ * nên có thể cache an toàn ngoài persistence context.
+ */
+public class UserDetailsImpl implements UserDetails, CredentialsContainer {
     @Serial
     private static final long serialVersionUID = 1L;
 
-    private final User user;
+    private final UUID id;
+    private final String email;
+    private String password;
+    private final String roleName;
+    private final int tokenVersion;
+    private final boolean locked;
+    private final boolean enabled;
 
     public UserDetailsImpl(User user) {
-        this.user = user;
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.password = user.getHashedPassword();
+        this.roleName = user.getRole() != null ? user.getRole().getName() : null;
+        this.tokenVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+        this.locked = user.getLocked() != null && user.getLocked();
+        this.enabled = user.getEnabled() != null && user.getEnabled();
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        if (user.getRole() == null || user.getRole().getName() == null) {
+        if (roleName == null) {
             return Collections.emptyList();
         }
-        return Collections.singleton(
-                new SimpleGrantedAuthority("ROLE_" + user.getRole().getName())
-        );
+        return Collections.singleton(new SimpleGrantedAuthority("ROLE_" + roleName));
     }
 
     public int getTokenVersion() {
-        Integer version = user.getTokenVersion();
-        return version != null ? version : 0;
+        return tokenVersion;
     }
 
     public UUID getId() {
-        return user.getId();
+        return id;
     }
 
     @Override
     public String getPassword() {
-        return user.getHashedPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
     }
 
     @Override
@@ -55,8 +69,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        Boolean locked = user.getLocked();
-        return locked == null || !locked;
+        return !locked;
     }
 
     @Override
@@ -66,7 +79,11 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        Boolean enabled = user.getEnabled();
-        return enabled != null && enabled;
+        return enabled;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
     }
 }
@@ -6,6 +6,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -16,9 +19,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findUserByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Email not found: " + email));
         return new UserDetailsImpl(user);
     }
+
+    @Transactional(readOnly = true)
+    public UserDetailsImpl loadUserById(UUID id) throws UsernameNotFoundException {
+        User user = userRepository.findWithRoleById(id)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + id));
+        return new UserDetailsImpl(user);
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.backend.security;
+
+import com.example.backend.config.PrincipalCacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Cache principal theo user id để JwtAuthenticationFilter không phải truy vấn DB ở mỗi request.
+ * Mọi thay đổi tokenVersion, locked, enabled hoặc role phải gọi {@link #invalidate(UUID)}.
+ */
+@Component
+public class UserPrincipalCache {
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<UUID, UserDetailsImpl> principals;
+
+    public UserPrincipalCache(UserDetailsServiceImpl userDetailsService,
+                              PrincipalCacheConfig config,
+                              MeterRegistry meterRegistry) {
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        // Mỗi miss là một truy vấn users trong JwtAuthenticationFilter
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "security.principals");
+    }
+
+    public UserDetailsImpl get(UUID userId) {
+        return principals.get(userId, id -> {
+            UserDetailsImpl principal = userDetailsService.loadUserById(id);
+            principal.eraseCredentials();
+            return principal;
+        });
+    }
+
+    public void invalidate(UUID userId) {
+        if (userId == null) return;
+        principals.invalidate(userId);
+        // Xóa thêm một lần sau commit để request song song không cache lại trạng thái cũ
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(userId);
+                }
+            });
+        }
+    }
+}
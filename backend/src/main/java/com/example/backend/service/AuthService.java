@@ -1,5 +1,7 @@
 package com.example.backend.service;
 
+import com.example.backend.config.JwtConfig;
+import com.example.backend.config.LoginAttemptConfig;
 import com.example.backend.dto.AuthResponse;
 import com.example.backend.dto.LoginRequest;
 import com.example.backend.dto.SignupRequest;
@@ -8,69 +10,89 @@ import com.example.backend.entity.User;
 import com.example.backend.enums.GenderOptions;
 import com.example.backend.repository.RoleRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtClaims;
 import com.example.backend.security.JwtTokenProvider;
+import com.example.backend.security.LoginAttemptTracker;
+import com.example.backend.security.PasswordHashingService;
+import com.example.backend.security.RevokedTokenStore;
+import com.example.backend.security.UserDetailsImpl;
+import com.example.backend.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
+// Không đặt @Transactional ở mức class: BCrypt chạy ngoài transaction để không giữ connection DB
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
-    private static final int MAX_FAILED_ATTEMPTS = 5;
-    private static final long LOCK_DURATION_SECONDS = 300; // 5 phút
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final TransactionTemplate transactionTemplate;
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final UserPrincipalCache principalCache;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final LoginAttemptConfig loginAttemptConfig;
+    private final RevokedTokenStore revokedTokenStore;
+    private final JwtConfig jwtConfig;
+
+    // Role USER không đổi khi ứng dụng đang chạy nên chỉ tra theo tên một lần
+    private volatile UUID userRoleId;
 
     public void signup(SignupRequest request) {
         validateSignupRequest(request);
 
-        if (userRepository.findUserByEmail(request.getEmail().trim().toLowerCase()).isPresent()) {
-            throw new IllegalArgumentException("Email đã được đăng ký");
-        }
-        if (userRepository.findUserByPhoneNumber(request.getPhoneNumber().trim()).isPresent()) {
-            throw new IllegalArgumentException("Số điện thoại đã được đăng ký");
+        String email = request.getEmail().trim().toLowerCase();
+        String phone = request.getPhoneNumber().trim();
+        List<String> conflicts = userRepository.findConflictingEmails(email, phone);
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException(conflicts.contains(email)
+                    ? "Email đã được đăng ký"
+                    : "Số điện thoại đã được đăng ký");
         }
 
-        Role userRole = roleRepository.findByName("USER")
-                .orElseThrow(() -> new IllegalStateException("Role USER không tồn tại - vui lòng seed dữ liệu"));
-
         GenderOptions gender = GenderOptions.valueOf(request.getGender().trim().toUpperCase());
 
         User user = new User();
         user.setFullName(request.getFullName().trim());
-        user.setEmail(request.getEmail().trim().toLowerCase());
-        user.setPhoneNumber(request.getPhoneNumber().trim());
+        user.setEmail(email);
+        user.setPhoneNumber(phone);
         user.setGender(gender);
         user.setBirthDate(LocalDate.parse(request.getDateOfBirth()));
-        user.setHashedPassword(passwordEncoder.encode(request.getPassword()));
-        user.setRole(userRole);
+        user.setHashedPassword(passwordHashingService.encode(request.getPassword()));
         user.setEnabled(true);
         user.setLocked(false);
         user.setFailed(0);
         user.setTokenVersion(0);
 
-        userRepository.save(user);
+        UUID roleId = userRoleId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                user.setRole(roleRepository.getReferenceById(roleId));
+                userRepository.save(user);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Hai request đăng ký trùng chạy song song, hoặc trùng với tài khoản đã xóa mềm: unique index chặn lại
+            throw new IllegalArgumentException("Email hoặc số điện thoại đã được đăng ký");
+        }
         logger.info("Đăng ký thành công: {}", user.getEmail());
     }
 
-    public AuthResponse login(LoginRequest req) {
+    public AuthResponse login(LoginRequest req, String clientIp) {
         String email = req.getEmail() != null ? req.getEmail().trim().toLowerCase() : null;
         String phone = req.getPhoneNumber() != null ? req.getPhoneNumber().trim() : null;
 
@@ -82,18 +104,43 @@ public class AuthService {
             throw new IllegalArgumentException("Chỉ được nhập email hoặc số điện thoại, không nhập cả hai");
         }
 
+        // Chặn trước khi tra DB và chạy BCrypt để một IP dò mật khẩu không tốn tài nguyên
+        if (loginAttemptTracker.isAddressBlocked(clientIp)) {
+            throw new IllegalArgumentException("Đăng nhập sai quá nhiều lần. Vui lòng thử lại sau.");
+        }
+
         User user = email != null
                 ? userRepository.findUserByEmail(email).orElse(null)
                 : userRepository.findUserByPhoneNumber(phone).orElse(null);
+        String accountKey = user != null ? user.getId().toString() : (email != null ? email : phone);
 
-        if (user == null || !passwordEncoder.matches(req.getPassword(), user.getHashedPassword())) {
-            handleFailedAttempt(user);
+        if (user == null || !passwordHashingService.matches(req.getPassword(), user.getHashedPassword())) {
+            handleFailedAttempt(user, accountKey, clientIp);
             throw new IllegalArgumentException("Sai thông tin đăng nhập");
         }
 
         checkAndUnlockAccount(user);
-        user.setFailed(0);
-        userRepository.save(user);
+        loginAttemptTracker.reset(accountKey);
+        // Chỉ ghi lại user khi thật sự có thay đổi, đăng nhập bình thường chỉ tốn một câu SELECT
+        boolean changed = false;
+        if (user.getFailed() != 0) {
+            user.setFailed(0);
+            changed = true;
+        }
+        // Nâng/hạ cost BCrypt khi cấu hình thay đổi, chỉ làm được lúc còn mật khẩu gốc
+        if (passwordHashingService.needsRehash(user.getHashedPassword())) {
+            try {
+                user.setHashedPassword(passwordHashingService.encode(req.getPassword()));
+                changed = true;
+                logger.info("Rehash mật khẩu theo cost mới: {}", user.getEmail());
+            } catch (ResponseStatusException e) {
+                // Pool hash đang bận: bỏ qua, lần đăng nhập sau sẽ rehash
+                logger.debug("Bỏ qua rehash do pool hash bão hòa: {}", user.getEmail());
+            }
+        }
+        if (changed) {
+            userRepository.save(user);
+        }
 
         String accessToken = jwtTokenProvider.generateAccessToken(
                 user.getEmail(),
@@ -111,29 +158,106 @@ public class AuthService {
         return new AuthResponse(accessToken, refreshToken);
     }
 
-    // Helper: xử lý khi đăng nhập sai
-    private void handleFailedAttempt(User user) {
-        if (user != null) {
-            user.setFailed(user.getFailed() + 1);
-            if (user.getFailed() >= 5) {
-                user.setLocked(true);
-                user.setLockTime(Instant.now().plusSeconds(300)); // khóa 5 phút
-                logger.warn("Tài khoản bị khóa do đăng nhập sai quá 5 lần: {}", user.getEmail());
-            }
-            userRepository.save(user);
+    /**
+     * Đổi refresh token lấy cặp token mới (xoay vòng). Mỗi refresh token chỉ dùng được một lần;
+     * dùng lại một token đã xoay vòng nghĩa là token đã lộ, nên cả family (mọi token sinh ra từ
+     * cùng lần đăng nhập) bị thu hồi.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        JwtClaims claims = jwtTokenProvider.parseAndVerify(refreshToken)
+                .filter(JwtClaims::isRefreshToken)
+                .filter(c -> c.tokenId() != null && c.familyId() != null && c.userId() != null)
+                .orElseThrow(() -> new IllegalArgumentException("Refresh token không hợp lệ"));
+
+        if (revokedTokenStore.isFamilyRevoked(claims.familyId())) {
+            throw new IllegalArgumentException("Phiên đăng nhập đã bị thu hồi, vui lòng đăng nhập lại");
+        }
+        if (!revokedTokenStore.markUsed(claims.tokenId(), claims.expiresAt())) {
+            // Family sống tối đa bằng hạn của refresh token mới nhất có thể được cấp từ bây giờ
+            revokedTokenStore.revokeFamily(claims.familyId(),
+                    Instant.now().plusMillis(jwtConfig.getRefreshTokenExpirationMs()));
+            logger.warn("Refresh token bị dùng lại, thu hồi phiên đăng nhập: {}", claims.username());
+            throw new IllegalArgumentException("Phiên đăng nhập đã bị thu hồi, vui lòng đăng nhập lại");
         }
+
+        UserDetailsImpl user;
+        try {
+            user = principalCache.get(claims.userId());
+        } catch (UsernameNotFoundException e) {
+            throw new IllegalArgumentException("Refresh token không hợp lệ");
+        }
+        if (!user.isEnabled() || !user.isAccountNonLocked() || user.getTokenVersion() != claims.tokenVersion()) {
+            throw new IllegalArgumentException("Phiên đăng nhập đã bị thu hồi, vui lòng đăng nhập lại");
+        }
+
+        String accessToken = jwtTokenProvider.generateAccessToken(user.getUsername(), user.getId(),
+                user.getTokenVersion());
+        String rotated = jwtTokenProvider.generateRefreshToken(user.getUsername(), user.getId(),
+                user.getTokenVersion(), claims.familyId());
+        return new AuthResponse(accessToken, rotated);
+    }
+
+    /** Thu hồi access token hiện tại và cả family của refresh token (nếu có) mà không đụng tới tokenVersion. */
+    public void logout(String accessToken, String refreshToken) {
+        jwtTokenProvider.parseAndVerify(accessToken)
+                .filter(claims -> !claims.isRefreshToken())
+                .ifPresent(claims -> revokedTokenStore.revoke(claims.tokenId(), claims.expiresAt(),
+                        RevokedTokenStore.REASON_LOGOUT));
+        jwtTokenProvider.parseAndVerify(refreshToken)
+                .filter(JwtClaims::isRefreshToken)
+                .ifPresent(claims -> revokedTokenStore.revokeFamily(claims.familyId(),
+                        Instant.now().plusMillis(jwtConfig.getRefreshTokenExpirationMs())));
+    }
+
+    private UUID userRoleId() {
+        UUID roleId = userRoleId;
+        if (roleId == null) {
+            roleId = roleRepository.findByName("USER")
+                    .map(Role::getId)
+                    .orElseThrow(() -> new IllegalStateException("Role USER không tồn tại - vui lòng seed dữ liệu"));
+            userRoleId = roleId;
+        }
+        return roleId;
+    }
+
+    // Helper: xử lý khi đăng nhập sai. Lần sai chỉ được đếm trong bộ nhớ, DB chỉ bị ghi khi khóa tài khoản
+    private void handleFailedAttempt(User user, String accountKey, String clientIp) {
+        int failures = loginAttemptTracker.recordFailure(accountKey, clientIp);
+        Instant now = Instant.now();
+        // Khóa đã hết hạn nhưng chưa được mở (chỉ mở khi đăng nhập đúng) thì coi như không khóa để khóa lại được
+        if (user == null || isLockActive(user, now) || failures < loginAttemptConfig.getMaxFailedAttempts()) {
+            return;
+        }
+        Instant until = now.plus(loginAttemptConfig.getLockDuration());
+        Integer locked = transactionTemplate.execute(
+                status -> userRepository.lockAccount(user.getId(), now, until, failures));
+        // Đếm lại từ đầu sau khi khóa, giống việc reset failed khi mở khóa trước đây
+        loginAttemptTracker.reset(accountKey);
+        if (locked != null && locked > 0) {
+            logger.warn("Tài khoản bị khóa do đăng nhập sai {} lần: {}", failures, user.getEmail());
+            principalCache.invalidate(user.getId());
+        }
+    }
+
+    private static boolean isLockActive(User user, Instant now) {
+        return user.getLocked() && (user.getLockTime() == null || user.getLockTime().isAfter(now));
     }
 
     // Helper: tự động mở khóa nếu hết thời gian
     private void checkAndUnlockAccount(User user) {
-        if (user.getLocked() && user.getLockTime() != null && Instant.now().isAfter(user.getLockTime())) {
+        Instant now = Instant.now();
+        if (user.getLocked() && user.getLockTime() != null && now.isAfter(user.getLockTime())) {
+            Integer unlocked = transactionTemplate.execute(status -> userRepository.unlockExpired(user.getId(), now));
             user.setLocked(false);
             user.setLockTime(null);
             user.setFailed(0);
-            userRepository.save(user);
+            if (unlocked != null && unlocked > 0) {
+                principalCache.invalidate(user.getId());
+            }
         }
         if (user.getLocked()) {
-            throw new IllegalArgumentException("Tài khoản bị khóa tạm thời. Vui lòng thử lại sau 5 phút.");
+            throw new IllegalArgumentException("Tài khoản bị khóa tạm thời. Vui lòng thử lại sau "
+                    + loginAttemptConfig.getLockDuration().toMinutes() + " phút.");
         }
         if (!user.getEnabled()) {
             throw new IllegalArgumentException("Tài khoản đã bị vô hiệu hóa");
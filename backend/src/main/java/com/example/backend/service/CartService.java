@@ -0,0 +1,435 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CartConfig;
+import com.example.backend.dto.CartItemSnapshot;
+import com.example.backend.dto.CartLineResponse;
+import com.example.backend.dto.CartPricing;
+import com.example.backend.dto.CartResponse;
+import com.example.backend.dto.PricedLine;
+import com.example.backend.dto.VariantPriceSnapshot;
+import com.example.backend.entity.TimeOrderedUuidGenerator;
+import com.example.backend.enums.ProductStatus;
+import com.example.backend.repository.CartItemRepository;
+import com.example.backend.repository.CartRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Giỏ hàng giữ trong bộ nhớ theo userId (giới hạn số lượng, hết hạn khi không dùng) và ghi dồn xuống
+ * cart_items: mọi thay đổi trong một chu kỳ flush được gộp thành phần chênh lệch so với DB rồi ghi
+ * bằng JDBC batch trong một transaction. Giỏ bị đẩy khỏi bộ nhớ được ghi nốt trước khi bỏ,
+ * lần truy cập sau nạp lại từ DB nên giỏ hàng vẫn còn sau khi khởi động lại.
+ */
+@Service
+public class CartService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartService.class);
+    private static final int MAX_FLUSH_FAILURES = 3;
+    private static final String INSERT_CART_SQL =
+            "INSERT INTO carts (id, user_id, created_at, updated_at, is_deleted) VALUES (?, ?, ?, ?, false)";
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cart_items WHERE cart_id = ? AND variant_id = ?";
+    private static final String UPDATE_ITEM_SQL =
+            "UPDATE cart_items SET quantity = ?, updated_at = ? WHERE cart_id = ? AND variant_id = ?";
+    private static final String INSERT_ITEM_SQL = "INSERT INTO cart_items "
+            + "(id, cart_id, variant_id, quantity, created_at, updated_at, is_deleted) VALUES (?, ?, ?, ?, ?, ?, false)";
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final VariantPriceCache priceCache;
+    private final PricingEngine pricingEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartConfig config;
+    private final TimeOrderedUuidGenerator idGenerator = new TimeOrderedUuidGenerator();
+    private final Cache<UUID, CartState> carts;
+    private final Set<UUID> dirtyUsers = ConcurrentHashMap.newKeySet();
+    // Tuần tự hóa flush định kỳ và flush khi đẩy giỏ khỏi bộ nhớ để không ghi trùng một phần chênh lệch
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public CartService(CartRepository cartRepository,
+                       CartItemRepository cartItemRepository,
+                       VariantPriceCache priceCache,
+                       PricingEngine pricingEngine,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       CartConfig config) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.priceCache = priceCache;
+        this.pricingEngine = pricingEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = config;
+        // evictionListener chạy đồng bộ trong lúc giữ khóa của key: lần get tiếp theo cho cùng user
+        // phải chờ ghi xong nên không nạp lại dữ liệu cũ từ DB
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterAccess(config.getIdleTimeout())
+                .evictionListener((UUID userId, CartState state, RemovalCause cause) -> onEvicted(state))
+                .build();
+    }
+
+    public CartResponse getCart(UUID userId) {
+        CartState state = state(userId);
+        state.lock.lock();
+        try {
+            return price(new LinkedHashMap<>(state.items));
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    public CartResponse addItem(UUID userId, UUID variantId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
+        }
+        requireAvailable(variantId);
+        return mutate(userId, items -> {
+            int updated = items.getOrDefault(variantId, 0) + quantity;
+            if (!items.containsKey(variantId) && items.size() >= config.getMaxLines()) {
+                throw new IllegalStateException("Giỏ hàng đã đạt số sản phẩm tối đa");
+            }
+            items.put(variantId, Math.min(updated, config.getMaxQuantityPerLine()));
+        });
+    }
+
+    public CartResponse setQuantity(UUID userId, UUID variantId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Số lượng không được âm");
+        }
+        if (quantity == 0) {
+            return removeItem(userId, variantId);
+        }
+        requireAvailable(variantId);
+        return mutate(userId, items -> {
+            if (!items.containsKey(variantId) && items.size() >= config.getMaxLines()) {
+                throw new IllegalStateException("Giỏ hàng đã đạt số sản phẩm tối đa");
+            }
+            items.put(variantId, Math.min(quantity, config.getMaxQuantityPerLine()));
+        });
+    }
+
+    public CartResponse removeItem(UUID userId, UUID variantId) {
+        return mutate(userId, items -> items.remove(variantId));
+    }
+
+    public CartResponse clear(UUID userId) {
+        return mutate(userId, Map::clear);
+    }
+
+    // Bản sao các dòng hiện có (variantId -> số lượng) theo thứ tự thêm vào giỏ
+    public Map<UUID, Integer> items(UUID userId) {
+        CartState state = state(userId);
+        state.lock.lock();
+        try {
+            return new LinkedHashMap<>(state.items);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    // Trừ phần đã đặt hàng, giữ lại những gì người dùng thêm vào trong lúc checkout
+    public void removeOrdered(UUID userId, Map<UUID, Integer> ordered) {
+        mutate(userId, items -> ordered.forEach((variantId, quantity) ->
+                items.computeIfPresent(variantId, (id, current) -> current > quantity ? current - quantity : null)));
+    }
+
+    @Scheduled(fixedDelayString = "${cart.flush-interval-ms:2000}")
+    public void flush() {
+        List<CartState> discarded = new ArrayList<>();
+        flushLock.lock();
+        try {
+            List<CartDiff> diffs = new ArrayList<>();
+            for (Iterator<UUID> it = dirtyUsers.iterator(); it.hasNext(); ) {
+                UUID userId = it.next();
+                it.remove();
+                // Không tính là một lần truy cập để flush không kéo dài thời gian sống của giỏ
+                CartState state = carts.policy().getIfPresentQuietly(userId);
+                if (state == null) continue;
+                CartDiff diff = diff(state);
+                if (diff != null) diffs.add(diff);
+            }
+            if (diffs.isEmpty()) return;
+
+            try {
+                write(diffs);
+                diffs.forEach(this::markPersisted);
+                logger.debug("Đã ghi {} giỏ hàng", diffs.size());
+            } catch (RuntimeException e) {
+                // Ghi lại từng giỏ để một giỏ lỗi không chặn các giỏ khác
+                logger.warn("Ghi lô {} giỏ hàng thất bại, thử ghi từng giỏ", diffs.size(), e);
+                for (CartDiff diff : diffs) {
+                    try {
+                        write(List.of(diff));
+                        markPersisted(diff);
+                    } catch (RuntimeException single) {
+                        if (recordFailure(diff.state(), single)) discarded.add(diff.state());
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        // Bỏ ngoài flushLock: remove cần khóa của key trong cache, evictionListener giữ khóa đó rồi chờ flushLock
+        for (CartState state : discarded) {
+            carts.asMap().remove(state.userId, state);
+        }
+    }
+
+    // Graceful shutdown: ghi nốt thay đổi còn trong bộ nhớ trước khi DataSource đóng
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        logger.info("Đã ghi giỏ hàng còn lại trước khi tắt ứng dụng");
+    }
+
+    private CartResponse mutate(UUID userId, Consumer<LinkedHashMap<UUID, Integer>> change) {
+        while (true) {
+            CartState state = state(userId);
+            state.lock.lock();
+            try {
+                // Giỏ vừa bị đẩy khỏi bộ nhớ: lấy lại bản mới để không ghi vào bản đã bỏ
+                if (state.evicted) continue;
+                change.accept(state.items);
+                state.version++;
+                dirtyUsers.add(userId);
+                return price(new LinkedHashMap<>(state.items));
+            } finally {
+                state.lock.unlock();
+            }
+        }
+    }
+
+    private CartState state(UUID userId) {
+        return carts.get(userId, this::load);
+    }
+
+    private CartState load(UUID userId) {
+        UUID cartId = cartRepository.findIdByUserId(userId).orElse(null);
+        LinkedHashMap<UUID, Integer> items = new LinkedHashMap<>();
+        if (cartId != null) {
+            for (CartItemSnapshot item : cartItemRepository.findSnapshotsByCartId(cartId)) {
+                items.put(item.variantId(), item.quantity());
+            }
+        }
+        return new CartState(userId, cartId, items);
+    }
+
+    private void requireAvailable(UUID variantId) {
+        VariantPriceSnapshot snapshot = priceCache.get(variantId)
+                .orElseThrow(() -> new IllegalArgumentException("Sản phẩm không tồn tại"));
+        if (snapshot.status() != null && snapshot.status() != ProductStatus.AVAILABLE) {
+            throw new IllegalStateException("Sản phẩm hiện không còn bán");
+        }
+    }
+
+    private CartResponse price(LinkedHashMap<UUID, Integer> items) {
+        Map<UUID, VariantPriceSnapshot> prices = items.isEmpty() ? Map.of() : priceCache.getAll(items.keySet());
+        // Chỉ dòng còn bán được đưa qua bộ tính giá và cộng vào tạm tính
+        List<VariantPriceSnapshot> sellable = new ArrayList<>(items.size());
+        int[] quantities = new int[items.size()];
+        for (Map.Entry<UUID, Integer> entry : items.entrySet()) {
+            VariantPriceSnapshot snapshot = prices.get(entry.getKey());
+            if (snapshot != null && isAvailable(snapshot)) {
+                quantities[sellable.size()] = entry.getValue();
+                sellable.add(snapshot);
+            }
+        }
+        CartPricing pricing = pricingEngine.price(sellable, Arrays.copyOf(quantities, sellable.size()));
+
+        List<CartLineResponse> lines = new ArrayList<>(items.size());
+        int next = 0;
+        int totalQuantity = 0;
+        for (Map.Entry<UUID, Integer> entry : items.entrySet()) {
+            VariantPriceSnapshot snapshot = prices.get(entry.getKey());
+            int quantity = entry.getValue();
+            if (snapshot == null) {
+                // Biến thể đã bị xóa: vẫn trả về để người dùng thấy và bỏ khỏi giỏ
+                lines.add(new CartLineResponse(entry.getKey(), null, null, null, null, quantity,
+                        null, null, BigDecimal.ZERO, false));
+                continue;
+            }
+            if (isAvailable(snapshot)) {
+                PricedLine priced = pricing.lines().get(next++);
+                lines.add(new CartLineResponse(snapshot.variantId(), snapshot.sku(), snapshot.productName(),
+                        snapshot.color(), snapshot.size(), quantity, snapshot.price(), priced.unitPrice(),
+                        priced.lineTotal(), true));
+                totalQuantity += quantity;
+            } else {
+                BigDecimal unitPrice = PriceRuleIndex.basePrice(snapshot);
+                lines.add(new CartLineResponse(snapshot.variantId(), snapshot.sku(), snapshot.productName(),
+                        snapshot.color(), snapshot.size(), quantity, snapshot.price(), unitPrice,
+                        unitPrice.multiply(BigDecimal.valueOf(quantity)), false));
+            }
+        }
+        return new CartResponse(lines, totalQuantity, pricing.total());
+    }
+
+    private static boolean isAvailable(VariantPriceSnapshot snapshot) {
+        return snapshot.status() == null || snapshot.status() == ProductStatus.AVAILABLE;
+    }
+
+    private CartDiff diff(CartState state) {
+        state.lock.lock();
+        try {
+            if (state.version == state.persistedVersion) return null;
+            Map<UUID, Integer> snapshot = new LinkedHashMap<>(state.items);
+            List<UUID> deleted = new ArrayList<>();
+            Map<UUID, Integer> updated = new LinkedHashMap<>();
+            Map<UUID, Integer> inserted = new LinkedHashMap<>();
+            for (UUID variantId : state.persisted.keySet()) {
+                if (!snapshot.containsKey(variantId)) deleted.add(variantId);
+            }
+            for (Map.Entry<UUID, Integer> entry : snapshot.entrySet()) {
+                Integer before = state.persisted.get(entry.getKey());
+                if (before == null) {
+                    inserted.put(entry.getKey(), entry.getValue());
+                } else if (!before.equals(entry.getValue())) {
+                    updated.put(entry.getKey(), entry.getValue());
+                }
+            }
+            boolean createCart = !state.cartPersisted && !inserted.isEmpty();
+            if (createCart && state.cartId == null) {
+                state.cartId = idGenerator.generateUuid(null);
+            }
+            return new CartDiff(state, state.cartId, createCart, snapshot, deleted, updated, inserted, state.version);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    private void write(List<CartDiff> diffs) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> cartInserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (CartDiff diff : diffs) {
+            byte[] cartId = diff.cartId() != null ? BinaryCodec.INSTANCE.encode(diff.cartId()) : null;
+            if (diff.createCart()) {
+                cartInserts.add(new Object[]{cartId, BinaryCodec.INSTANCE.encode(diff.state().userId), now, now});
+            }
+            for (UUID variantId : diff.deleted()) {
+                deletes.add(new Object[]{cartId, BinaryCodec.INSTANCE.encode(variantId)});
+            }
+            diff.updated().forEach((variantId, quantity) ->
+                    updates.add(new Object[]{quantity, now, cartId, BinaryCodec.INSTANCE.encode(variantId)}));
+            diff.inserted().forEach((variantId, quantity) ->
+                    inserts.add(new Object[]{BinaryCodec.INSTANCE.encode(idGenerator.generateUuid(null)),
+                            cartId, BinaryCodec.INSTANCE.encode(variantId), quantity, now, now}));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!cartInserts.isEmpty()) jdbcTemplate.batchUpdate(INSERT_CART_SQL, cartInserts);
+            if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE_ITEM_SQL, deletes);
+            if (!updates.isEmpty()) jdbcTemplate.batchUpdate(UPDATE_ITEM_SQL, updates);
+            if (!inserts.isEmpty()) jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, inserts);
+        });
+    }
+
+    private void markPersisted(CartDiff diff) {
+        CartState state = diff.state();
+        state.lock.lock();
+        try {
+            state.persisted = diff.snapshot();
+            state.persistedVersion = diff.version();
+            state.cartPersisted |= diff.createCart();
+            state.failedFlushes = 0;
+            if (state.version != diff.version() && !state.evicted) {
+                dirtyUsers.add(state.userId);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    // Trả về true khi giỏ lỗi quá nhiều lần và cần bỏ khỏi bộ nhớ để nạp lại từ DB
+    private boolean recordFailure(CartState state, RuntimeException e) {
+        state.lock.lock();
+        try {
+            state.failedFlushes++;
+            if (state.failedFlushes < MAX_FLUSH_FAILURES) {
+                logger.warn("Không ghi được giỏ hàng của {}, sẽ thử lại", state.userId, e);
+                dirtyUsers.add(state.userId);
+                return false;
+            }
+            logger.error("Bỏ thay đổi chưa lưu của giỏ hàng {} sau {} lần ghi lỗi",
+                    state.userId, state.failedFlushes, e);
+            state.evicted = true;
+            return true;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    private void onEvicted(CartState state) {
+        if (state == null) return;
+        flushLock.lock();
+        try {
+            state.lock.lock();
+            try {
+                state.evicted = true;
+            } finally {
+                state.lock.unlock();
+            }
+            CartDiff diff = diff(state);
+            if (diff == null) return;
+            try {
+                write(List.of(diff));
+            } catch (RuntimeException e) {
+                logger.error("Không ghi được giỏ hàng của {} khi đẩy khỏi bộ nhớ", state.userId, e);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private record CartDiff(CartState state,
+                            UUID cartId,
+                            boolean createCart,
+                            Map<UUID, Integer> snapshot,
+                            List<UUID> deleted,
+                            Map<UUID, Integer> updated,
+                            Map<UUID, Integer> inserted,
+                            long version) {
+    }
+
+    private static final class CartState {
+        final UUID userId;
+        final ReentrantLock lock = new ReentrantLock();
+        // Thứ tự thêm vào giỏ, dữ liệu bên dưới chỉ đọc/ghi khi giữ lock
+        final LinkedHashMap<UUID, Integer> items;
+        Map<UUID, Integer> persisted;
+        UUID cartId;
+        boolean cartPersisted;
+        long version;
+        long persistedVersion;
+        int failedFlushes;
+        boolean evicted;
+
+        CartState(UUID userId, UUID cartId, LinkedHashMap<UUID, Integer> items) {
+            this.userId = userId;
+            this.cartId = cartId;
+            this.cartPersisted = cartId != null;
+            this.items = items;
+            this.persisted = new LinkedHashMap<>(items);
+        }
+    }
+}
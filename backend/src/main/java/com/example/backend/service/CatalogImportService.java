@@ -0,0 +1,578 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CatalogImportConfig;
+import com.example.backend.dto.ImportJobResponse;
+import com.example.backend.dto.ImportRowErrorResponse;
+import com.example.backend.entity.ImportJob;
+import com.example.backend.entity.TimeOrderedUuidGenerator;
+import com.example.backend.entity.Variants;
+import com.example.backend.enums.ImportJobStatus;
+import com.example.backend.enums.ProductStatus;
+import com.example.backend.enums.UnitOfMeasure;
+import com.example.backend.event.CatalogChangedEvent;
+import com.example.backend.repository.ImportJobRepository;
+import com.example.backend.repository.ImportRowErrorRepository;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Import file CSV tồn kho của nhà cung cấp vào products / quantities / variants / inventories.
+ *
+ * File được lưu tạm xuống đĩa rồi xử lý nền, đọc từng dòng nên không giữ cả file trong bộ nhớ.
+ * Thương hiệu, danh mục, nhà cung cấp và sản phẩm được tra bằng map nạp một lần khi bắt đầu job.
+ * Mỗi chunk (catalog-import.chunk-size dòng) là một transaction: tra biến thể theo SKU bằng một câu
+ * IN, rồi ghi bằng JDBC batch (sản phẩm mới, quantity, insert/update biến thể theo SKU, lô tồn kho mới,
+ * lỗi từng dòng) cùng với tiến độ của job. Vì tiến độ commit cùng dữ liệu, chạy tiếp một job bị gián
+ * đoạn chỉ cần bỏ qua processedRows dòng đầu của file.
+ *
+ * Cột bắt buộc: sku, product_name, brand, category, supplier, price, on_hand. Cột tùy chọn: description,
+ * color, size, status, unit, quantity, price_import, dol, exp (ngày dạng yyyy-MM-dd).
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    static final List<String> REQUIRED_COLUMNS =
+            List.of("sku", "product_name", "brand", "category", "supplier", "price", "on_hand");
+    private static final Set<ImportJobStatus> RESUMABLE =
+            EnumSet.of(ImportJobStatus.PENDING, ImportJobStatus.FAILED, ImportJobStatus.INTERRUPTED);
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_ERROR_PAGE_SIZE = 500;
+
+    private static final String INSERT_PRODUCT_SQL = """
+            INSERT INTO products (id, name, brand_id, category_id, created_at, updated_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, ?, false)
+            """;
+    private static final String INSERT_QUANTITY_SQL = """
+            INSERT INTO quantities (id, unit_of_measure, value, created_at, updated_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, false)
+            """;
+    private static final String UPDATE_QUANTITY_SQL =
+            "UPDATE quantities SET unit_of_measure = ?, value = ?, updated_at = ? WHERE id = ?";
+    private static final String INSERT_VARIANT_SQL = """
+            INSERT INTO variants (id, sku, description, product_id, quantity_id, color, size, price, view,
+                status, created_at, updated_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, false)
+            """;
+    // Cột tùy chọn không có trong file thì giữ giá trị cũ; SKU đã xóa mềm được khôi phục
+    private static final String UPDATE_VARIANT_SQL = """
+            UPDATE variants SET product_id = ?, quantity_id = ?, description = COALESCE(?, description),
+                color = COALESCE(?, color), size = COALESCE(?, size), price = ?, status = COALESCE(?, status),
+                is_deleted = false, deleted_at = NULL, updated_at = ?
+            WHERE id = ?
+            """;
+    private static final String INSERT_INVENTORY_SQL = """
+            INSERT INTO inventories (id, variant_id, supplier_id, price_import, dol, exp, date_of_entry, on_hand,
+                reserved, created_at, updated_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, false)
+            """;
+    private static final String INSERT_ERROR_SQL = """
+            INSERT INTO import_row_errors (id, job_id, line_number, sku, message, created_at, updated_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, ?, ?, false)
+            """;
+    private static final String UPDATE_PROGRESS_SQL = """
+            UPDATE import_jobs SET processed_rows = ?, created_rows = ?, updated_rows = ?, error_rows = ?,
+                updated_at = ?
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImportJobRepository jobRepository;
+    private final ImportRowErrorRepository errorRepository;
+    private final CatalogImportConfig config;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimeOrderedUuidGenerator idGenerator = new TimeOrderedUuidGenerator();
+    // Mỗi instance chạy lần lượt từng job: hai job cùng SKU chạy song song sẽ tranh nhau insert
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile boolean stopping;
+
+    public CatalogImportService(JdbcTemplate jdbcTemplate,
+                                ImportJobRepository jobRepository,
+                                ImportRowErrorRepository errorRepository,
+                                CatalogImportConfig config,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Lưu file xuống thư mục spool, tạo job và bắt đầu xử lý nền. */
+    public ImportJobResponse submit(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File import không được để trống");
+        }
+        Path target;
+        try {
+            Path dir = Path.of(config.getSpoolDir());
+            Files.createDirectories(dir);
+            target = dir.resolve(UUID.randomUUID() + ".csv");
+            file.transferTo(target);
+        } catch (IOException e) {
+            throw new IllegalStateException("Không lưu được file import", e);
+        }
+        ImportJob job = new ImportJob();
+        job.setFileName(file.getOriginalFilename());
+        job.setStoredPath(target.toAbsolutePath().toString());
+        job.setStatus(ImportJobStatus.PENDING);
+        jobRepository.save(job);
+        taskExecutor.execute(() -> run(job.getId()));
+        return ImportJobResponse.from(job);
+    }
+
+    /** Chạy tiếp job lỗi hoặc bị gián đoạn từ dòng đầu tiên chưa commit. */
+    public ImportJobResponse resume(UUID jobId) {
+        ImportJob job = load(jobId);
+        if (!RESUMABLE.contains(job.getStatus())) {
+            throw new IllegalStateException("Job đang ở trạng thái " + job.getStatus() + ", không thể chạy tiếp");
+        }
+        if (job.getStoredPath() == null || !Files.exists(Path.of(job.getStoredPath()))) {
+            throw new IllegalStateException("File import không còn trên máy chủ, vui lòng tải lên lại");
+        }
+        taskExecutor.execute(() -> run(jobId));
+        return ImportJobResponse.from(job);
+    }
+
+    public ImportJobResponse status(UUID jobId) {
+        return ImportJobResponse.from(load(jobId));
+    }
+
+    public List<ImportRowErrorResponse> errors(UUID jobId, long afterLine, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_ERROR_PAGE_SIZE));
+        return errorRepository.findByJobAfterLine(jobId, afterLine, PageRequest.of(0, size));
+    }
+
+    // Job đang RUNNING lúc khởi động là job của lần chạy trước bị dừng giữa chừng
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedJobs() {
+        int interrupted = jobRepository.markRunningInterrupted(Instant.now());
+        if (interrupted > 0) {
+            logger.warn("{} job import bị gián đoạn ở lần chạy trước, có thể chạy tiếp qua API", interrupted);
+        }
+    }
+
+    // Dừng sau chunk đang ghi thay vì bị cắt ngang; job chuyển sang INTERRUPTED
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    void run(UUID jobId) {
+        runLock.lock();
+        try {
+            if (jobRepository.claim(jobId, RESUMABLE, Instant.now()) == 0) {
+                return;
+            }
+            ImportJob job = load(jobId);
+            try {
+                boolean finished = process(job);
+                if (finished) {
+                    jobRepository.finish(jobId, ImportJobStatus.COMPLETED, null, Instant.now());
+                    Files.deleteIfExists(Path.of(job.getStoredPath()));
+                } else {
+                    jobRepository.finish(jobId, ImportJobStatus.INTERRUPTED, "Ứng dụng dừng khi đang import",
+                            Instant.now());
+                }
+            } catch (Exception e) {
+                logger.error("Import {} dừng do lỗi, các chunk đã commit được giữ lại", jobId, e);
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                jobRepository.finish(jobId, ImportJobStatus.FAILED,
+                        message.substring(0, Math.min(message.length(), 1024)), Instant.now());
+            }
+            // Ghi bằng JDBC nên không qua CatalogChangeListener: báo một sự kiện hàng loạt cho cache và chỉ mục
+            eventPublisher.publishEvent(CatalogChangedEvent.bulk(Variants.class));
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    private boolean process(ImportJob job) throws IOException {
+        Lookups lookups = loadLookups();
+        Progress progress = new Progress(job);
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(Path.of(job.getStoredPath()), StandardCharsets.UTF_8), ',')) {
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new IllegalArgumentException("File import rỗng");
+            }
+            Map<String, Integer> columns = columnIndex(header);
+
+            // Bỏ qua các dòng đã commit ở lần chạy trước
+            for (long skipped = 0; skipped < job.getProcessedRows(); skipped++) {
+                if (csv.next() == null) return true;
+            }
+
+            List<RawRow> chunk = new ArrayList<>(config.getChunkSize());
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                chunk.add(new RawRow(csv.line(), record));
+                if (chunk.size() == config.getChunkSize()) {
+                    writeChunk(job.getId(), chunk, columns, lookups, progress);
+                    chunk.clear();
+                    if (stopping) return false;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(job.getId(), chunk, columns, lookups, progress);
+            }
+        }
+        logger.info("Import {} xong: {} dòng, tạo {}, cập nhật {}, lỗi {}", job.getId(), progress.processed,
+                progress.created, progress.updated, progress.errors);
+        return true;
+    }
+
+    private void writeChunk(UUID jobId, List<RawRow> rows, Map<String, Integer> columns, Lookups lookups,
+                            Progress progress) {
+        List<ImportRow> valid = new ArrayList<>(rows.size());
+        List<Object[]> errorArgs = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        long recordedErrors = progress.recordedErrors;
+        for (RawRow raw : rows) {
+            try {
+                valid.add(parse(raw, columns, lookups));
+            } catch (IllegalArgumentException e) {
+                if (recordedErrors < config.getMaxRecordedErrors()) {
+                    errorArgs.add(new Object[]{newId(), encode(jobId), raw.line(), truncate(field(raw, columns, "sku")),
+                            truncate(e.getMessage()), now, now});
+                    recordedErrors++;
+                }
+            }
+        }
+        int errorCount = rows.size() - valid.size();
+        Map<String, UUID> newProducts = new HashMap<>();
+        int[] counts = new int[2];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, VariantRef> variants = findVariants(valid.stream().map(ImportRow::sku).collect(Collectors.toSet()));
+            List<Object[]> productInserts = new ArrayList<>();
+            List<Object[]> quantityInserts = new ArrayList<>();
+            List<Object[]> quantityUpdates = new ArrayList<>();
+            List<Object[]> variantInserts = new ArrayList<>();
+            List<Object[]> variantUpdates = new ArrayList<>();
+            List<Object[]> inventoryInserts = new ArrayList<>();
+
+            for (ImportRow row : valid) {
+                String productKey = productKey(row.brandId(), row.productName());
+                UUID productId = lookups.products.get(productKey);
+                if (productId == null) {
+                    productId = newProducts.computeIfAbsent(productKey, key -> {
+                        UUID id = idGenerator.generateUuid(null);
+                        productInserts.add(new Object[]{encode(id), row.productName(), encode(row.brandId()),
+                                encode(row.categoryId()), now, now});
+                        return id;
+                    });
+                }
+
+                // SKU lặp trong cùng chunk: dòng sau cập nhật biến thể mà dòng trước vừa tạo
+                VariantRef existing = variants.get(row.sku());
+                UUID quantityId = existing != null ? existing.quantityId() : null;
+                if (row.unit() != null) {
+                    if (quantityId == null) {
+                        quantityId = idGenerator.generateUuid(null);
+                        quantityInserts.add(new Object[]{encode(quantityId), row.unit().ordinal(), row.quantityValue(),
+                                now, now});
+                    } else {
+                        quantityUpdates.add(new Object[]{row.unit().ordinal(), row.quantityValue(), now,
+                                encode(quantityId)});
+                    }
+                }
+                String statusName = row.status() != null ? row.status().name() : null;
+                UUID variantId;
+                if (existing == null) {
+                    variantId = idGenerator.generateUuid(null);
+                    variantInserts.add(new Object[]{encode(variantId), row.sku(), row.description(), encode(productId),
+                            encode(quantityId), row.color(), row.size(), row.price(),
+                            statusName != null ? statusName : ProductStatus.AVAILABLE.name(), now, now});
+                    counts[0]++;
+                } else {
+                    variantId = existing.id();
+                    variantUpdates.add(new Object[]{encode(productId), encode(quantityId), row.description(),
+                            row.color(), row.size(), row.price(), statusName, now, encode(variantId)});
+                    counts[1]++;
+                }
+                variants.put(row.sku(), new VariantRef(variantId, quantityId));
+
+                inventoryInserts.add(new Object[]{newId(), encode(variantId), encode(row.supplierId()),
+                        row.priceImport(), row.dol(), row.exp(), now, row.onHand(), now, now});
+            }
+
+            // Thứ tự ghi theo khóa ngoại: cha trước con
+            batch(INSERT_PRODUCT_SQL, productInserts);
+            batch(INSERT_QUANTITY_SQL, quantityInserts);
+            batch(UPDATE_QUANTITY_SQL, quantityUpdates);
+            batch(INSERT_VARIANT_SQL, variantInserts);
+            batch(UPDATE_VARIANT_SQL, variantUpdates);
+            batch(INSERT_INVENTORY_SQL, inventoryInserts);
+            batch(INSERT_ERROR_SQL, errorArgs);
+            jdbcTemplate.update(UPDATE_PROGRESS_SQL, progress.processed + rows.size(), progress.created + counts[0],
+                    progress.updated + counts[1], progress.errors + errorCount, now, encode(jobId));
+        });
+
+        // Chỉ cập nhật trạng thái trong bộ nhớ sau khi commit, để chunk rollback không để lại sản phẩm "ma"
+        lookups.products.putAll(newProducts);
+        progress.processed += rows.size();
+        progress.created += counts[0];
+        progress.updated += counts[1];
+        progress.errors += errorCount;
+        progress.recordedErrors = recordedErrors;
+    }
+
+    private ImportRow parse(RawRow raw, Map<String, Integer> columns, Lookups lookups) {
+        String sku = required(raw, columns, "sku");
+        String productName = required(raw, columns, "product_name");
+        UUID brandId = resolve(lookups.brands, required(raw, columns, "brand"), "Thương hiệu");
+        UUID categoryId = resolve(lookups.categories, required(raw, columns, "category"), "Danh mục");
+        UUID supplierId = resolve(lookups.suppliers, required(raw, columns, "supplier"), "Nhà cung cấp");
+        BigDecimal price = decimal(required(raw, columns, "price"), "price");
+        int onHand = integer(required(raw, columns, "on_hand"), "on_hand");
+
+        String unitValue = field(raw, columns, "unit");
+        String quantityValue = field(raw, columns, "quantity");
+        if ((unitValue == null) != (quantityValue == null)) {
+            throw new IllegalArgumentException("Cột unit và quantity phải cùng có hoặc cùng trống");
+        }
+        UnitOfMeasure unit = unitValue != null ? enumValue(UnitOfMeasure.class, unitValue, "unit") : null;
+        BigDecimal quantity = quantityValue != null ? decimal(quantityValue, "quantity") : null;
+
+        String statusValue = field(raw, columns, "status");
+        ProductStatus status = statusValue != null ? enumValue(ProductStatus.class, statusValue, "status") : null;
+        String priceImportValue = field(raw, columns, "price_import");
+        BigDecimal priceImport = priceImportValue != null ? decimal(priceImportValue, "price_import") : null;
+        LocalDate dol = date(field(raw, columns, "dol"), "dol");
+        LocalDate exp = date(field(raw, columns, "exp"), "exp");
+        if (dol != null && exp != null && exp.isBefore(dol)) {
+            throw new IllegalArgumentException("Hạn sử dụng (exp) trước ngày sản xuất (dol)");
+        }
+
+        return new ImportRow(sku, productName, brandId, categoryId, supplierId, text(raw, columns, "description"),
+                text(raw, columns, "color"), text(raw, columns, "size"), price, unit, quantity, status, priceImport,
+                dol, exp, onHand);
+    }
+
+    private Map<String, Integer> columnIndex(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Bỏ BOM (U+FEFF) mà Excel thêm vào đầu file CSV UTF-8
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("File import thiếu cột: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private Lookups loadLookups() {
+        Lookups lookups = new Lookups();
+        loadNames("SELECT id, name FROM brands WHERE is_deleted = false", lookups.brands);
+        loadNames("SELECT id, name FROM category WHERE is_deleted = false", lookups.categories);
+        loadNames("SELECT id, name FROM suppliers WHERE is_deleted = false", lookups.suppliers);
+        jdbcTemplate.query("SELECT id, name, brand_id FROM products WHERE is_deleted = false", rs -> {
+            byte[] brandId = rs.getBytes(3);
+            String name = rs.getString(2);
+            if (brandId != null && name != null) {
+                lookups.products.putIfAbsent(productKey(decode(brandId), name), decode(rs.getBytes(1)));
+            }
+        });
+        return lookups;
+    }
+
+    private void loadNames(String sql, Map<String, UUID> target) {
+        jdbcTemplate.query(sql, rs -> {
+            String name = rs.getString(2);
+            if (name != null) {
+                target.putIfAbsent(normalize(name), decode(rs.getBytes(1)));
+            }
+        });
+    }
+
+    // Gồm cả SKU đã xóa mềm: sku là unique trên toàn bảng nên dòng cũ được khôi phục thay vì insert trùng
+    private Map<String, VariantRef> findVariants(Set<String> skus) {
+        Map<String, VariantRef> found = new HashMap<>();
+        if (skus.isEmpty()) return found;
+        String placeholders = String.join(",", Collections.nCopies(skus.size(), "?"));
+        jdbcTemplate.query("SELECT id, sku, quantity_id FROM variants WHERE sku IN (" + placeholders + ")", rs -> {
+            byte[] quantityId = rs.getBytes(3);
+            found.put(rs.getString(2), new VariantRef(decode(rs.getBytes(1)), quantityId != null ? decode(quantityId) : null));
+        }, skus.toArray());
+        return found;
+    }
+
+    private void batch(String sql, List<Object[]> args) {
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+
+    private ImportJob load(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Job import không tồn tại"));
+    }
+
+    private byte[] newId() {
+        return encode(idGenerator.generateUuid(null));
+    }
+
+    private static String required(RawRow raw, Map<String, Integer> columns, String column) {
+        String value = text(raw, columns, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Thiếu giá trị cột " + column);
+        }
+        return value;
+    }
+
+    private static String text(RawRow raw, Map<String, Integer> columns, String column) {
+        String value = field(raw, columns, column);
+        if (value != null && value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Cột " + column + " dài quá " + MAX_TEXT_LENGTH + " ký tự");
+        }
+        return value;
+    }
+
+    private static String field(RawRow raw, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= raw.values().size()) return null;
+        String value = raw.values().get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static UUID resolve(Map<String, UUID> lookup, String name, String label) {
+        UUID id = lookup.get(normalize(name));
+        if (id == null) {
+            throw new IllegalArgumentException(label + " không tồn tại: " + name);
+        }
+        return id;
+    }
+
+    private static BigDecimal decimal(String value, String column) {
+        try {
+            BigDecimal number = new BigDecimal(value);
+            if (number.signum() < 0) {
+                throw new IllegalArgumentException("Cột " + column + " không được âm");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cột " + column + " không phải số: " + value);
+        }
+    }
+
+    private static int integer(String value, String column) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 0) {
+                throw new IllegalArgumentException("Cột " + column + " không được âm");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cột " + column + " không phải số nguyên: " + value);
+        }
+    }
+
+    private static LocalDate date(String value, String column) {
+        if (value == null) return null;
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cột " + column + " không đúng định dạng yyyy-MM-dd: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String value, String column) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cột " + column + " không hợp lệ: " + value);
+        }
+    }
+
+    private static String productKey(UUID brandId, String name) {
+        return brandId + "|" + normalize(name);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= 512 ? value : value.substring(0, 512);
+    }
+
+    private static byte[] encode(UUID id) {
+        return id != null ? BinaryCodec.INSTANCE.encode(id) : null;
+    }
+
+    private static UUID decode(byte[] id) {
+        return BinaryCodec.INSTANCE.decode(id);
+    }
+
+    private record RawRow(long line, List<String> values) {
+    }
+
+    private record ImportRow(String sku, String productName, UUID brandId, UUID categoryId, UUID supplierId,
+                             String description, String color, String size, BigDecimal price, UnitOfMeasure unit,
+                             BigDecimal quantityValue, ProductStatus status, BigDecimal priceImport, LocalDate dol,
+                             LocalDate exp, int onHand) {
+    }
+
+    private record VariantRef(UUID id, UUID quantityId) {
+    }
+
+    private static final class Lookups {
+        final Map<String, UUID> brands = new HashMap<>();
+        final Map<String, UUID> categories = new HashMap<>();
+        final Map<String, UUID> suppliers = new HashMap<>();
+        // brandId|tên sản phẩm
+        final Map<String, UUID> products = new HashMap<>();
+    }
+
+    // Bộ đếm của job, khởi đầu từ giá trị đã commit để chạy tiếp cộng dồn đúng
+    private static final class Progress {
+        long processed;
+        long created;
+        long updated;
+        long errors;
+        long recordedErrors;
+
+        Progress(ImportJob job) {
+            this.processed = job.getProcessedRows();
+            this.created = job.getCreatedRows();
+            this.updated = job.getUpdatedRows();
+            this.errors = job.getErrorRows();
+            this.recordedErrors = job.getErrorRows();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CatalogCacheConfig;
+import com.example.backend.dto.CatalogCardResponse;
+import com.example.backend.dto.CatalogCursor;
+import com.example.backend.dto.CatalogPageResponse;
+import com.example.backend.dto.CatalogQuery;
+import com.example.backend.dto.ImageResponse;
+import com.example.backend.enums.CatalogSort;
+import com.example.backend.event.CatalogChangedEvent;
+import com.example.backend.repository.VariantsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+public class CatalogService {
+
+    public static final int DEFAULT_PAGE_SIZE = 48;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final VariantsRepository variantsRepository;
+    private final ImageService imageService;
+    private final Cache<CatalogQuery, CatalogPageResponse> pages;
+
+    public CatalogService(VariantsRepository variantsRepository, ImageService imageService, CatalogCacheConfig config,
+                          MeterRegistry meterRegistry) {
+        this.variantsRepository = variantsRepository;
+        this.imageService = imageService;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "catalog.pages");
+    }
+
+    public CatalogPageResponse findPage(CatalogQuery query) {
+        int limit = query.limit() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(query.limit(), MAX_PAGE_SIZE);
+        CatalogSort sort = query.sort() != null ? query.sort() : CatalogSort.NEWEST;
+        CatalogQuery normalized = new CatalogQuery(query.categoryId(), query.brandId(), query.minPrice(),
+                query.maxPrice(), query.status(), sort, query.cursor(), limit);
+        return pages.get(normalized, this::loadPage);
+    }
+
+    // Xóa cache sau khi transaction ghi sản phẩm/biến thể commit, tránh đọc lại dữ liệu chưa commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        pages.invalidateAll();
+    }
+
+    private CatalogPageResponse loadPage(CatalogQuery query) {
+        CatalogCursor after = decodeCursor(query.sort(), query.cursor());
+        // Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+        List<CatalogCardResponse> rows = variantsRepository.findCatalogPage(query, after, query.limit() + 1);
+        if (rows.size() <= query.limit()) {
+            return new CatalogPageResponse(withImages(rows), null);
+        }
+        List<CatalogCardResponse> items = withImages(rows.subList(0, query.limit()));
+        CatalogCardResponse last = items.get(items.size() - 1);
+        return new CatalogPageResponse(items, encodeCursor(query.sort(), last));
+    }
+
+    // Ảnh của mọi sản phẩm trên trang trong một truy vấn; trang kèm ảnh được cache cùng nhau
+    private List<CatalogCardResponse> withImages(List<CatalogCardResponse> cards) {
+        Map<UUID, List<ImageResponse>> images =
+                imageService.imagesByProduct(cards.stream().map(CatalogCardResponse::productId).toList());
+        return cards.stream()
+                .map(card -> card.withImage(ImageService.cover(images.get(card.productId()), card.variantId())))
+                .toList();
+    }
+
+    // Khóa sắp xếp của thẻ cuối (thời điểm tạo hoặc giá) và id, ngăn bởi '|'
+    private static String encodeCursor(CatalogSort sort, CatalogCardResponse last) {
+        Object key = sort == CatalogSort.NEWEST ? last.createdAt() : last.price().toPlainString();
+        String raw = key + "|" + last.variantId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CatalogCursor decodeCursor(CatalogSort sort, String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        String key;
+        UUID id;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            key = raw.substring(0, separator);
+            id = UUID.fromString(raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+        try {
+            return sort == CatalogSort.NEWEST
+                    ? new CatalogCursor(null, Instant.parse(key), id)
+                    : new CatalogCursor(new BigDecimal(key), null, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor không khớp với kiểu sắp xếp");
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CheckoutConfig;
+import com.example.backend.config.InventoryReservationConfig;
+import com.example.backend.dto.*;
+import com.example.backend.entity.Discount;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.TimeOrderedUuidGenerator;
+import com.example.backend.entity.User;
+import com.example.backend.enums.OrderStatus;
+import com.example.backend.enums.ProductStatus;
+import com.example.backend.event.OrderConfirmedEvent;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Checkout theo từng bước: giữ Idempotency-Key → kiểm tra giỏ → tính giá → giữ hàng → dùng mã giảm giá
+ * → ghi đơn và chi tiết (JDBC batch) → xác nhận thanh toán. Mỗi bước ghi chạy trong transaction ngắn
+ * riêng, không giữ connection qua các bước chậm. Lỗi ở bước sau thì trả lại những gì bước trước đã lấy
+ * và đánh dấu đơn FAILED; gửi lại cùng khóa sẽ chạy lại từ đầu trên chính đơn đó.
+ * Mỗi lần chạy giữ đơn bằng mốc claimedAt; nếu tiến trình chết giữa chừng, quá checkout.claim-timeout thì
+ * request cùng khóa tiếp quản đơn, hoặc {@link #sweepStale()} trả lại mã giảm giá, hàng đang giữ và đánh
+ * dấu đơn FAILED.
+ */
+@Service
+public class CheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutService.class);
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final String INSERT_DETAIL_SQL = "INSERT INTO order_details "
+            + "(id, order_id, product_id, variant_id, quantity, unit_price, created_at, updated_at, is_deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    private final CartService cartService;
+    private final VariantPriceCache priceCache;
+    private final PricingEngine pricingEngine;
+    private final InventoryReservationService reservationService;
+    private final CouponRedemptionService couponService;
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CheckoutConfig config;
+    private final TimeOrderedUuidGenerator idGenerator = new TimeOrderedUuidGenerator();
+
+    public CheckoutService(CartService cartService,
+                           VariantPriceCache priceCache,
+                           PricingEngine pricingEngine,
+                           InventoryReservationService reservationService,
+                           CouponRedemptionService couponService,
+                           OrderRepository orderRepository,
+                           PaymentRepository paymentRepository,
+                           EntityManager entityManager,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           CheckoutConfig config,
+                           InventoryReservationConfig reservationConfig) {
+        // Hàng giữ phải sống lâu hơn hạn giữ đơn, nếu không job hết hạn có thể trả hàng của đơn còn đang chạy
+        if (config.getClaimTimeout().compareTo(reservationConfig.getTtl()) >= 0) {
+            throw new IllegalStateException("checkout.claim-timeout (" + config.getClaimTimeout()
+                    + ") phải nhỏ hơn inventory.reservation.ttl (" + reservationConfig.getTtl() + ")");
+        }
+        this.cartService = cartService;
+        this.priceCache = priceCache;
+        this.pricingEngine = pricingEngine;
+        this.reservationService = reservationService;
+        this.couponService = couponService;
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.config = config;
+    }
+
+    public CheckoutResponse checkout(UUID userId, String idempotencyKey, CheckoutRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key không hợp lệ");
+        }
+        Claim claim = claim(userId, idempotencyKey.trim());
+        if (claim.replay() != null) {
+            return claim.replay();
+        }
+        UUID orderId = claim.orderId();
+        Instant lease = claim.claimedAt();
+        String reservationKey = reservationKey(orderId);
+        int reservedLines = 0;
+        CouponRedemption coupon = null;
+        try {
+            PricedCart cart = validateAndPrice(userId, request);
+
+            reservedLines = reservationService.reserve(reservationKey, cart.quantities()).size();
+
+            BigDecimal discountAmount = cart.orderDiscount();
+            if (request.getCouponCode() != null && !request.getCouponCode().isBlank()) {
+                BigDecimal payable = cart.subtotal().subtract(cart.orderDiscount());
+                coupon = redeemFor(orderId, lease, request.getCouponCode(), userId, payable);
+                discountAmount = discountAmount.add(discountAmount(coupon, payable));
+            }
+            BigDecimal afterDiscount = cart.subtotal().subtract(discountAmount);
+            BigDecimal shippingFee = afterDiscount.compareTo(config.getFreeShippingThreshold()) >= 0
+                    ? BigDecimal.ZERO : config.getShippingFee();
+            BigDecimal total = afterDiscount.add(shippingFee);
+
+            CouponRedemption redeemed = coupon;
+            BigDecimal discount = discountAmount;
+            int heldLines = reservedLines;
+            transactionTemplate.executeWithoutResult(status -> {
+                persistOrder(orderId, request, cart, redeemed, discount, shippingFee, total);
+                confirm(orderId, lease, userId, reservationKey, heldLines, cart, discount, total);
+            });
+
+            cartService.removeOrdered(userId, cart.quantities());
+            logger.info("Đã xác nhận đơn {} ({} dòng, tổng {})", orderId, cart.lines().size(), total);
+            return new CheckoutResponse(orderId, OrderStatus.CONFIRMED, cart.subtotal(), discountAmount,
+                    shippingFee, total, false);
+        } catch (RuntimeException e) {
+            compensate(orderId, lease, userId, reservationKey, reservedLines > 0, coupon);
+            throw e;
+        }
+    }
+
+    // Khóa giữ hàng của một đơn; SalesRollupService dùng lại để tìm giá vốn của các lô đã trừ kho
+    public static String reservationKey(UUID orderId) {
+        return "order:" + orderId;
+    }
+
+    // Tạo đơn PENDING mang Idempotency-Key; unique (user_id, idempotency_key) chặn hai request cùng khóa
+    private Claim claim(UUID userId, String idempotencyKey) {
+        Optional<Order> existing = orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+        if (existing.isPresent()) {
+            return resume(existing.get(), userId);
+        }
+        Instant lease = newLease();
+        try {
+            UUID orderId = transactionTemplate.execute(status -> {
+                Order order = new Order();
+                order.setUser(entityManager.getReference(User.class, userId));
+                order.setIdempotencyKey(idempotencyKey);
+                order.setStatus(OrderStatus.PENDING);
+                order.setBookingDate(Instant.now());
+                order.setClaimedAt(lease);
+                orderRepository.saveAndFlush(order);
+                return order.getId();
+            });
+            return new Claim(orderId, lease, null);
+        } catch (DataIntegrityViolationException e) {
+            Order order = orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey).orElseThrow(() -> e);
+            return resume(order, userId);
+        }
+    }
+
+    private Claim resume(Order order, UUID userId) {
+        if (order.getStatus() == OrderStatus.CONFIRMED) {
+            return new Claim(order.getId(), null, new CheckoutResponse(order.getId(), order.getStatus(),
+                    order.getSubtotal(), order.getDiscountAmount(), order.getShippingFee(), order.getTotal(), true));
+        }
+        Instant lease = newLease();
+        // Lần trước thất bại: chỉ một request giành được quyền chạy lại
+        if (order.getStatus() == OrderStatus.FAILED && transactionTemplate.execute(status ->
+                orderRepository.reclaimFailed(order.getId(), lease)) == 1) {
+            return new Claim(order.getId(), lease, null);
+        }
+        // Lần trước bỏ dở quá hạn giữ (tiến trình chết): dọn phần nó đã lấy rồi chạy lại trên chính đơn đó
+        if (order.getStatus() == OrderStatus.PENDING
+                && recoverStale(order.getId(), userId, lease.minus(config.getClaimTimeout()), lease, false)) {
+            logger.warn("Tiếp quản đơn {} bị bỏ dở ở trạng thái PENDING", order.getId());
+            return new Claim(order.getId(), lease, null);
+        }
+        throw new IllegalStateException("Đơn hàng với Idempotency-Key này đang được xử lý");
+    }
+
+    // Mốc giữ đơn cũng là token so khớp trong câu UPDATE, nên cắt về micro giây để khớp độ chính xác của cột
+    private static Instant newLease() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Dọn những đơn PENDING quá checkout.claim-timeout mà không request nào quay lại tiếp quản:
+     * trả lại mã giảm giá và hàng đang giữ rồi đánh dấu FAILED để khóa có thể gửi lại.
+     */
+    @Scheduled(fixedDelayString = "${checkout.stale-sweep-interval-ms:60000}")
+    public int sweepStale() {
+        Instant lease = newLease();
+        Instant staleBefore = lease.minus(config.getClaimTimeout());
+        int failed = 0;
+        for (Order order : orderRepository.findStalePending(staleBefore,
+                PageRequest.of(0, config.getStaleSweepBatchSize()))) {
+            try {
+                if (recoverStale(order.getId(), order.getUser().getId(), staleBefore, lease, true)) {
+                    failed++;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Không dọn được đơn bị bỏ dở {}", order.getId(), e);
+            }
+        }
+        if (failed > 0) {
+            logger.info("Đã đánh dấu FAILED {} đơn bị bỏ dở ở trạng thái PENDING", failed);
+        }
+        return failed;
+    }
+
+    // Giành đơn quá hạn giữ bằng UPDATE có điều kiện rồi trả lại mọi thứ lần chạy cũ đã lấy, cùng một transaction
+    private boolean recoverStale(UUID orderId, UUID userId, Instant staleBefore, Instant lease, boolean fail) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (orderRepository.takeOver(orderId, staleBefore, lease) != 1) {
+                return false;
+            }
+            orderRepository.findDiscountId(orderId).ifPresent(discountId -> couponService.release(discountId, userId));
+            orderRepository.detachDiscount(orderId);
+            orderRepository.deleteDetails(orderId);
+            reservationService.release(reservationKey(orderId));
+            if (fail) {
+                orderRepository.failClaimed(orderId, lease);
+            }
+            return true;
+        }));
+    }
+
+    // Dùng mã và gắn vào đơn trong cùng transaction, để lần tiếp quản sau biết phải trả lại lượt nào
+    private CouponRedemption redeemFor(UUID orderId, Instant lease, String code, UUID userId, BigDecimal subtotal) {
+        return transactionTemplate.execute(status -> {
+            CouponRedemption coupon = couponService.redeem(code, userId, subtotal);
+            if (orderRepository.attachDiscount(orderId, lease,
+                    entityManager.getReference(Discount.class, coupon.discountId())) != 1) {
+                throw new IllegalStateException("Đơn hàng đã được request khác tiếp quản");
+            }
+            return coupon;
+        });
+    }
+
+    private PricedCart validateAndPrice(UUID userId, CheckoutRequest request) {
+        Map<UUID, Integer> items = cartService.items(userId);
+        if (items.isEmpty()) {
+            throw new IllegalStateException("Giỏ hàng trống");
+        }
+        if (request.getPaymentMethodId() != null && !paymentRepository.existsById(request.getPaymentMethodId())) {
+            throw new IllegalArgumentException("Phương thức thanh toán không tồn tại");
+        }
+        Map<UUID, VariantPriceSnapshot> prices = priceCache.getAll(items.keySet());
+        List<VariantPriceSnapshot> variants = new ArrayList<>(items.size());
+        int[] quantities = new int[items.size()];
+        for (Map.Entry<UUID, Integer> entry : items.entrySet()) {
+            VariantPriceSnapshot snapshot = prices.get(entry.getKey());
+            if (snapshot == null || (snapshot.status() != null && snapshot.status() != ProductStatus.AVAILABLE)) {
+                throw new IllegalStateException("Sản phẩm " + entry.getKey() + " không còn bán, vui lòng cập nhật giỏ hàng");
+            }
+            quantities[variants.size()] = entry.getValue();
+            variants.add(snapshot);
+        }
+        // Tạm tính của đơn đã gồm luật giảm giá tự động; mã giảm giá (coupon) trừ tiếp trên tạm tính này
+        CartPricing pricing = pricingEngine.price(variants, quantities);
+        List<OrderLine> lines = new ArrayList<>(variants.size());
+        for (int i = 0; i < variants.size(); i++) {
+            PricedLine line = pricing.lines().get(i);
+            lines.add(new OrderLine(line.variantId(), variants.get(i).productId(), line.quantity(), line.unitPrice()));
+        }
+        // Luật giảm trên cả đơn không nằm trong giá dòng, nên ghi vào discount_amount của đơn cùng mã giảm giá
+        return new PricedCart(items, List.copyOf(lines), pricing.total().add(pricing.orderDiscount()),
+                pricing.orderDiscount());
+    }
+
+    // Giảm theo phần trăm, discountValue là mức giảm tối đa; không có phần trăm thì giảm thẳng discountValue
+    private static BigDecimal discountAmount(CouponRedemption coupon, BigDecimal subtotal) {
+        BigDecimal cap = coupon.discountValue();
+        BigDecimal amount;
+        if (coupon.discountPercent() > 0) {
+            amount = subtotal.multiply(BigDecimal.valueOf(coupon.discountPercent()))
+                    .divide(HUNDRED, subtotal.scale(), RoundingMode.HALF_UP);
+            if (cap != null && cap.signum() > 0) amount = amount.min(cap);
+        } else {
+            amount = cap != null ? cap : BigDecimal.ZERO;
+        }
+        return amount.min(subtotal);
+    }
+
+    private void persistOrder(UUID orderId, CheckoutRequest request, PricedCart cart, CouponRedemption coupon,
+                              BigDecimal discountAmount, BigDecimal shippingFee, BigDecimal total) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalStateException("Đơn hàng không tồn tại"));
+        order.setNameReceiver(request.getNameReceiver().trim());
+        order.setPhone(request.getPhone().trim());
+        order.setOrderAddress(request.getOrderAddress().trim());
+        order.setNotes(request.getNotes());
+        order.setSubtotal(cart.subtotal());
+        order.setDiscountAmount(discountAmount);
+        order.setShippingFee(shippingFee);
+        order.setTotal(total);
+        if (coupon != null) {
+            order.setDiscount(entityManager.getReference(Discount.class, coupon.discountId()));
+        }
+        if (request.getPaymentMethodId() != null) {
+            order.setPayment(paymentRepository.getReferenceById(request.getPaymentMethodId()));
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        byte[] orderKey = BinaryCodec.INSTANCE.encode(orderId);
+        List<Object[]> rows = new ArrayList<>(cart.lines().size());
+        for (OrderLine line : cart.lines()) {
+            rows.add(new Object[]{
+                    BinaryCodec.INSTANCE.encode(idGenerator.generateUuid(null)),
+                    orderKey,
+                    BinaryCodec.INSTANCE.encode(line.productId()),
+                    BinaryCodec.INSTANCE.encode(line.variantId()),
+                    line.quantity(),
+                    line.unitPrice(),
+                    now,
+                    now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, rows);
+    }
+
+    // Chuyển PENDING -> CONFIRMED, trừ hẳn hàng đã giữ và phát sự kiện trong cùng transaction với ghi đơn
+    private void confirm(UUID orderId, Instant lease, UUID userId, String reservationKey, int reservedLines,
+                         PricedCart cart, BigDecimal discountAmount, BigDecimal total) {
+        entityManager.flush();
+        if (orderRepository.confirmClaimed(orderId, lease) != 1) {
+            throw new IllegalStateException("Đơn hàng không còn ở trạng thái chờ xử lý");
+        }
+        // commit bỏ qua dòng không còn HELD (job hết hạn đã trả lại); thiếu dòng nào là đơn chưa trừ đủ kho
+        if (reservationService.commit(reservationKey) != reservedLines) {
+            throw new IllegalStateException("Hàng giữ cho đơn đã hết hạn, vui lòng đặt lại");
+        }
+        eventPublisher.publishEvent(new OrderConfirmedEvent(orderId, userId, reservationKey, cart.subtotal(),
+                discountAmount, total, cart.lines(), Instant.now()));
+    }
+
+    // Chỉ hoàn tác khi đơn còn thuộc lần chạy này; đơn đã bị tiếp quản thì lần chạy mới đã tự dọn
+    private void compensate(UUID orderId, Instant lease, UUID userId, String reservationKey, boolean reserved,
+                            CouponRedemption coupon) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (orderRepository.failClaimed(orderId, lease) != 1) {
+                    logger.warn("Đơn {} đã được request khác tiếp quản, bỏ qua hoàn tác", orderId);
+                    return;
+                }
+                orderRepository.deleteDetails(orderId);
+                if (coupon != null) {
+                    couponService.release(coupon.discountId(), userId);
+                }
+                if (reserved) {
+                    reservationService.release(reservationKey);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Đơn vẫn PENDING nên sweepStale sẽ dọn khi quá hạn giữ
+            logger.error("Không hoàn tác được checkout của đơn {}", orderId, e);
+        }
+    }
+
+    private record Claim(UUID orderId, Instant claimedAt, CheckoutResponse replay) {
+    }
+
+    // subtotal là tổng tiền các dòng sau luật tự động theo đơn vị, orderDiscount là luật giảm trên cả đơn
+    private record PricedCart(Map<UUID, Integer> quantities, List<OrderLine> lines, BigDecimal subtotal,
+                              BigDecimal orderDiscount) {
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CouponConfig;
+import com.example.backend.dto.CouponRedemption;
+import com.example.backend.entity.Discount;
+import com.example.backend.entity.User;
+import com.example.backend.entity.UserDiscount;
+import com.example.backend.event.DiscountChangedEvent;
+import com.example.backend.repository.DiscountRepository;
+import com.example.backend.repository.UserDiscountRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dùng mã giảm giá: kiểm tra điều kiện trên chỉ mục mã đang hoạt động trong bộ nhớ,
+ * giữ chỗ bằng CAS trên bộ đếm, rồi ghi bền xuống DB bằng update có điều kiện
+ * ({@code used_count < usage_limit}). DB là nơi quyết định cuối cùng nên nhiều instance
+ * chạy song song vẫn không dùng vượt giới hạn; bộ đếm trong bộ nhớ chỉ để từ chối sớm.
+ * Gọi trong transaction của bên gọi thì bộ đếm chỉ được chốt theo kết quả của transaction đó
+ * (xem {@link #onCompletion}).
+ */
+@Service
+public class CouponRedemptionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CouponRedemptionService.class);
+
+    private final DiscountRepository discountRepository;
+    private final UserDiscountRepository userDiscountRepository;
+    private final EntityManager entityManager;
+    private final CouponConfig config;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Map<String, ActiveCoupon> coupons = Map.of();
+    // Không dùng synchronized: reload chạy truy vấn DB, kể cả trên thread request khi mã giảm giá thay đổi
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public CouponRedemptionService(DiscountRepository discountRepository,
+                                   UserDiscountRepository userDiscountRepository,
+                                   EntityManager entityManager,
+                                   CouponConfig config,
+                                   PlatformTransactionManager transactionManager) {
+        this.discountRepository = discountRepository;
+        this.userDiscountRepository = userDiscountRepository;
+        this.entityManager = entityManager;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Kiểm tra mã có dùng được cho đơn hàng này không, không tiêu lượt
+    public CouponRedemption check(String code, UUID userId, BigDecimal orderTotal) {
+        ActiveCoupon coupon = eligibleCoupon(code, orderTotal);
+        if (coupon.usedBy(userId).get() >= config.getPerUserLimit()) {
+            throw new IllegalStateException("Bạn đã dùng hết lượt cho mã giảm giá này");
+        }
+        if (coupon.used.get() >= coupon.usageLimit) {
+            throw new IllegalStateException("Mã giảm giá đã hết lượt sử dụng");
+        }
+        return coupon.toRedemption();
+    }
+
+    public CouponRedemption redeem(String code, UUID userId, BigDecimal orderTotal) {
+        ActiveCoupon coupon = eligibleCoupon(code, orderTotal);
+        AtomicInteger usedByUser = coupon.usedBy(userId);
+        if (!tryAcquire(usedByUser, config.getPerUserLimit())) {
+            throw new IllegalStateException("Bạn đã dùng hết lượt cho mã giảm giá này");
+        }
+        if (!tryAcquire(coupon.used, coupon.usageLimit)) {
+            usedByUser.decrementAndGet();
+            throw new IllegalStateException("Mã giảm giá đã hết lượt sử dụng");
+        }
+
+        Outcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> {
+                Outcome result = persistRedemption(coupon.id, userId);
+                if (result != Outcome.REDEEMED) status.setRollbackOnly();
+                return result;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Instance khác vừa tạo dòng user_discounts cho cùng người dùng
+            outcome = Outcome.USER_LIMIT;
+        } catch (RuntimeException e) {
+            usedByUser.decrementAndGet();
+            coupon.used.decrementAndGet();
+            throw e;
+        }
+        if (outcome != Outcome.REDEEMED) {
+            usedByUser.decrementAndGet();
+            coupon.used.decrementAndGet();
+            throw new IllegalStateException(outcome == Outcome.USER_LIMIT
+                    ? "Bạn đã dùng hết lượt cho mã giảm giá này"
+                    : "Mã giảm giá đã hết lượt sử dụng");
+        }
+        // Lượt đã giữ trên bộ đếm được trả lại nếu transaction bên ngoài rollback lượt dùng trong DB
+        onCompletion(() -> { }, () -> {
+            decrementIfPositive(usedByUser);
+            decrementIfPositive(coupon.used);
+        });
+        return coupon.toRedemption();
+    }
+
+    // Trả lại lượt đã dùng khi đơn hàng bị hủy hoặc thanh toán thất bại
+    public void release(UUID discountId, UUID userId) {
+        Boolean released = transactionTemplate.execute(status -> {
+            if (userDiscountRepository.decrement(userId, discountId) == 0) {
+                return false;
+            }
+            discountRepository.releaseRedemption(discountId);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(released)) return;
+        onCompletion(() -> {
+            for (ActiveCoupon coupon : coupons.values()) {
+                if (coupon.id.equals(discountId)) {
+                    decrementIfPositive(coupon.used);
+                    AtomicInteger usedByUser = coupon.usedByUser.get(userId);
+                    if (usedByUser != null) decrementIfPositive(usedByUser);
+                }
+            }
+        }, () -> { });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountChanged(DiscountChangedEvent event) {
+        reload();
+    }
+
+    // Đồng bộ lại bộ đếm theo DB, bắt kịp lượt dùng từ các instance khác và mã mới hết hạn
+    @Scheduled(fixedDelayString = "${coupon.refresh-interval-ms:60000}",
+            initialDelayString = "${coupon.refresh-interval-ms:60000}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            Map<String, ActiveCoupon> fresh = new HashMap<>();
+            for (Discount discount : discountRepository.findActiveCoupons(LocalDate.now())) {
+                ActiveCoupon coupon = new ActiveCoupon(discount);
+                if (fresh.putIfAbsent(coupon.code, coupon) != null) {
+                    logger.warn("Mã giảm giá {} bị trùng, chỉ dùng bản ghi đầu tiên", coupon.code);
+                }
+            }
+            coupons = Map.copyOf(fresh);
+            logger.debug("Đã nạp {} mã giảm giá đang hoạt động", fresh.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private ActiveCoupon eligibleCoupon(String code, BigDecimal orderTotal) {
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Mã giảm giá không được để trống");
+        }
+        ActiveCoupon coupon = coupons.get(normalize(code));
+        LocalDate today = LocalDate.now();
+        if (coupon == null
+                || (coupon.startDate != null && today.isBefore(coupon.startDate))
+                || (coupon.endDate != null && today.isAfter(coupon.endDate))) {
+            throw new IllegalArgumentException("Mã giảm giá không tồn tại hoặc đã hết hạn");
+        }
+        if (coupon.minimumOrder != null && (orderTotal == null || orderTotal.compareTo(coupon.minimumOrder) < 0)) {
+            throw new IllegalArgumentException("Đơn hàng chưa đạt giá trị tối thiểu để dùng mã giảm giá");
+        }
+        if (coupon.maximumOrder != null && orderTotal != null && orderTotal.compareTo(coupon.maximumOrder) > 0) {
+            throw new IllegalArgumentException("Đơn hàng vượt giá trị tối đa được dùng mã giảm giá");
+        }
+        return coupon;
+    }
+
+    // Cập nhật dòng user_discounts trước, dòng discounts (dòng nóng) sau cùng để khóa giữ ngắn nhất
+    private Outcome persistRedemption(UUID discountId, UUID userId) {
+        if (userDiscountRepository.tryIncrement(userId, discountId, config.getPerUserLimit()) == 0) {
+            if (userDiscountRepository.findUsedCount(userId, discountId).isPresent()) {
+                return Outcome.USER_LIMIT;
+            }
+            UserDiscount userDiscount = new UserDiscount();
+            userDiscount.setUser(entityManager.getReference(User.class, userId));
+            userDiscount.setDiscount(entityManager.getReference(Discount.class, discountId));
+            userDiscount.setUsedCount(1);
+            userDiscountRepository.saveAndFlush(userDiscount);
+        }
+        return discountRepository.tryRedeem(discountId) == 1 ? Outcome.REDEEMED : Outcome.EXHAUSTED;
+    }
+
+    private AtomicInteger loadUsedCount(ActiveCoupon coupon, UUID userId) {
+        int used = userDiscountRepository.findUsedCount(userId, coupon.id).orElse(0);
+        AtomicInteger counter = new AtomicInteger(used);
+        AtomicInteger existing = coupon.usedByUser.putIfAbsent(userId, counter);
+        return existing != null ? existing : counter;
+    }
+
+    // transactionTemplate tham gia transaction của bên gọi nếu có, khi đó DB chỉ thật sự đổi lúc transaction
+    // đó commit; không có transaction bên ngoài thì lượt ghi đã commit xong và chốt bộ đếm ngay
+    private static void onCompletion(Runnable committed, Runnable rolledBack) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                (status == STATUS_COMMITTED ? committed : rolledBack).run();
+            }
+        });
+    }
+
+    private static boolean tryAcquire(AtomicInteger counter, int limit) {
+        while (true) {
+            int current = counter.get();
+            if (current >= limit) return false;
+            if (counter.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    private static void decrementIfPositive(AtomicInteger counter) {
+        counter.getAndUpdate(value -> value > 0 ? value - 1 : 0);
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private enum Outcome {
+        REDEEMED, USER_LIMIT, EXHAUSTED
+    }
+
+    private final class ActiveCoupon {
+        final UUID id;
+        final String code;
+        final String displayCode;
+        final int discountPercent;
+        final BigDecimal discountValue;
+        final BigDecimal minimumOrder;
+        final BigDecimal maximumOrder;
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final int usageLimit;
+        final AtomicInteger used;
+        // Nạp lười theo người dùng ở lần kiểm tra đầu tiên, nên mỗi người dùng chỉ đọc user_discounts một lần
+        // cho mỗi mã trong một chu kỳ reload. Bị bỏ khi reload để nhận lượt trả lại/đã dùng trên instance khác
+        final ConcurrentHashMap<UUID, AtomicInteger> usedByUser = new ConcurrentHashMap<>();
+
+        ActiveCoupon(Discount discount) {
+            this.id = discount.getId();
+            this.code = normalize(discount.getCode());
+            this.displayCode = discount.getCode();
+            this.discountPercent = discount.getDiscountPercent();
+            this.discountValue = discount.getDiscountValue();
+            this.minimumOrder = discount.getMinimumOrder();
+            this.maximumOrder = discount.getMaximumOrder();
+            this.startDate = discount.getStartDate();
+            this.endDate = discount.getEndDate();
+            this.usageLimit = discount.getUsageLimit();
+            this.used = new AtomicInteger(discount.getUsedCount());
+        }
+
+        AtomicInteger usedBy(UUID userId) {
+            AtomicInteger counter = usedByUser.get(userId);
+            return counter != null ? counter : loadUsedCount(this, userId);
+        }
+
+        CouponRedemption toRedemption() {
+            return new CouponRedemption(id, displayCode, discountPercent, discountValue);
+        }
+    }
+}
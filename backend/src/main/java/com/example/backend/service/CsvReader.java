@@ -0,0 +1,110 @@
+package com.example.backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc CSV (RFC 4180) từng bản ghi một từ một Reader, không giữ cả file trong bộ nhớ. Hỗ trợ trường
+ * trong dấu nháy kép, nháy kép thoát bằng {@code ""} và xuống dòng bên trong trường.
+ */
+final class CsvReader implements AutoCloseable {
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char delimiter;
+    private int pending = -2;
+    private long line = 0;
+    private long recordLine = 0;
+
+    CsvReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /** Bản ghi tiếp theo, hoặc null khi hết file. Dòng trống bị bỏ qua. */
+    List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == EOF) return null;
+            if (c == '\n') {
+                line++;
+                continue;
+            }
+            if (c == '\r') continue;
+            unread(c);
+            line++;
+            recordLine = line;
+            return readRecord();
+        }
+    }
+
+    /** Số dòng vật lý nơi bản ghi vừa đọc bắt đầu (dòng đầu file là 1). */
+    long line() {
+        return recordLine;
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == EOF) throw new IOException("Thiếu dấu nháy đóng ở dòng " + line);
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == EOF || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') unread(next);
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = false;
+            } else if (c == '"' && !fieldStarted) {
+                quoted = true;
+                fieldStarted = true;
+            } else {
+                field.append((char) c);
+                fieldStarted = true;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
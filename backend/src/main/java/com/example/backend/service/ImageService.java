@@ -0,0 +1,103 @@
+package com.example.backend.service;
+
+import com.example.backend.config.ImageDeliveryConfig;
+import com.example.backend.dto.ImageResponse;
+import com.example.backend.dto.ImageSnapshot;
+import com.example.backend.dto.ImageUrls;
+import com.example.backend.repository.ImageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Ảnh sản phẩm/biến thể cho catalog. Ảnh của cả một trang được tải bằng một truy vấn theo danh sách
+ * productId; URL responsive (độ rộng × định dạng × chất lượng, dẫn xuất từ publicId) được tính một lần
+ * rồi giữ trong cache theo publicId, nên dựng thẻ sản phẩm không phát sinh truy vấn hay tính toán theo ảnh.
+ */
+@Service
+public class ImageService {
+
+    private final ImageRepository imageRepository;
+    private final ImageDeliveryConfig config;
+    private final Cache<String, ImageUrls> urls;
+
+    public ImageService(ImageRepository imageRepository, ImageDeliveryConfig config, MeterRegistry meterRegistry) {
+        this.imageRepository = imageRepository;
+        this.config = config;
+        this.urls = Caffeine.newBuilder()
+                .maximumSize(config.getUrlCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, urls, "catalog.image-urls");
+    }
+
+    /** Tất cả ảnh của các sản phẩm, theo thứ tự position; sản phẩm không có ảnh không có trong map. */
+    public Map<UUID, List<ImageResponse>> imagesByProduct(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) return Map.of();
+        Map<UUID, List<ImageResponse>> result = new LinkedHashMap<>();
+        for (ImageSnapshot image : imageRepository.findByProductIds(new LinkedHashSet<>(productIds))) {
+            result.computeIfAbsent(image.productId(), id -> new ArrayList<>()).add(toResponse(image));
+        }
+        return result;
+    }
+
+    public List<ImageResponse> imagesForProduct(UUID productId) {
+        return imagesByProduct(List.of(productId)).getOrDefault(productId, List.of());
+    }
+
+    /**
+     * Ảnh đại diện cho thẻ biến thể: ảnh riêng của biến thể nếu có, không thì ảnh chung đầu tiên của
+     * sản phẩm, cuối cùng là ảnh đầu tiên bất kỳ của sản phẩm.
+     */
+    public static ImageResponse cover(List<ImageResponse> productImages, UUID variantId) {
+        if (productImages == null || productImages.isEmpty()) return null;
+        ImageResponse shared = null;
+        for (ImageResponse image : productImages) {
+            if (variantId != null && variantId.equals(image.variantId())) return image;
+            if (shared == null && image.variantId() == null) shared = image;
+        }
+        return shared != null ? shared : productImages.get(0);
+    }
+
+    /** URL responsive của một publicId, tính một lần rồi lấy từ cache. */
+    public ImageUrls urls(String publicId) {
+        return urls.get(publicId, this::buildUrls);
+    }
+
+    private ImageResponse toResponse(ImageSnapshot image) {
+        if (image.publicId() == null || image.publicId().isBlank()) {
+            // Ảnh cũ chưa có publicId: chỉ có URL gốc, không sinh được biến thể
+            return new ImageResponse(image.id(), image.variantId(), image.position(), image.url(), Map.of());
+        }
+        ImageUrls computed = urls(image.publicId());
+        return new ImageResponse(image.id(), image.variantId(), image.position(), computed.src(), computed.srcset());
+    }
+
+    private ImageUrls buildUrls(String publicId) {
+        String base = config.getBaseUrl().endsWith("/")
+                ? config.getBaseUrl().substring(0, config.getBaseUrl().length() - 1)
+                : config.getBaseUrl();
+        Map<String, String> srcset = new LinkedHashMap<>();
+        for (String format : config.getFormats()) {
+            StringJoiner entries = new StringJoiner(", ");
+            for (int width : config.getWidths()) {
+                entries.add(url(base, publicId, width, format) + " " + width + "w");
+            }
+            srcset.put(format, entries.toString());
+        }
+        String src = url(base, publicId, config.getDefaultWidth(), config.getFormats().get(0));
+        return new ImageUrls(src, Collections.unmodifiableMap(srcset));
+    }
+
+    private String url(String base, String publicId, int width, String format) {
+        return base + "/" + transformation(width, format, config.getQuality()) + "/" + publicId;
+    }
+
+    static String transformation(int width, String format, int quality) {
+        return "w_" + width + ",f_" + format + ",q_" + quality;
+    }
+}
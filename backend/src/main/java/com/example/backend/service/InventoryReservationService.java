@@ -0,0 +1,160 @@
+package com.example.backend.service;
+
+import com.example.backend.config.InventoryReservationConfig;
+import com.example.backend.dto.InventoryBatchAvailability;
+import com.example.backend.entity.InventoryReservation;
+import com.example.backend.enums.ReservationStatus;
+import com.example.backend.repository.InventoryRepository;
+import com.example.backend.repository.InventoryReservationRepository;
+import com.example.backend.repository.VariantsRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Giữ, xác nhận và trả tồn kho theo lô (Inventory.onHand / reserved).
+ * Mỗi lần trừ kho là một câu UPDATE có điều kiện nên không bao giờ bán quá số lượng,
+ * kể cả khi nhiều instance cùng chạy.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReservationService.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final VariantsRepository variantsRepository;
+    private final InventoryReservationConfig config;
+
+    /**
+     * Giữ hàng cho nhiều biến thể trong một transaction. Thiếu hàng ở bất kỳ biến thể nào
+     * thì rollback toàn bộ. Gọi lại với cùng reservationKey trả về các dòng đang giữ.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<InventoryReservation> reserve(String reservationKey, Map<UUID, Integer> quantities) {
+        if (reservationKey == null || reservationKey.isBlank()) {
+            throw new IllegalArgumentException("Mã giữ hàng không được để trống");
+        }
+        List<InventoryReservation> existing =
+                reservationRepository.findByReservationKeyAndStatus(reservationKey, ReservationStatus.HELD);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+
+        Instant expiresAt = Instant.now().plus(config.getTtl());
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<InventoryReservation> reservations = new ArrayList<>();
+
+        // Duyệt biến thể theo thứ tự cố định để các transaction khóa dòng cùng một thứ tự, tránh deadlock
+        for (Map.Entry<UUID, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            UUID variantId = entry.getKey();
+            int requested = entry.getValue() != null ? entry.getValue() : 0;
+            if (requested <= 0) {
+                throw new IllegalArgumentException("Số lượng giữ hàng phải lớn hơn 0");
+            }
+            int remaining = allocate(reservationKey, variantId, requested, today, expiresAt, reservations);
+            if (remaining > 0) {
+                throw new IllegalStateException("Không đủ tồn kho cho biến thể " + variantId);
+            }
+        }
+        return reservationRepository.saveAll(reservations);
+    }
+
+    @Transactional
+    public int commit(String reservationKey) {
+        return complete(reservationKey, ReservationStatus.COMMITTED);
+    }
+
+    @Transactional
+    public int release(String reservationKey) {
+        return complete(reservationKey, ReservationStatus.RELEASED);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        int released = releaseExpired(Instant.now());
+        if (released > 0) {
+            logger.info("Đã trả lại {} dòng giữ hàng hết hạn", released);
+        }
+    }
+
+    @Transactional
+    public int releaseExpired(Instant now) {
+        List<InventoryReservation> expired =
+                reservationRepository.findExpiredHeld(now, PageRequest.of(0, config.getSweepBatchSize()));
+        int released = 0;
+        for (InventoryReservation reservation : expired) {
+            if (reservationRepository.transition(reservation.getId(), ReservationStatus.HELD, ReservationStatus.RELEASED) == 1) {
+                inventoryRepository.releaseReserved(reservation.getInventory().getId(), reservation.getQuantity());
+                released++;
+            }
+        }
+        return released;
+    }
+
+    // Phân bổ FEFO qua các lô; trả về số lượng còn thiếu
+    private int allocate(String reservationKey, UUID variantId, int requested, LocalDate today,
+                         Instant expiresAt, List<InventoryReservation> reservations) {
+        int remaining = requested;
+        for (int attempt = 0; attempt < config.getMaxAllocationAttempts() && remaining > 0; attempt++) {
+            List<InventoryBatchAvailability> batches = inventoryRepository.findAllocatableBatches(variantId, today);
+            if (batches.isEmpty()) {
+                break;
+            }
+            for (InventoryBatchAvailability batch : batches) {
+                int take = Math.min(remaining, batch.available());
+                if (take <= 0) continue;
+                // 0 dòng nghĩa là giao dịch khác vừa lấy hàng của lô này; lần thử sau sẽ đọc lại
+                if (inventoryRepository.tryReserve(batch.inventoryId(), take) == 1) {
+                    reservations.add(newReservation(reservationKey, batch.inventoryId(), variantId, take, expiresAt));
+                    remaining -= take;
+                    if (remaining == 0) break;
+                }
+            }
+        }
+        return remaining;
+    }
+
+    private InventoryReservation newReservation(String reservationKey, UUID inventoryId, UUID variantId,
+                                                int quantity, Instant expiresAt) {
+        InventoryReservation reservation = new InventoryReservation();
+        reservation.setReservationKey(reservationKey);
+        reservation.setInventory(inventoryRepository.getReferenceById(inventoryId));
+        reservation.setVariant(variantsRepository.getReferenceById(variantId));
+        reservation.setQuantity(quantity);
+        reservation.setStatus(ReservationStatus.HELD);
+        reservation.setExpiresAt(expiresAt);
+        return reservation;
+    }
+
+    private int complete(String reservationKey, ReservationStatus target) {
+        List<InventoryReservation> held =
+                reservationRepository.findByReservationKeyAndStatus(reservationKey, ReservationStatus.HELD);
+        int completed = 0;
+        for (InventoryReservation reservation : held) {
+            if (reservationRepository.transition(reservation.getId(), ReservationStatus.HELD, target) != 1) {
+                continue; // đã bị job hết hạn hoặc request khác xử lý
+            }
+            UUID inventoryId = reservation.getInventory().getId();
+            int updated = target == ReservationStatus.COMMITTED
+                    ? inventoryRepository.commitReserved(inventoryId, reservation.getQuantity())
+                    : inventoryRepository.releaseReserved(inventoryId, reservation.getQuantity());
+            if (updated != 1) {
+                throw new IllegalStateException("Tồn kho lô " + inventoryId + " không khớp với dòng giữ hàng");
+            }
+            completed++;
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderCursor;
+import com.example.backend.dto.OrderItemResponse;
+import com.example.backend.dto.OrderPageResponse;
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.enums.OrderStatus;
+import com.example.backend.repository.OrderRepository;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Lịch sử đơn hàng của người dùng. Mỗi trang tốn đúng hai truy vấn: một truy vấn keyset cho các đơn
+ * (đi trên index (user_id, status, booking_date)) và một truy vấn IN cho chi tiết của cả trang.
+ */
+@Service
+public class OrderService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+
+    public OrderService(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    public OrderPageResponse history(UUID userId, OrderStatus status, String cursor, int limit) {
+        int size = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        // Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+        List<OrderResponse> rows = orderRepository.findHistoryPage(userId, status, decodeCursor(cursor), size + 1);
+        boolean hasMore = rows.size() > size;
+        List<OrderResponse> orders = withItems(hasMore ? rows.subList(0, size) : rows);
+        String nextCursor = hasMore ? encodeCursor(orders.get(orders.size() - 1)) : null;
+        return new OrderPageResponse(orders, nextCursor);
+    }
+
+    public OrderResponse get(UUID userId, UUID orderId) {
+        OrderResponse order = orderRepository.findByIdAndUserId(orderId, userId)
+                .map(o -> new OrderResponse(o.getId(), o.getStatus(), o.getBookingDate(), o.getDeliveryDate(),
+                        o.getNameReceiver(), o.getPhone(), o.getOrderAddress(), o.getSubtotal(),
+                        o.getDiscountAmount(), o.getShippingFee(), o.getTotal()))
+                .orElseThrow(() -> new IllegalArgumentException("Đơn hàng không tồn tại"));
+        return withItems(List.of(order)).get(0);
+    }
+
+    private List<OrderResponse> withItems(List<OrderResponse> orders) {
+        if (orders.isEmpty()) return List.of();
+        Map<UUID, List<OrderItemResponse>> items = new HashMap<>();
+        for (OrderItemResponse item : orderRepository.findItemsByOrderIds(
+                orders.stream().map(OrderResponse::id).toList())) {
+            items.computeIfAbsent(item.orderId(), id -> new ArrayList<>()).add(item);
+        }
+        List<OrderResponse> result = new ArrayList<>(orders.size());
+        for (OrderResponse order : orders) {
+            result.add(order.withItems(List.copyOf(items.getOrDefault(order.id(), List.of()))));
+        }
+        return List.copyOf(result);
+    }
+
+    private static String encodeCursor(OrderResponse last) {
+        String raw = last.bookingDate().toString() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static OrderCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new OrderCursor(Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CartPricing;
+import com.example.backend.dto.DiscountRuleSnapshot;
+import com.example.backend.dto.PricedLine;
+import com.example.backend.dto.VariantPriceSnapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Bộ luật giảm giá tự động đã biên dịch, tra theo biến thể, sản phẩm và danh mục. Bất biến sau khi
+ * dựng: {@link PricingEngine} thay cả đối tượng khi discount thay đổi, request đang tính dở vẫn dùng
+ * trọn bộ luật cũ.
+ *
+ * Tiền được tính bằng long theo đơn vị 1/100 (khớp cột numeric(38,2)), phần trăm theo 1/100 phần trăm;
+ * làm tròn HALF_UP như BigDecimal và tràn số ném ArithmeticException thay vì cho kết quả sai.
+ * Giá mỗi dòng: giá niêm yết trừ phần trăm giảm của biến thể (không có thì của sản phẩm), rồi trừ luật
+ * tự động giảm nhiều nhất trong các luật áp dụng được; luật không cộng dồn.
+ *
+ * Luật có phạm vi (biến thể/sản phẩm/danh mục) và luật toàn cửa hàng theo phần trăm tính trên mỗi đơn vị:
+ * discountValue là mức giảm (hoặc mức giảm tối đa) của một đơn vị. Luật toàn cửa hàng không có phần trăm
+ * tính trên cả đơn như mã giảm giá: giảm thẳng discountValue một lần, chỉ trên các dòng chưa có luật nào.
+ */
+public final class PriceRuleIndex {
+
+    static final int MONEY_SCALE = 2;
+    // 100% = 10_000
+    private static final long FULL_PERCENT = 10_000;
+    private static final Rule[] NONE = new Rule[0];
+
+    public static final PriceRuleIndex EMPTY = compile(List.of());
+
+    private final Map<UUID, Rule[]> byVariant;
+    private final Map<UUID, Rule[]> byProduct;
+    private final Map<UUID, Rule[]> byCategory;
+    private final Rule[] global;
+    private final Rule[] orderLevel;
+    private final int size;
+
+    private PriceRuleIndex(Map<UUID, Rule[]> byVariant, Map<UUID, Rule[]> byProduct, Map<UUID, Rule[]> byCategory,
+                           Rule[] global, Rule[] orderLevel, int size) {
+        this.byVariant = byVariant;
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.global = global;
+        this.orderLevel = orderLevel;
+        this.size = size;
+    }
+
+    /** Mỗi luật vào đúng một nhóm theo phạm vi cụ thể nhất của nó. */
+    public static PriceRuleIndex compile(Collection<DiscountRuleSnapshot> rows) {
+        Map<UUID, List<Rule>> byVariant = new HashMap<>();
+        Map<UUID, List<Rule>> byProduct = new HashMap<>();
+        Map<UUID, List<Rule>> byCategory = new HashMap<>();
+        List<Rule> global = new ArrayList<>();
+        List<Rule> orderLevel = new ArrayList<>();
+        int size = 0;
+        for (DiscountRuleSnapshot row : rows) {
+            Rule rule = Rule.of(row);
+            if (rule == null) continue;
+            if (row.variantId() != null) {
+                byVariant.computeIfAbsent(row.variantId(), id -> new ArrayList<>()).add(rule);
+            } else if (row.productId() != null) {
+                byProduct.computeIfAbsent(row.productId(), id -> new ArrayList<>()).add(rule);
+            } else if (row.categoryId() != null) {
+                byCategory.computeIfAbsent(row.categoryId(), id -> new ArrayList<>()).add(rule);
+            } else if (rule.percent > 0) {
+                global.add(rule);
+            } else {
+                orderLevel.add(rule);
+            }
+            size++;
+        }
+        return new PriceRuleIndex(freeze(byVariant), freeze(byProduct), freeze(byCategory),
+                global.toArray(NONE), orderLevel.toArray(NONE), size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tính giá cả giỏ: lượt đầu tính giá cơ sở và tạm tính (điều kiện minimumOrder/maximumOrder của luật
+     * xét trên tạm tính này), lượt sau chọn luật cho từng dòng, cuối cùng trừ luật giảm thẳng trên cả đơn.
+     * Chỉ tra map trong bộ nhớ, không truy vấn DB.
+     */
+    public CartPricing price(List<VariantPriceSnapshot> variants, int[] quantities, LocalDate today) {
+        if (variants.size() != quantities.length) {
+            throw new IllegalArgumentException("Số dòng và số lượng không khớp");
+        }
+        int count = variants.size();
+        long[] basePrices = new long[count];
+        long subtotal = 0;
+        for (int i = 0; i < count; i++) {
+            if (quantities[i] <= 0) {
+                throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
+            }
+            basePrices[i] = basePriceMinor(variants.get(i));
+            subtotal = Math.addExact(subtotal, Math.multiplyExact(basePrices[i], quantities[i]));
+        }
+
+        List<PricedLine> lines = new ArrayList<>(count);
+        long discount = 0;
+        long withoutRule = 0;
+        for (int i = 0; i < count; i++) {
+            VariantPriceSnapshot variant = variants.get(i);
+            long base = basePrices[i];
+            Rule best = best(null, byVariant.get(variant.variantId()), base, subtotal, today);
+            best = best(best, byProduct.get(variant.productId()), base, subtotal, today);
+            best = best(best, byCategory.get(variant.categoryId()), base, subtotal, today);
+            best = best(best, global, base, subtotal, today);
+            long unitDiscount = best != null ? best.unitDiscount(base) : 0;
+            long unitPrice = base - unitDiscount;
+            discount = Math.addExact(discount, Math.multiplyExact(unitDiscount, quantities[i]));
+            if (best == null) withoutRule = Math.addExact(withoutRule, Math.multiplyExact(base, quantities[i]));
+            lines.add(new PricedLine(variant.variantId(), quantities[i], variant.price(), money(base), money(unitPrice),
+                    money(Math.multiplyExact(unitPrice, quantities[i])), best != null ? best.id : null));
+        }
+
+        Rule orderRule = null;
+        for (Rule rule : orderLevel) {
+            if (rule.appliesTo(subtotal, today) && (orderRule == null || rule.flat > orderRule.flat)) {
+                orderRule = rule;
+            }
+        }
+        long orderDiscount = orderRule != null ? Math.min(orderRule.flat, withoutRule) : 0;
+        if (orderDiscount == 0) orderRule = null;
+        discount = Math.addExact(discount, orderDiscount);
+        return new CartPricing(Collections.unmodifiableList(lines), money(subtotal), money(discount),
+                money(orderDiscount), orderRule != null ? orderRule.id : null, money(subtotal - discount));
+    }
+
+    /** Giá sau phần trăm giảm của biến thể, hoặc của sản phẩm khi biến thể không có. */
+    public static BigDecimal basePrice(VariantPriceSnapshot variant) {
+        return money(basePriceMinor(variant));
+    }
+
+    private static long basePriceMinor(VariantPriceSnapshot variant) {
+        if (variant.price() == null) return 0;
+        long price = toMinor(variant.price());
+        BigDecimal percent = variant.discountPercent() != null && variant.discountPercent().signum() > 0
+                ? variant.discountPercent()
+                : variant.productDiscountPercent();
+        if (percent == null || percent.signum() <= 0) return price;
+        return price - percentOf(price, Math.min(FULL_PERCENT, toMinor(percent)));
+    }
+
+    // Luật đứng trước thắng khi bằng nhau, nên gọi theo thứ tự biến thể > sản phẩm > danh mục > toàn cửa hàng
+    private static Rule best(Rule current, Rule[] candidates, long base, long subtotal, LocalDate today) {
+        if (candidates == null) return current;
+        long currentDiscount = current != null ? current.unitDiscount(base) : 0;
+        for (Rule rule : candidates) {
+            if (!rule.appliesTo(subtotal, today)) continue;
+            long discount = rule.unitDiscount(base);
+            if (discount > currentDiscount) {
+                current = rule;
+                currentDiscount = discount;
+            }
+        }
+        return current;
+    }
+
+    private static long percentOf(long amount, long percent) {
+        return (Math.multiplyExact(amount, percent) + FULL_PERCENT / 2) / FULL_PERCENT;
+    }
+
+    private static long toMinor(BigDecimal value) {
+        return value.setScale(MONEY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal money(long minor) {
+        return BigDecimal.valueOf(minor, MONEY_SCALE);
+    }
+
+    private static Map<UUID, Rule[]> freeze(Map<UUID, List<Rule>> grouped) {
+        Map<UUID, Rule[]> frozen = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((id, rules) -> frozen.put(id, rules.toArray(NONE)));
+        return frozen;
+    }
+
+    private static final class Rule {
+        final UUID id;
+        final long percent;
+        // -1: không giới hạn mức giảm
+        final long cap;
+        final long flat;
+        final long minimumOrder;
+        final long maximumOrder;
+        final LocalDate startDate;
+        final LocalDate endDate;
+
+        private Rule(DiscountRuleSnapshot row) {
+            this.id = row.id();
+            this.percent = Math.min(FULL_PERCENT, row.discountPercent() * 100L);
+            long value = row.discountValue() != null && row.discountValue().signum() > 0 ? toMinor(row.discountValue()) : 0;
+            this.cap = percent > 0 && value > 0 ? value : -1;
+            this.flat = percent > 0 ? 0 : value;
+            this.minimumOrder = row.minimumOrder() != null ? toMinor(row.minimumOrder()) : Long.MIN_VALUE;
+            this.maximumOrder = row.maximumOrder() != null ? toMinor(row.maximumOrder()) : Long.MAX_VALUE;
+            this.startDate = row.startDate();
+            this.endDate = row.endDate();
+        }
+
+        // Luật không giảm gì (không phần trăm, không giá trị) bị bỏ khi biên dịch
+        static Rule of(DiscountRuleSnapshot row) {
+            Rule rule = new Rule(row);
+            return rule.percent > 0 || rule.flat > 0 ? rule : null;
+        }
+
+        boolean appliesTo(long subtotal, LocalDate today) {
+            return subtotal >= minimumOrder && subtotal <= maximumOrder
+                    && (startDate == null || !today.isBefore(startDate))
+                    && (endDate == null || !today.isAfter(endDate));
+        }
+
+        // Giảm trên mỗi đơn vị: phần trăm giá cơ sở (tối đa discountValue), hoặc thẳng discountValue.
+        // Không dùng cho luật toàn cửa hàng giảm thẳng, loại đó trừ một lần trên cả đơn
+        long unitDiscount(long base) {
+            long discount = percent > 0 ? percentOf(base, percent) : flat;
+            if (cap >= 0) discount = Math.min(discount, cap);
+            return Math.min(discount, base);
+        }
+    }
+}
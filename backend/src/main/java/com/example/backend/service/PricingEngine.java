@@ -0,0 +1,63 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CartPricing;
+import com.example.backend.dto.VariantPriceSnapshot;
+import com.example.backend.event.DiscountChangedEvent;
+import com.example.backend.repository.DiscountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tính giá giỏ hàng/đơn hàng trên {@link PriceRuleIndex} trong bộ nhớ. Bộ luật được biên dịch lại khi
+ * discount thay đổi (sau commit) và định kỳ để bỏ luật hết hạn, rồi thay nguyên khối bằng một lần gán.
+ */
+@Service
+public class PricingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    private final DiscountRepository discountRepository;
+    private volatile PriceRuleIndex rules = PriceRuleIndex.EMPTY;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public PricingEngine(DiscountRepository discountRepository) {
+        this.discountRepository = discountRepository;
+    }
+
+    /** quantities[i] là số lượng của variants.get(i). */
+    public CartPricing price(List<VariantPriceSnapshot> variants, int[] quantities) {
+        return rules.price(variants, quantities, LocalDate.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountChanged(DiscountChangedEvent event) {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${pricing.refresh-interval-ms:300000}",
+            initialDelayString = "${pricing.refresh-interval-ms:300000}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            PriceRuleIndex fresh = PriceRuleIndex.compile(discountRepository.findActivePriceRules(LocalDate.now()));
+            rules = fresh;
+            logger.debug("Đã biên dịch {} luật giảm giá tự động", fresh.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ProductSearchHit;
+import com.example.backend.dto.ProductSearchRequest;
+import com.example.backend.dto.ProductSearchResponse;
+import com.example.backend.dto.SearchDocument;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Chỉ mục đảo ngược trong bộ nhớ cho tên, mô tả sản phẩm và sku, màu, size của biến thể.
+ *
+ * <p>Mỗi biến thể được gán một số thứ tự (ordinal) tăng dần; posting list là mảng int của ordinal.
+ * Cập nhật một biến thể = đánh dấu ordinal cũ là đã xóa và thêm ordinal mới, nên không phải sửa
+ * posting list cũ. Khi tỉ lệ ordinal chết cao, service dựng lại chỉ mục mới rồi thay thế.
+ *
+ * <p>Văn bản được bỏ dấu tiếng Việt trước khi tách từ ("son môi" và "son moi" là một).
+ * Mỗi từ trong câu truy vấn khớp theo: nguyên từ, tiền tố, hoặc sai một ký tự (từ dài từ 4 ký tự,
+ * tra bằng bảng "xóa một ký tự" kiểu SymSpell thay vì so khoảng cách với toàn bộ từ điển).
+ */
+public class ProductSearchIndex {
+
+    public static final String FACET_BRAND = "brand";
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_COLOR = "color";
+    public static final String FACET_SIZE = "size";
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 200;
+    private static final int SCORE_EXACT = 3;
+    private static final int SCORE_PREFIX = 2;
+    private static final int SCORE_FUZZY = 1;
+    private static final int SCORE_NAME_BONUS = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> entries = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final Map<UUID, Integer> ordinalByVariant = new HashMap<>();
+    private final Map<UUID, Set<UUID>> variantsByProduct = new HashMap<>();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+
+    public void upsert(SearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.variantId());
+            addInternal(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID variantId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(variantId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Thay toàn bộ biến thể của một sản phẩm, biến thể không còn trong danh sách thì bị xóa
+    public void replaceProduct(UUID productId, Collection<SearchDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            Set<UUID> previous = variantsByProduct.get(productId);
+            if (previous != null) {
+                for (UUID variantId : List.copyOf(previous)) {
+                    removeInternal(variantId);
+                }
+            }
+            for (SearchDocument document : documents) {
+                removeInternal(document.variantId());
+                addInternal(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalByVariant.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double deadRatio() {
+        lock.readLock().lock();
+        try {
+            return entries.isEmpty() ? 0 : 1.0 - (double) ordinalByVariant.size() / entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductSearchResponse search(ProductSearchRequest request, boolean indexReady) {
+        List<String> tokens = tokenize(request.q());
+        String colorFilter = normalizeKey(request.color());
+        String sizeFilter = normalizeKey(request.size());
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = tokens.isEmpty() ? allLive() : match(tokens);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put(FACET_BRAND, new HashMap<>());
+            facets.put(FACET_CATEGORY, new HashMap<>());
+            facets.put(FACET_COLOR, new HashMap<>());
+            facets.put(FACET_SIZE, new HashMap<>());
+
+            PriorityQueue<int[]> top = new PriorityQueue<>(
+                    Comparator.<int[]>comparingInt(a -> a[1]).thenComparingInt(a -> a[0]));
+            int limit = Math.max(1, request.limit());
+            int total = 0;
+
+            for (Map.Entry<Integer, Integer> match : scores.entrySet()) {
+                Entry entry = entries.get(match.getKey());
+                SearchDocument doc = entry.document;
+                if (request.brandId() != null && !request.brandId().equals(doc.brandId())) continue;
+                if (request.categoryId() != null && !request.categoryId().equals(doc.categoryId())) continue;
+                if (colorFilter != null && !colorFilter.equals(entry.colorKey)) continue;
+                if (sizeFilter != null && !sizeFilter.equals(entry.sizeKey)) continue;
+
+                total++;
+                countFacet(facets.get(FACET_BRAND), doc.brandName());
+                countFacet(facets.get(FACET_CATEGORY), doc.categoryName());
+                countFacet(facets.get(FACET_COLOR), doc.color());
+                countFacet(facets.get(FACET_SIZE), doc.size());
+
+                top.offer(new int[]{match.getKey(), match.getValue()});
+                if (top.size() > limit) top.poll();
+            }
+
+            List<ProductSearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                int[] hit = top.poll();
+                SearchDocument doc = entries.get(hit[0]).document;
+                hits.add(new ProductSearchHit(doc.variantId(), doc.productId(), doc.productName(), doc.sku(),
+                        doc.brandName(), doc.categoryName(), doc.color(), doc.size(), doc.price(), hit[1]));
+            }
+            Collections.reverse(hits);
+            return new ProductSearchResponse(hits, total, facets, indexReady);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ----- tách từ -----
+
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String lower = text.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        if (normalized.isBlank()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(normalized)) {
+            if (!token.isEmpty()) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static String normalizeKey(String value) {
+        if (value == null || value.isBlank()) return null;
+        return String.join(" ", tokenize(value));
+    }
+
+    // ----- ghi -----
+
+    private void addInternal(SearchDocument document) {
+        int ordinal = entries.size();
+        Set<String> nameTerms = new HashSet<>(tokenize(document.productName()));
+        entries.add(new Entry(document, nameTerms, normalizeKey(document.color()), normalizeKey(document.size())));
+        live.set(ordinal);
+        ordinalByVariant.put(document.variantId(), ordinal);
+        variantsByProduct.computeIfAbsent(document.productId(), id -> new HashSet<>()).add(document.variantId());
+
+        Set<String> documentTerms = new HashSet<>(nameTerms);
+        documentTerms.addAll(tokenize(document.description()));
+        documentTerms.addAll(tokenize(document.sku()));
+        documentTerms.addAll(tokenize(document.color()));
+        documentTerms.addAll(tokenize(document.size()));
+        for (String term : documentTerms) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(term, postings);
+                indexDeletions(term);
+            }
+            postings.add(ordinal);
+        }
+    }
+
+    private void removeInternal(UUID variantId) {
+        Integer ordinal = ordinalByVariant.remove(variantId);
+        if (ordinal == null) return;
+        live.clear(ordinal);
+        UUID productId = entries.get(ordinal).document.productId();
+        Set<UUID> siblings = variantsByProduct.get(productId);
+        if (siblings != null) {
+            siblings.remove(variantId);
+            if (siblings.isEmpty()) variantsByProduct.remove(productId);
+        }
+    }
+
+    private void indexDeletions(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) return;
+        for (String deletion : singleDeletions(term)) {
+            deletions.computeIfAbsent(deletion, d -> new HashSet<>()).add(term);
+        }
+    }
+
+    // ----- đọc -----
+
+    private Map<Integer, Integer> allLive() {
+        Map<Integer, Integer> all = new HashMap<>();
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            all.put(i, 0);
+        }
+        return all;
+    }
+
+    // Mọi từ trong truy vấn đều phải khớp (AND); điểm là tổng điểm khớp tốt nhất của từng từ
+    private Map<Integer, Integer> match(List<String> tokens) {
+        Map<Integer, Integer> result = null;
+        for (String token : tokens) {
+            Map<Integer, Integer> tokenScores = matchToken(token);
+            if (result == null) {
+                result = tokenScores;
+            } else {
+                Map<Integer, Integer> merged = new HashMap<>();
+                for (Map.Entry<Integer, Integer> e : result.entrySet()) {
+                    Integer score = tokenScores.get(e.getKey());
+                    if (score != null) merged.put(e.getKey(), e.getValue() + score);
+                }
+                result = merged;
+            }
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    private Map<Integer, Integer> matchToken(String token) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        Postings exact = terms.get(token);
+        if (exact != null) collect(exact, token, SCORE_EXACT, scores);
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Map.Entry<String, Postings> e
+                    : terms.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                collect(e.getValue(), e.getKey(), SCORE_PREFIX, scores);
+                if (++expansions >= MAX_PREFIX_EXPANSIONS) break;
+            }
+        }
+
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            for (String candidate : fuzzyCandidates(token)) {
+                collect(terms.get(candidate), candidate, SCORE_FUZZY, scores);
+            }
+        }
+        return scores;
+    }
+
+    private void collect(Postings postings, String term, int score, Map<Integer, Integer> scores) {
+        for (int i = 0; i < postings.size; i++) {
+            int ordinal = postings.ordinals[i];
+            if (!live.get(ordinal)) continue;
+            int total = score + (entries.get(ordinal).nameTerms.contains(term) ? SCORE_NAME_BONUS : 0);
+            scores.merge(ordinal, total, Math::max);
+        }
+    }
+
+    // Các từ trong từ điển cách token đúng một phép sửa (thêm, bớt, thay, đảo hai ký tự kề nhau)
+    private Set<String> fuzzyCandidates(String token) {
+        Set<String> candidates = new HashSet<>(deletions.getOrDefault(token, Set.of()));
+        for (String deletion : singleDeletions(token)) {
+            if (terms.containsKey(deletion)) candidates.add(deletion);
+            candidates.addAll(deletions.getOrDefault(deletion, Set.of()));
+        }
+        candidates.remove(token);
+        candidates.removeIf(candidate -> !withinOneEdit(token, candidate));
+        return candidates;
+    }
+
+    private static List<String> singleDeletions(String term) {
+        List<String> result = new ArrayList<>(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    private static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) return false;
+        if (la == lb) {
+            int first = -1;
+            int diffs = 0;
+            for (int i = 0; i < la; i++) {
+                if (a.charAt(i) != b.charAt(i)) {
+                    if (++diffs > 2) return false;
+                    if (first < 0) first = i;
+                }
+            }
+            if (diffs <= 1) return true;
+            // Đảo hai ký tự kề nhau
+            return first + 1 < la && a.charAt(first) == b.charAt(first + 1) && a.charAt(first + 1) == b.charAt(first)
+                    && a.substring(first + 2).equals(b.substring(first + 2));
+        }
+        String shorter = la < lb ? a : b;
+        String longer = la < lb ? b : a;
+        int i = 0;
+        while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) i++;
+        return shorter.substring(i).equals(longer.substring(i + 1));
+    }
+
+    private static void countFacet(Map<String, Integer> facet, String value) {
+        if (value == null || value.isBlank()) return;
+        facet.merge(value, 1, Integer::sum);
+    }
+
+    private record Entry(SearchDocument document, Set<String> nameTerms, String colorKey, String sizeKey) {
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) ordinals = Arrays.copyOf(ordinals, size * 2);
+            ordinals[size++] = ordinal;
+        }
+    }
+}
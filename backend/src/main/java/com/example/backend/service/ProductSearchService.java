@@ -0,0 +1,148 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ProductSearchRequest;
+import com.example.backend.dto.ProductSearchResponse;
+import com.example.backend.dto.SearchDocument;
+import com.example.backend.entity.Brand;
+import com.example.backend.entity.Category;
+import com.example.backend.entity.Product;
+import com.example.backend.entity.Variants;
+import com.example.backend.event.CatalogChangedEvent;
+import com.example.backend.repository.VariantsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Quản lý vòng đời của {@link ProductSearchIndex}: dựng lại từ DB ở nền khi khởi động
+ * (không chặn readiness) và cập nhật từng phần theo CatalogChangedEvent.
+ * Mọi thao tác ghi chỉ mục chạy tuần tự trên một thread riêng.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final double REBUILD_DEAD_RATIO = 0.3;
+    private static final int MAX_LIMIT = 100;
+
+    private final VariantsRepository variantsRepository;
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "product-search-indexer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    private volatile boolean ready;
+
+    public ProductSearchService(VariantsRepository variantsRepository) {
+        this.variantsRepository = variantsRepository;
+    }
+
+    public ProductSearchResponse search(ProductSearchRequest request) {
+        int limit = request.limit() <= 0 ? 20 : Math.min(request.limit(), MAX_LIMIT);
+        ProductSearchRequest normalized = new ProductSearchRequest(request.q(), request.brandId(),
+                request.categoryId(), request.color(), request.size(), limit);
+        return index.search(normalized, ready);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isBulk()) {
+            scheduleRebuild();
+            return;
+        }
+        indexer.execute(() -> {
+            try {
+                apply(event);
+                if (index.deadRatio() > REBUILD_DEAD_RATIO) {
+                    scheduleRebuild();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Không cập nhật được chỉ mục tìm kiếm cho {} {}",
+                        event.entityType().getSimpleName(), event.entityId(), e);
+            }
+        });
+    }
+
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            indexer.execute(this::rebuild);
+        }
+    }
+
+    // Dựng chỉ mục mới bên cạnh chỉ mục cũ rồi thay thế, search vẫn phục vụ từ chỉ mục cũ trong lúc dựng.
+    // Chạy trên thread indexer nên các sự kiện đến trong lúc dựng sẽ được áp dụng lên chỉ mục mới.
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        long start = System.nanoTime();
+        try {
+            ProductSearchIndex fresh = new ProductSearchIndex();
+            UUID after = new UUID(0L, 0L);
+            while (true) {
+                List<SearchDocument> batch =
+                        variantsRepository.findSearchDocumentsAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (SearchDocument document : batch) {
+                    fresh.upsert(document);
+                }
+                if (batch.size() < REBUILD_BATCH_SIZE) break;
+                after = batch.get(batch.size() - 1).variantId();
+            }
+            index = fresh;
+            ready = true;
+            logger.info("Đã dựng chỉ mục tìm kiếm: {} biến thể trong {} ms",
+                    fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Dựng chỉ mục tìm kiếm thất bại", e);
+        }
+    }
+
+    private void apply(CatalogChangedEvent event) {
+        Class<?> type = event.entityType();
+        UUID id = event.entityId();
+        ProductSearchIndex current = index;
+        if (Variants.class.equals(type)) {
+            List<SearchDocument> documents = event.deleted() ? List.of() : variantsRepository.findSearchDocumentsByIds(List.of(id));
+            if (documents.isEmpty()) {
+                current.remove(id);
+            } else {
+                current.upsert(documents.get(0));
+            }
+        } else if (Product.class.equals(type)) {
+            List<SearchDocument> documents = event.deleted() ? List.of() : variantsRepository.findSearchDocumentsByProduct(id);
+            current.replaceProduct(id, documents);
+        } else if (Brand.class.equals(type)) {
+            upsertAll(current, variantsRepository.findSearchDocumentsByBrand(id));
+        } else if (Category.class.equals(type)) {
+            upsertAll(current, variantsRepository.findSearchDocumentsByCategory(id));
+        }
+    }
+
+    private void upsertAll(ProductSearchIndex current, List<SearchDocument> documents) {
+        for (SearchDocument document : documents) {
+            current.upsert(document);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+}
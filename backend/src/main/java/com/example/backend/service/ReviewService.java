@@ -0,0 +1,258 @@
+package com.example.backend.service;
+
+import com.example.backend.config.ReviewConfig;
+import com.example.backend.dto.ProductRatingSummaryResponse;
+import com.example.backend.dto.ReviewPageResponse;
+import com.example.backend.dto.ReviewRequest;
+import com.example.backend.dto.ReviewResponse;
+import com.example.backend.entity.Product;
+import com.example.backend.entity.ProductRatingSummary;
+import com.example.backend.entity.Review;
+import com.example.backend.entity.User;
+import com.example.backend.repository.ProductRatingSummaryRepository;
+import com.example.backend.repository.ReviewRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Đánh giá sản phẩm và bảng tổng hợp product_rating_summaries. Mỗi lần một đánh giá được duyệt hoặc
+ * một đánh giá đã duyệt bị xóa, tổng hợp được cộng/trừ trong cùng transaction với thay đổi trạng thái,
+ * nên trang danh sách sản phẩm đọc điểm trung bình và phân bố sao mà không quét bảng reviews.
+ * {@link #rebuildSummaries()} tính lại toàn bộ từ reviews khi cần đối soát.
+ */
+@Service
+public class ReviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_STATE_RETRIES = 3;
+
+    private static final String REBUILD_DELETE_SQL = "DELETE FROM product_rating_summaries";
+    private static final String REBUILD_INSERT_SQL = """
+            INSERT INTO product_rating_summaries
+                (product_id, review_count, rating_sum, star1, star2, star3, star4, star5, updated_at)
+            SELECT product_id, COUNT(*), SUM(rating),
+                SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END),
+                SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END),
+                SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END),
+                SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END),
+                SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END),
+                CURRENT_TIMESTAMP
+            FROM reviews
+            WHERE accept = TRUE AND is_deleted = FALSE AND product_id IS NOT NULL
+            GROUP BY product_id
+            """;
+
+    private final ReviewRepository reviewRepository;
+    private final ProductRatingSummaryRepository summaryRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReviewConfig config;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+
+    public ReviewService(ReviewRepository reviewRepository,
+                         ProductRatingSummaryRepository summaryRepository,
+                         EntityManager entityManager,
+                         JdbcTemplate jdbcTemplate,
+                         ReviewConfig config,
+                         PlatformTransactionManager transactionManager) {
+        this.reviewRepository = reviewRepository;
+        this.summaryRepository = summaryRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public ReviewResponse create(UUID userId, ReviewRequest request) {
+        if (request.getRating() < 1 || request.getRating() > 5) {
+            throw new IllegalArgumentException("Điểm đánh giá phải từ 1 đến 5");
+        }
+        boolean accepted = config.isAutoAccept();
+        if (accepted) {
+            ensureSummaryRow(request.getProductId());
+        }
+        Review saved = transactionTemplate.execute(status -> {
+            Product product = entityManager.find(Product.class, request.getProductId());
+            if (product == null || product.isDeleted()) {
+                throw new IllegalArgumentException("Sản phẩm không tồn tại");
+            }
+            User user = entityManager.getReference(User.class, userId);
+            Review review = new Review();
+            review.setUser(user);
+            review.setProduct(product);
+            review.setRating(request.getRating());
+            review.setContent(request.getContent());
+            review.setDateOfReview(Instant.now());
+            review.setAccepted(accepted);
+            entityManager.persist(review);
+            if (accepted) {
+                summaryRepository.applyDelta(product.getId(), review.getRating(), 1, Instant.now());
+            }
+            return review;
+        });
+        return new ReviewResponse(saved.getId(), userId, null, saved.getRating(), saved.getContent(),
+                saved.getDateOfReview(), null, null);
+    }
+
+    /** Duyệt đánh giá. Trả về false nếu đánh giá đã được duyệt trước đó (gọi lại không cộng trùng). */
+    public boolean accept(UUID reviewId) {
+        Review review = load(reviewId);
+        UUID productId = review.getProduct().getId();
+        ensureSummaryRow(productId);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            if (reviewRepository.markAccepted(reviewId, now) == 0) {
+                return false;
+            }
+            summaryRepository.applyDelta(productId, review.getRating(), 1, now);
+            return true;
+        }));
+    }
+
+    /** Xóa mềm đánh giá của chính người dùng. */
+    public void deleteOwn(UUID userId, UUID reviewId) {
+        Review review = load(reviewId);
+        if (review.getUser() == null || !review.getUser().getId().equals(userId)) {
+            throw new IllegalArgumentException("Bạn không có quyền xóa đánh giá này");
+        }
+        delete(reviewId);
+    }
+
+    /** Xóa mềm đánh giá; nếu đánh giá đã được duyệt thì trừ khỏi tổng hợp trong cùng transaction. */
+    public void delete(UUID reviewId) {
+        for (int attempt = 0; attempt < MAX_STATE_RETRIES; attempt++) {
+            Review review = load(reviewId);
+            UUID productId = review.getProduct().getId();
+            boolean accepted = review.isAccepted();
+            Boolean deleted = transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                // Điều kiện theo trạng thái duyệt vừa đọc: nếu bị duyệt song song thì thử lại với trạng thái mới
+                if (reviewRepository.softDelete(reviewId, accepted, now) == 0) {
+                    return false;
+                }
+                if (accepted) {
+                    summaryRepository.applyDelta(productId, review.getRating(), -1, now);
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(deleted)) return;
+        }
+        throw new IllegalStateException("Đánh giá đang được cập nhật, vui lòng thử lại");
+    }
+
+    public ReviewPageResponse listForProduct(UUID productId, String cursor, int limit) {
+        int size = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        UUID before = decodeCursor(cursor);
+        // Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<ReviewResponse> rows = before == null
+                ? reviewRepository.findAcceptedByProduct(productId, page)
+                : reviewRepository.findAcceptedByProductBefore(productId, before, page);
+        if (rows.size() <= size) {
+            return new ReviewPageResponse(List.copyOf(rows), null);
+        }
+        List<ReviewResponse> items = List.copyOf(rows.subList(0, size));
+        return new ReviewPageResponse(items, encodeCursor(items.get(items.size() - 1).id()));
+    }
+
+    public ProductRatingSummaryResponse summary(UUID productId) {
+        return summaryRepository.findById(productId)
+                .map(ReviewService::toResponse)
+                .orElseGet(() -> empty(productId));
+    }
+
+    /** Tổng hợp cho cả một trang sản phẩm bằng một truy vấn theo khóa chính. */
+    public List<ProductRatingSummaryResponse> summaries(Collection<UUID> productIds) {
+        if (productIds.isEmpty()) return List.of();
+        Map<UUID, ProductRatingSummary> found = new HashMap<>();
+        for (ProductRatingSummary summary : summaryRepository.findAllById(new LinkedHashSet<>(productIds))) {
+            found.put(summary.getProductId(), summary);
+        }
+        List<ProductRatingSummaryResponse> result = new ArrayList<>(productIds.size());
+        for (UUID productId : new LinkedHashSet<>(productIds)) {
+            ProductRatingSummary summary = found.get(productId);
+            result.add(summary != null ? toResponse(summary) : empty(productId));
+        }
+        return result;
+    }
+
+    /**
+     * Tính lại toàn bộ tổng hợp từ bảng reviews trong một transaction. Dùng để đối soát hoặc sau khi
+     * chạy migration; các lần duyệt/xóa chạy song song sẽ chờ khóa trên bảng tổng hợp.
+     */
+    public int rebuildSummaries() {
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(REBUILD_DELETE_SQL);
+            return jdbcTemplate.update(REBUILD_INSERT_SQL);
+        });
+        logger.info("Đã tính lại tổng hợp đánh giá cho {} sản phẩm", rows);
+        return rows != null ? rows : 0;
+    }
+
+    private Review load(UUID reviewId) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new IllegalArgumentException("Đánh giá không tồn tại"));
+        if (review.isDeleted()) {
+            throw new IllegalArgumentException("Đánh giá không tồn tại");
+        }
+        return review;
+    }
+
+    // Dòng tổng hợp được tạo trong transaction riêng trước khi cộng dồn, để cập nhật chính chỉ là một
+    // lệnh UPDATE; hai request tạo cùng lúc thì một bên gặp unique key và bỏ qua
+    private void ensureSummaryRow(UUID productId) {
+        if (summaryRepository.existsById(productId)) return;
+        try {
+            newTransaction.executeWithoutResult(status -> entityManager.persist(new ProductRatingSummary(productId)));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Tổng hợp đánh giá cho sản phẩm {} vừa được tạo bởi request khác", productId);
+        }
+    }
+
+    private static ProductRatingSummaryResponse toResponse(ProductRatingSummary summary) {
+        BigDecimal average = summary.getReviewCount() == 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(summary.getRatingSum())
+                        .divide(BigDecimal.valueOf(summary.getReviewCount()), 2, RoundingMode.HALF_UP);
+        return new ProductRatingSummaryResponse(summary.getProductId(), summary.getReviewCount(), average,
+                List.of(summary.getStar1(), summary.getStar2(), summary.getStar3(), summary.getStar4(),
+                        summary.getStar5()));
+    }
+
+    private static ProductRatingSummaryResponse empty(UUID productId) {
+        return new ProductRatingSummaryResponse(productId, 0, BigDecimal.ZERO, List.of(0L, 0L, 0L, 0L, 0L));
+    }
+
+    private static String encodeCursor(UUID last) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(last.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UUID decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return UUID.fromString(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+    }
+}
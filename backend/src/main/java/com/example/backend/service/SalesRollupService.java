@@ -0,0 +1,355 @@
+package com.example.backend.service;
+
+import com.example.backend.config.SalesAnalyticsConfig;
+import com.example.backend.dto.*;
+import com.example.backend.entity.SalesDailyRollup;
+import com.example.backend.enums.OrderStatus;
+import com.example.backend.event.OrderConfirmedEvent;
+import com.example.backend.repository.InventoryReservationRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.SalesDailyRollupRepository;
+import com.example.backend.repository.SalesDailyVariantRollupRepository;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rollup doanh số cho trang quản trị: bảng theo ngày và theo ngày × biến thể (kèm sản phẩm, thương hiệu,
+ * danh mục), cộng dồn sau khi đơn được xác nhận. Báo cáo chỉ đọc các bảng này nên không có GROUP BY
+ * nào chạy trên orders/order_details trong giờ cao điểm.
+ *
+ * Mỗi đơn được cộng đúng một lần nhờ bảng sales_rollup_orders (ghi cùng transaction với phần cộng dồn).
+ * Đơn vừa xác nhận được đưa vào hàng đợi có giới hạn và cộng bởi job định kỳ; hàng đợi đầy thì bỏ qua đơn
+ * thay vì chặn thread checkout. Nếu một lần cộng bị lỡ (hàng đợi đầy, ứng dụng dừng đột ngột) hoặc đơn đổi
+ * trạng thái sau đó, {@link #rebuild(LocalDate, LocalDate)} tính lại khoảng ngày từ dữ liệu gốc.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    public static final int DEFAULT_TOP_LIMIT = 20;
+    public static final int MAX_TOP_LIMIT = 500;
+    // Trạng thái được tính là đã bán
+    static final List<OrderStatus> SOLD = List.of(OrderStatus.CONFIRMED, OrderStatus.SHIPPING, OrderStatus.DELIVERED);
+
+    private static final String INSERT_LEDGER_SQL =
+            "INSERT INTO sales_rollup_orders (order_id, sales_date, applied_at) VALUES (?, ?, ?)";
+    private static final String UPSERT_DAILY_SQL = """
+            INSERT INTO sales_daily_rollups
+                (sales_date, order_count, units, gross_revenue, discount_amount, shipping_fee, cost, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                order_count = order_count + VALUES(order_count),
+                units = units + VALUES(units),
+                gross_revenue = gross_revenue + VALUES(gross_revenue),
+                discount_amount = discount_amount + VALUES(discount_amount),
+                shipping_fee = shipping_fee + VALUES(shipping_fee),
+                cost = cost + VALUES(cost),
+                updated_at = VALUES(updated_at)
+            """;
+    private static final String UPSERT_VARIANT_SQL = """
+            INSERT INTO sales_daily_variant_rollups
+                (sales_date, variant_id, product_id, brand_id, category_id, units, revenue, cost, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                product_id = VALUES(product_id),
+                brand_id = VALUES(brand_id),
+                category_id = VALUES(category_id),
+                units = units + VALUES(units),
+                revenue = revenue + VALUES(revenue),
+                cost = cost + VALUES(cost),
+                updated_at = VALUES(updated_at)
+            """;
+    private static final String DELETE_DAILY_SQL = "DELETE FROM sales_daily_rollups WHERE sales_date BETWEEN ? AND ?";
+    private static final String DELETE_VARIANT_SQL =
+            "DELETE FROM sales_daily_variant_rollups WHERE sales_date BETWEEN ? AND ?";
+    private static final String DELETE_LEDGER_SQL = "DELETE FROM sales_rollup_orders WHERE sales_date BETWEEN ? AND ?";
+
+    private final OrderRepository orderRepository;
+    private final InventoryReservationRepository reservationRepository;
+    private final SalesDailyRollupRepository dailyRepository;
+    private final SalesDailyVariantRollupRepository variantRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesAnalyticsConfig config;
+    private final ZoneId zone;
+    private final BlockingQueue<UUID> pending;
+    // ReentrantLock thay cho synchronized: drain giữ khóa qua lệnh JDBC, tránh ghim carrier của virtual thread
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    public SalesRollupService(OrderRepository orderRepository,
+                              InventoryReservationRepository reservationRepository,
+                              SalesDailyRollupRepository dailyRepository,
+                              SalesDailyVariantRollupRepository variantRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              SalesAnalyticsConfig config) {
+        this.orderRepository = orderRepository;
+        this.reservationRepository = reservationRepository;
+        this.dailyRepository = dailyRepository;
+        this.variantRepository = variantRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = config;
+        this.zone = ZoneId.of(config.getZoneId());
+        this.pending = new LinkedBlockingQueue<>(config.getRecordQueueCapacity());
+    }
+
+    // Chạy sau commit trên thread checkout nên chỉ xếp hàng, không bao giờ chờ: hàng đợi đầy thì bỏ qua đơn
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderConfirmed(OrderConfirmedEvent event) {
+        if (!pending.offer(event.orderId())) {
+            logger.warn("Hàng đợi rollup doanh số đầy, bỏ qua đơn {}; cần tính lại ngày của đơn", event.orderId());
+        }
+    }
+
+    /** Cộng các đơn đang chờ trong hàng đợi; trả về số đơn đã cộng. */
+    @Scheduled(fixedDelayString = "${sales-analytics.record-drain-interval-ms:1000}")
+    public int drainPending() {
+        drainLock.lock();
+        try {
+            int recorded = 0;
+            UUID orderId;
+            while ((orderId = pending.poll()) != null) {
+                try {
+                    if (record(orderId)) recorded++;
+                } catch (RuntimeException e) {
+                    logger.error("Không cộng được đơn {} vào rollup doanh số, cần tính lại ngày của đơn", orderId, e);
+                }
+            }
+            return recorded;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Graceful shutdown: cộng nốt các đơn còn trong hàng đợi trước khi DataSource đóng
+    @PreDestroy
+    public void drainOnShutdown() {
+        int recorded = drainPending();
+        if (recorded > 0) {
+            logger.info("Đã cộng {} đơn còn trong hàng đợi rollup trước khi tắt ứng dụng", recorded);
+        }
+    }
+
+    /** Cộng một đơn đã bán vào rollup; false nếu đơn chưa ở trạng thái đã bán hoặc đã được cộng trước đó. */
+    public boolean record(UUID orderId) {
+        Boolean applied = transactionTemplate.execute(status -> {
+            Facts facts = loadFacts(List.of(orderId));
+            if (facts.orders().isEmpty()) return false;
+            Instant now = Instant.now();
+            try {
+                jdbcTemplate.update(INSERT_LEDGER_SQL, BinaryCodec.INSTANCE.encode(orderId),
+                        Date.valueOf(salesDate(facts.orders().get(0))), Timestamp.from(now));
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+            apply(facts, now);
+            return true;
+        });
+        return Boolean.TRUE.equals(applied);
+    }
+
+    /**
+     * Tính lại rollup của khoảng ngày từ orders/order_details, mỗi ngày một transaction để không giữ khóa
+     * và undo log của cả khoảng. Ngày đã xong vẫn giữ kết quả nếu một ngày sau lỗi. Quét orders theo
+     * booking_date nên chỉ dùng để đối soát, ngoài giờ cao điểm. Trả về số đơn đã cộng.
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        int orders = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            orders += rebuildDay(day);
+        }
+        logger.info("Đã tính lại rollup doanh số {} → {} từ {} đơn", from, to, orders);
+        return orders;
+    }
+
+    private int rebuildDay(LocalDate day) {
+        Integer orders = transactionTemplate.execute(status -> {
+            jdbcTemplate.update(DELETE_DAILY_SQL, Date.valueOf(day), Date.valueOf(day));
+            jdbcTemplate.update(DELETE_VARIANT_SQL, Date.valueOf(day), Date.valueOf(day));
+            jdbcTemplate.update(DELETE_LEDGER_SQL, Date.valueOf(day), Date.valueOf(day));
+            List<UUID> orderIds = orderRepository.findSoldOrderIdsBetween(startOf(day), startOf(day.plusDays(1)), SOLD);
+            Instant now = Instant.now();
+            for (int start = 0; start < orderIds.size(); start += config.getRebuildChunkSize()) {
+                Facts facts = loadFacts(orderIds.subList(start,
+                        Math.min(start + config.getRebuildChunkSize(), orderIds.size())));
+                List<Object[]> ledger = new ArrayList<>(facts.orders().size());
+                for (SalesOrderFact order : facts.orders()) {
+                    ledger.add(new Object[]{BinaryCodec.INSTANCE.encode(order.orderId()),
+                            Date.valueOf(salesDate(order)), Timestamp.from(now)});
+                }
+                jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, ledger);
+                apply(facts, now);
+            }
+            return orderIds.size();
+        });
+        return orders != null ? orders : 0;
+    }
+
+    public List<DailySalesResponse> daily(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        List<DailySalesResponse> result = new ArrayList<>();
+        for (SalesDailyRollup row : dailyRepository.findBySalesDateBetweenOrderBySalesDate(from, to)) {
+            BigDecimal net = row.getGrossRevenue().subtract(row.getDiscountAmount());
+            result.add(new DailySalesResponse(row.getSalesDate(), row.getOrderCount(), row.getUnits(),
+                    row.getGrossRevenue(), row.getDiscountAmount(), net, row.getShippingFee(), row.getCost(),
+                    net.subtract(row.getCost())));
+        }
+        return result;
+    }
+
+    public List<DimensionSalesResponse> byBrand(LocalDate from, LocalDate to, int limit) {
+        validateRange(from, to);
+        return variantRepository.sumByBrand(from, to, top(limit));
+    }
+
+    public List<DimensionSalesResponse> byCategory(LocalDate from, LocalDate to, int limit) {
+        validateRange(from, to);
+        return variantRepository.sumByCategory(from, to, top(limit));
+    }
+
+    public List<DimensionSalesResponse> bySku(LocalDate from, LocalDate to, int limit) {
+        validateRange(from, to);
+        return variantRepository.sumBySku(from, to, top(limit));
+    }
+
+    // Ba truy vấn theo danh sách id cho cả nhóm đơn: đơn, dòng chi tiết, giá vốn theo lô đã trừ kho
+    private Facts loadFacts(List<UUID> orderIds) {
+        List<SalesOrderFact> orders = orderRepository.findSalesFacts(orderIds, SOLD);
+        if (orders.isEmpty()) return new Facts(List.of(), List.of(), List.of());
+        List<UUID> soldIds = orders.stream().map(SalesOrderFact::orderId).toList();
+        return new Facts(orders,
+                orderRepository.findSalesLines(soldIds),
+                reservationRepository.findCommittedCosts(soldIds.stream().map(CheckoutService::reservationKey).toList()));
+    }
+
+    // Gom trong bộ nhớ rồi ghi theo thứ tự khóa: ít câu lệnh hơn và hai lần cộng song song khóa dòng cùng thứ tự
+    private void apply(Facts facts, Instant now) {
+        Map<UUID, LocalDate> dayByOrder = new HashMap<>();
+        Map<LocalDate, DailyDelta> daily = new TreeMap<>();
+        for (SalesOrderFact order : facts.orders()) {
+            LocalDate day = salesDate(order);
+            dayByOrder.put(order.orderId(), day);
+            DailyDelta delta = daily.computeIfAbsent(day, d -> new DailyDelta());
+            delta.orderCount++;
+            delta.grossRevenue = delta.grossRevenue.add(orZero(order.subtotal()));
+            delta.discountAmount = delta.discountAmount.add(orZero(order.discountAmount()));
+            delta.shippingFee = delta.shippingFee.add(orZero(order.shippingFee()));
+        }
+        Map<String, BigDecimal> costs = new HashMap<>();
+        for (SalesCostFact cost : facts.costs()) {
+            costs.put(cost.reservationKey() + "|" + cost.variantId(), cost.cost());
+        }
+
+        Map<VariantKey, VariantDelta> variants = new TreeMap<>();
+        for (SalesLineFact line : facts.lines()) {
+            LocalDate day = dayByOrder.get(line.orderId());
+            BigDecimal revenue = orZero(line.unitPrice()).multiply(BigDecimal.valueOf(line.quantity()));
+            BigDecimal cost = orZero(costs.get(CheckoutService.reservationKey(line.orderId()) + "|" + line.variantId()));
+            DailyDelta dayDelta = daily.get(day);
+            dayDelta.units += line.quantity();
+            dayDelta.cost = dayDelta.cost.add(cost);
+            if (line.variantId() == null) continue;
+            VariantDelta delta = variants.computeIfAbsent(new VariantKey(day, line.variantId()), k -> new VariantDelta());
+            delta.productId = line.productId();
+            delta.brandId = line.brandId();
+            delta.categoryId = line.categoryId();
+            delta.units += line.quantity();
+            delta.revenue = delta.revenue.add(revenue);
+            delta.cost = delta.cost.add(cost);
+        }
+
+        Timestamp updatedAt = Timestamp.from(now);
+        List<Object[]> dailyRows = new ArrayList<>(daily.size());
+        daily.forEach((day, delta) -> dailyRows.add(new Object[]{Date.valueOf(day), delta.orderCount, delta.units,
+                delta.grossRevenue, delta.discountAmount, delta.shippingFee, delta.cost, updatedAt}));
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_SQL, dailyRows);
+        List<Object[]> variantRows = new ArrayList<>(variants.size());
+        variants.forEach((key, delta) -> variantRows.add(new Object[]{Date.valueOf(key.day()),
+                BinaryCodec.INSTANCE.encode(key.variantId()), encode(delta.productId), encode(delta.brandId),
+                encode(delta.categoryId), delta.units, delta.revenue, delta.cost, updatedAt}));
+        jdbcTemplate.batchUpdate(UPSERT_VARIANT_SQL, variantRows);
+    }
+
+    private LocalDate salesDate(SalesOrderFact order) {
+        return LocalDate.ofInstant(order.bookingDate(), zone);
+    }
+
+    private Instant startOf(LocalDate day) {
+        return day.atStartOfDay(zone).toInstant();
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Khoảng ngày không hợp lệ");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= config.getMaxRangeDays()) {
+            throw new IllegalArgumentException("Khoảng ngày tối đa " + config.getMaxRangeDays() + " ngày");
+        }
+    }
+
+    private static PageRequest top(int limit) {
+        return PageRequest.of(0, limit <= 0 ? DEFAULT_TOP_LIMIT : Math.min(limit, MAX_TOP_LIMIT));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static byte[] encode(UUID id) {
+        return id != null ? BinaryCodec.INSTANCE.encode(id) : null;
+    }
+
+    private record Facts(List<SalesOrderFact> orders, List<SalesLineFact> lines, List<SalesCostFact> costs) {
+    }
+
+    private record VariantKey(LocalDate day, UUID variantId) implements Comparable<VariantKey> {
+        @Override
+        public int compareTo(VariantKey other) {
+            int byDay = day.compareTo(other.day);
+            return byDay != 0 ? byDay : variantId.compareTo(other.variantId);
+        }
+    }
+
+    private static final class DailyDelta {
+        long orderCount;
+        long units;
+        BigDecimal grossRevenue = BigDecimal.ZERO;
+        BigDecimal discountAmount = BigDecimal.ZERO;
+        BigDecimal shippingFee = BigDecimal.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+    }
+
+    private static final class VariantDelta {
+        UUID productId;
+        UUID brandId;
+        UUID categoryId;
+        long units;
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.backend.service;
+
+import com.example.backend.config.SoftDeletePurgeConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Xóa hẳn các dòng đã xóa mềm quá thời gian lưu giữ, theo từng chunk nhỏ để bảng nóng
+ * (users, variants, discounts...) không phình ra vì dòng chết và không giữ lock lâu.
+ *
+ * Dòng vẫn bị khóa ngoại tham chiếu (ví dụ biến thể nằm trong đơn hàng cũ) được bỏ qua và giữ lại.
+ */
+@Service
+public class SoftDeletePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftDeletePurgeService.class);
+    private static final byte[] MIN_ID = new byte[16];
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SoftDeletePurgeConfig config;
+
+    public SoftDeletePurgeService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  SoftDeletePurgeConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = config;
+    }
+
+    @Scheduled(fixedDelayString = "${soft-delete.purge.interval-ms:3600000}",
+            initialDelayString = "${soft-delete.purge.initial-delay-ms:600000}")
+    public void purgeExpired() {
+        int purged = purge(Instant.now().minus(config.getRetention()));
+        if (purged > 0) {
+            logger.info("Đã xóa hẳn {} dòng xóa mềm quá hạn lưu giữ", purged);
+        }
+    }
+
+    /** Xóa các dòng có deleted_at trước mốc cho trước ở mọi bảng được cấu hình, trả về tổng số dòng đã xóa. */
+    public int purge(Instant deletedBefore) {
+        int total = 0;
+        for (String table : config.getTables()) {
+            try {
+                total += purgeTable(table, Timestamp.from(deletedBefore));
+            } catch (RuntimeException e) {
+                // Một bảng lỗi (chưa tồn tại, thiếu cột...) không được chặn các bảng còn lại
+                logger.warn("Không dọn được bảng {}: {}", table, e.getMessage());
+            }
+        }
+        return total;
+    }
+
+    private int purgeTable(String table, Timestamp deletedBefore) {
+        String selectSql = "SELECT id FROM " + table
+                + " WHERE is_deleted = true AND deleted_at < ? AND id > ? ORDER BY id LIMIT ?";
+        String deleteSql = "DELETE FROM " + table + " WHERE id = ? AND is_deleted = true";
+
+        int purged = 0;
+        byte[] cursor = MIN_ID;
+        for (int batch = 0; batch < config.getMaxBatchesPerRun(); batch++) {
+            List<byte[]> ids = jdbcTemplate.queryForList(selectSql, byte[].class,
+                    deletedBefore, cursor, config.getBatchSize());
+            if (ids.isEmpty()) break;
+            cursor = ids.get(ids.size() - 1);
+            purged += deleteChunk(deleteSql, ids);
+            if (ids.size() < config.getBatchSize()) break;
+        }
+        return purged;
+    }
+
+    private int deleteChunk(String deleteSql, List<byte[]> ids) {
+        try {
+            Integer deleted = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (int affected : jdbcTemplate.batchUpdate(deleteSql, ids, ids.size(),
+                        (ps, id) -> ps.setBytes(1, id))[0]) {
+                    count += affected == Statement.SUCCESS_NO_INFO ? 1 : Math.max(affected, 0);
+                }
+                return count;
+            });
+            return deleted != null ? deleted : 0;
+        } catch (DataIntegrityViolationException e) {
+            // Có dòng còn bị tham chiếu: xóa lẻ từng dòng để những dòng còn lại vẫn được dọn
+            int count = 0;
+            for (byte[] id : ids) {
+                try {
+                    count += jdbcTemplate.update(deleteSql, (Object) id);
+                } catch (DataIntegrityViolationException ignored) {
+                    // vẫn còn khóa ngoại trỏ tới, giữ lại
+                }
+            }
+            return count;
+        }
+    }
+}
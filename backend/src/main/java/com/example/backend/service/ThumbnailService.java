@@ -0,0 +1,179 @@
+package com.example.backend.service;
+
+import com.example.backend.config.ImageDeliveryConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bản thay thế CDN nội bộ: sinh thumbnail từ ảnh gốc trong image.origin-dir theo cùng cú pháp
+ * biến đổi URL mà {@link ImageService} tạo ra, lưu xuống image.thumbnail-dir và dùng lại cho các
+ * request sau. Chỉ nhận các độ rộng/định dạng/chất lượng đã cấu hình nên thư mục cache có giới hạn.
+ * ETag là băm SHA-256 nội dung file (strong), tính một lần cho mỗi phiên bản file.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final Pattern TRANSFORMATION = Pattern.compile("w_(\\d{1,5}),f_([a-z0-9]{2,5}),q_(\\d{1,3})");
+    // Không cho phép "..", dấu chấm hay ký tự đặc biệt: publicId được ghép thẳng vào đường dẫn file
+    private static final Pattern PUBLIC_ID = Pattern.compile("[A-Za-z0-9_-]+(/[A-Za-z0-9_-]+)*");
+    private static final List<String> ORIGIN_EXTENSIONS = List.of("jpg", "jpeg", "png");
+
+    private final ImageDeliveryConfig config;
+    private final Cache<Path, Thumbnail> thumbnails;
+
+    public ThumbnailService(ImageDeliveryConfig config) {
+        this.config = config;
+        this.thumbnails = Caffeine.newBuilder()
+                .maximumSize(config.getEtagCacheSize())
+                .build();
+    }
+
+    public record Thumbnail(Path path, long size, long lastModified, String etag, String contentType) {
+    }
+
+    /**
+     * Thumbnail cho một URL biến đổi, sinh nếu chưa có hoặc ảnh gốc mới hơn. Rỗng nếu tham số không
+     * nằm trong cấu hình hoặc không có ảnh gốc.
+     */
+    public Optional<Thumbnail> resolve(String transformation, String publicId) throws IOException {
+        Matcher matcher = TRANSFORMATION.matcher(transformation);
+        if (!matcher.matches() || publicId == null || !PUBLIC_ID.matcher(publicId).matches()) {
+            return Optional.empty();
+        }
+        int width = Integer.parseInt(matcher.group(1));
+        String format = matcher.group(2);
+        int quality = Integer.parseInt(matcher.group(3));
+        if (!config.getWidths().contains(width) || !config.getFormats().contains(format)
+                || quality != config.getQuality() || !ImageIO.getImageWritersByFormatName(format).hasNext()) {
+            return Optional.empty();
+        }
+        Path origin = findOrigin(publicId);
+        if (origin == null) {
+            return Optional.empty();
+        }
+
+        Path target = Path.of(config.getThumbnailDir(), transformation, publicId + "." + format);
+        if (!Files.exists(target)
+                || Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(origin)) < 0) {
+            generate(origin, target, width, format, quality);
+        }
+
+        long size = Files.size(target);
+        long lastModified = Files.getLastModifiedTime(target).toMillis();
+        Thumbnail cached = thumbnails.getIfPresent(target);
+        if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+            return Optional.of(cached);
+        }
+        Thumbnail fresh = new Thumbnail(target, size, lastModified, etag(target), contentType(format));
+        thumbnails.put(target, fresh);
+        return Optional.of(fresh);
+    }
+
+    private Path findOrigin(String publicId) {
+        for (String extension : ORIGIN_EXTENSIONS) {
+            Path candidate = Path.of(config.getOriginDir(), publicId + "." + extension);
+            if (Files.isRegularFile(candidate)) return candidate;
+        }
+        return null;
+    }
+
+    // Ghi ra file tạm cùng thư mục rồi đổi tên: request song song không bao giờ đọc được file đang ghi dở
+    private void generate(Path origin, Path target, int width, String format, int quality) throws IOException {
+        BufferedImage source = ImageIO.read(origin.toFile());
+        if (source == null) {
+            throw new IOException("Không đọc được ảnh gốc " + origin.getFileName());
+        }
+        // Không phóng to ảnh nhỏ hơn độ rộng yêu cầu
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        boolean alpha = !format.equals("jpg") && !format.equals("jpeg") && source.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, targetWidth, targetHeight);
+            }
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".thumb", ".tmp");
+        try {
+            write(scaled, format, quality, temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.debug("Đã sinh thumbnail {}", target);
+    }
+
+    private static void write(BufferedImage image, String format, int quality, Path file) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes().length > 0) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality / 100f);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String etag(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    private static String contentType(String format) {
+        return format.equals("jpg") ? "image/jpeg" : "image/" + format;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CartConfig;
+import com.example.backend.dto.VariantPriceSnapshot;
+import com.example.backend.entity.Product;
+import com.example.backend.entity.Variants;
+import com.example.backend.event.CatalogChangedEvent;
+import com.example.backend.repository.VariantsRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot giá (price, discountPercent, trạng thái) của biến thể dùng khi tính giỏ hàng và đơn hàng.
+ * Nạp theo lô cho các id còn thiếu, xóa theo CatalogChangedEvent sau khi transaction ghi commit.
+ */
+@Service
+public class VariantPriceCache {
+
+    private final LoadingCache<UUID, VariantPriceSnapshot> snapshots;
+
+    public VariantPriceCache(VariantsRepository variantsRepository, CartConfig config) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(config.getPriceCacheMaximumSize())
+                .expireAfterWrite(config.getPriceCacheTtl())
+                .build(new CacheLoader<>() {
+                    @Override
+                    public VariantPriceSnapshot load(UUID id) {
+                        return loadAll(Set.of(id)).get(id);
+                    }
+
+                    @Override
+                    public Map<UUID, VariantPriceSnapshot> loadAll(Set<? extends UUID> ids) {
+                        return variantsRepository.findPriceSnapshots(List.copyOf(ids)).stream()
+                                .collect(Collectors.toMap(VariantPriceSnapshot::variantId, Function.identity()));
+                    }
+                });
+    }
+
+    public Optional<VariantPriceSnapshot> get(UUID variantId) {
+        return Optional.ofNullable(snapshots.get(variantId));
+    }
+
+    // Id không tồn tại sẽ không có trong kết quả
+    public Map<UUID, VariantPriceSnapshot> getAll(Collection<UUID> variantIds) {
+        return snapshots.getAll(variantIds);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (Variants.class.equals(event.entityType()) && !event.isBulk()) {
+            snapshots.invalidate(event.entityId());
+        } else if (event.isBulk() || Product.class.equals(event.entityType())) {
+            // Tên sản phẩm nằm trong snapshot của mọi biến thể thuộc sản phẩm
+            snapshots.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.backend.service;
+
+import com.example.backend.config.ViewCounterConfig;
+import com.example.backend.dto.TrendingVariantResponse;
+import com.example.backend.dto.VariantViewSnapshot;
+import com.example.backend.repository.VariantsRepository;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Đếm lượt xem biến thể trong bộ nhớ và ghi dồn xuống Variants.view theo lô.
+ * Mỗi lượt xem chỉ là một phép cộng trên LongAdder, không đụng tới dòng variants trong DB.
+ * Chỉ nhận id có trong {@link VariantPriceCache} và tối đa catalog.view-counter.max-tracked-variants id,
+ * để request với UUID bất kỳ không làm phình map và sinh UPDATE vô ích.
+ */
+@Service
+public class VariantViewCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantViewCounter.class);
+    private static final String FLUSH_SQL = "UPDATE variants SET view = view + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VariantsRepository variantsRepository;
+    private final VariantPriceCache priceCache;
+    private final ViewCounterConfig config;
+    private final ConcurrentHashMap<UUID, Counter> counters = new ConcurrentHashMap<>();
+    // ReentrantLock thay cho synchronized: flush giữ khóa qua lệnh JDBC, với virtual thread
+    // synchronized sẽ ghim (pin) carrier thread suốt thời gian chờ DB
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public VariantViewCounter(JdbcTemplate jdbcTemplate,
+                              VariantsRepository variantsRepository,
+                              VariantPriceCache priceCache,
+                              ViewCounterConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.variantsRepository = variantsRepository;
+        this.priceCache = priceCache;
+        this.config = config;
+    }
+
+    // Trả về false nếu biến thể không tồn tại. Khi map đã đủ số id tối đa, lượt xem của id mới bị bỏ qua
+    // cho tới lần rotateTrendingWindow dọn bớt counter
+    public boolean record(UUID variantId) {
+        if (!counters.containsKey(variantId)) {
+            if (priceCache.get(variantId).isEmpty()) {
+                return false;
+            }
+            if (counters.size() >= config.getMaxTrackedVariants()) {
+                logger.debug("Đã đếm đủ {} biến thể, bỏ qua lượt xem của {}", config.getMaxTrackedVariants(), variantId);
+                return true;
+            }
+        }
+        while (true) {
+            Counter counter = counters.computeIfAbsent(variantId, id -> new Counter());
+            counter.total.increment();
+            if (!counter.retired) {
+                return true;
+            }
+            // Counter vừa bị dọn khỏi map: ghi lại vào counter mới. Trường hợp hiếm này
+            // có thể đếm dư một lượt nhưng không làm mất lượt xem.
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.view-counter.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Object[]> args = new ArrayList<>();
+            List<Counter> flushedCounters = new ArrayList<>();
+            List<Long> deltas = new ArrayList<>();
+
+            for (Map.Entry<UUID, Counter> entry : counters.entrySet()) {
+                Counter counter = entry.getValue();
+                long delta = counter.total.sum() - counter.flushed;
+                if (delta <= 0) continue;
+                args.add(new Object[]{delta, BinaryCodec.INSTANCE.encode(entry.getKey())});
+                flushedCounters.add(counter);
+                deltas.add(delta);
+            }
+            if (args.isEmpty()) return;
+
+            for (int from = 0; from < args.size(); from += config.getFlushBatchSize()) {
+                int to = Math.min(from + config.getFlushBatchSize(), args.size());
+                try {
+                    jdbcTemplate.batchUpdate(FLUSH_SQL, args.subList(from, to));
+                } catch (RuntimeException e) {
+                    // Giữ nguyên phần chưa ghi để lần flush sau thử lại
+                    logger.warn("Không ghi được lượt xem cho {} biến thể, sẽ thử lại", to - from, e);
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    flushedCounters.get(i).flushed += deltas.get(i);
+                }
+            }
+            logger.debug("Đã ghi lượt xem cho {} biến thể", args.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Mở cửa sổ trending mới; counter không còn gì để ghi và không có lượt xem gần đây thì dọn khỏi map
+    @Scheduled(fixedRateString = "${catalog.view-counter.trending-window-ms:3600000}",
+            initialDelayString = "${catalog.view-counter.trending-window-ms:3600000}")
+    public void rotateTrendingWindow() {
+        flushLock.lock();
+        try {
+            for (Map.Entry<UUID, Counter> entry : counters.entrySet()) {
+                Counter counter = entry.getValue();
+                long total = counter.total.sum();
+                if (total == counter.flushed && total == counter.previousWindowBase) {
+                    counter.retired = true;
+                    counters.remove(entry.getKey(), counter);
+                    long late = counter.total.sum() - counter.flushed;
+                    if (late > 0) {
+                        counters.computeIfAbsent(entry.getKey(), id -> new Counter()).total.add(late);
+                    }
+                    continue;
+                }
+                counter.previousWindowBase = counter.currentWindowBase;
+                counter.currentWindowBase = total;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public List<TrendingVariantResponse> trending(int limit) {
+        int size = Math.max(1, Math.min(limit, config.getMaxTrendingLimit()));
+        Map<UUID, Long> recent = new HashMap<>();
+        for (Map.Entry<UUID, Counter> entry : counters.entrySet()) {
+            long views = entry.getValue().total.sum() - entry.getValue().previousWindowBase;
+            if (views > 0) recent.put(entry.getKey(), views);
+        }
+        List<UUID> top = recent.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Long>comparingByValue().reversed())
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (top.isEmpty()) return List.of();
+
+        Map<UUID, VariantViewSnapshot> snapshots = variantsRepository.findViewSnapshots(top).stream()
+                .collect(Collectors.toMap(VariantViewSnapshot::variantId, Function.identity()));
+        List<TrendingVariantResponse> result = new ArrayList<>(top.size());
+        for (UUID id : top) {
+            VariantViewSnapshot snapshot = snapshots.get(id);
+            if (snapshot == null) continue; // id không tồn tại
+            Counter counter = counters.get(id);
+            long unflushed = counter != null ? Math.max(0, counter.total.sum() - counter.flushed) : 0;
+            result.add(new TrendingVariantResponse(id, snapshot.sku(), snapshot.productName(),
+                    recent.get(id), snapshot.persistedViews() + unflushed));
+        }
+        return result;
+    }
+
+    // Graceful shutdown: ghi nốt lượt xem còn trong bộ nhớ trước khi DataSource đóng
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        logger.info("Đã ghi lượt xem còn lại trước khi tắt ứng dụng");
+    }
+
+    private static final class Counter {
+        final LongAdder total = new LongAdder();
+        // Chỉ ghi khi giữ flushLock; volatile để trending() đọc không cần khóa
+        volatile long flushed;
+        volatile long previousWindowBase;
+        volatile long currentWindowBase;
+        volatile boolean retired;
+    }
+}
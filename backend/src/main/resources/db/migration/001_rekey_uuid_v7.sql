@@ -0,0 +1,72 @@
+-- Chuyển khóa chính UUID v4 (ngẫu nhiên) sang UUID v7 cho các bảng ghi nhiều:
+-- orders, order_details, cart_items, reviews.
+--
+-- Ứng dụng đã sinh UUID v7 cho mọi dòng mới (TimeOrderedUuidGenerator), id v4 cũ vẫn hợp lệ
+-- nên script này là tùy chọn: nó chỉ giúp dồn dữ liệu cũ về đúng thứ tự thời gian trong
+-- clustered index. Chạy thủ công trên MySQL 8+ trong cửa sổ bảo trì, sau khi sao lưu,
+-- khi ứng dụng đã dừng ghi vào các bảng trên.
+--
+-- Id mới được dựng từ created_at: 48 bit millisecond | version 7 | 12 bit ngẫu nhiên
+-- | variant 10 | 62 bit ngẫu nhiên. Dòng đã là v7 (ký tự hex thứ 13 = '7') được giữ nguyên.
+
+SET time_zone = '+00:00';
+SET @old_foreign_key_checks = @@FOREIGN_KEY_CHECKS;
+SET FOREIGN_KEY_CHECKS = 0;
+
+START TRANSACTION;
+
+-- orders được order_details tham chiếu nên cần bảng ánh xạ old_id -> new_id
+CREATE TEMPORARY TABLE uuid_v7_map (
+    old_id BINARY(16) NOT NULL PRIMARY KEY,
+    new_id BINARY(16) NOT NULL
+);
+
+INSERT INTO uuid_v7_map (old_id, new_id)
+SELECT id,
+       UNHEX(CONCAT(
+               LPAD(HEX(FLOOR(UNIX_TIMESTAMP(COALESCE(created_at, NOW(6))) * 1000)), 12, '0'),
+               '7', SUBSTR(HEX(RANDOM_BYTES(2)), 2, 3),
+               HEX(128 | (ORD(RANDOM_BYTES(1)) & 63)),
+               HEX(RANDOM_BYTES(7))))
+FROM orders
+WHERE SUBSTR(HEX(id), 13, 1) <> '7';
+
+UPDATE order_details d JOIN uuid_v7_map m ON d.order_id = m.old_id
+SET d.order_id = m.new_id;
+
+UPDATE orders o JOIN uuid_v7_map m ON o.id = m.old_id
+SET o.id = m.new_id;
+
+DROP TEMPORARY TABLE uuid_v7_map;
+
+-- Các bảng lá: không có khóa ngoại trỏ tới nên cập nhật trực tiếp
+UPDATE order_details
+SET id = UNHEX(CONCAT(
+        LPAD(HEX(FLOOR(UNIX_TIMESTAMP(COALESCE(created_at, NOW(6))) * 1000)), 12, '0'),
+        '7', SUBSTR(HEX(RANDOM_BYTES(2)), 2, 3),
+        HEX(128 | (ORD(RANDOM_BYTES(1)) & 63)),
+        HEX(RANDOM_BYTES(7))))
+WHERE SUBSTR(HEX(id), 13, 1) <> '7';
+
+UPDATE cart_items
+SET id = UNHEX(CONCAT(
+        LPAD(HEX(FLOOR(UNIX_TIMESTAMP(COALESCE(created_at, NOW(6))) * 1000)), 12, '0'),
+        '7', SUBSTR(HEX(RANDOM_BYTES(2)), 2, 3),
+        HEX(128 | (ORD(RANDOM_BYTES(1)) & 63)),
+        HEX(RANDOM_BYTES(7))))
+WHERE SUBSTR(HEX(id), 13, 1) <> '7';
+
+UPDATE reviews
+SET id = UNHEX(CONCAT(
+        LPAD(HEX(FLOOR(UNIX_TIMESTAMP(COALESCE(created_at, NOW(6))) * 1000)), 12, '0'),
+        '7', SUBSTR(HEX(RANDOM_BYTES(2)), 2, 3),
+        HEX(128 | (ORD(RANDOM_BYTES(1)) & 63)),
+        HEX(RANDOM_BYTES(7))))
+WHERE SUBSTR(HEX(id), 13, 1) <> '7';
+
+COMMIT;
+
+SET FOREIGN_KEY_CHECKS = @old_foreign_key_checks;
+
+-- Dựng lại clustered index theo thứ tự khóa mới
+OPTIMIZE TABLE orders, order_details, cart_items, reviews;
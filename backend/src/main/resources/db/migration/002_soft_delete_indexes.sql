@@ -0,0 +1,39 @@
+-- Hỗ trợ bộ lọc xóa mềm toàn cục (filter "softDelete" trên BaseEntity: is_deleted = false).
+--
+-- ddl-auto=update tự tạo index mới nhưng không xóa index cũ và không sửa dữ liệu,
+-- nên chạy thủ công script này trên MySQL 8+ khi triển khai. Chạy trước hay sau lần khởi động đầu
+-- tiên của bản này đều được: mỗi lệnh index tra information_schema trước nên chạy lại cũng không lỗi.
+-- Tra cứu users theo email/số điện thoại dùng unique index của 003_unique_user_lookups.sql.
+
+-- Dòng cũ có is_deleted NULL sẽ bị bộ lọc loại bỏ, đưa về false trước
+UPDATE users SET is_deleted = false WHERE is_deleted IS NULL;
+UPDATE variants SET is_deleted = false WHERE is_deleted IS NULL;
+UPDATE discounts SET is_deleted = false WHERE is_deleted IS NULL;
+UPDATE products SET is_deleted = false WHERE is_deleted IS NULL;
+
+-- Index tra cứu nóng dẫn đầu bởi is_deleted, khớp với điều kiện bộ lọc thêm vào mọi truy vấn.
+-- Entity cũng khai báo hai index này (@Index) nên có thể ddl-auto=update đã tạo sẵn
+SET @sql := IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'variants'
+                  AND INDEX_NAME = 'idx_variants_deleted_sku') = 0,
+               'CREATE INDEX idx_variants_deleted_sku ON variants (is_deleted, sku)', 'DO 0');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @sql := IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'discounts'
+                  AND INDEX_NAME = 'idx_discounts_deleted_code') = 0,
+               'CREATE INDEX idx_discounts_deleted_code ON discounts (is_deleted, code)', 'DO 0');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Thay thế bởi idx_discounts_deleted_code; chỉ có trên DB đã chạy bản khai báo @Index cũ của Discount
+SET @sql := IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'discounts'
+                  AND INDEX_NAME = 'idx_discounts_code') > 0,
+               'DROP INDEX idx_discounts_code ON discounts', 'DO 0');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
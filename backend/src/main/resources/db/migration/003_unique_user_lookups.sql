@@ -0,0 +1,10 @@
+-- Unique index cho email và số điện thoại: đăng ký/đăng nhập là một lần tra cứu index duy nhất
+-- và DB là nơi chặn cuối cùng khi hai request đăng ký trùng chạy song song.
+--
+-- Chạy thủ công trên MySQL 8+. Kiểm tra dữ liệu trùng trước, script sẽ lỗi nếu còn dòng trùng:
+--   SELECT email, COUNT(*) FROM users GROUP BY email HAVING COUNT(*) > 1;
+--   SELECT phone_number, COUNT(*) FROM users WHERE phone_number IS NOT NULL
+--   GROUP BY phone_number HAVING COUNT(*) > 1;
+
+CREATE UNIQUE INDEX uk_users_email ON users (email);
+CREATE UNIQUE INDEX uk_users_phone_number ON users (phone_number);
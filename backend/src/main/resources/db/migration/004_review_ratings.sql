@@ -0,0 +1,50 @@
+-- Chuyển reviews sang kiểu dữ liệu có cấu trúc (rating số, accept boolean, date_reply kiểu DATETIME)
+-- và tạo bảng tổng hợp product_rating_summaries. ddl-auto=update không đổi kiểu cột đã có nên cần
+-- chạy thủ công trên MySQL 8+ trước khi triển khai bản này. date_of_review đã là DATETIME.
+--
+-- Kiểm tra giá trị không chuyển được trước, script sẽ lỗi nếu còn rating không hợp lệ:
+--   SELECT id, rating FROM reviews WHERE rating IS NULL OR rating NOT REGEXP '^[1-5]$';
+
+ALTER TABLE reviews MODIFY rating INT NOT NULL;
+
+ALTER TABLE reviews
+    ADD COLUMN accept_flag BIT(1) NOT NULL DEFAULT b'0',
+    ADD COLUMN date_reply_ts DATETIME(6) NULL;
+UPDATE reviews SET
+    accept_flag = (COALESCE(LOWER(accept), '') IN ('1', 'true', 'yes', 'accepted')),
+    date_reply_ts = STR_TO_DATE(date_reply, '%Y-%m-%d %H:%i:%s');
+ALTER TABLE reviews
+    DROP COLUMN accept,
+    DROP COLUMN date_reply,
+    RENAME COLUMN accept_flag TO accept,
+    RENAME COLUMN date_reply_ts TO date_reply;
+
+CREATE INDEX idx_reviews_product_listing ON reviews (product_id, accept, is_deleted, id);
+CREATE INDEX idx_reviews_user ON reviews (user_id);
+
+CREATE TABLE product_rating_summaries (
+    product_id   BINARY(16) NOT NULL PRIMARY KEY,
+    review_count BIGINT     NOT NULL,
+    rating_sum   BIGINT     NOT NULL,
+    star1        BIGINT     NOT NULL,
+    star2        BIGINT     NOT NULL,
+    star3        BIGINT     NOT NULL,
+    star4        BIGINT     NOT NULL,
+    star5        BIGINT     NOT NULL,
+    updated_at   DATETIME(6) NULL
+);
+
+-- Điền tổng hợp lần đầu (giống ReviewService.rebuildSummaries, có thể gọi lại qua
+-- POST /api/admin/reviews/summaries/rebuild)
+INSERT INTO product_rating_summaries
+    (product_id, review_count, rating_sum, star1, star2, star3, star4, star5, updated_at)
+SELECT product_id, COUNT(*), SUM(rating),
+    SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END),
+    SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END),
+    CURRENT_TIMESTAMP
+FROM reviews
+WHERE accept = TRUE AND is_deleted = FALSE AND product_id IS NOT NULL
+GROUP BY product_id;
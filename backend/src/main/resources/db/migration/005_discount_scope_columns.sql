@@ -0,0 +1,29 @@
+-- Sửa ánh xạ phạm vi của discounts: category trước đây nằm trên cột user_id và variant trên brand_id
+-- (cả hai NOT NULL), nay là category_id / product_id / variant_id, đều cho phép NULL (cả ba NULL là
+-- giảm giá toàn cửa hàng). Chạy thủ công trên MySQL 8+ trước khi triển khai bản này; khóa ngoại cho
+-- cột mới do ddl-auto=update tạo khi khởi động.
+--
+-- Ý nghĩa của discount_value: với mã giảm giá (code khác NULL) là mức giảm trên
+-- cả đơn; với luật tự động có phạm vi hoặc có discount_percent là mức giảm trên mỗi đơn vị; luật tự động
+-- toàn cửa hàng không có discount_percent giảm discount_value một lần trên cả đơn.
+
+ALTER TABLE discounts
+    ADD COLUMN category_id BINARY(16) NULL,
+    ADD COLUMN product_id  BINARY(16) NULL,
+    ADD COLUMN variant_id  BINARY(16) NULL;
+UPDATE discounts SET category_id = user_id, variant_id = brand_id;
+
+-- Tên khóa ngoại cũ do Hibernate sinh nên phải tra trong information_schema
+SET @drop_fks := (
+    SELECT GROUP_CONCAT(CONCAT('DROP FOREIGN KEY `', CONSTRAINT_NAME, '`'))
+    FROM information_schema.KEY_COLUMN_USAGE
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'discounts'
+      AND COLUMN_NAME IN ('user_id', 'brand_id') AND REFERENCED_TABLE_NAME IS NOT NULL);
+SET @sql := IF(@drop_fks IS NULL, 'DO 0', CONCAT('ALTER TABLE discounts ', @drop_fks));
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE discounts
+    DROP COLUMN user_id,
+    DROP COLUMN brand_id;
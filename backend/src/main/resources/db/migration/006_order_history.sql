@@ -0,0 +1,57 @@
+-- Chuyển orders sang kiểu dữ liệu có cấu trúc cho lịch sử đơn hàng: booking_date/delivery_date kiểu
+-- DATETIME(6), status là enum, user_id thay cho chuỗi order_user, và index (user_id, status, booking_date).
+-- ddl-auto=update không đổi kiểu cột đã có nên cần chạy thủ công trên MySQL 8+ trước khi triển khai bản này.
+--
+-- Kiểm tra trước, script sẽ lỗi ở bước NOT NULL nếu còn dòng không xác định được người đặt:
+--   SELECT id, order_user FROM orders o
+--   WHERE user_id IS NULL AND NOT EXISTS (SELECT 1 FROM users u WHERE u.email = o.order_user);
+-- và các trạng thái không nằm trong danh sách bên dưới (sẽ bị đưa về PENDING):
+--   SELECT DISTINCT status FROM orders;
+
+-- Đơn cũ chỉ lưu email người đặt
+UPDATE orders o JOIN users u ON u.email = o.order_user
+SET o.user_id = u.id
+WHERE o.user_id IS NULL;
+
+-- Ngày dạng yyyy-MM-dd (LocalDate.toString) hoặc yyyy-MM-dd HH:mm:ss / yyyy-MM-ddTHH:mm:ss;
+-- giá trị khác hoặc NULL lấy created_at
+ALTER TABLE orders
+    ADD COLUMN booking_date_ts DATETIME(6) NULL,
+    ADD COLUMN delivery_date_ts DATETIME(6) NULL;
+UPDATE orders SET
+    booking_date_ts = CASE
+        WHEN booking_date REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}[ T][0-9]{2}:[0-9]{2}:[0-9]{2}'
+            THEN STR_TO_DATE(LEFT(REPLACE(booking_date, 'T', ' '), 19), '%Y-%m-%d %H:%i:%s')
+        WHEN booking_date REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}$'
+            THEN STR_TO_DATE(booking_date, '%Y-%m-%d')
+        ELSE created_at
+    END,
+    delivery_date_ts = CASE
+        WHEN delivery_date REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}[ T][0-9]{2}:[0-9]{2}:[0-9]{2}'
+            THEN STR_TO_DATE(LEFT(REPLACE(delivery_date, 'T', ' '), 19), '%Y-%m-%d %H:%i:%s')
+        WHEN delivery_date REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}$'
+            THEN STR_TO_DATE(delivery_date, '%Y-%m-%d')
+    END;
+UPDATE orders SET booking_date_ts = CURRENT_TIMESTAMP(6) WHERE booking_date_ts IS NULL;
+
+UPDATE orders SET status = CASE UPPER(TRIM(status))
+    WHEN 'CONFIRMED' THEN 'CONFIRMED'
+    WHEN 'SHIPPING' THEN 'SHIPPING'
+    WHEN 'DELIVERED' THEN 'DELIVERED'
+    WHEN 'CANCELLED' THEN 'CANCELLED'
+    WHEN 'CANCELED' THEN 'CANCELLED'
+    WHEN 'FAILED' THEN 'FAILED'
+    ELSE 'PENDING'
+END;
+
+ALTER TABLE orders
+    DROP COLUMN order_user,
+    DROP COLUMN booking_date,
+    DROP COLUMN delivery_date,
+    CHANGE COLUMN booking_date_ts booking_date DATETIME(6) NOT NULL,
+    RENAME COLUMN delivery_date_ts TO delivery_date,
+    MODIFY status ENUM ('PENDING', 'CONFIRMED', 'SHIPPING', 'DELIVERED', 'CANCELLED', 'FAILED') NOT NULL,
+    MODIFY user_id BINARY(16) NOT NULL;
+
+CREATE INDEX idx_orders_user_status_booking ON orders (user_id, status, booking_date);
+CREATE INDEX idx_orders_user_booking ON orders (user_id, booking_date);
@@ -0,0 +1,37 @@
+-- Bảng rollup doanh số cho báo cáo quản trị (SalesRollupService). ddl-auto=update cũng tạo được các bảng
+-- này; script dùng khi triển khai thủ công trên MySQL 8+.
+--
+-- Sau khi tạo bảng, điền dữ liệu cũ theo từng khoảng tối đa sales-analytics.max-range-days ngày, ngoài giờ
+-- cao điểm vì phải quét orders theo booking_date:
+--   POST /api/admin/sales/rebuild?from=2025-01-01&to=2025-12-31
+
+CREATE TABLE sales_daily_rollups (
+    sales_date      DATE          NOT NULL PRIMARY KEY,
+    order_count     BIGINT        NOT NULL,
+    units           BIGINT        NOT NULL,
+    gross_revenue   DECIMAL(38,2) NOT NULL,
+    discount_amount DECIMAL(38,2) NOT NULL,
+    shipping_fee    DECIMAL(38,2) NOT NULL,
+    cost            DECIMAL(38,2) NOT NULL,
+    updated_at      DATETIME(6)   NULL
+);
+
+CREATE TABLE sales_daily_variant_rollups (
+    sales_date  DATE          NOT NULL,
+    variant_id  BINARY(16)    NOT NULL,
+    product_id  BINARY(16)    NULL,
+    brand_id    BINARY(16)    NULL,
+    category_id BINARY(16)    NULL,
+    units       BIGINT        NOT NULL,
+    revenue     DECIMAL(38,2) NOT NULL,
+    cost        DECIMAL(38,2) NOT NULL,
+    updated_at  DATETIME(6)   NULL,
+    PRIMARY KEY (sales_date, variant_id)
+);
+
+CREATE TABLE sales_rollup_orders (
+    order_id   BINARY(16)  NOT NULL PRIMARY KEY,
+    sales_date DATE        NOT NULL,
+    applied_at DATETIME(6) NOT NULL
+);
+CREATE INDEX idx_sales_rollup_orders_date ON sales_rollup_orders (sales_date);
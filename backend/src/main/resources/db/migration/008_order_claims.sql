@@ -0,0 +1,10 @@
+-- Mốc giữ đơn của lần checkout đang chạy (CheckoutService). Đơn PENDING quá checkout.claim-timeout được
+-- request cùng Idempotency-Key tiếp quản hoặc bị job dọn trả lại mã giảm giá, hàng đang giữ và đánh dấu FAILED.
+
+ALTER TABLE orders
+    ADD COLUMN claimed_at DATETIME(6) NULL;
+
+-- Đơn PENDING có sẵn lấy mốc cập nhật cuối, để job dọn xử lý những đơn đã bỏ dở từ trước
+UPDATE orders SET claimed_at = updated_at WHERE status = 'PENDING';
+
+CREATE INDEX idx_orders_status_claimed ON orders (status, claimed_at);
@@ -0,0 +1,7 @@
+-- Trang catalog "mới nhất" sắp theo (created_at, id) thay cho id: 001 chỉ đổi khóa của orders, order_details,
+-- cart_items và reviews sang UUID v7, biến thể cũ vẫn mang id v4 ngẫu nhiên nên thứ tự id không phải thứ tự tạo.
+
+-- Dòng cũ thiếu created_at sẽ rơi khỏi phân trang keyset; lấy mốc cập nhật cuối làm mốc tạo
+UPDATE variants SET created_at = COALESCE(updated_at, NOW(6)) WHERE created_at IS NULL;
+
+CREATE INDEX idx_variants_deleted_created ON variants (is_deleted, created_at, id);
@@ -0,0 +1,174 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.entity.Role;
+import com.example.backend.entity.User;
+import com.example.backend.persistence.StatementStatsRegistry;
+import com.example.backend.repository.RoleRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.security.JwtTokenProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Chạy toàn bộ ứng dụng với profile loadtest (H2 chế độ MySQL, cổng ngẫu nhiên) rồi bắn tải đồng thời
+ * vào POST /api/v1/auth/login và GET /api/v1/users/me, in ra throughput cùng p50/p99/max.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.backend.benchmark.AuthLoadHarness \
+ *     -Dload.threads=64 -Dload.login-requests=2000 -Dsecurity.password-hashing.bcrypt-strength=10
+ * </pre>
+ * Thuộc tính Spring (như bcrypt-strength, pool hash) truyền bằng -D sẽ ghi đè cấu hình của ứng dụng.
+ */
+public class AuthLoadHarness {
+
+    private static final int USERS = Integer.getInteger("load.users", 200);
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final int LOGIN_REQUESTS = Integer.getInteger("load.login-requests", 1_000);
+    private static final int AUTHENTICATED_REQUESTS = Integer.getInteger("load.authenticated-requests", 20_000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("load.warmup-requests", 200);
+    private static final String PASSWORD = "GlowMart@2024";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+
+    private AuthLoadHarness(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(BackendApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        try (ConfigurableApplicationContext context = application.run("--server.port=0")) {
+            RoleRepository roleRepository = context.getBean(RoleRepository.class);
+            if (roleRepository.findByName("USER").isEmpty()) {
+                Role role = new Role();
+                role.setName("USER");
+                roleRepository.save(role);
+            }
+            String port = context.getEnvironment().getProperty("local.server.port");
+            AuthLoadHarness harness = new AuthLoadHarness("http://localhost:" + port);
+            harness.run(context);
+        }
+    }
+
+    private void run(ConfigurableApplicationContext context) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            Result signup = measure(pool, USERS, i -> post("/api/v1/auth/signup", signupBody(i)));
+            report("signup", signup);
+
+            // Token cho pha xác thực được sinh trực tiếp để pha đo /users/me không phụ thuộc vào pha đăng nhập
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+            String[] tokens = new String[USERS];
+            for (int i = 0; i < USERS; i++) {
+                User user = userRepository.findUserByEmail(email(i)).orElseThrow();
+                tokens[i] = tokenProvider.generateAccessToken(user.getEmail(), user.getId(), user.getTokenVersion());
+            }
+
+            measure(pool, WARMUP_REQUESTS, i -> post("/api/v1/auth/login", loginBody(i % USERS)));
+            report("login", measure(pool, LOGIN_REQUESTS, i -> post("/api/v1/auth/login", loginBody(i % USERS))));
+
+            measure(pool, WARMUP_REQUESTS, i -> get("/api/v1/users/me", tokens[i % USERS]));
+            report("users/me", measure(pool, AUTHENTICATED_REQUESTS, i -> get("/api/v1/users/me", tokens[i % USERS])));
+
+            // Số câu lệnh SQL trung bình mỗi request theo endpoint, để thấy ngay khi một thay đổi thêm query
+            context.getBean(StatementStatsRegistry.class).endpointSnapshots().forEach(stats -> System.out.printf(
+                    "%-32s requests=%d statements/request avg=%.2f max=%d%n", stats.endpoint(), stats.requests(),
+                    stats.avgStatementsPerRequest(), stats.maxStatementsPerRequest()));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Result measure(ExecutorService pool, int requests, IntFunction<HttpRequest> requestFactory) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                HttpRequest request = requestFactory.apply(index);
+                long begin = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 400) errors.incrementAndGet();
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+                latencies[index] = System.nanoTime() - begin;
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return new Result(latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private static String email(int i) {
+        return "load" + i + "@glowmart.vn";
+    }
+
+    private static String signupBody(int i) {
+        return """
+                {"fullName":"Load User %d","email":"%s","phoneNumber":"09%08d","password":"%s",\
+                "gender":"FEMALE","dateOfBirth":"1995-05-20"}""".formatted(i, email(i), i, PASSWORD);
+    }
+
+    private static String loginBody(int i) {
+        return """
+                {"email":"%s","password":"%s"}""".formatted(email(i), PASSWORD);
+    }
+
+    private static void report(String phase, Result result) {
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+        double seconds = result.elapsedNanos() / 1e9;
+        System.out.printf("%-10s requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                phase, sorted.length, result.errors(), sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(long[] latencies, int errors, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.entity.*;
+import com.example.backend.enums.ProductStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * So sánh nạp hàng loạt sản phẩm, biến thể và tồn kho qua JPA khi tắt và bật batching
+ * ({@code hibernate.jdbc.batch_size}, {@code order_inserts}, {@code order_updates}).
+ * Mỗi chế độ chạy trên một application context riêng với profile loadtest (H2 chế độ MySQL).
+ * Có thể trỏ sang MySQL thật bằng {@code -Dspring.datasource.url=...?rewriteBatchedStatements=true}
+ * cùng username/password/driver, khi đó chênh lệch lớn hơn nhiều vì mỗi câu lệnh là một round trip.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.backend.benchmark.BulkLoadBenchmark \
+ *     -Dbulk.bench.products=5000 -Dbulk.bench.variants=4
+ * </pre>
+ */
+public class BulkLoadBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bulk.bench.products", 5_000);
+    private static final int VARIANTS_PER_PRODUCT = Integer.getInteger("bulk.bench.variants", 4);
+    private static final int CHUNK = Integer.getInteger("bulk.bench.chunk", 250);
+    private static final int ROUNDS = Integer.getInteger("bulk.bench.rounds", 3);
+
+    public static void main(String[] args) {
+        run("unbatched", "--spring.jpa.properties.hibernate.jdbc.batch_size=1",
+                "--spring.jpa.properties.hibernate.order_inserts=false",
+                "--spring.jpa.properties.hibernate.order_updates=false");
+        run("batched");
+    }
+
+    private static void run(String mode, String... overrides) {
+        SpringApplication application = new SpringApplication(BackendApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        String[] args = new String[overrides.length + 1];
+        args[0] = "--server.port=0";
+        System.arraycopy(overrides, 0, args, 1, overrides.length);
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            EntityManager entityManager = context.getBean(EntityManager.class);
+            TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+
+            // Vòng đầu là warmup (JIT, pool kết nối), chỉ in các vòng sau
+            for (int round = 0; round <= ROUNDS; round++) {
+                clear(tx, entityManager);
+                statistics.clear();
+                long start = System.nanoTime();
+                load(tx, entityManager, round);
+                long loadNanos = System.nanoTime() - start;
+                long insertStatements = statistics.getPrepareStatementCount();
+
+                statistics.clear();
+                start = System.nanoTime();
+                reprice(tx, entityManager);
+                long updateNanos = System.nanoTime() - start;
+                long updateStatements = statistics.getPrepareStatementCount();
+
+                if (round == 0) continue;
+                long rows = (long) PRODUCTS * (1 + 2L * VARIANTS_PER_PRODUCT);
+                long variants = (long) PRODUCTS * VARIANTS_PER_PRODUCT;
+                System.out.printf("%-9s round=%d insert: rows=%d %.0f ms %.0f rows/s prepared=%d | "
+                                + "update: rows=%d %.0f ms %.0f rows/s prepared=%d%n",
+                        mode, round, rows, loadNanos / 1e6, rows / (loadNanos / 1e9), insertStatements,
+                        variants, updateNanos / 1e6, variants / (updateNanos / 1e9), updateStatements);
+            }
+        }
+    }
+
+    private static void load(TransactionTemplate tx, EntityManager entityManager, int round) {
+        Object[] refs = tx.execute(status -> {
+            Brand brand = new Brand();
+            brand.setName("Bulk");
+            entityManager.persist(brand);
+            Category category = new Category();
+            category.setName("Bulk");
+            entityManager.persist(category);
+            Supplier supplier = new Supplier();
+            supplier.setName("Bulk");
+            entityManager.persist(supplier);
+            return new Object[]{brand.getId(), category.getId(), supplier.getId()};
+        });
+        for (int from = 0; from < PRODUCTS; from += CHUNK) {
+            int first = from;
+            tx.executeWithoutResult(status -> {
+                Brand brand = entityManager.getReference(Brand.class, refs[0]);
+                Category category = entityManager.getReference(Category.class, refs[1]);
+                Supplier supplier = entityManager.getReference(Supplier.class, refs[2]);
+                // Ghi xen kẽ product/variant/inventory như một file nhập hàng thật; không có order_inserts
+                // thì mỗi lần đổi bảng sẽ cắt batch
+                for (int p = first; p < Math.min(first + CHUNK, PRODUCTS); p++) {
+                    Product product = new Product();
+                    product.setName("Bulk " + p);
+                    product.setBrand(brand);
+                    product.setCategory(category);
+                    entityManager.persist(product);
+                    for (int v = 0; v < VARIANTS_PER_PRODUCT; v++) {
+                        Variants variant = new Variants();
+                        variant.setSku("BULK-" + round + "-" + p + "-" + v);
+                        variant.setProduct(product);
+                        variant.setPrice(BigDecimal.valueOf(100_000));
+                        variant.setStatus(ProductStatus.AVAILABLE);
+                        entityManager.persist(variant);
+                        Inventory inventory = new Inventory();
+                        inventory.setVariant(variant);
+                        inventory.setSupplier(supplier);
+                        inventory.setPriceImport(BigDecimal.valueOf(60_000));
+                        inventory.setExp(LocalDate.now().plusYears(1));
+                        inventory.setDateOfEntry(LocalDateTime.now());
+                        inventory.setOnHand(100);
+                        entityManager.persist(inventory);
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    private static void reprice(TransactionTemplate tx, EntityManager entityManager) {
+        int pageSize = CHUNK * VARIANTS_PER_PRODUCT;
+        for (int page = 0; ; page++) {
+            int offset = page * pageSize;
+            Integer loaded = tx.execute(status -> {
+                List<Variants> variants = entityManager
+                        .createQuery("select v from Variants v order by v.id", Variants.class)
+                        .setFirstResult(offset)
+                        .setMaxResults(pageSize)
+                        .getResultList();
+                variants.forEach(variant -> variant.setPrice(variant.getPrice().add(BigDecimal.ONE)));
+                entityManager.flush();
+                entityManager.clear();
+                return variants.size();
+            });
+            if (loaded == null || loaded < pageSize) return;
+        }
+    }
+
+    private static void clear(TransactionTemplate tx, EntityManager entityManager) {
+        tx.executeWithoutResult(status -> {
+            for (String entity : List.of("Inventory", "Variants", "Product", "Supplier", "Brand", "Category")) {
+                entityManager.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+    }
+}
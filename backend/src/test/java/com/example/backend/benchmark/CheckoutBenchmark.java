@@ -0,0 +1,163 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.dto.CheckoutRequest;
+import com.example.backend.entity.*;
+import com.example.backend.enums.GenderOptions;
+import com.example.backend.enums.ProductStatus;
+import com.example.backend.service.CartService;
+import com.example.backend.service.CheckoutService;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Đo throughput của CheckoutService với đơn nhiều dòng (mặc định 50) trên profile loadtest (H2 chế độ MySQL).
+ * Giỏ hàng được chuẩn bị trước, chỉ thời gian checkout được tính.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.backend.benchmark.CheckoutBenchmark \
+ *     -Dcheckout.bench.orders=2000 -Dcheckout.bench.threads=16
+ * </pre>
+ */
+public class CheckoutBenchmark {
+
+    private static final int LINES = Integer.getInteger("checkout.bench.lines", 50);
+    private static final int ORDERS = Integer.getInteger("checkout.bench.orders", 1_000);
+    private static final int THREADS = Integer.getInteger("checkout.bench.threads", 16);
+    private static final int WARMUP_ORDERS = Integer.getInteger("checkout.bench.warmup", 100);
+
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(BackendApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        try (ConfigurableApplicationContext context = application.run("--server.port=0")) {
+            List<UUID> variantIds = new ArrayList<>();
+            List<UUID> userIds = new ArrayList<>();
+            seed(context, variantIds, userIds);
+
+            CartService cartService = context.getBean(CartService.class);
+            CheckoutService checkoutService = context.getBean(CheckoutService.class);
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                run(pool, cartService, checkoutService, userIds, variantIds, WARMUP_ORDERS, "warmup");
+                run(pool, cartService, checkoutService, userIds, variantIds, ORDERS, "checkout");
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static void run(ExecutorService pool, CartService cartService, CheckoutService checkoutService,
+                            List<UUID> userIds, List<UUID> variantIds, int orders, String phase) throws Exception {
+        long[] latencies = new long[orders];
+        AtomicInteger failures = new AtomicInteger();
+        // Mỗi thread dùng một người dùng riêng nên giỏ của họ không bị checkout khác chen vào
+        BlockingQueue<UUID> users = new ArrayBlockingQueue<>(userIds.size(), false, userIds);
+        List<Future<?>> futures = new ArrayList<>(orders);
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> {
+                UUID userId = users.take();
+                try {
+                    for (UUID variantId : variantIds) {
+                        cartService.addItem(userId, variantId, 1);
+                    }
+                    long begin = System.nanoTime();
+                    try {
+                        checkoutService.checkout(userId, phase + "-" + index, request());
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        cartService.clear(userId);
+                    }
+                    latencies[index] = System.nanoTime() - begin;
+                } finally {
+                    users.put(userId);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long checkoutNanos = Arrays.stream(latencies).sum();
+
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        // Throughput tính trên thời gian checkout (không tính thời gian dựng giỏ) chia đều cho các thread
+        double seconds = checkoutNanos / 1e9 / THREADS;
+        System.out.printf("%-8s orders=%d lines/order=%d failures=%d wall=%.1f s throughput=%.1f orders/s "
+                        + "(%.0f lines/s) p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                phase, orders, LINES, failures.get(), elapsed / 1e9, orders / seconds, orders * LINES / seconds,
+                sorted[orders / 2] / 1e6, sorted[Math.max(0, (int) Math.ceil(orders * 0.99) - 1)] / 1e6,
+                sorted[orders - 1] / 1e6);
+    }
+
+    private static CheckoutRequest request() {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setNameReceiver("Benchmark");
+        request.setPhone("0900000000");
+        request.setOrderAddress("1 Lê Lợi, Quận 1, TP.HCM");
+        return request;
+    }
+
+    private static void seed(ConfigurableApplicationContext context, List<UUID> variantIds, List<UUID> userIds) {
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            Role role = new Role();
+            role.setName("USER");
+            entityManager.persist(role);
+            for (int i = 0; i < THREADS; i++) {
+                User user = new User();
+                user.setEmail("checkout" + i + "@glowmart.vn");
+                user.setGender(GenderOptions.FEMALE);
+                user.setRole(role);
+                entityManager.persist(user);
+                userIds.add(user.getId());
+            }
+            Brand brand = new Brand();
+            brand.setName("Bench");
+            entityManager.persist(brand);
+            Category category = new Category();
+            category.setName("Bench");
+            entityManager.persist(category);
+            Supplier supplier = new Supplier();
+            supplier.setName("Bench");
+            entityManager.persist(supplier);
+            Product product = new Product();
+            product.setName("Bench");
+            product.setBrand(brand);
+            product.setCategory(category);
+            entityManager.persist(product);
+            for (int i = 0; i < LINES; i++) {
+                Variants variant = new Variants();
+                variant.setSku("BENCH-" + i);
+                variant.setProduct(product);
+                variant.setPrice(BigDecimal.valueOf(100_000));
+                variant.setStatus(ProductStatus.AVAILABLE);
+                entityManager.persist(variant);
+                variantIds.add(variant.getId());
+                Inventory inventory = new Inventory();
+                inventory.setVariant(variant);
+                inventory.setSupplier(supplier);
+                inventory.setPriceImport(BigDecimal.valueOf(60_000));
+                inventory.setExp(LocalDate.now().plusYears(1));
+                inventory.setDateOfEntry(LocalDateTime.now());
+                inventory.setOnHand(1_000_000);
+                entityManager.persist(inventory);
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.config.JwtConfig;
+import com.example.backend.security.JwtClaims;
+import com.example.backend.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo các đường nóng của {@link JwtTokenProvider}: sinh access/refresh token và
+ * parseAndVerify (đường JwtAuthenticationFilter dùng cho mỗi request) khi trúng và trượt cache.
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtTokenProviderBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "SGVsbG8gV29ybGQgVGhpcyBpcyBhIHZlcnkgbG9uZyBhbmQgc2VjdXJlIEpXVCBzZWNyZXQga2V5IHRoYXQgaGFzIG1vcmUgdGhhbiA1MTIgYml0cyB3aGVuIGRlY29kZWQgd2l0aCBCYXNlNjQgZW5jb2Rpbmc=";
+    // Nhiều hơn hẳn sức chứa cache của uncachedProvider để gần như mọi lần parse đều phải verify chữ ký
+    private static final int DISTINCT_TOKENS = 4096;
+
+    private JwtTokenProvider provider;
+    private JwtTokenProvider uncachedProvider;
+    private UUID userId;
+    private String cachedToken;
+    private String[] tokens;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider(config(10_000), new SimpleMeterRegistry());
+        uncachedProvider = new JwtTokenProvider(config(1), new SimpleMeterRegistry());
+        userId = UUID.randomUUID();
+        cachedToken = provider.generateAccessToken("bench@glowmart.vn", userId, 0);
+        provider.parseAndVerify(cachedToken);
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            tokens[i] = uncachedProvider.generateAccessToken("user" + i + "@glowmart.vn", UUID.randomUUID(), 0);
+        }
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return provider.generateAccessToken("bench@glowmart.vn", userId, 0);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return provider.generateRefreshToken("bench@glowmart.vn", userId, 0);
+    }
+
+    @Benchmark
+    public Optional<JwtClaims> parseAndVerifyCached() {
+        return provider.parseAndVerify(cachedToken);
+    }
+
+    @Benchmark
+    public Optional<JwtClaims> parseAndVerifyUncached(Cursor cursor) {
+        String token = tokens[cursor.next++ & (DISTINCT_TOKENS - 1)];
+        return uncachedProvider.parseAndVerify(token);
+    }
+
+    private static JwtConfig config(long cacheSize) {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setAccessTokenExpirationMs(900_000);
+        config.setRefreshTokenExpirationMs(604_800_000);
+        config.setVerifiedTokenCacheSize(cacheSize);
+        return config;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.CartPricing;
+import com.example.backend.dto.DiscountRuleSnapshot;
+import com.example.backend.dto.VariantPriceSnapshot;
+import com.example.backend.enums.ProductStatus;
+import com.example.backend.service.PriceRuleIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo {@link PriceRuleIndex}: tính giá giỏ 100 dòng trên bộ luật vài nghìn discount (đường của
+ * CartService/CheckoutService mỗi request) và biên dịch lại bộ luật (PricingEngine.reload khi discount đổi).
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main PricingEngineBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    private static final int CATEGORIES = 20;
+    private static final int PRODUCTS = 500;
+    private static final int VARIANTS = 2_000;
+
+    @Param({"100"})
+    public int lines;
+
+    @Param({"5000"})
+    public int rules;
+
+    private List<DiscountRuleSnapshot> ruleRows;
+    private PriceRuleIndex index;
+    private List<VariantPriceSnapshot> cart;
+    private int[] quantities;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        today = LocalDate.now();
+        UUID[] categoryIds = ids(CATEGORIES);
+        UUID[] productIds = ids(PRODUCTS);
+        UUID[] variantIds = ids(VARIANTS);
+
+        List<VariantPriceSnapshot> catalog = new ArrayList<>(VARIANTS);
+        for (int i = 0; i < VARIANTS; i++) {
+            int product = i % PRODUCTS;
+            catalog.add(new VariantPriceSnapshot(variantIds[i], productIds[product], categoryIds[product % CATEGORIES],
+                    "SKU-" + i, "Sản phẩm " + product, "Màu " + i % 7, "50ml",
+                    BigDecimal.valueOf(50_000 + random.nextInt(950) * 1_000L),
+                    i % 3 == 0 ? BigDecimal.valueOf(random.nextInt(30)) : null,
+                    product % 4 == 0 ? new BigDecimal("5.5") : null,
+                    ProductStatus.AVAILABLE));
+        }
+
+        // Phần lớn luật theo biến thể/sản phẩm như dữ liệu thật, thêm ít luật danh mục và toàn cửa hàng
+        ruleRows = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            int scope = random.nextInt(100);
+            UUID variantId = scope < 60 ? variantIds[random.nextInt(VARIANTS)] : null;
+            UUID productId = scope >= 60 && scope < 90 ? productIds[random.nextInt(PRODUCTS)] : null;
+            UUID categoryId = scope >= 90 && scope < 99 ? categoryIds[random.nextInt(CATEGORIES)] : null;
+            boolean percent = random.nextBoolean();
+            ruleRows.add(new DiscountRuleSnapshot(UUID.randomUUID(), variantId, productId, categoryId,
+                    percent ? 5 + random.nextInt(40) : 0,
+                    BigDecimal.valueOf(percent ? 100_000 : 5_000 + random.nextInt(50) * 1_000L),
+                    random.nextInt(4) == 0 ? BigDecimal.valueOf(500_000) : null, null,
+                    today.minusDays(random.nextInt(30)), random.nextBoolean() ? today.plusDays(30) : null));
+        }
+        index = PriceRuleIndex.compile(ruleRows);
+
+        cart = new ArrayList<>(lines);
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            cart.add(catalog.get(random.nextInt(VARIANTS)));
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public CartPricing priceCart() {
+        return index.price(cart, quantities, today);
+    }
+
+    @Benchmark
+    public PriceRuleIndex compileRules() {
+        return PriceRuleIndex.compile(ruleRows);
+    }
+
+    private static UUID[] ids(int count) {
+        UUID[] ids = new UUID[count];
+        for (int i = 0; i < count; i++) ids[i] = UUID.randomUUID();
+        return ids;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.entity.TimeOrderedUuidGenerator;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * So sánh tốc độ insert và kích thước index giữa UUID v4 (ngẫu nhiên) và UUID v7 (theo thời gian)
+ * làm khóa chính BINARY(16) trên InnoDB.
+ *
+ * <p>Chạy với một schema MySQL riêng (bảng benchmark bị xóa và tạo lại):
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.backend.benchmark.UuidInsertBenchmark \
+ *     -Dbench.url=jdbc:mysql://localhost:3306/glowmart_bench -Dbench.rows=5000000
+ * </pre>
+ */
+public class UuidInsertBenchmark {
+
+    private static final String URL = System.getProperty("bench.url",
+            "jdbc:mysql://localhost:3306/glowmart_bench?rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("bench.user", "root");
+    private static final String PASSWORD = System.getProperty("bench.password", "6723");
+    private static final int ROWS = Integer.getInteger("bench.rows", 2_000_000);
+    private static final int BATCH = Integer.getInteger("bench.batch", 1_000);
+    private static final int REPORT_EVERY = Integer.getInteger("bench.report-every", 500_000);
+
+    public static void main(String[] args) throws SQLException {
+        TimeOrderedUuidGenerator v7 = new TimeOrderedUuidGenerator();
+        try (Connection connection = DriverManager.getConnection(URL, USER, PASSWORD)) {
+            run(connection, "uuid_bench_v4", UUID::randomUUID);
+            run(connection, "uuid_bench_v7", () -> v7.generateUuid(null));
+        }
+    }
+
+    private static void run(Connection connection, String table, Supplier<UUID> ids) throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE TABLE " + table + " ("
+                    + "id BINARY(16) NOT NULL PRIMARY KEY, "
+                    + "created_at DATETIME(6) NOT NULL, "
+                    + "payload VARCHAR(64) NOT NULL, "
+                    + "INDEX idx_" + table + "_created_at (created_at)) ENGINE=InnoDB");
+        }
+
+        connection.setAutoCommit(false);
+        System.out.printf("%n== %s: %,d rows, batch %,d%n", table, ROWS, BATCH);
+        long start = System.nanoTime();
+        long segmentStart = start;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, created_at, payload) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setBytes(1, BinaryCodec.INSTANCE.encode(ids.get()));
+                insert.setTimestamp(2, Timestamp.from(Instant.now()));
+                insert.setString(3, "order-line-" + i);
+                insert.addBatch();
+                if (i % BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+                if (i % REPORT_EVERY == 0) {
+                    long now = System.nanoTime();
+                    System.out.printf("  rows %,12d  segment %,10.0f rows/s%n",
+                            i, REPORT_EVERY / ((now - segmentStart) / 1e9));
+                    segmentStart = now;
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  total %.1f s, %,.0f rows/s%n", seconds, ROWS / seconds);
+        connection.setAutoCommit(true);
+
+        try (Statement stats = connection.createStatement()) {
+            stats.execute("ANALYZE TABLE " + table);
+            try (ResultSet rs = stats.executeQuery(
+                    "SELECT DATA_LENGTH, INDEX_LENGTH, DATA_FREE FROM information_schema.TABLES "
+                            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + table + "'")) {
+                if (rs.next()) {
+                    System.out.printf("  clustered index %,d MB, secondary index %,d MB, free %,d MB%n",
+                            rs.getLong(1) >> 20, rs.getLong(2) >> 20, rs.getLong(3) >> 20);
+                }
+            }
+        }
+    }
+}
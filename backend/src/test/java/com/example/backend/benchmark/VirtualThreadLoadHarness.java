@@ -0,0 +1,201 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.entity.Role;
+import com.example.backend.repository.RoleRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * So sánh xử lý request bằng platform thread và virtual thread ở mức đồng thời cao. Ứng dụng được chạy
+ * hai lần trên H2 (profile loadtest), mỗi lần với một giá trị {@code spring.threads.virtual.enabled},
+ * rồi bắn GET /api/v1/users/me (một truy vấn DB mỗi request). H2 trong bộ nhớ trả lời gần như tức thì
+ * nên mỗi câu lệnh được cộng thêm {@code load.db-latency-ms} để mô phỏng độ trễ mạng tới MySQL.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.backend.benchmark.VirtualThreadLoadHarness \
+ *     -Dload.concurrency=2000 -Dload.db-latency-ms=5 -Dspring.datasource.hikari.maximum-pool-size=20
+ * </pre>
+ * Với đường đi chỉ chờ DB, throughput bị chặn bởi Hikari (pool / độ trễ) ở cả hai chế độ; khác biệt nằm
+ * ở số thread phải giữ và ở độ trễ đuôi khi số kết nối đồng thời vượt số thread Tomcat.
+ */
+public class VirtualThreadLoadHarness {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1_000);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 20_000);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("load.warmup-requests", 2_000);
+    private static final long DB_LATENCY_MS = Long.getLong("load.db-latency-ms", 5);
+    private static final List<String> MODES = List.of(System.getProperty("load.modes", "platform,virtual").split(","));
+    private static final String PASSWORD = "GlowMart@2024";
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String baseUrl;
+
+    private VirtualThreadLoadHarness(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String mode : MODES) {
+            boolean virtual = mode.equals("virtual");
+            SpringApplication application = new SpringApplication(BackendApplication.class);
+            application.setAdditionalProfiles("loadtest");
+            application.addInitializers(context -> context.getBeanFactory().addBeanPostProcessor(new DbLatency()));
+            try (ConfigurableApplicationContext context = application.run("--server.port=0",
+                    "--spring.threads.virtual.enabled=" + virtual)) {
+                RoleRepository roleRepository = context.getBean(RoleRepository.class);
+                if (roleRepository.findByName("USER").isEmpty()) {
+                    Role role = new Role();
+                    role.setName("USER");
+                    roleRepository.save(role);
+                }
+                String port = context.getEnvironment().getProperty("local.server.port");
+                new VirtualThreadLoadHarness("http://localhost:" + port).run(mode);
+            }
+        }
+    }
+
+    private void run(String mode) throws Exception {
+        send(post("/api/v1/auth/signup", """
+                {"fullName":"Load User","email":"vt@glowmart.vn","phoneNumber":"0900000001","password":"%s",\
+                "gender":"FEMALE","dateOfBirth":"1995-05-20"}""".formatted(PASSWORD)));
+        HttpResponse<String> login = client.send(post("/api/v1/auth/login", """
+                {"email":"vt@glowmart.vn","password":"%s"}""".formatted(PASSWORD)), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ACCESS_TOKEN.matcher(login.body());
+        if (!matcher.find()) throw new IllegalStateException("Đăng nhập thất bại: " + login.body());
+        HttpRequest me = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/users/me"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + matcher.group(1))
+                .GET()
+                .build();
+
+        measure(me, WARMUP_REQUESTS);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        Result result = measure(me, REQUESTS);
+
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+        double seconds = result.elapsedNanos() / 1e9;
+        System.out.printf("%-9s concurrency=%d requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms "
+                        + "max=%.2f ms peak-platform-threads=%d%n",
+                mode, CONCURRENCY, sorted.length, result.errors(), sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6,
+                threads.getPeakThreadCount());
+    }
+
+    // Client chạy trên virtual thread, giới hạn số request đang bay bằng semaphore
+    private Result measure(HttpRequest request, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<Future<?>> futures = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                inFlight.acquire();
+                futures.add(clients.submit(() -> {
+                    long begin = System.nanoTime();
+                    try {
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - begin;
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return new Result(latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private void send(HttpRequest request) throws Exception {
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(long[] latencies, int errors, long elapsedNanos) {
+    }
+
+    /** Bọc DataSource để mỗi lần thực thi câu lệnh chờ thêm {@code DB_LATENCY_MS} trong khi giữ kết nối. */
+    private static final class DbLatency implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (DB_LATENCY_MS <= 0 || !(bean instanceof DataSource dataSource)) return bean;
+            return proxy(DataSource.class, dataSource);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    Thread.sleep(DB_LATENCY_MS);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                    return proxy(Connection.class, connection);
+                }
+                if (result instanceof Statement statement && !(p instanceof Statement)) {
+                    return proxy(statementType(method.getReturnType()), statement);
+                }
+                return result;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T extends Statement> Class<T> statementType(Class<?> declared) {
+            return (Class<T>) (Statement.class.isAssignableFrom(declared) ? declared : Statement.class);
+        }
+    }
+}
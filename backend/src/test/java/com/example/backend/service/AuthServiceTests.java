@@ -0,0 +1,205 @@
+package com.example.backend.service;
+
+import com.example.backend.config.*;
+import com.example.backend.dto.AuthResponse;
+import com.example.backend.dto.LoginRequest;
+import com.example.backend.entity.User;
+import com.example.backend.security.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({AuthService.class, PasswordHashingService.class, JwtTokenProvider.class, LoginAttemptTracker.class,
+        UserPrincipalCache.class, UserDetailsServiceImpl.class, PasswordHashingConfig.class, JwtConfig.class,
+        LoginAttemptConfig.class, PrincipalCacheConfig.class, RevokedTokenStore.class, TokenRevocationConfig.class,
+        AuthServiceTests.Beans.class})
+@TestPropertySource(properties = {
+        "security.password-hashing.bcrypt-strength=4",
+        "security.login-attempts.max-failures-per-ip=8"
+})
+class AuthServiceTests extends ServiceTestSupport {
+
+    private static final String PASSWORD = "correct-horse";
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private RevokedTokenStore revokedTokenStore;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        email = email("login");
+        tx.executeWithoutResult(status ->
+                user(role(), email).setHashedPassword(passwordEncoder.encode(PASSWORD)));
+    }
+
+    @Test
+    void failedAttemptsStayInMemoryUntilTheAccountLocks() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalArgumentException.class, () -> authService.login(request("wrong"), "10.0.0.1"));
+        }
+        // Bốn lần sai chưa ghi gì xuống users
+        User afterFour = load();
+        assertEquals(0, afterFour.getFailed());
+        assertFalse(afterFour.getLocked());
+        Instant updatedAt = afterFour.getUpdatedAt();
+
+        assertThrows(IllegalArgumentException.class, () -> authService.login(request("wrong"), "10.0.0.2"));
+
+        User locked = load();
+        assertTrue(locked.getLocked());
+        assertEquals(5, locked.getFailed());
+        assertNotNull(locked.getLockTime());
+        assertEquals(updatedAt, locked.getUpdatedAt());
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> authService.login(request(PASSWORD), "10.0.0.3"));
+        assertTrue(error.getMessage().contains("bị khóa"));
+    }
+
+    @Test
+    void expiredLockIsClearedOnNextSuccessfulLogin() {
+        tx.executeWithoutResult(status -> entityManager
+                .createQuery("update User u set u.locked = true, u.failed = 5, u.lockTime = :past where u.email = :email")
+                .setParameter("past", Instant.now().minusSeconds(1))
+                .setParameter("email", email)
+                .executeUpdate());
+
+        assertNotNull(authService.login(request(PASSWORD), "10.0.0.4").getAccessToken());
+
+        User unlocked = load();
+        assertFalse(unlocked.getLocked());
+        assertNull(unlocked.getLockTime());
+        assertEquals(0, unlocked.getFailed());
+    }
+
+    @Test
+    void expiredLockIsRenewedByFurtherFailures() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> authService.login(request("wrong"), null));
+        }
+        assertTrue(load().getLocked());
+        tx.executeWithoutResult(status -> entityManager
+                .createQuery("update User u set u.lockTime = :past where u.email = :email")
+                .setParameter("past", Instant.now().minusSeconds(1))
+                .setParameter("email", email)
+                .executeUpdate());
+
+        // Khóa hết hạn không được mở khi sai mật khẩu, nhưng vẫn phải khóa lại sau đủ số lần sai mới
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> authService.login(request("wrong"), null));
+        }
+        User relocked = load();
+        assertTrue(relocked.getLocked());
+        assertTrue(relocked.getLockTime().isAfter(Instant.now()));
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> authService.login(request(PASSWORD), null));
+        assertTrue(error.getMessage().contains("bị khóa"));
+    }
+
+    @Test
+    void successfulLoginResetsTheWindow() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertThrows(IllegalArgumentException.class, () -> authService.login(request("wrong"), null));
+            }
+            authService.login(request(PASSWORD), null);
+        }
+        assertFalse(load().getLocked());
+    }
+
+    @Test
+    void addressIsBlockedAfterTooManyFailuresAcrossAccounts() {
+        for (int i = 0; i < 8; i++) {
+            LoginRequest unknown = new LoginRequest();
+            unknown.setEmail("nobody-" + i + "@glowmart.vn");
+            unknown.setPassword("wrong");
+            assertThrows(IllegalArgumentException.class, () -> authService.login(unknown, "10.9.9.9"));
+        }
+        // Đúng mật khẩu nhưng IP đã bị chặn; IP khác vẫn đăng nhập được
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> authService.login(request(PASSWORD), "10.9.9.9"));
+        assertTrue(error.getMessage().contains("quá nhiều lần"));
+        assertNotNull(authService.login(request(PASSWORD), "10.9.9.10").getAccessToken());
+    }
+
+    @Test
+    void refreshRotatesAndReuseRevokesTheWholeFamily() {
+        AuthResponse login = authService.login(request(PASSWORD), null);
+        AuthResponse first = authService.refresh(login.getRefreshToken());
+        assertNotEquals(login.getRefreshToken(), first.getRefreshToken());
+        assertEquals(jwtTokenProvider.parseAndVerify(login.getRefreshToken()).orElseThrow().familyId(),
+                jwtTokenProvider.parseAndVerify(first.getRefreshToken()).orElseThrow().familyId());
+
+        // Token cũ bị dùng lại: từ chối và thu hồi luôn token mới nhất của cùng family
+        assertThrows(IllegalArgumentException.class, () -> authService.refresh(login.getRefreshToken()));
+        assertThrows(IllegalArgumentException.class, () -> authService.refresh(first.getRefreshToken()));
+
+        // Phiên đăng nhập khác không bị ảnh hưởng
+        AuthResponse other = authService.login(request(PASSWORD), null);
+        assertNotNull(authService.refresh(other.getRefreshToken()).getAccessToken());
+    }
+
+    @Test
+    void accessTokenCannotBeUsedToRefresh() {
+        AuthResponse login = authService.login(request(PASSWORD), null);
+        assertThrows(IllegalArgumentException.class, () -> authService.refresh(login.getAccessToken()));
+    }
+
+    @Test
+    void logoutRevokesAccessTokenAndRefreshFamily() {
+        AuthResponse login = authService.login(request(PASSWORD), null);
+        JwtClaims access = jwtTokenProvider.parseAndVerify(login.getAccessToken()).orElseThrow();
+        assertFalse(revokedTokenStore.isRevoked(access.tokenId(), access.expiresAt()));
+
+        authService.logout(login.getAccessToken(), login.getRefreshToken());
+
+        assertTrue(revokedTokenStore.isRevoked(access.tokenId(), access.expiresAt()));
+        assertThrows(IllegalArgumentException.class, () -> authService.refresh(login.getRefreshToken()));
+    }
+
+    private LoginRequest request(String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+
+    private User load() {
+        return tx.execute(status -> entityManager
+                .createQuery("select u from User u where u.email = :email", User.class)
+                .setParameter("email", email)
+                .getSingleResult());
+    }
+}
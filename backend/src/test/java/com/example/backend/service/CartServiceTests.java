@@ -0,0 +1,149 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CartConfig;
+import com.example.backend.dto.CartLineResponse;
+import com.example.backend.dto.CartResponse;
+import com.example.backend.entity.*;
+import com.example.backend.repository.CartItemRepository;
+import com.example.backend.repository.CartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({CartService.class, VariantPriceCache.class, PricingEngine.class, CartConfig.class})
+class CartServiceTests extends ServiceTestSupport {
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private VariantPriceCache priceCache;
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private CartConfig config;
+
+    private UUID userId;
+    private final List<UUID> variantIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        variantIds.clear();
+        userId = tx.execute(status -> {
+            User user = user(role(), email("cart"));
+            Product product = lipstick();
+            for (int i = 0; i < 3; i++) {
+                Variants variant = variant("CART-" + i, product, 200_000);
+                variant.setDiscountPercent(BigDecimal.valueOf(i * 10L));
+                variantIds.add(variant.getId());
+            }
+            return user.getId();
+        });
+    }
+
+    // Ghi nốt giỏ hàng còn trong bộ nhớ trước khi test sau xóa dữ liệu
+    @AfterEach
+    void tearDown() {
+        cartService.flush();
+    }
+
+    @Test
+    void burstOfChangesIsCoalescedIntoOneFlush() {
+        UUID first = variantIds.get(0);
+        UUID second = variantIds.get(1);
+        for (int tap = 1; tap <= 20; tap++) {
+            cartService.setQuantity(userId, first, tap);
+        }
+        cartService.addItem(userId, second, 2);
+        cartService.removeItem(userId, second);
+        cartService.addItem(userId, variantIds.get(2), 1);
+
+        // Chưa flush thì chưa có dòng nào trong DB
+        assertEquals(0L, cartItemRepository.count());
+
+        cartService.flush();
+
+        assertEquals(Map.of(first, 20, variantIds.get(2), 1), persistedItems());
+        assertEquals(1L, cartRepository.count());
+    }
+
+    @Test
+    void pricesComeFromVariantSnapshot() {
+        cartService.addItem(userId, variantIds.get(1), 2);
+        CartResponse cart = cartService.addItem(userId, variantIds.get(0), 1);
+
+        // 200.000 giảm 10% x 2 + 200.000 x 1
+        assertEquals(0, BigDecimal.valueOf(560_000).compareTo(cart.subtotal()));
+        assertEquals(3, cart.totalQuantity());
+        assertEquals(variantIds.get(1), cart.items().get(0).variantId());
+    }
+
+    @Test
+    void cartSurvivesRestart() {
+        cartService.addItem(userId, variantIds.get(0), 3);
+        cartService.flush();
+        cartService.setQuantity(userId, variantIds.get(0), 5);
+        cartService.addItem(userId, variantIds.get(1), 1);
+        cartService.flushOnShutdown();
+
+        CartService restarted = new CartService(cartRepository, cartItemRepository, priceCache,
+                pricingEngine, jdbcTemplate, transactionManager, config);
+        CartResponse cart = restarted.getCart(userId);
+
+        assertEquals(6, cart.totalQuantity());
+        assertEquals(List.of(variantIds.get(0), variantIds.get(1)),
+                cart.items().stream().map(CartLineResponse::variantId).toList());
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            UUID variantId = variantIds.get(i % variantIds.size());
+            futures.add(pool.submit(() -> {
+                cartService.addItem(userId, variantId, 1);
+                if (ThreadLocalRandom.current().nextInt(5) == 0) cartService.flush();
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        cartService.flush();
+
+        Map<UUID, Integer> expected = new HashMap<>();
+        variantIds.forEach(id -> expected.put(id, 20));
+        assertEquals(expected, persistedItems());
+    }
+
+    @Test
+    void unknownVariantIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> cartService.addItem(userId, UUID.randomUUID(), 1));
+        assertThrows(IllegalArgumentException.class, () -> cartService.addItem(userId, variantIds.get(0), 0));
+    }
+
+    private Map<UUID, Integer> persistedItems() {
+        return tx.execute(status -> {
+            Map<UUID, Integer> items = new HashMap<>();
+            for (CartItem item : entityManager.createQuery(
+                    "select ci from CartItem ci where ci.cart.user.id = :userId", CartItem.class)
+                    .setParameter("userId", userId)
+                    .getResultList()) {
+                items.put(item.getVariant().getId(), item.getQuantity());
+            }
+            return items;
+        });
+    }
+}
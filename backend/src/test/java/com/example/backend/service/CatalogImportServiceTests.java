@@ -0,0 +1,133 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CatalogImportConfig;
+import com.example.backend.dto.ImportJobResponse;
+import com.example.backend.dto.ImportRowErrorResponse;
+import com.example.backend.entity.*;
+import com.example.backend.enums.ImportJobStatus;
+import com.example.backend.repository.ImportJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({CatalogImportService.class, CatalogImportConfig.class, SyncTaskExecutorConfig.class})
+class CatalogImportServiceTests extends ServiceTestSupport {
+
+    private static final String HEADER =
+            "sku,product_name,brand,category,supplier,price,on_hand,unit,quantity,price_import,dol,exp,description\n";
+
+    @Autowired
+    private CatalogImportService importService;
+    @Autowired
+    private CatalogImportConfig config;
+    @Autowired
+    private ImportJobRepository jobRepository;
+
+    @TempDir
+    Path spoolDir;
+
+    @BeforeEach
+    void setUp() {
+        config.setSpoolDir(spoolDir.toString());
+        config.setChunkSize(2);
+        tx.executeWithoutResult(status -> {
+            Product product = lipstick();
+            supplier("Sunrise");
+            variant("SKU-EXIST", product, 100_000).softDelete();
+        });
+    }
+
+    @Test
+    void importUpsertsBySkuAndRecordsRowErrors() throws Exception {
+        String csv = HEADER
+                + "SKU-1,Son lì,Glow,Son môi,Sunrise,150000,10,ml,5,90000,2026-01-01,2028-01-01,\"Màu đỏ, lì\"\n"
+                + "SKU-EXIST,son lì,glow,SON MÔI,sunrise,175000,4,,,,,,\n"
+                + "SKU-2,Son bóng,Glow,Son môi,Sunrise,120000,3,,,,,,\n"
+                + "SKU-3,Son bóng,Unknown,Son môi,Sunrise,120000,3,,,,,,\n"
+                + "\n"
+                + "SKU-4,Kem,Glow,Son môi,Sunrise,abc,3,,,,,,\n"
+                + "SKU-1,Son lì,Glow,Son môi,Sunrise,155000,2,,,,,,\n";
+
+        ImportJobResponse submitted = importService.submit(
+                new MockMultipartFile("file", "supplier.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)));
+
+        ImportJobResponse job = importService.status(submitted.id());
+        assertEquals(ImportJobStatus.COMPLETED, job.status());
+        assertEquals(6, job.processedRows());
+        assertEquals(2, job.createdRows());
+        assertEquals(2, job.updatedRows());
+        assertEquals(2, job.errorRows());
+
+        List<ImportRowErrorResponse> errors = importService.errors(submitted.id(), 0, 10);
+        assertEquals(List.of(5L, 7L), errors.stream().map(ImportRowErrorResponse::lineNumber).toList());
+        assertEquals("SKU-3", errors.get(0).sku());
+        assertEquals(List.of(7L), importService.errors(submitted.id(), 5, 10).stream()
+                .map(ImportRowErrorResponse::lineNumber).toList());
+
+        // SKU đã xóa mềm được khôi phục; dòng lặp SKU cập nhật giá nhưng giữ mô tả cũ khi cột trống
+        assertEquals(0, new BigDecimal("175000").compareTo(price("SKU-EXIST")));
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "select is_deleted from variants where sku = 'SKU-EXIST'", Boolean.class));
+        assertEquals(0, new BigDecimal("155000").compareTo(price("SKU-1")));
+        assertEquals("Màu đỏ, lì", jdbcTemplate.queryForObject(
+                "select description from variants where sku = 'SKU-1'", String.class));
+        assertEquals(1, count("select count(*) from variants v join quantities q on q.id = v.quantity_id "
+                + "where v.sku = 'SKU-1'"));
+
+        // "Son bóng" được tạo một lần, "son lì" khớp sản phẩm có sẵn không phân biệt hoa thường
+        assertEquals(2, count("select count(*) from products"));
+        assertEquals(4, count("select count(*) from inventories"));
+        assertEquals(12, count("select sum(on_hand) from inventories i join variants v on v.id = i.variant_id "
+                + "where v.sku = 'SKU-1'"));
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void resumeSkipsRowsCommittedBeforeInterruption() throws Exception {
+        Path file = spoolDir.resolve("interrupted.csv");
+        Files.writeString(file, HEADER
+                + "SKU-A,Kem nền,Glow,Son môi,Sunrise,200000,1,,,,,,\n"
+                + "SKU-B,Kem nền,Glow,Son môi,Sunrise,200000,1,,,,,,\n"
+                + "SKU-C,Kem nền,Glow,Son môi,Sunrise,200000,1,,,,,,\n"
+                + "SKU-D,Kem nền,Glow,Son môi,Sunrise,200000,1,,,,,,\n");
+        ImportJob interrupted = new ImportJob();
+        interrupted.setFileName("interrupted.csv");
+        interrupted.setStoredPath(file.toString());
+        interrupted.setStatus(ImportJobStatus.INTERRUPTED);
+        interrupted.setProcessedRows(2);
+        interrupted.setCreatedRows(2);
+        jobRepository.save(interrupted);
+
+        importService.resume(interrupted.getId());
+
+        ImportJobResponse job = importService.status(interrupted.getId());
+        assertEquals(ImportJobStatus.COMPLETED, job.status());
+        assertEquals(4, job.processedRows());
+        assertEquals(4, job.createdRows());
+        assertEquals(0, count("select count(*) from variants where sku in ('SKU-A', 'SKU-B')"));
+        assertEquals(2, count("select count(*) from variants where sku in ('SKU-C', 'SKU-D')"));
+        assertThrows(IllegalStateException.class, () -> importService.resume(interrupted.getId()));
+    }
+
+    private BigDecimal price(String sku) {
+        return jdbcTemplate.queryForObject("select price from variants where sku = ?", BigDecimal.class, sku);
+    }
+
+    private long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CatalogCacheConfig;
+import com.example.backend.config.ImageDeliveryConfig;
+import com.example.backend.dto.CatalogCardResponse;
+import com.example.backend.dto.CatalogPageResponse;
+import com.example.backend.dto.CatalogQuery;
+import com.example.backend.entity.Product;
+import com.example.backend.enums.CatalogSort;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({CatalogService.class, ImageService.class, CatalogCacheConfig.class, ImageDeliveryConfig.class,
+        SimpleMeterRegistryConfig.class})
+class CatalogServiceTests extends ServiceTestSupport {
+
+    private static final Instant BASE = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @BeforeEach
+    void setUp() {
+        catalogService.onCatalogChanged(null);
+        List<UUID> ids = new ArrayList<>();
+        tx.executeWithoutResult(status -> {
+            Product lipstick = lipstick();
+            for (int i = 0; i < 5; i++) {
+                ids.add(variant("NEW-" + i, lipstick, 100_000 + (i % 2) * 50_000).getId());
+            }
+        });
+        // Mô phỏng biến thể cũ mang id v4: thứ tự tạo ngược với thứ tự id, hai biến thể tạo cùng thời điểm
+        int[] minutes = {40, 30, 10, 10, 20};
+        for (int i = 0; i < ids.size(); i++) {
+            jdbcTemplate.update("update variants set created_at = ? where id = ?",
+                    Timestamp.from(BASE.plusSeconds(minutes[i] * 60L)), BinaryCodec.INSTANCE.encode(ids.get(i)));
+        }
+    }
+
+    @Test
+    void newestPagesFollowCreationTimeNotIdOrder() {
+        List<String> skus = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CatalogPageResponse page = catalogService.findPage(query(CatalogSort.NEWEST, cursor));
+            page.items().stream().map(CatalogCardResponse::sku).forEach(skus::add);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Cùng thời điểm tạo thì id lớn hơn (NEW-3) đứng trước
+        assertEquals(List.of("NEW-0", "NEW-1", "NEW-4", "NEW-3", "NEW-2"), skus);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void priceCursorKeepsWorkingAndRejectsNewestCursor() {
+        CatalogPageResponse first = catalogService.findPage(query(CatalogSort.PRICE_ASC, null));
+        CatalogPageResponse second = catalogService.findPage(query(CatalogSort.PRICE_ASC, first.nextCursor()));
+        List<String> skus = new ArrayList<>();
+        first.items().forEach(card -> skus.add(card.sku()));
+        second.items().forEach(card -> skus.add(card.sku()));
+        assertEquals(List.of("NEW-0", "NEW-2", "NEW-4", "NEW-1"), skus);
+
+        String newestCursor = catalogService.findPage(query(CatalogSort.NEWEST, null)).nextCursor();
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogService.findPage(query(CatalogSort.PRICE_ASC, newestCursor)));
+        assertThrows(IllegalArgumentException.class,
+                () -> catalogService.findPage(query(CatalogSort.NEWEST, first.nextCursor())));
+    }
+
+    private static CatalogQuery query(CatalogSort sort, String cursor) {
+        return new CatalogQuery(null, null, null, null, null, sort, cursor, 2);
+    }
+}
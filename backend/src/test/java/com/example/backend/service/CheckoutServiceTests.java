@@ -0,0 +1,329 @@
+package com.example.backend.service;
+
+import com.example.backend.config.*;
+import com.example.backend.dto.CheckoutRequest;
+import com.example.backend.dto.CheckoutResponse;
+import com.example.backend.dto.CouponRedemption;
+import com.example.backend.entity.*;
+import com.example.backend.enums.OrderStatus;
+import com.example.backend.event.OrderConfirmedEvent;
+import com.example.backend.repository.InventoryRepository;
+import com.example.backend.repository.InventoryReservationRepository;
+import com.example.backend.repository.VariantsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({CheckoutService.class, CartService.class, VariantPriceCache.class, PricingEngine.class,
+        CheckoutServiceTests.ExpiringReservationService.class, CouponRedemptionService.class, CheckoutConfig.class, CartConfig.class,
+        InventoryReservationConfig.class, CouponConfig.class})
+@RecordApplicationEvents
+class CheckoutServiceTests extends ServiceTestSupport {
+
+    private static final int LINES = 50;
+    private static final int STOCK = 1_000;
+
+    @Autowired
+    private CheckoutService checkoutService;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private CouponRedemptionService couponService;
+    @Autowired
+    private ExpiringReservationService reservationService;
+    @Autowired
+    private ApplicationEvents events;
+
+    private UUID userId;
+    private UUID scarceVariantId;
+    private final List<UUID> variantIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        variantIds.clear();
+        reservationService.expireBeforeCommit(false);
+        tx.executeWithoutResult(status -> {
+            userId = user(role(), email("checkout")).getId();
+            Category category = category("Dưỡng da");
+            Supplier supplier = supplier("Nhà cung cấp A");
+            Product product = product("Serum", brand("Glow"), category);
+            for (int i = 0; i <= LINES; i++) {
+                Variants variant = variant("CHK-" + i, product, 100_000);
+                // Biến thể cuối chỉ còn 1 sản phẩm để thử trường hợp thiếu hàng
+                inventory(variant, supplier, i < LINES ? STOCK : 1, 60_000, LocalDate.now().plusYears(1));
+                if (i < LINES) variantIds.add(variant.getId()); else scarceVariantId = variant.getId();
+            }
+
+            DiscountType type = new DiscountType();
+            type.setName("Phần trăm");
+            entityManager.persist(type);
+            Discount discount = new Discount();
+            discount.setDiscountType(type);
+            discount.setCategory(category);
+            discount.setVariant(entityManager.find(Variants.class, scarceVariantId));
+            discount.setCode("SALE10");
+            discount.setDiscountPercent(10);
+            discount.setDiscountValue(BigDecimal.valueOf(200_000));
+            discount.setUsageLimit(10);
+            discount.setActive(true);
+            entityManager.persist(discount);
+        });
+        couponService.reload();
+    }
+
+    // Ghi nốt giỏ hàng còn trong bộ nhớ trước khi test sau xóa dữ liệu
+    @AfterEach
+    void tearDown() {
+        cartService.flush();
+    }
+
+    @Test
+    void checkoutTurnsCartIntoConfirmedOrder() {
+        for (UUID variantId : variantIds) {
+            cartService.addItem(userId, variantId, 2);
+        }
+
+        CheckoutResponse response = checkoutService.checkout(userId, "key-1", request("SALE10"));
+
+        assertEquals(OrderStatus.CONFIRMED, response.status());
+        assertFalse(response.replayed());
+        // 50 dòng x 2 x 100.000 = 10.000.000, giảm 10% nhưng tối đa 200.000, miễn phí vận chuyển
+        assertEquals(0, BigDecimal.valueOf(10_000_000).compareTo(response.subtotal()));
+        assertEquals(0, BigDecimal.valueOf(200_000).compareTo(response.discountAmount()));
+        assertEquals(0, BigDecimal.valueOf(9_800_000).compareTo(response.total()));
+        assertEquals(LINES, countDetails(response.orderId()));
+        assertEquals(LINES * (STOCK - 2), onHand(variantIds));
+        assertEquals(0, reserved());
+        assertTrue(cartService.items(userId).isEmpty());
+        assertEquals(1, events.stream(OrderConfirmedEvent.class).count());
+        assertEquals(LINES, events.stream(OrderConfirmedEvent.class).findFirst().orElseThrow().lines().size());
+    }
+
+    @Test
+    void retriesWithSameKeyNeverCreateSecondOrder() throws Exception {
+        cartService.addItem(userId, variantIds.get(0), 1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger replayed = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(pool.submit(() -> {
+                try {
+                    CheckoutResponse response = checkoutService.checkout(userId, "retry-key", request(null));
+                    (response.replayed() ? replayed : created).incrementAndGet();
+                } catch (IllegalStateException e) {
+                    inFlight.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(1, created.get());
+        assertEquals(16, created.get() + replayed.get() + inFlight.get());
+        assertEquals(1L, countOrders());
+        assertEquals(STOCK - 1, onHand(List.of(variantIds.get(0))));
+
+        CheckoutResponse again = checkoutService.checkout(userId, "retry-key", request(null));
+        assertTrue(again.replayed());
+        assertEquals(1L, countOrders());
+    }
+
+    @Test
+    void failedCheckoutIsCompensatedAndCanBeRetried() {
+        cartService.addItem(userId, variantIds.get(0), 3);
+        cartService.addItem(userId, scarceVariantId, 5);
+
+        assertThrows(IllegalStateException.class,
+                () -> checkoutService.checkout(userId, "scarce", request("SALE10")));
+
+        Order failed = findOrder("scarce");
+        assertEquals(OrderStatus.FAILED, failed.getStatus());
+        assertEquals(0, countDetails(failed.getId()));
+        assertEquals(0, reserved());
+        assertEquals(0, couponUsedCount());
+
+        cartService.setQuantity(userId, scarceVariantId, 1);
+        CheckoutResponse retried = checkoutService.checkout(userId, "scarce", request("SALE10"));
+
+        assertEquals(failed.getId(), retried.orderId());
+        assertEquals(OrderStatus.CONFIRMED, retried.status());
+        assertEquals(2, countDetails(retried.orderId()));
+        assertEquals(1, couponUsedCount());
+    }
+
+    @Test
+    void reservationExpiredBeforeConfirmFailsTheOrder() {
+        cartService.addItem(userId, variantIds.get(0), 2);
+        reservationService.expireBeforeCommit(true);
+
+        assertThrows(IllegalStateException.class, () -> checkoutService.checkout(userId, "expired", request("SALE10")));
+
+        // Không xác nhận đơn khi kho chưa bị trừ; mọi thứ đã lấy được trả lại
+        assertEquals(OrderStatus.FAILED, findOrder("expired").getStatus());
+        assertEquals(STOCK, onHand(List.of(variantIds.get(0))));
+        assertEquals(0, reserved());
+        assertEquals(0, couponUsedCount());
+        assertEquals(0, events.stream(OrderConfirmedEvent.class).count());
+    }
+
+    @Test
+    void retryTakesOverCheckoutAbandonedByCrashedProcess() {
+        cartService.addItem(userId, variantIds.get(0), 2);
+        UUID orderId = abandonedOrder("crash", Instant.now().minus(10, ChronoUnit.MINUTES));
+        assertEquals(1, couponUsedCount());
+        assertEquals(2, reserved());
+
+        CheckoutResponse retried = checkoutService.checkout(userId, "crash", request("SALE10"));
+
+        assertEquals(orderId, retried.orderId());
+        assertEquals(OrderStatus.CONFIRMED, retried.status());
+        assertFalse(retried.replayed());
+        // Lượt mã và hàng giữ của lần chạy chết đã được trả lại trước khi lấy lại
+        assertEquals(1, couponUsedCount());
+        assertEquals(0, reserved());
+        assertEquals(STOCK - 2, onHand(List.of(variantIds.get(0))));
+        assertEquals(1L, countOrders());
+    }
+
+    @Test
+    void checkoutStillHoldingItsClaimIsNotTakenOver() {
+        cartService.addItem(userId, variantIds.get(0), 2);
+        abandonedOrder("busy", Instant.now());
+
+        assertThrows(IllegalStateException.class, () -> checkoutService.checkout(userId, "busy", request("SALE10")));
+        assertEquals(0, checkoutService.sweepStale());
+        assertEquals(OrderStatus.PENDING, findOrder("busy").getStatus());
+        assertEquals(2, reserved());
+    }
+
+    @Test
+    void sweeperFailsAbandonedCheckoutAndReturnsWhatItHeld() {
+        cartService.addItem(userId, variantIds.get(0), 2);
+        UUID orderId = abandonedOrder("sweep", Instant.now().minus(10, ChronoUnit.MINUTES));
+
+        assertEquals(1, checkoutService.sweepStale());
+
+        Order failed = findOrder("sweep");
+        assertEquals(OrderStatus.FAILED, failed.getStatus());
+        assertNull(failed.getDiscount());
+        assertEquals(0, couponUsedCount());
+        assertEquals(0, reserved());
+        assertEquals(0, checkoutService.sweepStale());
+
+        CheckoutResponse retried = checkoutService.checkout(userId, "sweep", request("SALE10"));
+        assertEquals(orderId, retried.orderId());
+        assertEquals(1, couponUsedCount());
+    }
+
+    @Test
+    void emptyCartIsRejected() {
+        assertThrows(IllegalStateException.class, () -> checkoutService.checkout(userId, "empty", request(null)));
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(userId, " ", request(null)));
+    }
+
+    // Giả lập job hết hạn trả lại hàng giữ ngay trước khi checkout xác nhận đơn
+    static class ExpiringReservationService extends InventoryReservationService {
+        private volatile boolean expireBeforeCommit;
+
+        ExpiringReservationService(InventoryRepository inventoryRepository,
+                                   InventoryReservationRepository reservationRepository,
+                                   VariantsRepository variantsRepository, InventoryReservationConfig config) {
+            super(inventoryRepository, reservationRepository, variantsRepository, config);
+        }
+
+        // Gọi qua proxy transaction nên phải là method, gán field trên proxy không tới được bean thật
+        public void expireBeforeCommit(boolean expire) {
+            this.expireBeforeCommit = expire;
+        }
+
+        @Override
+        public int commit(String reservationKey) {
+            if (expireBeforeCommit) {
+                release(reservationKey);
+            }
+            return super.commit(reservationKey);
+        }
+    }
+
+    private static CheckoutRequest request(String couponCode) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setNameReceiver("Nguyễn Văn A");
+        request.setPhone("0900000000");
+        request.setOrderAddress("1 Lê Lợi, Quận 1, TP.HCM");
+        request.setCouponCode(couponCode);
+        return request;
+    }
+
+    // Dựng lại trạng thái tiến trình chết ngay sau khi giữ hàng và dùng mã: đơn PENDING giữ từ claimedAt
+    private UUID abandonedOrder(String idempotencyKey, Instant claimedAt) {
+        UUID orderId = tx.execute(status -> {
+            Order order = new Order();
+            order.setUser(entityManager.getReference(User.class, userId));
+            order.setIdempotencyKey(idempotencyKey);
+            order.setStatus(OrderStatus.PENDING);
+            order.setBookingDate(claimedAt);
+            order.setClaimedAt(claimedAt.truncatedTo(ChronoUnit.MICROS));
+            CouponRedemption coupon = couponService.redeem("SALE10", userId, BigDecimal.valueOf(200_000));
+            order.setDiscount(entityManager.getReference(Discount.class, coupon.discountId()));
+            entityManager.persist(order);
+            return order.getId();
+        });
+        reservationService.reserve(CheckoutService.reservationKey(orderId), Map.of(variantIds.get(0), 2));
+        return orderId;
+    }
+
+    private Order findOrder(String idempotencyKey) {
+        return tx.execute(status -> entityManager
+                .createQuery("select o from Order o where o.idempotencyKey = :key", Order.class)
+                .setParameter("key", idempotencyKey)
+                .getSingleResult());
+    }
+
+    private long countOrders() {
+        return tx.execute(status -> entityManager
+                .createQuery("select count(o) from Order o", Long.class).getSingleResult());
+    }
+
+    private long countDetails(UUID orderId) {
+        return tx.execute(status -> entityManager
+                .createQuery("select count(d) from OrderDetail d where d.order.id = :orderId", Long.class)
+                .setParameter("orderId", orderId)
+                .getSingleResult());
+    }
+
+    private int onHand(List<UUID> variants) {
+        return tx.execute(status -> ((Number) entityManager
+                .createQuery("select coalesce(sum(i.onHand), 0) from Inventory i where i.variant.id in :ids")
+                .setParameter("ids", variants)
+                .getSingleResult()).intValue());
+    }
+
+    private int reserved() {
+        return tx.execute(status -> ((Number) entityManager
+                .createQuery("select coalesce(sum(i.reserved), 0) from Inventory i").getSingleResult()).intValue());
+    }
+
+    private int couponUsedCount() {
+        return tx.execute(status -> entityManager
+                .createQuery("select d.usedCount from Discount d where d.code = 'SALE10'", Integer.class)
+                .getSingleResult());
+    }
+}
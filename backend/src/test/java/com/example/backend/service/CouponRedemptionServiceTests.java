@@ -0,0 +1,194 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CouponConfig;
+import com.example.backend.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({CouponRedemptionService.class, CouponConfig.class})
+class CouponRedemptionServiceTests extends ServiceTestSupport {
+
+    private static final String CODE = "GLOW100";
+    private static final int USAGE_LIMIT = 100;
+    private static final int USERS = 1_000;
+    private static final BigDecimal ORDER_TOTAL = BigDecimal.valueOf(500_000);
+
+    @Autowired
+    private CouponRedemptionService couponService;
+
+    private UUID discountId;
+    private final List<UUID> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userIds.clear();
+        discountId = tx.execute(status -> {
+            Role role = role();
+            for (int i = 0; i < USERS; i++) {
+                userIds.add(user(role, "user" + i + "@glowmart.vn").getId());
+                if (i % 100 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    role = entityManager.getReference(Role.class, role.getId());
+                }
+            }
+
+            Product product = lipstick();
+            Variants variant = variant("SKU-1", product, 100_000);
+            DiscountType type = new DiscountType();
+            type.setName("Phần trăm");
+            entityManager.persist(type);
+
+            Discount discount = new Discount();
+            discount.setDiscountType(type);
+            discount.setCategory(product.getCategory());
+            discount.setVariant(variant);
+            discount.setCode(CODE);
+            discount.setDiscountPercent(10);
+            discount.setMinimumOrder(BigDecimal.valueOf(200_000));
+            discount.setMaximumOrder(BigDecimal.valueOf(5_000_000));
+            discount.setStartDate(LocalDate.now().minusDays(1));
+            discount.setEndDate(LocalDate.now().plusDays(7));
+            discount.setUsageLimit(USAGE_LIMIT);
+            discount.setActive(true);
+            entityManager.persist(discount);
+            return discount.getId();
+        });
+        couponService.reload();
+    }
+
+    @Test
+    void concurrentRedemptionsNeverExceedUsageLimit() throws Exception {
+        int attempts = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < attempts; i++) {
+            UUID userId = userIds.get(i % USERS);
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    couponService.redeem(CODE, userId, ORDER_TOTAL);
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(USAGE_LIMIT, succeeded.get());
+        assertEquals(attempts - USAGE_LIMIT, rejected.get());
+        assertEquals(USAGE_LIMIT, persistedUsedCount());
+        assertEquals(USAGE_LIMIT, sumUserUsedCount());
+        // Mỗi người dùng chỉ được dùng mã một lần
+        long overused = tx.execute(status -> entityManager
+                .createQuery("select count(ud) from UserDiscount ud where ud.usedCount > 1", Long.class)
+                .getSingleResult());
+        assertEquals(0L, overused);
+    }
+
+    @Test
+    void sameUserCannotRedeemTwiceInParallel() throws Exception {
+        UUID userId = userIds.get(0);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(pool.submit(() -> {
+                try {
+                    couponService.redeem(CODE, userId, ORDER_TOTAL);
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException ignored) {
+                    // đã dùng hết lượt
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(1, succeeded.get());
+        assertEquals(1, persistedUsedCount());
+    }
+
+    @Test
+    void releaseReturnsTheRedemption() {
+        UUID userId = userIds.get(1);
+        couponService.redeem(CODE, userId, ORDER_TOTAL);
+        assertThrows(IllegalStateException.class, () -> couponService.redeem(CODE, userId, ORDER_TOTAL));
+
+        couponService.release(discountId, userId);
+
+        assertEquals(0, persistedUsedCount());
+        assertNotNull(couponService.redeem(CODE, userId, ORDER_TOTAL));
+        assertEquals(1, persistedUsedCount());
+    }
+
+    @Test
+    void countersFollowTheCallersTransaction() {
+        UUID userId = userIds.get(3);
+        // Lượt dùng trong transaction bị rollback không được giữ lại trên bộ đếm trong bộ nhớ
+        tx.executeWithoutResult(status -> {
+            couponService.redeem(CODE, userId, ORDER_TOTAL);
+            status.setRollbackOnly();
+        });
+        assertEquals(0, persistedUsedCount());
+        assertNotNull(couponService.redeem(CODE, userId, ORDER_TOTAL));
+
+        // Trả lượt trong transaction bị rollback: DB vẫn tính lượt đã dùng nên bộ đếm cũng vậy
+        tx.executeWithoutResult(status -> {
+            couponService.release(discountId, userId);
+            status.setRollbackOnly();
+        });
+        assertEquals(1, persistedUsedCount());
+        assertThrows(IllegalStateException.class, () -> couponService.check(CODE, userId, ORDER_TOTAL));
+    }
+
+    @Test
+    void ineligibleOrdersAreRejectedWithoutConsumingUses() {
+        UUID userId = userIds.get(2);
+        assertThrows(IllegalArgumentException.class,
+                () -> couponService.redeem(CODE, userId, BigDecimal.valueOf(100_000)));
+        assertThrows(IllegalArgumentException.class,
+                () -> couponService.redeem(CODE, userId, BigDecimal.valueOf(5_000_001)));
+        assertThrows(IllegalArgumentException.class,
+                () -> couponService.check(CODE, userId, BigDecimal.valueOf(6_000_000)));
+        assertNotNull(couponService.check(CODE, userId, BigDecimal.valueOf(5_000_000)));
+        assertThrows(IllegalArgumentException.class,
+                () -> couponService.redeem("KHONGCO", userId, ORDER_TOTAL));
+        // Mã không phân biệt hoa thường
+        assertEquals(CODE, couponService.check(" glow100 ", userId, ORDER_TOTAL).code());
+        assertEquals(0, persistedUsedCount());
+    }
+
+    private int persistedUsedCount() {
+        return tx.execute(status -> entityManager.find(Discount.class, discountId).getUsedCount());
+    }
+
+    private int sumUserUsedCount() {
+        return tx.execute(status -> ((Number) entityManager
+                .createQuery("select coalesce(sum(ud.usedCount), 0) from UserDiscount ud").getSingleResult()).intValue());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.service;
+
+import com.example.backend.config.ImageDeliveryConfig;
+import com.example.backend.dto.ImageResponse;
+import com.example.backend.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({ImageService.class, ThumbnailService.class, ImageDeliveryConfig.class, SimpleMeterRegistryConfig.class})
+class ImageServiceTests extends ServiceTestSupport {
+
+    @Autowired
+    private ImageService imageService;
+    @Autowired
+    private ThumbnailService thumbnailService;
+    @Autowired
+    private ImageDeliveryConfig config;
+
+    @TempDir
+    Path imageDir;
+
+    private UUID lipstickId;
+    private UUID redId;
+    private UUID nudeId;
+    private UUID creamId;
+
+    @BeforeEach
+    void setUp() {
+        config.setBaseUrl("https://cdn.glowmart.vn/image/upload/");
+        config.setOriginDir(imageDir.resolve("origin").toString());
+        config.setThumbnailDir(imageDir.resolve("thumbnails").toString());
+        tx.executeWithoutResult(status -> {
+            Product lipstick = lipstick();
+            Product cream = product("Kem dưỡng", lipstick.getBrand(), lipstick.getCategory());
+            Variants red = variant("SON-RED", lipstick, 150_000);
+            Variants nude = variant("SON-NUDE", lipstick, 150_000);
+            image(lipstick, null, "2", "products/son-li-back");
+            image(lipstick, null, "1", "products/son-li");
+            image(lipstick, red, "3", "products/son-li-red");
+            image(cream, null, "1", "products/kem");
+            lipstickId = lipstick.getId();
+            creamId = cream.getId();
+            redId = red.getId();
+            nudeId = nude.getId();
+        });
+    }
+
+    @Test
+    void pageImagesLoadInOneQueryAndCoverPrefersVariantImage() {
+        Map<UUID, List<ImageResponse>> images = imageService.imagesByProduct(List.of(lipstickId, creamId, lipstickId));
+
+        assertEquals(3, images.get(lipstickId).size());
+        assertEquals(List.of("1", "2", "3"), images.get(lipstickId).stream().map(ImageResponse::position).toList());
+        assertEquals(1, images.get(creamId).size());
+
+        // Biến thể có ảnh riêng dùng ảnh riêng, biến thể khác dùng ảnh chung đầu tiên
+        assertEquals(redId, ImageService.cover(images.get(lipstickId), redId).variantId());
+        ImageResponse shared = ImageService.cover(images.get(lipstickId), nudeId);
+        assertNull(shared.variantId());
+        assertEquals("https://cdn.glowmart.vn/image/upload/w_320,f_jpg,q_80/products/son-li", shared.src());
+        assertEquals("https://cdn.glowmart.vn/image/upload/w_160,f_jpg,q_80/products/son-li 160w, "
+                        + "https://cdn.glowmart.vn/image/upload/w_320,f_jpg,q_80/products/son-li 320w, "
+                        + "https://cdn.glowmart.vn/image/upload/w_640,f_jpg,q_80/products/son-li 640w, "
+                        + "https://cdn.glowmart.vn/image/upload/w_1024,f_jpg,q_80/products/son-li 1024w",
+                shared.srcset().get("jpg"));
+        assertNull(ImageService.cover(List.of(), redId));
+
+        // URL lấy từ cache, không tính lại
+        assertSame(imageService.urls("products/son-li"), imageService.urls("products/son-li"));
+    }
+
+    @Test
+    void thumbnailIsGeneratedOnceAndRegeneratedWhenOriginChanges() throws Exception {
+        Path origin = imageDir.resolve("origin/products/son-li.png");
+        Files.createDirectories(origin.getParent());
+        ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "png", origin.toFile());
+
+        ThumbnailService.Thumbnail first = thumbnailService.resolve("w_320,f_jpg,q_80", "products/son-li").orElseThrow();
+        BufferedImage generated = ImageIO.read(first.path().toFile());
+        assertEquals(320, generated.getWidth());
+        assertEquals(160, generated.getHeight());
+        assertEquals("image/jpeg", first.contentType());
+        assertTrue(first.etag().matches("\"[0-9a-f]{32}\""));
+
+        ThumbnailService.Thumbnail again = thumbnailService.resolve("w_320,f_jpg,q_80", "products/son-li").orElseThrow();
+        assertSame(first, again);
+
+        // Ảnh gốc mới hơn thumbnail: sinh lại và đổi ETag
+        BufferedImage white = new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB);
+        white.getGraphics().fillRect(0, 0, 800, 400);
+        ImageIO.write(white, "png", origin.toFile());
+        Files.setLastModifiedTime(origin, FileTime.from(Instant.now().plusSeconds(60)));
+        ThumbnailService.Thumbnail updated = thumbnailService.resolve("w_320,f_jpg,q_80", "products/son-li").orElseThrow();
+        assertNotEquals(first.etag(), updated.etag());
+
+        // Chỉ sinh các tham số đã cấu hình, không cho thoát khỏi thư mục gốc
+        assertTrue(thumbnailService.resolve("w_300,f_jpg,q_80", "products/son-li").isEmpty());
+        assertTrue(thumbnailService.resolve("w_320,f_jpg,q_50", "products/son-li").isEmpty());
+        assertTrue(thumbnailService.resolve("w_320,f_jpg,q_80", "products/../../etc/passwd").isEmpty());
+        assertTrue(thumbnailService.resolve("w_320,f_jpg,q_80", "products/missing").isEmpty());
+    }
+
+    private void image(Product product, Variants variant, String position, String publicId) {
+        Image image = new Image();
+        image.setProduct(product);
+        image.setVariant(variant);
+        image.setPosition(position);
+        image.setPublicId(publicId);
+        image.setUrl("https://cdn.glowmart.vn/image/upload/" + publicId + ".jpg");
+        entityManager.persist(image);
+    }
+}
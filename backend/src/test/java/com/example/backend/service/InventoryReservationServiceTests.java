@@ -0,0 +1,170 @@
+package com.example.backend.service;
+
+import com.example.backend.config.InventoryReservationConfig;
+import com.example.backend.entity.*;
+import com.example.backend.enums.ReservationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({InventoryReservationService.class, InventoryReservationConfig.class})
+class InventoryReservationServiceTests extends ServiceTestSupport {
+
+    private static final int[] BATCH_STOCK = {100, 150, 250};
+
+    @Autowired
+    private InventoryReservationService reservationService;
+
+    private final List<UUID> variantIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        variantIds.clear();
+        tx.executeWithoutResult(status -> {
+            Supplier supplier = supplier("Nhà cung cấp A");
+            Product product = lipstick();
+            for (int v = 0; v < 3; v++) {
+                Variants variant = variant("SKU-" + v, product, 150_000);
+                variantIds.add(variant.getId());
+                for (int b = 0; b < BATCH_STOCK.length; b++) {
+                    // Lô sau hết hạn muộn hơn lô trước
+                    inventory(variant, supplier, BATCH_STOCK[b], 80_000,
+                            LocalDate.now().plusMonths(3L * (BATCH_STOCK.length - b)));
+                }
+            }
+        });
+    }
+
+    @Test
+    void reserveAllocatesFirstExpiredBatchFirst() {
+        List<InventoryReservation> reservations =
+                reservationService.reserve("fefo", Map.of(variantIds.get(0), 260));
+
+        Map<LocalDate, Integer> takenByExpiry = tx.execute(status -> {
+            Map<LocalDate, Integer> taken = new TreeMap<>();
+            for (InventoryReservation r : reservations) {
+                Inventory inventory = entityManager.find(Inventory.class, r.getInventory().getId());
+                taken.merge(inventory.getExp(), r.getQuantity(), Integer::sum);
+            }
+            return taken;
+        });
+        // 250 từ lô hết hạn sớm nhất, 10 từ lô kế tiếp
+        assertEquals(List.of(250, 10), new ArrayList<>(takenByExpiry.values()));
+    }
+
+    @Test
+    void reserveIsAllOrNothingAcrossVariants() {
+        Map<UUID, Integer> order = Map.of(variantIds.get(0), 10, variantIds.get(1), 10_000);
+
+        assertThrows(IllegalStateException.class, () -> reservationService.reserve("too-many", order));
+        assertEquals(0, totalReserved());
+        assertEquals(3 * stockPerVariant(), totalOnHand());
+    }
+
+    @Test
+    void expiredReservationsAreReleased() {
+        reservationService.reserve("abandoned", Map.of(variantIds.get(2), 5));
+        assertEquals(5, totalReserved());
+
+        int released = reservationService.releaseExpired(Instant.now().plus(1, ChronoUnit.DAYS));
+
+        assertEquals(1, released);
+        assertEquals(0, totalReserved());
+        assertEquals(0, reservationService.commit("abandoned"));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversellAndConserveStock() throws Exception {
+        int checkouts = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        AtomicInteger committedUnits = new AtomicInteger();
+        AtomicInteger releasedUnits = new AtomicInteger();
+        AtomicInteger pendingUnits = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < checkouts; i++) {
+            String key = "checkout-" + i;
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Map<UUID, Integer> lines = new HashMap<>();
+                for (UUID variantId : variantIds) {
+                    if (random.nextBoolean()) lines.put(variantId, 1 + random.nextInt(3));
+                }
+                if (lines.isEmpty()) lines.put(variantIds.get(0), 1);
+                int units = lines.values().stream().mapToInt(Integer::intValue).sum();
+
+                try {
+                    reservationService.reserve(key, lines);
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                    return;
+                }
+                int outcome = random.nextInt(10);
+                if (outcome < 7) {
+                    reservationService.commit(key);
+                    committedUnits.addAndGet(units);
+                } else if (outcome < 9) {
+                    reservationService.release(key);
+                    releasedUnits.addAndGet(units);
+                } else {
+                    pendingUnits.addAndGet(units); // bỏ dở, để job hết hạn xử lý
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        int initialStock = 3 * stockPerVariant();
+        assertTrue(rejected.get() > 0, "Nhu cầu phải vượt tồn kho để có tranh chấp");
+        assertEquals(pendingUnits.get(), totalReserved());
+        assertEquals(initialStock - committedUnits.get(), totalOnHand());
+
+        reservationService.releaseExpired(Instant.now().plus(1, ChronoUnit.DAYS));
+
+        assertEquals(0, totalReserved());
+        assertEquals(initialStock - committedUnits.get(), totalOnHand());
+        assertEquals(0L, countNegativeBatches());
+        assertEquals(committedUnits.get(), sumReservations(ReservationStatus.COMMITTED));
+        assertEquals(releasedUnits.get() + pendingUnits.get(), sumReservations(ReservationStatus.RELEASED));
+    }
+
+    private int stockPerVariant() {
+        return Arrays.stream(BATCH_STOCK).sum();
+    }
+
+    private int totalOnHand() {
+        return tx.execute(status -> ((Number) entityManager
+                .createQuery("select coalesce(sum(i.onHand), 0) from Inventory i").getSingleResult()).intValue());
+    }
+
+    private int totalReserved() {
+        return tx.execute(status -> ((Number) entityManager
+                .createQuery("select coalesce(sum(i.reserved), 0) from Inventory i").getSingleResult()).intValue());
+    }
+
+    private long countNegativeBatches() {
+        return tx.execute(status -> entityManager
+                .createQuery("select count(i) from Inventory i where i.onHand < 0 or i.reserved < 0 or i.reserved > i.onHand", Long.class)
+                .getSingleResult());
+    }
+
+    private int sumReservations(ReservationStatus reservationStatus) {
+        return tx.execute(status -> ((Number) entityManager
+                .createQuery("select coalesce(sum(r.quantity), 0) from InventoryReservation r where r.status = :status")
+                .setParameter("status", reservationStatus)
+                .getSingleResult()).intValue());
+    }
+}
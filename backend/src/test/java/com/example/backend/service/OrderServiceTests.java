@@ -0,0 +1,138 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderItemResponse;
+import com.example.backend.dto.OrderPageResponse;
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.entity.*;
+import com.example.backend.enums.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(OrderService.class)
+class OrderServiceTests extends ServiceTestSupport {
+
+    private static final Instant BASE = Instant.parse("2026-03-01T08:00:00Z");
+
+    @Autowired
+    private OrderService orderService;
+
+    private UUID userId;
+    private UUID otherUserId;
+    private UUID otherOrderId;
+    private UUID failedOrderId;
+    // Đơn của userId theo thứ tự mới nhất trước
+    private final List<UUID> expected = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        expected.clear();
+        tx.executeWithoutResult(status -> {
+            Role role = role();
+            User user = user(role, email("orders"));
+            User other = user(role, email("orders"));
+            userId = user.getId();
+            otherUserId = other.getId();
+
+            Product product = lipstick();
+            Variants red = variant("SON-RED", product, 150_000);
+            Variants nude = variant("SON-NUDE", product, 150_000);
+
+            // Hai đơn cùng thời điểm đặt: thứ tự phụ theo id
+            Order first = order(user, OrderStatus.DELIVERED, BASE, red, nude);
+            Order second = order(user, OrderStatus.CONFIRMED, BASE.plusSeconds(3600), red);
+            Order third = order(user, OrderStatus.CONFIRMED, BASE.plusSeconds(7200), nude, red);
+            Order fourth = order(user, OrderStatus.CANCELLED, BASE.plusSeconds(7200), red);
+            Order fifth = order(user, OrderStatus.CONFIRMED, BASE.plusSeconds(86_400), nude);
+            // Chỗ giữ Idempotency-Key của checkout thất bại và đang chạy không phải đơn đã đặt
+            failedOrderId = order(user, OrderStatus.FAILED, BASE.plusSeconds(90_000)).getId();
+            order(user, OrderStatus.PENDING, BASE.plusSeconds(95_000));
+            otherOrderId = order(other, OrderStatus.CONFIRMED, BASE.plusSeconds(90_000), red).getId();
+            expected.addAll(List.of(fifth.getId(), fourth.getId(), third.getId(), second.getId(), first.getId()));
+
+            // Biến thể bị xóa mềm sau khi đặt vẫn hiện trong lịch sử
+            nude.softDelete();
+        });
+    }
+
+    @Test
+    void historyPagesNewestFirstWithDetailsForEveryOrder() {
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderPageResponse page = orderService.history(userId, null, cursor, 2);
+            for (OrderResponse order : page.items()) {
+                seen.add(order.id());
+                assertFalse(order.items().isEmpty());
+                assertTrue(order.items().stream().allMatch(item -> item.orderId().equals(order.id())));
+            }
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+
+        OrderResponse third = orderService.get(userId, expected.get(2));
+        assertEquals(List.of("SON-NUDE", "SON-RED"),
+                third.items().stream().map(OrderItemResponse::sku).sorted().toList());
+        assertEquals("Son lì", third.items().get(0).productName());
+        assertEquals(0, BigDecimal.valueOf(300_000).compareTo(third.subtotal()));
+    }
+
+    @Test
+    void statusFilterAndOwnershipAreEnforced() {
+        OrderPageResponse confirmed = orderService.history(userId, OrderStatus.CONFIRMED, null, 10);
+        assertEquals(List.of(expected.get(0), expected.get(2), expected.get(3)),
+                confirmed.items().stream().map(OrderResponse::id).toList());
+        assertNull(confirmed.nextCursor());
+        assertTrue(confirmed.items().stream().allMatch(order -> order.status() == OrderStatus.CONFIRMED));
+
+        assertTrue(orderService.history(userId, OrderStatus.SHIPPING, null, 10).items().isEmpty());
+        assertEquals(1, orderService.history(otherUserId, null, null, 10).items().size());
+        assertThrows(IllegalArgumentException.class, () -> orderService.get(userId, otherOrderId));
+        assertThrows(IllegalArgumentException.class, () -> orderService.history(userId, null, "không-hợp-lệ", 10));
+    }
+
+    @Test
+    void unplacedCheckoutsAreHiddenUnlessAskedFor() {
+        List<UUID> all = orderService.history(userId, null, null, 10).items().stream().map(OrderResponse::id).toList();
+        assertEquals(expected, all);
+
+        assertEquals(List.of(failedOrderId), orderService.history(userId, OrderStatus.FAILED, null, 10).items()
+                .stream().map(OrderResponse::id).toList());
+    }
+
+    private Order order(User user, OrderStatus status, Instant bookingDate, Variants... variants) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setBookingDate(bookingDate);
+        order.setNameReceiver("Nguyễn An");
+        order.setPhone("0900000000");
+        order.setOrderAddress("Hà Nội");
+        order.setSubtotal(BigDecimal.valueOf(150_000L * variants.length));
+        order.setTotal(order.getSubtotal());
+        entityManager.persist(order);
+        for (Variants variant : variants) {
+            OrderDetail detail = new OrderDetail();
+            detail.setOrder(order);
+            detail.setVariant(variant);
+            detail.setProduct(variant.getProduct());
+            detail.setQuantity(1);
+            detail.setUnitPrice(variant.getPrice());
+            entityManager.persist(detail);
+        }
+        return order;
+    }
+}
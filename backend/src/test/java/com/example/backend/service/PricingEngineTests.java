@@ -0,0 +1,158 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CartConfig;
+import com.example.backend.dto.CartPricing;
+import com.example.backend.dto.PricedLine;
+import com.example.backend.dto.VariantPriceSnapshot;
+import com.example.backend.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({PricingEngine.class, VariantPriceCache.class, CartConfig.class})
+class PricingEngineTests extends ServiceTestSupport {
+
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Autowired
+    private VariantPriceCache priceCache;
+
+    private UUID redId;
+    private UUID nudeId;
+    private UUID creamId;
+    private UUID tonerId;
+    private UUID productRuleId;
+    private UUID categoryRuleId;
+    private UUID globalPercentRuleId;
+    private DiscountType type;
+
+    @BeforeEach
+    void setUp() {
+        tx.executeWithoutResult(status -> {
+            Product lipstick = lipstick();
+            lipstick.setDiscountPercent(new BigDecimal("5"));
+            Category category = lipstick.getCategory();
+            Product balm = product("Son dưỡng", lipstick.getBrand(), category);
+            Variants red = variant("SON-RED", lipstick, 100_000);
+            red.setDiscountPercent(new BigDecimal("10"));
+            Variants nude = variant("SON-NUDE", lipstick, 100_000);
+            Variants cream = variant("SON-BALM", balm, 200_000);
+            redId = red.getId();
+            nudeId = nude.getId();
+            creamId = cream.getId();
+            tonerId = variant("TONER", product("Nước hoa hồng", lipstick.getBrand(), category("Dưỡng da")), 50_000)
+                    .getId();
+
+            type = new DiscountType();
+            type.setName("Tự động");
+            entityManager.persist(type);
+            LocalDate today = LocalDate.now();
+            discount(type, null, null, red, 3, null, null, null, null);
+            productRuleId = discount(type, null, lipstick, null, 20, 15_000, null, null, null).getId();
+            categoryRuleId = discount(type, category, null, null, 0, 10_000, null, null, null).getId();
+            globalPercentRuleId = discount(type, null, null, null, 5, null, null, null, null).getId();
+            // Không áp dụng: chưa đủ giá trị đơn, chưa tới ngày, đã hết hạn, mã coupon
+            discount(type, null, null, null, 50, null, 10_000_000L, null, null);
+            discount(type, null, null, null, 50, null, null, today.plusDays(1), null);
+            discount(type, null, null, null, 50, null, null, null, today.minusDays(1));
+            discount(type, null, null, null, 60, null, null, null, null).setCode("SALE60");
+        });
+        pricingEngine.reload();
+    }
+
+    @Test
+    void mostSpecificBestRuleWinsWithoutStacking() {
+        CartPricing pricing = price(List.of(redId, nudeId, creamId), 2, 1, 3);
+
+        // Đỏ: giá cơ sở 90.000 (giảm 10% của biến thể); 20% sản phẩm = 18.000 bị chặn ở 15.000, hơn 3% biến thể
+        PricedLine red = pricing.lines().get(0);
+        assertMoney(90_000, red.basePrice());
+        assertMoney(75_000, red.unitPrice());
+        assertMoney(150_000, red.lineTotal());
+        assertEquals(productRuleId, red.discountId());
+        // Nude: không có phần trăm riêng nên dùng 5% của sản phẩm
+        PricedLine nude = pricing.lines().get(1);
+        assertMoney(95_000, nude.basePrice());
+        assertMoney(80_000, nude.unitPrice());
+        // Son dưỡng: danh mục giảm 10.000 bằng 5% toàn cửa hàng, luật cụ thể hơn thắng
+        PricedLine cream = pricing.lines().get(2);
+        assertMoney(190_000, cream.unitPrice());
+        assertEquals(categoryRuleId, cream.discountId());
+
+        assertMoney(2 * 90_000 + 95_000 + 3 * 200_000, pricing.subtotal());
+        assertMoney(2 * 15_000 + 15_000 + 3 * 10_000, pricing.discount());
+        assertMoney(150_000 + 80_000 + 570_000, pricing.total());
+    }
+
+    @Test
+    void ruleSetIsSwappedAfterDiscountChangeCommits() {
+        assertMoney(75_000, price(List.of(redId), 1).lines().get(0).unitPrice());
+
+        tx.executeWithoutResult(status -> entityManager.find(Discount.class, productRuleId).setActive(false));
+
+        // Không gọi reload: DiscountChangedEvent sau commit đã biên dịch lại bộ luật, còn lại luật danh mục
+        PricedLine red = price(List.of(redId), 1).lines().get(0);
+        assertMoney(80_000, red.unitPrice());
+        assertEquals(categoryRuleId, red.discountId());
+    }
+
+    @Test
+    void globalFlatRuleIsTakenOnceOffTheOrder() {
+        UUID flatRuleId = tx.execute(status -> {
+            entityManager.find(Discount.class, globalPercentRuleId).setActive(false);
+            discount(type, null, null, null, 0, 50_000_000, 10_000_000L, null, null);
+            return discount(type, null, null, null, 0, 30_000, null, null, null).getId();
+        });
+
+        CartPricing pricing = price(List.of(redId, tonerId), 2, 4);
+
+        // Nước hoa hồng không có luật riêng: 30.000 trừ một lần trên đơn, không phải 30.000 mỗi chai
+        PricedLine toner = pricing.lines().get(1);
+        assertMoney(50_000, toner.unitPrice());
+        assertMoney(200_000, toner.lineTotal());
+        assertNull(toner.discountId());
+        assertEquals(productRuleId, pricing.lines().get(0).discountId());
+        assertEquals(flatRuleId, pricing.orderDiscountId());
+        assertMoney(30_000, pricing.orderDiscount());
+        assertMoney(2 * 90_000 + 4 * 50_000, pricing.subtotal());
+        assertMoney(2 * 15_000 + 30_000, pricing.discount());
+        assertMoney(150_000 + 200_000 - 30_000, pricing.total());
+
+        // Chỉ còn dòng đã có luật riêng: luật trên cả đơn không cộng dồn nên không giảm thêm
+        CartPricing ruled = price(List.of(redId), 3);
+        assertNull(ruled.orderDiscountId());
+        assertMoney(3 * 15_000, ruled.discount());
+    }
+
+    private CartPricing price(List<UUID> variantIds, int... quantities) {
+        List<VariantPriceSnapshot> variants = variantIds.stream()
+                .map(id -> priceCache.get(id).orElseThrow())
+                .toList();
+        return pricingEngine.price(variants, quantities);
+    }
+
+    private Discount discount(DiscountType type, Category category, Product product, Variants variant, int percent,
+                              Integer value, Long minimumOrder, LocalDate startDate, LocalDate endDate) {
+        Discount discount = new Discount();
+        discount.setDiscountType(type);
+        discount.setCategory(category);
+        discount.setProduct(product);
+        discount.setVariant(variant);
+        discount.setDiscountPercent(percent);
+        discount.setDiscountValue(value != null ? BigDecimal.valueOf(value) : null);
+        discount.setMinimumOrder(minimumOrder != null ? BigDecimal.valueOf(minimumOrder) : null);
+        discount.setStartDate(startDate);
+        discount.setEndDate(endDate);
+        discount.setActive(true);
+        entityManager.persist(discount);
+        return discount;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ProductSearchHit;
+import com.example.backend.dto.ProductSearchRequest;
+import com.example.backend.dto.ProductSearchResponse;
+import com.example.backend.entity.Brand;
+import com.example.backend.entity.Category;
+import com.example.backend.entity.Product;
+import com.example.backend.entity.Variants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(ProductSearchService.class)
+class ProductSearchServiceTests extends ServiceTestSupport {
+
+    private static final long AWAIT_MILLIS = 5_000;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    private UUID glowId;
+    private UUID balmId;
+    private UUID redBalmId;
+    private UUID pinkBalmId;
+    private UUID sunscreenId;
+
+    @BeforeEach
+    void setUp() {
+        tx.executeWithoutResult(status -> {
+            Brand glow = brand("Glow");
+            glowId = glow.getId();
+            Product balm = product("Son dưỡng", glow, category("Son môi"));
+            balm.setDescription("Dưỡng ẩm cho môi khô");
+            balmId = balm.getId();
+            redBalmId = variant("DUONG-01", balm, "Đỏ", "3g").getId();
+            pinkBalmId = variant("DUONG-02", balm, "Hồng", "3g").getId();
+            Product sunscreen = product("Kem chống nắng", brand("Mộc"), category("Dưỡng da"));
+            sunscreenId = variant("KEM-50", sunscreen, null, "50ml").getId();
+        });
+        // Service là singleton của context: dựng lại để bỏ chỉ mục của test trước
+        productSearchService.scheduleRebuild();
+        awaitSearch("", response -> response.indexReady()
+                && Set.copyOf(ids(response)).equals(Set.of(redBalmId, pinkBalmId, sunscreenId)));
+    }
+
+    @Test
+    void matchesWithoutVietnameseAccents() {
+        assertEquals(List.of(redBalmId), ids(search("son duong do")));
+        assertEquals(List.of(redBalmId), ids(search("SON DƯỠNG ĐỎ")));
+        assertEquals(Set.of(redBalmId, pinkBalmId), Set.copyOf(ids(search("duong am"))));
+        assertEquals(List.of(redBalmId), ids(productSearchService.search(
+                new ProductSearchRequest(null, null, null, "do", null, 20))));
+        assertEquals("son duong do", ProductSearchIndex.normalize("Son Dưỡng Đỏ"));
+    }
+
+    @Test
+    void toleratesOneTypoInLongerWords() {
+        // Bớt một ký tự, đảo hai ký tự kề nhau, thay một ký tự
+        assertEquals(Set.of(redBalmId, pinkBalmId), Set.copyOf(ids(search("dung"))));
+        assertEquals(List.of(sunscreenId), ids(search("kem chnog nang")));
+        assertEquals(List.of(sunscreenId), ids(search("chong nanh")));
+        // Hai lỗi, hoặc từ ngắn dưới 4 ký tự, thì không khớp
+        assertTrue(ids(search("chnogg")).isEmpty());
+        assertTrue(ids(search("kme")).isEmpty());
+
+        // Khớp nguyên từ xếp trên khớp gần đúng
+        List<ProductSearchHit> hits = search("hong").hits();
+        assertEquals(pinkBalmId, hits.getFirst().variantId());
+    }
+
+    @Test
+    void countsFacetsOverFilteredMatches() {
+        ProductSearchResponse all = search("");
+        assertEquals(3, all.total());
+        assertEquals(Map.of("Glow", 2, "Mộc", 1), all.facets().get(ProductSearchIndex.FACET_BRAND));
+        assertEquals(Map.of("Son môi", 2, "Dưỡng da", 1), all.facets().get(ProductSearchIndex.FACET_CATEGORY));
+        assertEquals(Map.of("Đỏ", 1, "Hồng", 1), all.facets().get(ProductSearchIndex.FACET_COLOR));
+        assertEquals(Map.of("3g", 2, "50ml", 1), all.facets().get(ProductSearchIndex.FACET_SIZE));
+
+        ProductSearchResponse glow = productSearchService.search(
+                new ProductSearchRequest("son", glowId, null, null, "3G", 1));
+        // total và facet tính trên mọi kết quả khớp bộ lọc, không chỉ trang hits
+        assertEquals(2, glow.total());
+        assertEquals(1, glow.hits().size());
+        assertEquals(Map.of("Glow", 2), glow.facets().get(ProductSearchIndex.FACET_BRAND));
+        assertEquals(Map.of("Đỏ", 1, "Hồng", 1), glow.facets().get(ProductSearchIndex.FACET_COLOR));
+    }
+
+    @Test
+    void catalogChangesUpdateTheIndexAfterCommit() {
+        tx.executeWithoutResult(status -> entityManager.find(Variants.class, pinkBalmId).setColor("Cam"));
+        awaitSearch("cam", response -> ids(response).equals(List.of(pinkBalmId)));
+        assertFalse(ids(search("hong")).contains(pinkBalmId));
+
+        tx.executeWithoutResult(status -> entityManager.find(Variants.class, redBalmId).softDelete());
+        awaitSearch("son duong", response -> ids(response).equals(List.of(pinkBalmId)));
+
+        // Đổi tên sản phẩm cập nhật mọi biến thể của nó; xóa sản phẩm bỏ chúng khỏi chỉ mục
+        tx.executeWithoutResult(status -> entityManager.find(Product.class, balmId).setName("Son bóng"));
+        awaitSearch("son bong", response -> ids(response).equals(List.of(pinkBalmId)));
+        tx.executeWithoutResult(status -> entityManager.find(Product.class, balmId).softDelete());
+        awaitSearch("", response -> ids(response).equals(List.of(sunscreenId)));
+
+        // Đổi tên danh mục đi qua các biến thể thuộc danh mục đó
+        tx.executeWithoutResult(status -> {
+            Product sunscreen = entityManager.find(Variants.class, sunscreenId).getProduct();
+            Category category = sunscreen.getCategory();
+            category.setName("Chống nắng");
+        });
+        awaitSearch("", response -> response.facets().get(ProductSearchIndex.FACET_CATEGORY)
+                .equals(Map.of("Chống nắng", 1)));
+    }
+
+    private Variants variant(String sku, Product product, String color, String size) {
+        Variants variant = variant(sku, product, 100_000);
+        variant.setColor(color);
+        variant.setSize(size);
+        return variant;
+    }
+
+    private ProductSearchResponse search(String q) {
+        return productSearchService.search(new ProductSearchRequest(q, null, null, null, null, 20));
+    }
+
+    // Chỉ mục được cập nhật trên thread riêng sau khi transaction commit nên phải chờ
+    private void awaitSearch(String q, Predicate<ProductSearchResponse> condition) {
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        ProductSearchResponse response = search(q);
+        while (!condition.test(response)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Chỉ mục chưa cập nhật cho \"" + q + "\": " + response);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            response = search(q);
+        }
+    }
+
+    private static List<UUID> ids(ProductSearchResponse response) {
+        return response.hits().stream().map(ProductSearchHit::variantId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.backend.service;
+
+import com.example.backend.config.ReviewConfig;
+import com.example.backend.dto.ProductRatingSummaryResponse;
+import com.example.backend.dto.ReviewPageResponse;
+import com.example.backend.dto.ReviewRequest;
+import com.example.backend.dto.ReviewResponse;
+import com.example.backend.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({ReviewService.class, ReviewConfig.class})
+class ReviewServiceTests extends ServiceTestSupport {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    private UUID userId;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        tx.executeWithoutResult(status -> {
+            User user = user(role(), "review@glowmart.vn");
+            user.setFullName("Người đánh giá");
+            userId = user.getId();
+            productId = lipstick().getId();
+        });
+    }
+
+    @Test
+    void summaryTracksAcceptAndDeleteIncrementally() {
+        UUID five = review(5).id();
+        UUID four = review(4).id();
+        UUID anotherFive = review(5).id();
+        UUID pending = review(1).id();
+
+        // Đánh giá chưa duyệt không được tính
+        assertEquals(0, reviewService.summary(productId).reviewCount());
+
+        assertTrue(reviewService.accept(five));
+        assertTrue(reviewService.accept(four));
+        assertTrue(reviewService.accept(anotherFive));
+        assertFalse(reviewService.accept(five));
+
+        ProductRatingSummaryResponse summary = reviewService.summary(productId);
+        assertEquals(3, summary.reviewCount());
+        assertEquals(new BigDecimal("4.67"), summary.averageRating());
+        assertEquals(List.of(0L, 0L, 0L, 1L, 2L), summary.starCounts());
+
+        reviewService.delete(anotherFive);
+        reviewService.delete(pending);
+        assertThrows(IllegalArgumentException.class, () -> reviewService.delete(anotherFive));
+
+        summary = reviewService.summary(productId);
+        assertEquals(2, summary.reviewCount());
+        assertEquals(new BigDecimal("4.50"), summary.averageRating());
+        assertEquals(List.of(0L, 0L, 0L, 1L, 1L), summary.starCounts());
+    }
+
+    @Test
+    void rebuildMatchesIncrementalSummary() {
+        for (int rating : new int[]{1, 3, 3, 5}) {
+            reviewService.accept(review(rating).id());
+        }
+        reviewService.delete(review(2).id());
+        ProductRatingSummaryResponse incremental = reviewService.summary(productId);
+
+        assertEquals(1, reviewService.rebuildSummaries());
+
+        assertEquals(incremental, reviewService.summary(productId));
+        assertEquals(List.of(incremental), reviewService.summaries(List.of(productId)));
+    }
+
+    @Test
+    void listingPagesAcceptedReviewsNewestFirstByKeyset() {
+        List<UUID> accepted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID id = review(4).id();
+            reviewService.accept(id);
+            accepted.add(0, id);
+        }
+        review(2);
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ReviewPageResponse page = reviewService.listForProduct(productId, cursor, 2);
+            page.items().forEach(item -> seen.add(item.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(accepted, seen);
+    }
+
+    private ReviewResponse review(int rating) {
+        ReviewRequest request = new ReviewRequest();
+        request.setProductId(productId);
+        request.setRating(rating);
+        request.setContent(rating + " sao");
+        return reviewService.create(userId, request);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.backend.service;
+
+import com.example.backend.config.SalesAnalyticsConfig;
+import com.example.backend.dto.DailySalesResponse;
+import com.example.backend.dto.DimensionSalesResponse;
+import com.example.backend.entity.*;
+import com.example.backend.enums.OrderStatus;
+import com.example.backend.enums.ReservationStatus;
+import com.example.backend.event.OrderConfirmedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({SalesRollupService.class, SalesAnalyticsConfig.class})
+@TestPropertySource(properties = "sales-analytics.record-queue-capacity=1")
+class SalesRollupServiceTests extends ServiceTestSupport {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 3, 1);
+    private static final LocalDate SECOND_DAY = LocalDate.of(2026, 3, 2);
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private UUID userId;
+    private UUID morningOrderId;
+    private UUID lateOrderId;
+    private UUID cancelledOrderId;
+    private UUID glowId;
+    private UUID lipstickCategoryId;
+
+    @BeforeEach
+    void setUp() {
+        tx.executeWithoutResult(status -> {
+            User user = user(role(), email("sales"));
+            userId = user.getId();
+
+            Product lipstick = lipstick();
+            glowId = lipstick.getBrand().getId();
+            lipstickCategoryId = lipstick.getCategory().getId();
+            Variants red = variant("SON-RED", lipstick, 100_000);
+            Variants cream = variant("KEM-50", product("Kem dưỡng", brand("Mộc"), category("Dưỡng da")), 200_000);
+            Supplier supplier = supplier("Nhà cung cấp A");
+            Inventory redBatch = inventory(red, supplier, 100, 60_000, null);
+            Inventory creamBatch = inventory(cream, supplier, 100, 120_000, null);
+
+            // 08:00 UTC là 15:00 ngày 1/3 giờ Việt Nam; 18:00 UTC đã sang ngày 2/3
+            Order morning = order(user, OrderStatus.CONFIRMED, Instant.parse("2026-03-01T08:00:00Z"),
+                    400_000, 20_000, 30_000);
+            detail(morning, red, 2, 100_000);
+            detail(morning, cream, 1, 200_000);
+            reservation(morning, redBatch, 2);
+            reservation(morning, creamBatch, 1);
+            Order late = order(user, OrderStatus.DELIVERED, Instant.parse("2026-03-01T18:00:00Z"), 100_000, 0, 0);
+            detail(late, red, 1, 100_000);
+            reservation(late, redBatch, 1);
+            Order cancelled = order(user, OrderStatus.CANCELLED, Instant.parse("2026-03-01T09:00:00Z"), 200_000, 0, 0);
+            detail(cancelled, cream, 1, 200_000);
+            morningOrderId = morning.getId();
+            lateOrderId = late.getId();
+            cancelledOrderId = cancelled.getId();
+        });
+    }
+
+    @Test
+    void recordAddsEachSoldOrderOnceToDailyAndDimensionRollups() {
+        assertTrue(salesRollupService.record(morningOrderId));
+        assertFalse(salesRollupService.record(morningOrderId));
+        assertTrue(salesRollupService.record(lateOrderId));
+        assertFalse(salesRollupService.record(cancelledOrderId));
+
+        List<DailySalesResponse> daily = salesRollupService.daily(FIRST_DAY, SECOND_DAY);
+        assertEquals(List.of(FIRST_DAY, SECOND_DAY), daily.stream().map(DailySalesResponse::date).toList());
+        DailySalesResponse first = daily.get(0);
+        assertEquals(1, first.orderCount());
+        assertEquals(3, first.units());
+        assertMoney(400_000, first.grossRevenue());
+        assertMoney(380_000, first.netRevenue());
+        assertMoney(30_000, first.shippingFee());
+        assertMoney(240_000, first.cost());
+        assertMoney(140_000, first.margin());
+        assertMoney(60_000, daily.get(1).cost());
+
+        List<DimensionSalesResponse> brands = salesRollupService.byBrand(FIRST_DAY, SECOND_DAY, 10);
+        assertEquals(List.of("Glow", "Mộc"), brands.stream().map(DimensionSalesResponse::name).toList());
+        assertEquals(glowId, brands.get(0).id());
+        assertEquals(3, brands.get(0).units());
+        assertMoney(300_000, brands.get(0).revenue());
+        assertMoney(120_000, brands.get(0).margin());
+
+        List<DimensionSalesResponse> categories = salesRollupService.byCategory(FIRST_DAY, FIRST_DAY, 10);
+        assertEquals(lipstickCategoryId, categories.get(0).id());
+        assertMoney(200_000, categories.get(0).revenue());
+
+        List<DimensionSalesResponse> skus = salesRollupService.bySku(FIRST_DAY, SECOND_DAY, 1);
+        assertEquals(List.of("SON-RED"), skus.stream().map(DimensionSalesResponse::name).toList());
+    }
+
+    @Test
+    void confirmationEventFeedsRollupAndRebuildReproducesIt() {
+        tx.executeWithoutResult(status -> eventPublisher.publishEvent(new OrderConfirmedEvent(morningOrderId, userId,
+                CheckoutService.reservationKey(morningOrderId), BigDecimal.valueOf(400_000),
+                BigDecimal.valueOf(20_000), BigDecimal.valueOf(410_000), List.of(), Instant.now())));
+        // Sự kiện chỉ xếp đơn vào hàng đợi, job định kỳ mới cộng
+        assertTrue(salesRollupService.daily(FIRST_DAY, SECOND_DAY).isEmpty());
+        assertEquals(1, salesRollupService.drainPending());
+        assertTrue(salesRollupService.record(lateOrderId));
+        List<DailySalesResponse> incremental = salesRollupService.daily(FIRST_DAY, SECOND_DAY);
+        assertEquals(2, incremental.size());
+        assertMoney(400_000, incremental.get(0).grossRevenue());
+
+        assertEquals(2, salesRollupService.rebuild(FIRST_DAY, SECOND_DAY));
+        assertEquals(incremental, salesRollupService.daily(FIRST_DAY, SECOND_DAY));
+        // Ledger được ghi lại khi tính lại nên sự kiện đến muộn không cộng thêm lần nữa
+        assertFalse(salesRollupService.record(morningOrderId));
+
+        assertThrows(IllegalArgumentException.class, () -> salesRollupService.daily(SECOND_DAY, FIRST_DAY));
+        assertThrows(IllegalArgumentException.class,
+                () -> salesRollupService.rebuild(FIRST_DAY, FIRST_DAY.plusYears(2)));
+    }
+
+    @Test
+    void fullQueueDropsConfirmationsInsteadOfBlockingAndRebuildRecoversThem() {
+        salesRollupService.onOrderConfirmed(confirmed(morningOrderId));
+        // Hàng đợi chỉ chứa một đơn: đơn thứ hai bị bỏ qua ngay, không chờ
+        salesRollupService.onOrderConfirmed(confirmed(lateOrderId));
+
+        assertEquals(1, salesRollupService.drainPending());
+        assertEquals(0, salesRollupService.drainPending());
+        assertEquals(List.of(FIRST_DAY), salesRollupService.daily(FIRST_DAY, SECOND_DAY).stream()
+                .map(DailySalesResponse::date).toList());
+
+        assertEquals(2, salesRollupService.rebuild(FIRST_DAY, SECOND_DAY));
+        assertEquals(2, salesRollupService.daily(FIRST_DAY, SECOND_DAY).size());
+    }
+
+    private OrderConfirmedEvent confirmed(UUID orderId) {
+        return new OrderConfirmedEvent(orderId, userId, CheckoutService.reservationKey(orderId), BigDecimal.ZERO,
+                BigDecimal.ZERO, BigDecimal.ZERO, List.of(), Instant.now());
+    }
+
+    private Order order(User user, OrderStatus status, Instant bookingDate, long subtotal, long discount,
+                        long shipping) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setBookingDate(bookingDate);
+        order.setNameReceiver("Nguyễn An");
+        order.setPhone("0900000000");
+        order.setOrderAddress("Hà Nội");
+        order.setSubtotal(BigDecimal.valueOf(subtotal));
+        order.setDiscountAmount(BigDecimal.valueOf(discount));
+        order.setShippingFee(BigDecimal.valueOf(shipping));
+        order.setTotal(BigDecimal.valueOf(subtotal - discount + shipping));
+        entityManager.persist(order);
+        return order;
+    }
+
+    private void detail(Order order, Variants variant, int quantity, long unitPrice) {
+        OrderDetail detail = new OrderDetail();
+        detail.setOrder(order);
+        detail.setVariant(variant);
+        detail.setProduct(variant.getProduct());
+        detail.setQuantity(quantity);
+        detail.setUnitPrice(BigDecimal.valueOf(unitPrice));
+        entityManager.persist(detail);
+    }
+
+    private void reservation(Order order, Inventory inventory, int quantity) {
+        InventoryReservation reservation = new InventoryReservation();
+        reservation.setReservationKey(CheckoutService.reservationKey(order.getId()));
+        reservation.setInventory(inventory);
+        reservation.setVariant(inventory.getVariant());
+        reservation.setQuantity(quantity);
+        reservation.setStatus(ReservationStatus.COMMITTED);
+        reservation.setExpiresAt(Instant.now());
+        entityManager.persist(reservation);
+    }
+}
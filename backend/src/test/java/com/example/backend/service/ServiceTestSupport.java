@@ -0,0 +1,144 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.*;
+import com.example.backend.enums.GenderOptions;
+import com.example.backend.enums.ProductStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Khung chung cho test tầng service trên H2. Mỗi lời gọi service tự commit transaction riêng, giống môi
+ * trường chạy thật; mọi bảng được xóa sạch trước mỗi test nên test class chỉ cần tạo dữ liệu của riêng nó.
+ * Các hàm tạo dữ liệu mẫu phải được gọi bên trong {@link #tx}.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class ServiceTestSupport {
+
+    @Autowired
+    protected EntityManager entityManager;
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected TransactionTemplate tx;
+
+    @BeforeEach
+    void resetDatabase() {
+        tx = new TransactionTemplate(transactionManager);
+        // SQL thuần để không bị bộ lọc xóa mềm bỏ sót dòng; tắt khóa ngoại nên không phụ thuộc thứ tự bảng
+        List<String> tables = jdbcTemplate.queryForList("""
+                select table_name from information_schema.tables
+                where table_schema = 'public' and table_type = 'BASE TABLE'
+                """, String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table);
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+
+    protected Role role() {
+        Role role = new Role();
+        role.setName("USER");
+        entityManager.persist(role);
+        return role;
+    }
+
+    protected User user(Role role, String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setGender(GenderOptions.FEMALE);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    protected Brand brand(String name) {
+        Brand brand = new Brand();
+        brand.setName(name);
+        entityManager.persist(brand);
+        return brand;
+    }
+
+    protected Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        entityManager.persist(category);
+        return category;
+    }
+
+    protected Product product(String name, Brand brand, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(category);
+        entityManager.persist(product);
+        return product;
+    }
+
+    // Sản phẩm mẫu "Son lì" của thương hiệu "Glow", danh mục "Son môi"
+    protected Product lipstick() {
+        return product("Son lì", brand("Glow"), category("Son môi"));
+    }
+
+    protected Variants variant(String sku, Product product, long price) {
+        Variants variant = new Variants();
+        variant.setSku(sku);
+        variant.setProduct(product);
+        variant.setPrice(BigDecimal.valueOf(price));
+        variant.setStatus(ProductStatus.AVAILABLE);
+        entityManager.persist(variant);
+        return variant;
+    }
+
+    protected Supplier supplier(String name) {
+        Supplier supplier = new Supplier();
+        supplier.setName(name);
+        entityManager.persist(supplier);
+        return supplier;
+    }
+
+    protected Inventory inventory(Variants variant, Supplier supplier, int onHand, long priceImport, LocalDate exp) {
+        Inventory inventory = new Inventory();
+        inventory.setVariant(variant);
+        inventory.setSupplier(supplier);
+        inventory.setPriceImport(BigDecimal.valueOf(priceImport));
+        inventory.setExp(exp);
+        inventory.setDateOfEntry(LocalDateTime.now());
+        inventory.setOnHand(onHand);
+        entityManager.persist(inventory);
+        return inventory;
+    }
+
+    protected static String email(String prefix) {
+        return prefix + "-" + UUID.randomUUID() + "@glowmart.vn";
+    }
+
+    protected static void assertMoney(long expected, BigDecimal actual) {
+        assertEquals(0, BigDecimal.valueOf(expected).compareTo(actual), () -> expected + " != " + actual);
+    }
+}
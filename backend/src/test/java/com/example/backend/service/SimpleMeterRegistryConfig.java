@@ -0,0 +1,15 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+// @DataJpaTest không dựng MeterRegistry; các service gắn metric cho cache cần một registry trong bộ nhớ
+@TestConfiguration
+class SimpleMeterRegistryConfig {
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
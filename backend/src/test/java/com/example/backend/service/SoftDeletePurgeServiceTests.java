@@ -0,0 +1,112 @@
+package com.example.backend.service;
+
+import com.example.backend.config.SoftDeletePurgeConfig;
+import com.example.backend.entity.*;
+import com.example.backend.repository.VariantsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({SoftDeletePurgeService.class, SoftDeletePurgeConfig.class})
+class SoftDeletePurgeServiceTests extends ServiceTestSupport {
+
+    private static final Instant LONG_AGO = Instant.now().minus(Duration.ofDays(90));
+
+    @Autowired
+    private SoftDeletePurgeService purgeService;
+    @Autowired
+    private SoftDeletePurgeConfig config;
+    @Autowired
+    private VariantsRepository variantsRepository;
+
+    private UUID productId;
+    private final Map<String, UUID> variants = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        variants.clear();
+        config.setBatchSize(2);
+        tx.executeWithoutResult(status -> {
+            Product product = lipstick();
+            productId = product.getId();
+            // live, vừa xóa, 5 dòng xóa lâu rồi (nhiều hơn một chunk)
+            variants.put("live", variant(product, "live", null));
+            variants.put("recent", variant(product, "recent", Instant.now()));
+            for (int i = 0; i < 5; i++) {
+                variants.put("old-" + i, variant(product, "old-" + i, LONG_AGO));
+            }
+        });
+    }
+
+    @Test
+    void queriesSkipSoftDeletedRowsButLoadByKeyStillWorks() {
+        assertEquals(1L, variantsRepository.count());
+        assertEquals(List.of(variants.get("live")),
+                variantsRepository.findAll().stream().map(Variants::getId).toList());
+        long viaJpql = tx.execute(status -> entityManager
+                .createQuery("select count(v) from Variants v where v.product.id = :id", Long.class)
+                .setParameter("id", productId)
+                .getSingleResult());
+        assertEquals(1L, viaJpql);
+
+        // Tham chiếu lịch sử (chi tiết đơn hàng...) vẫn tải được dòng đã xóa mềm theo id
+        Variants recent = tx.execute(status -> entityManager.find(Variants.class, variants.get("recent")));
+        assertNotNull(recent);
+        assertTrue(recent.isDeleted());
+    }
+
+    @Test
+    void purgeRemovesOnlyRowsPastRetentionInChunks() {
+        int purged = purgeService.purge(Instant.now().minus(config.getRetention()));
+
+        assertEquals(5, purged);
+        assertEquals(Set.of(variants.get("live"), variants.get("recent")), rawVariantIds());
+    }
+
+    @Test
+    void purgeKeepsRowsStillReferenced() {
+        UUID referenced = variants.get("old-2");
+        tx.executeWithoutResult(status -> {
+            User user = user(role(), "purge@glowmart.vn");
+            Cart cart = new Cart();
+            cart.setUser(user);
+            entityManager.persist(cart);
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setVariant(entityManager.find(Variants.class, referenced));
+            item.setQuantity(1);
+            entityManager.persist(item);
+        });
+
+        int purged = purgeService.purge(Instant.now().minus(config.getRetention()));
+
+        assertEquals(4, purged);
+        assertEquals(Set.of(variants.get("live"), variants.get("recent"), referenced), rawVariantIds());
+    }
+
+    private UUID variant(Product product, String sku, Instant deletedAt) {
+        Variants variant = variant("PURGE-" + sku, product, 100_000);
+        if (deletedAt != null) {
+            variant.softDelete();
+            variant.setDeletedAt(deletedAt);
+        }
+        return variant.getId();
+    }
+
+    private Set<UUID> rawVariantIds() {
+        return tx.execute(status -> {
+            Set<UUID> ids = new HashSet<>();
+            for (Object id : entityManager.createNativeQuery("select id from variants", UUID.class).getResultList()) {
+                ids.add((UUID) id);
+            }
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.backend.service;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+// Chạy việc nền ngay trên thread gọi để test đọc được kết quả khi lời gọi trả về
+@TestConfiguration
+class SyncTaskExecutorConfig {
+    @Bean("applicationTaskExecutor")
+    TaskExecutor applicationTaskExecutor() {
+        return new SyncTaskExecutor();
+    }
+}
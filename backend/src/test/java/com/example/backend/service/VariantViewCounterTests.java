@@ -0,0 +1,137 @@
+package com.example.backend.service;
+
+import com.example.backend.config.CartConfig;
+import com.example.backend.config.ViewCounterConfig;
+import com.example.backend.dto.TrendingVariantResponse;
+import com.example.backend.entity.Product;
+import com.github.f4b6a3.uuid.codec.BinaryCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import({VariantViewCounter.class, VariantPriceCache.class, ViewCounterConfig.class, CartConfig.class})
+@TestPropertySource(properties = {
+        "catalog.view-counter.flush-batch-size=2",
+        "catalog.view-counter.max-tracked-variants=3"})
+class VariantViewCounterTests extends ServiceTestSupport {
+
+    @Autowired
+    private VariantViewCounter viewCounter;
+
+    private final List<UUID> variantIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Counter là singleton của context: ghi và dọn hết phần còn lại của test trước
+        viewCounter.flush();
+        retireIdleCounters();
+        variantIds.clear();
+        tx.executeWithoutResult(status -> {
+            Product lipstick = lipstick();
+            for (int i = 0; i < 4; i++) {
+                variantIds.add(variant("VIEW-" + i, lipstick, 100_000).getId());
+            }
+        });
+    }
+
+    @Test
+    void flushWritesOnlyNewViewsAcrossBatches() {
+        record(0, 3);
+        record(1, 1);
+        record(2, 2);
+
+        viewCounter.flush();
+        // Ba biến thể với lô 2 dòng: cần hai lần batchUpdate
+        assertEquals(List.of(3, 1, 2), views(0, 1, 2));
+
+        record(0, 1);
+        viewCounter.flush();
+        viewCounter.flush();
+        assertEquals(List.of(4, 1, 2), views(0, 1, 2));
+    }
+
+    @Test
+    void unknownVariantsAreDroppedAndDistinctIdsAreCapped() {
+        assertFalse(viewCounter.record(UUID.randomUUID()));
+        record(0, 1);
+        record(1, 1);
+        record(2, 1);
+        // Đã đủ 3 id: biến thể thứ tư tồn tại nhưng lượt xem bị bỏ qua
+        assertTrue(viewCounter.record(variantIds.get(3)));
+
+        viewCounter.flush();
+        assertEquals(List.of(1, 1, 1, 0), views(0, 1, 2, 3));
+        assertEquals(3, viewCounter.trending(10).size());
+    }
+
+    @Test
+    void retiredCounterIsRecreatedWithoutLosingViews() {
+        record(0, 2);
+        viewCounter.flush();
+        retireIdleCounters();
+        // Counter đã bị dọn nên không còn trong trending và nhường chỗ cho id khác
+        assertTrue(viewCounter.trending(10).isEmpty());
+
+        record(0, 1);
+        viewCounter.flush();
+        assertEquals(List.of(3), views(0));
+        TrendingVariantResponse trending = viewCounter.trending(10).getFirst();
+        assertEquals(1, trending.recentViews());
+        assertEquals(3, trending.totalViews());
+    }
+
+    @Test
+    void viewsRecordedWhileCountersAreRetiredAreNotLost() {
+        int total = 20_000;
+        CompletableFuture<Void> viewer = CompletableFuture.runAsync(() -> record(0, total));
+        while (!viewer.isDone()) {
+            viewCounter.flush();
+            viewCounter.rotateTrendingWindow();
+        }
+        viewer.join();
+        viewCounter.flush();
+
+        // Lượt xem rơi vào counter vừa bị dọn được ghi lại vào counter mới; có thể dư nhưng không được thiếu
+        assertTrue(views(0).getFirst() >= total, () -> views(0) + " < " + total);
+    }
+
+    @Test
+    void shutdownFlushesPendingViews() {
+        record(1, 5);
+
+        viewCounter.flushOnShutdown();
+
+        assertEquals(List.of(5), views(1));
+    }
+
+    // Counter đã ghi hết bị dọn khi qua trọn một cửa sổ trending không có lượt xem mới
+    private void retireIdleCounters() {
+        for (int i = 0; i < 3; i++) {
+            viewCounter.rotateTrendingWindow();
+        }
+    }
+
+    private void record(int variant, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(viewCounter.record(variantIds.get(variant)));
+        }
+    }
+
+    private List<Integer> views(int... variants) {
+        List<Integer> result = new ArrayList<>();
+        for (int variant : variants) {
+            result.add(jdbcTemplate.queryForObject("select view from variants where id = ?", Integer.class,
+                    BinaryCodec.INSTANCE.encode(variantIds.get(variant))));
+        }
+        return result;
+    }
+}